@@ -1,12 +1,29 @@
 package me.jlime.holyadmins.client;
 
+import me.jlime.holyadmins.client.config.ClientSettings;
+import me.jlime.holyadmins.client.gui.utils.RoundedRectShader;
+import me.jlime.holyadmins.client.gui.utils.TextCache;
+import me.jlime.holyadmins.client.network.PanelClient;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.rendering.v1.CoreShaderRegistrationCallback;
 
 public class HolyadminsClient implements ClientModInitializer {
 
     @Override
     public void onInitializeClient() {
+        // Client settings (cache budget and lifetime)
+        ClientSettings.get().load();
+        
         // Register key bindings
         KeyBindingHandler.register();
+        
+        // Register core shaders
+        CoreShaderRegistrationCallback.EVENT.register(RoundedRectShader::register);
+        
+        // Clear cached text on resource and language reload
+        TextCache.registerReloadListener();
+        
+        // Admin panel protocol
+        PanelClient.register();
     }
 }
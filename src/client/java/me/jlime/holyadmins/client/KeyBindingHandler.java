@@ -3,6 +3,7 @@ package me.jlime.holyadmins.client;
 import me.jlime.holyadmins.client.gui.HolyAdminsScreen;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
@@ -11,6 +12,8 @@ import org.lwjgl.glfw.GLFW;
 public class KeyBindingHandler {
     private static KeyBinding openGuiKey;
     private static boolean wasPressed = false;
+    // Экран переиспользуется между открытиями, чтобы не пересоздавать компоненты и их состояние
+    private static HolyAdminsScreen screen;
     
     public static void register() {
         // Register the keybinding for Left Ctrl
@@ -28,12 +31,36 @@ public class KeyBindingHandler {
             boolean isPressed = openGuiKey.isPressed();
             
             // Check if key was just pressed (not held)
-            if (isPressed && !wasPressed) {
+            if (isPressed && !wasPressed && client.currentScreen != screen) {
                 // Open the GUI
-                MinecraftClient.getInstance().setScreen(new HolyAdminsScreen());
+                MinecraftClient.getInstance().setScreen(getScreen());
             }
             
             wasPressed = isPressed;
         });
+        
+        // A new server starts with a fresh panel state
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(KeyBindingHandler::discardScreen));
+    }
+    
+    /**
+     * Returns the pooled admin screen, creating it on first use
+     */
+    private static HolyAdminsScreen getScreen() {
+        if (screen == null) {
+            screen = new HolyAdminsScreen();
+        }
+        return screen;
+    }
+    
+    private static void discardScreen() {
+        if (screen == null) return;
+        
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.currentScreen == screen) {
+            client.setScreen(null);
+        }
+        screen.release();
+        screen = null;
     }
 }
\ No newline at end of file
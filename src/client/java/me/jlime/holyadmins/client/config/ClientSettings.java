@@ -0,0 +1,137 @@
+package me.jlime.holyadmins.client.config;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.network.PanelSection;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Клиентские настройки (config/holyadmins-client.properties)
+ * Файл создается со значениями по умолчанию при первом запуске
+ */
+public final class ClientSettings {
+    private static final String FILE_NAME = "holyadmins-client.properties";
+    private static final ClientSettings INSTANCE = new ClientSettings();
+
+    private final Map<PanelSection, Integer> cacheTtlSeconds = new EnumMap<>(PanelSection.class);
+    private int cacheBudgetMb = 8;
+    private boolean debugOverlay;
+
+    private ClientSettings() {
+        // Разделы без дельт по изменению данных (игроки) устаревают быстрее
+        cacheTtlSeconds.put(PanelSection.PLAYERS, 15);
+        cacheTtlSeconds.put(PanelSection.BANS, 300);
+        cacheTtlSeconds.put(PanelSection.KICKS, 300);
+        cacheTtlSeconds.put(PanelSection.MUTES, 300);
+        cacheTtlSeconds.put(PanelSection.WARNS, 300);
+        cacheTtlSeconds.put(PanelSection.REPORTS, 60);
+        cacheTtlSeconds.put(PanelSection.LOGS, 60);
+        cacheTtlSeconds.put(PanelSection.SEARCH, 30);
+        cacheTtlSeconds.put(PanelSection.MESSAGES, 60);
+        cacheTtlSeconds.put(PanelSection.ALTS, 30);
+    }
+
+    public static ClientSettings get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Загружает настройки с диска и дописывает отсутствующие значения
+     */
+    public void load() {
+        Path path = getPath();
+        Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                Holyadmins.LOGGER.warn("Failed to read {}, using defaults", FILE_NAME, e);
+            }
+        }
+
+        cacheBudgetMb = readInt(properties, "cache.budgetMb", cacheBudgetMb, 1, 512);
+        String overlay = properties.getProperty("debug.overlay");
+        debugOverlay = overlay != null ? Boolean.parseBoolean(overlay.trim()) : debugOverlay;
+        for (PanelSection section : PanelSection.values()) {
+            String key = "cache.ttl." + section.getId();
+            cacheTtlSeconds.put(section, readInt(properties, key, cacheTtlSeconds.get(section), 1, 86400));
+        }
+
+        save();
+    }
+
+    /**
+     * Сохраняет текущие настройки
+     */
+    public void save() {
+        Properties properties = new Properties();
+        properties.setProperty("cache.budgetMb", Integer.toString(cacheBudgetMb));
+        properties.setProperty("debug.overlay", Boolean.toString(debugOverlay));
+        for (Map.Entry<PanelSection, Integer> entry : cacheTtlSeconds.entrySet()) {
+            properties.setProperty("cache.ttl." + entry.getKey().getId(), Integer.toString(entry.getValue()));
+        }
+
+        Path path = getPath();
+        try {
+            Files.createDirectories(path.getParent());
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Holy Admins client settings");
+            }
+        } catch (IOException e) {
+            Holyadmins.LOGGER.warn("Failed to save {}", FILE_NAME, e);
+        }
+    }
+
+    /**
+     * Бюджет памяти кэша разделов в байтах
+     */
+    public long getCacheBudgetBytes() {
+        return cacheBudgetMb * 1024L * 1024L;
+    }
+
+    /**
+     * Время, после которого данные раздела обновляются в фоне (мс)
+     */
+    public long getCacheTtlMillis(PanelSection section) {
+        return cacheTtlSeconds.get(section) * 1000L;
+    }
+
+    /**
+     * Показывать ли поверх панели время отрисовки и выделения памяти
+     */
+    public boolean isDebugOverlay() {
+        return debugOverlay;
+    }
+
+    /**
+     * Включает или выключает отладочный оверлей и сохраняет настройки
+     */
+    public void setDebugOverlay(boolean debugOverlay) {
+        this.debugOverlay = debugOverlay;
+        save();
+    }
+
+    private static int readInt(Properties properties, String key, int fallback, int min, int max) {
+        String value = properties.getProperty(key);
+        if (value == null) return fallback;
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            Holyadmins.LOGGER.warn("Invalid value '{}' for {} in {}", value, key, FILE_NAME);
+            return fallback;
+        }
+    }
+
+    private static Path getPath() {
+        return FabricLoader.getInstance().getConfigDir().resolve(FILE_NAME);
+    }
+}
@@ -0,0 +1,55 @@
+package me.jlime.holyadmins.client.gui;
+
+import me.jlime.holyadmins.client.gui.components.ContentManager;
+import me.jlime.holyadmins.client.gui.components.SidebarManager;
+import me.jlime.holyadmins.client.gui.utils.FrameProfiler;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+
+/**
+ * Содержимое экрана Holy Admins: фон, боковая панель и контент
+ * Не зависит от Screen, поэтому кадр можно нарисовать на любой UiCanvas,
+ * в том числе записать в RecordingCanvas без окна игры
+ */
+public class AdminPanel {
+    private static final int SIDEBAR_SCOPE = FrameProfiler.scope("sidebar");
+    private static final int CONTENT_SCOPE = FrameProfiler.scope("content");
+    
+    private final SidebarManager sidebarManager;
+    private final ContentManager contentManager;
+    
+    public AdminPanel() {
+        this.sidebarManager = new SidebarManager();
+        this.contentManager = new ContentManager();
+        
+        // Кнопки боковой панели создаются один раз на весь срок жизни панели
+        sidebarManager.setOnButtonSelected(contentManager::setCurrentSection);
+        sidebarManager.initializeDefaultButtons();
+    }
+    
+    /**
+     * Отрисовывает панель на весь экран
+     */
+    public void render(UiCanvas canvas, int width, int height, int mouseX, int mouseY) {
+        // Фон экрана
+        canvas.fill(0, 0, width, height, UIConstants.BACKGROUND_COLOR);
+        
+        // Отрисовка боковой панели
+        FrameProfiler.begin(SIDEBAR_SCOPE);
+        sidebarManager.render(canvas, height, mouseX, mouseY);
+        FrameProfiler.end(SIDEBAR_SCOPE);
+        
+        // Отрисовка основного контента
+        FrameProfiler.begin(CONTENT_SCOPE);
+        contentManager.render(canvas, width, height, mouseX, mouseY);
+        FrameProfiler.end(CONTENT_SCOPE);
+    }
+    
+    public SidebarManager getSidebar() {
+        return sidebarManager;
+    }
+    
+    public ContentManager getContent() {
+        return contentManager;
+    }
+}
@@ -1,51 +1,115 @@
 package me.jlime.holyadmins.client.gui;
 
+import me.jlime.holyadmins.client.config.ClientSettings;
 import me.jlime.holyadmins.client.gui.components.SidebarManager;
 import me.jlime.holyadmins.client.gui.components.ContentManager;
+import me.jlime.holyadmins.client.gui.utils.DrawContextCanvas;
+import me.jlime.holyadmins.client.gui.utils.FrameProfiler;
+import me.jlime.holyadmins.client.gui.utils.GeometryBatcher;
 import me.jlime.holyadmins.client.gui.utils.UIConstants;
-import me.jlime.holyadmins.client.gui.utils.RenderUtils;
+import me.jlime.holyadmins.client.network.PanelClient;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.text.Text;
 
+import java.util.Locale;
+
 /**
  * Главный экран Holy Admins с современным UI
  * Оптимизированная версия с разделением на компоненты
+ *
+ * Экземпляр создается один раз и переиспользуется (KeyBindingHandler): кнопки, выбранный раздел,
+ * прокрутка и кэши раскладки сохраняются между открытиями. init() вызывается при каждом открытии
+ * и изменении размера окна и только пересчитывает раскладку. Содержимое рисует AdminPanel через DrawContextCanvas
  */
 public class HolyAdminsScreen extends Screen {
+    private static final int OVERLAY_LINE_HEIGHT = 10;
+    
+    private final AdminPanel panel;
     private final SidebarManager sidebarManager;
     private final ContentManager contentManager;
+    private final DrawContextCanvas canvas = new DrawContextCanvas();
+    private boolean opened;
     
     public HolyAdminsScreen() {
         super(Text.literal("Holy Admins"));
-        this.sidebarManager = new SidebarManager();
-        this.contentManager = new ContentManager();
+        this.panel = new AdminPanel();
+        this.sidebarManager = panel.getSidebar();
+        this.contentManager = panel.getContent();
     }
     
     @Override
     protected void init() {
         super.init();
         
-        // Инициализируем кнопки боковой панели
-        sidebarManager.initializeDefaultButtons();
-        sidebarManager.setOnButtonSelected(contentManager::setCurrentSection);
-        
         // Обновляем максимальную прокрутку для текущего размера экрана
         sidebarManager.updateMaxScroll(this.height);
+        
+        // Подписка действует, пока панель открыта; загруженные таблицы остаются в кэше
+        // и после закрытия, поэтому при следующем открытии показываются сразу и обновляются в фоне
+        PanelClient.getInstance().subscribe();
+        
+        // Изменение размера окна тоже вызывает init(), раздел обновляется только при открытии
+        if (!opened) {
+            opened = true;
+            contentManager.onScreenOpened();
+        }
     }
     
     @Override
     public void render(DrawContext context, int mouseX, int mouseY, float delta) {
-        // Фон экрана
-        context.fill(0, 0, this.width, this.height, UIConstants.BACKGROUND_COLOR);
-        
-        // Отрисовка боковой панели
-        sidebarManager.render(context, this.textRenderer, this.height, mouseX, mouseY);
+        FrameProfiler.setEnabled(ClientSettings.get().isDebugOverlay());
+        FrameProfiler.beginFrame();
         
-        // Отрисовка основного контента
-        contentManager.render(context, this.textRenderer, this.width, this.height, mouseX, mouseY);
+        // Вся геометрия кадра собирается в пакет
+        GeometryBatcher.begin();
+        panel.render(canvas.set(context, this.textRenderer), this.width, this.height, mouseX, mouseY);
+        GeometryBatcher.end(context);
         
         super.render(context, mouseX, mouseY, delta);
+        FrameProfiler.endFrame();
+        
+        // Оверлей рисуется после замеров и в них не входит
+        if (FrameProfiler.isEnabled()) {
+            renderProfilerOverlay(context);
+        } else if (GeometryBatcher.isDebugEnabled()) {
+            renderDrawCallCounter(context);
+        }
+    }
+    
+    /**
+     * Отладочный оверлей: время отрисовки областей панели (p50/p99), память, вызовы отрисовки и новые Text
+     */
+    private void renderProfilerOverlay(DrawContext context) {
+        FrameProfiler.Stats[] stats = FrameProfiler.getStats();
+        if (stats.length == 0) return;
+        
+        int width = 0;
+        String[] lines = new String[stats.length];
+        for (int i = 0; i < stats.length; i++) {
+            FrameProfiler.Stats item = stats[i];
+            lines[i] = String.format(Locale.ROOT, "%s: p50 %.2f мс  p99 %.2f мс  %d Б  dc %.1f  text %.1f",
+                    item.name(), item.p50Ms(), item.p99Ms(), item.bytes(), item.drawCalls(), item.texts());
+            width = Math.max(width, this.textRenderer.getWidth(lines[i]));
+        }
+        int x = this.width - width - UIConstants.PADDING_SMALL * 2;
+        int y = UIConstants.PADDING_SMALL;
+        context.fill(x - UIConstants.PADDING_SMALL, y - 2, this.width - UIConstants.PADDING_SMALL,
+                y + lines.length * OVERLAY_LINE_HEIGHT + 2, UIConstants.SHADOW_COLOR);
+        for (String line : lines) {
+            context.drawText(this.textRenderer, line, x, y, UIConstants.TEXT_COLOR, true);
+            y += OVERLAY_LINE_HEIGHT;
+        }
+    }
+    
+    /**
+     * Отладочный счетчик вызовов отрисовки за предыдущий кадр
+     */
+    private void renderDrawCallCounter(DrawContext context) {
+        String counter = "draw calls: " + GeometryBatcher.getLastFrameDrawCalls()
+                + " | quads: " + GeometryBatcher.getLastFrameQuads();
+        int counterX = this.width - this.textRenderer.getWidth(counter) - UIConstants.PADDING_SMALL;
+        context.drawText(this.textRenderer, counter, counterX, UIConstants.PADDING_SMALL, UIConstants.TEXT_SECONDARY, true);
     }
     
     @Override
@@ -70,6 +134,11 @@ public class HolyAdminsScreen extends Screen {
             return true;
         }
         
+        // Обработка прокрутки в основном контенте
+        if (contentManager.handleMouseScroll(mouseX, mouseY, amount, this.width, this.height)) {
+            return true;
+        }
+        
         return super.mouseScrolled(mouseX, mouseY, amount);
     }
     
@@ -81,9 +150,23 @@ public class HolyAdminsScreen extends Screen {
             return true;
         }
         
+        // Поля ввода текущего раздела
+        if (contentManager.handleKeyPress(keyCode, scanCode, modifiers)) {
+            return true;
+        }
+        
         return super.keyPressed(keyCode, scanCode, modifiers);
     }
     
+    @Override
+    public boolean charTyped(char chr, int modifiers) {
+        if (contentManager.handleCharTyped(chr, modifiers)) {
+            return true;
+        }
+        
+        return super.charTyped(chr, modifiers);
+    }
+    
     @Override
     public boolean shouldPause() {
         return false; // Don't pause the game
@@ -93,4 +176,20 @@ public class HolyAdminsScreen extends Screen {
     public void close() {
         super.close();
     }
+    
+    @Override
+    public void removed() {
+        // Внеэкранный буфер боковой панели сохраняется до следующего открытия
+        opened = false;
+        // Закрытая панель не получает дельты; метрики и нагрузка отписываются вместе с ней
+        PanelClient.getInstance().unsubscribe();
+        super.removed();
+    }
+    
+    /**
+     * Освобождает ресурсы экрана, когда он больше не будет открываться (отключение от сервера)
+     */
+    public void release() {
+        sidebarManager.release();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,382 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.RenderUtils;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import me.jlime.holyadmins.client.network.PanelClient;
+import me.jlime.holyadmins.metrics.LagSpike;
+import me.jlime.holyadmins.metrics.MetricsCollector;
+import me.jlime.holyadmins.metrics.MetricsResolution;
+import me.jlime.holyadmins.metrics.MetricsSnapshot;
+import me.jlime.holyadmins.metrics.MsptHistogram;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Раздел аналитики: графики метрик сервера, распределение MSPT и последние задержки
+ * Ряды приходят с сервера целиком после каждой новой точки; подписи пересчитываются только
+ * при получении новых рядов, графики сжимаются до ширины карточки (максимум по столбцу пикселей)
+ */
+public class AnalyticsRenderer implements ContentManager.ContentRenderer {
+    private static final int TAB_WIDTH = 60;
+    private static final int TAB_HEIGHT = 16;
+    private static final int CARD_HEIGHT = 56;
+    private static final int CARD_TITLE_HEIGHT = 14;
+    private static final int LINE_HEIGHT = 11;
+    private static final float TARGET_MSPT = 50.0f;
+    private static final int WARNING_COLOR = 0xFFef4444;
+    private static final int MARKER_COLOR = 0xFFf59e0b;
+    private static final int BAR_COLOR = 0xAA6366f1;
+    private static final String[] TAB_TITLES = {"1 сек", "1 мин", "1 час"};
+
+    private final Chart[] charts = {
+        new Chart(MetricsCollector.MSPT, "MSPT", TARGET_MSPT, " мс"),
+        new Chart(MetricsCollector.TPS, "TPS", 20.0f, ""),
+        new Chart(MetricsCollector.PLAYERS, "Игроки", 1.0f, ""),
+        new Chart(MetricsCollector.ENTITIES, "Сущности", 1.0f, ""),
+        new Chart(MetricsCollector.CHUNKS, "Чанки", 1.0f, ""),
+        new Chart(MetricsCollector.PUNISHMENTS, "Наказания", 1.0f, "")
+    };
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("dd.MM HH:mm:ss");
+    // Столбцы графика, переиспользуются между карточками
+    private float[] columns = new float[0];
+
+    private MetricsResolution resolution = MetricsResolution.SECOND;
+    private MetricsSnapshot snapshot;
+    private int seenVersion = -1;
+    private String summaryText = "";
+    private String histogramTitle = "";
+    private String histogramRange = "";
+    private int histogramBuckets;
+    private int histogramMax;
+    private final List<String> dimensionLines = new ArrayList<>();
+    private final List<String> spikeLines = new ArrayList<>();
+    private final List<Boolean> spikeHeaders = new ArrayList<>();
+
+    @Override
+    public void onShow() {
+        PanelClient.getInstance().showMetrics(resolution);
+    }
+
+    @Override
+    public void onHide() {
+        PanelClient.getInstance().hideMetrics();
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        PanelClient client = PanelClient.getInstance();
+        String status = PanelTableRenderer.statusText(client.getStatus());
+        if (status != null) {
+            canvas.textBatch(() ->
+                canvas.text(status, x, y, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+
+        // Доступ мог подтвердиться уже после открытия раздела
+        client.showMetrics(resolution);
+        renderTabs(canvas, x, y, mouseX, mouseY);
+
+        MetricsSnapshot snapshot = client.getMetrics();
+        if (snapshot == null || snapshot.resolution() != resolution) {
+            canvas.textBatch(() ->
+                canvas.text("Загрузка...", x, y + TAB_HEIGHT + UIConstants.PADDING_MEDIUM,
+                        UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+        if (snapshot != this.snapshot || client.getMetricsVersion() != seenVersion) {
+            this.snapshot = snapshot;
+            seenVersion = client.getMetricsVersion();
+            updateLabels(snapshot);
+        }
+
+        int summaryY = y + TAB_HEIGHT + UIConstants.PADDING_SMALL;
+        canvas.textBatch(() ->
+            canvas.text(summaryText, x, summaryY, UIConstants.TEXT_COLOR, false));
+
+        // Карточки графиков в две колонки
+        int gap = UIConstants.PADDING_SMALL;
+        int cardWidth = (width - gap) / 2;
+        int cardsY = summaryY + LINE_HEIGHT + gap;
+        for (int i = 0; i < charts.length; i++) {
+            int cardX = x + (i % 2) * (cardWidth + gap);
+            int cardY = cardsY + (i / 2) * (CARD_HEIGHT + gap);
+            renderChart(canvas, charts[i], cardX, cardY, cardWidth, CARD_HEIGHT);
+        }
+
+        int bottomY = cardsY + (charts.length + 1) / 2 * (CARD_HEIGHT + gap);
+        int bottomHeight = y + height - bottomY;
+        if (bottomHeight < CARD_HEIGHT) return;
+        renderHistogram(canvas, x, bottomY, cardWidth, bottomHeight);
+        renderSpikes(canvas, x + cardWidth + gap, bottomY, cardWidth, bottomHeight);
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (button != 0 || mouseY < 0 || mouseY >= TAB_HEIGHT) return false;
+
+        int tab = (int) (mouseX / (TAB_WIDTH + UIConstants.PADDING_SMALL));
+        if (mouseX < 0 || tab >= TAB_TITLES.length) return false;
+        MetricsResolution selected = MetricsResolution.byCode(tab);
+        if (selected != resolution) {
+            PanelClient client = PanelClient.getInstance();
+            client.hideMetrics();
+            resolution = selected;
+            client.showMetrics(resolution);
+        }
+        return true;
+    }
+
+    private void renderTabs(UiCanvas canvas, int x, int y, int mouseX, int mouseY) {
+        for (int i = 0; i < TAB_TITLES.length; i++) {
+            int tabX = x + i * (TAB_WIDTH + UIConstants.PADDING_SMALL);
+            int color = i == resolution.getCode() ? UIConstants.BUTTON_SELECTED_COLOR
+                    : RenderUtils.isPointInRect(mouseX, mouseY, tabX, y, TAB_WIDTH, TAB_HEIGHT)
+                    ? UIConstants.BUTTON_HOVER_COLOR : UIConstants.BUTTON_COLOR;
+            canvas.roundedRect(tabX, y, TAB_WIDTH, TAB_HEIGHT, UIConstants.BUTTON_RADIUS, color);
+        }
+        canvas.textBatch(() -> {
+            for (int i = 0; i < TAB_TITLES.length; i++) {
+                int tabX = x + i * (TAB_WIDTH + UIConstants.PADDING_SMALL);
+                int textX = tabX + (TAB_WIDTH - canvas.textWidth(TAB_TITLES[i])) / 2;
+                canvas.text(TAB_TITLES[i], textX,
+                        y + (TAB_HEIGHT - canvas.fontHeight()) / 2 + 1, UIConstants.TEXT_WHITE, false);
+            }
+        });
+    }
+
+    /**
+     * Карточка с графиком ряда; у MSPT столбцы выше 50 мс красные, линия - p95 последней точки
+     */
+    private void renderChart(UiCanvas canvas, Chart chart, int x, int y, int width, int height) {
+        canvas.roundedRect(x, y, width, height, UIConstants.BUTTON_RADIUS, UIConstants.LIST_ROW_COLOR);
+        canvas.textBatch(() -> {
+            canvas.text(chart.title, x + UIConstants.PADDING_SMALL, y + 3,
+                    UIConstants.TEXT_SECONDARY, false);
+            canvas.text(chart.valueText,
+                    x + width - UIConstants.PADDING_SMALL - canvas.textWidth(chart.valueText), y + 3,
+                    UIConstants.TEXT_COLOR, false);
+        });
+
+        MetricsSnapshot.Series series = snapshot.get(chart.seriesId);
+        if (series == null || series.values().length == 0) return;
+
+        int plotX = x + UIConstants.PADDING_SMALL;
+        int plotY = y + CARD_TITLE_HEIGHT;
+        int plotWidth = width - UIConstants.PADDING_SMALL * 2;
+        int plotHeight = height - CARD_TITLE_HEIGHT - 4;
+        int count = downsample(series.values(), plotWidth);
+        // Точки прижаты к правому краю: новые значения справа
+        int offset = plotWidth - count;
+        float scale = plotHeight / chart.scale;
+        boolean mspt = chart.seriesId.equals(MetricsCollector.MSPT);
+        int bottom = plotY + plotHeight;
+        for (int i = 0; i < count; i++) {
+            int barHeight = Math.min(plotHeight, Math.round(columns[i] * scale));
+            if (barHeight <= 0) continue;
+            int color = mspt && columns[i] > TARGET_MSPT ? WARNING_COLOR : BAR_COLOR;
+            canvas.fill(plotX + offset + i, bottom - barHeight, plotX + offset + i + 1, bottom, color);
+        }
+        canvas.fill(plotX, bottom, plotX + plotWidth, bottom + 1, UIConstants.BORDER_COLOR);
+
+        if (mspt && chart.marker > 0.0f) {
+            int markerY = bottom - Math.min(plotHeight, Math.round(chart.marker * scale));
+            canvas.fill(plotX, markerY, plotX + plotWidth, markerY + 1, MARKER_COLOR);
+        }
+    }
+
+    /**
+     * Распределение длительностей тиков за последние 5 минут
+     */
+    private void renderHistogram(UiCanvas canvas, int x, int y, int width, int height) {
+        canvas.roundedRect(x, y, width, height, UIConstants.BUTTON_RADIUS, UIConstants.LIST_ROW_COLOR);
+
+        int linesHeight = dimensionLines.size() * LINE_HEIGHT;
+        int plotX = x + UIConstants.PADDING_SMALL;
+        int plotY = y + CARD_TITLE_HEIGHT;
+        int plotWidth = width - UIConstants.PADDING_SMALL * 2;
+        int plotHeight = Math.max(CARD_HEIGHT - CARD_TITLE_HEIGHT - 4,
+                height - CARD_TITLE_HEIGHT - LINE_HEIGHT - linesHeight - UIConstants.PADDING_SMALL * 2);
+        int bottom = plotY + plotHeight;
+
+        if (histogramMax > 0) {
+            // Корень из числа тиков: редкие долгие тики остаются видны рядом с основной массой
+            double scale = plotHeight / Math.sqrt(histogramMax);
+            int[] histogram = snapshot.histogram();
+            for (int bucket = 0; bucket < histogramBuckets; bucket++) {
+                int barHeight = (int) Math.round(Math.sqrt(histogram[bucket]) * scale);
+                if (barHeight <= 0) continue;
+                int left = plotX + bucket * plotWidth / histogramBuckets;
+                int right = Math.max(left + 1, plotX + (bucket + 1) * plotWidth / histogramBuckets);
+                int color = MsptHistogram.upperBoundMs(bucket) > TARGET_MSPT ? WARNING_COLOR : BAR_COLOR;
+                canvas.fill(left, bottom - barHeight, right, bottom, color);
+            }
+        }
+        canvas.fill(plotX, bottom, plotX + plotWidth, bottom + 1, UIConstants.BORDER_COLOR);
+
+        canvas.textBatch(() -> {
+            canvas.text(histogramTitle, plotX, y + 3, UIConstants.TEXT_SECONDARY, false);
+            canvas.text("0", plotX, bottom + 3, UIConstants.TEXT_SECONDARY, false);
+            canvas.text(histogramRange,
+                    plotX + plotWidth - canvas.textWidth(histogramRange), bottom + 3,
+                    UIConstants.TEXT_SECONDARY, false);
+
+            int lineY = bottom + 3 + LINE_HEIGHT;
+            for (String line : dimensionLines) {
+                if (lineY + LINE_HEIGHT > y + height) break;
+                canvas.text(line, plotX, lineY, UIConstants.TEXT_COLOR, false);
+                lineY += LINE_HEIGHT;
+            }
+        });
+    }
+
+    /**
+     * Последние задержки и игроки, рядом с которыми больше всего сущностей
+     */
+    private void renderSpikes(UiCanvas canvas, int x, int y, int width, int height) {
+        canvas.roundedRect(x, y, width, height, UIConstants.BUTTON_RADIUS, UIConstants.LIST_ROW_COLOR);
+        canvas.textBatch(() -> {
+            int textX = x + UIConstants.PADDING_SMALL;
+            canvas.text("Задержки", textX, y + 3, UIConstants.TEXT_SECONDARY, false);
+            if (spikeLines.isEmpty()) {
+                canvas.text("Задержек не было", textX, y + CARD_TITLE_HEIGHT,
+                        UIConstants.TEXT_SECONDARY, false);
+                return;
+            }
+
+            int lineY = y + CARD_TITLE_HEIGHT;
+            for (int i = 0; i < spikeLines.size() && lineY + LINE_HEIGHT <= y + height; i++) {
+                boolean header = spikeHeaders.get(i);
+                canvas.text(spikeLines.get(i), header ? textX : textX + 8, lineY,
+                        header ? WARNING_COLOR : UIConstants.TEXT_COLOR, false);
+                lineY += LINE_HEIGHT;
+            }
+        });
+    }
+
+    /**
+     * Сжимает ряд до ширины в пикселях: максимум значений, попавших в столбец
+     * @return количество столбцов
+     */
+    private int downsample(float[] values, int width) {
+        int count = Math.min(values.length, Math.max(1, width));
+        if (columns.length < count) {
+            columns = new float[Math.max(count, 256)];
+        }
+        for (int i = 0; i < count; i++) {
+            int from = (int) ((long) i * values.length / count);
+            int to = (int) ((long) (i + 1) * values.length / count);
+            float max = 0.0f;
+            for (int j = from; j < to; j++) {
+                max = Math.max(max, values[j]);
+            }
+            columns[i] = max;
+        }
+        return count;
+    }
+
+    /**
+     * Пересчитывает подписи и масштабы при получении новых рядов
+     */
+    private void updateLabels(MetricsSnapshot snapshot) {
+        for (Chart chart : charts) {
+            MetricsSnapshot.Series series = snapshot.get(chart.seriesId);
+            float last = series != null ? series.last() : 0.0f;
+            float max = 0.0f;
+            if (series != null) {
+                for (float value : series.values()) {
+                    max = Math.max(max, value);
+                }
+            }
+            chart.scale = Math.max(chart.minScale, max);
+            chart.valueText = format(last) + chart.unit;
+        }
+
+        MetricsSnapshot.Series p95 = snapshot.get(MetricsCollector.MSPT_P95);
+        charts[0].marker = p95 != null ? p95.last() : 0.0f;
+        summaryText = "MSPT " + format(value(snapshot, MetricsCollector.MSPT))
+                + " мс (макс. " + format(value(snapshot, MetricsCollector.MSPT_MAX))
+                + ", p50 " + format(value(snapshot, MetricsCollector.MSPT_P50))
+                + ", p95 " + format(value(snapshot, MetricsCollector.MSPT_P95))
+                + ", p99 " + format(value(snapshot, MetricsCollector.MSPT_P99)) + ")"
+                + "   TPS " + format(value(snapshot, MetricsCollector.TPS));
+
+        // Гистограмма до последней непустой корзины, но не уже 50 мс
+        int[] histogram = snapshot.histogram();
+        long total = 0;
+        histogramBuckets = MsptHistogram.bucketOf(TARGET_MSPT) + 1;
+        histogramMax = 0;
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            total += histogram[bucket];
+            if (histogram[bucket] > 0) {
+                histogramBuckets = Math.max(histogramBuckets, bucket + 1);
+                histogramMax = Math.max(histogramMax, histogram[bucket]);
+            }
+        }
+        histogramTitle = "Распределение MSPT (5 мин, тиков: " + total + ")";
+        histogramRange = format(MsptHistogram.upperBoundMs(histogramBuckets - 1)) + " мс";
+
+        dimensionLines.clear();
+        for (MetricsSnapshot.Series series : snapshot.series()) {
+            if (!series.id().startsWith(MetricsCollector.ENTITIES + "/")) continue;
+            String dimension = series.id().substring(MetricsCollector.ENTITIES.length() + 1);
+            float chunks = value(snapshot, MetricsCollector.CHUNKS + "/" + dimension);
+            dimensionLines.add(shortDimension(dimension) + ": сущностей " + (int) series.last()
+                    + ", чанков " + (int) chunks);
+        }
+
+        spikeLines.clear();
+        spikeHeaders.clear();
+        for (LagSpike spike : snapshot.spikes()) {
+            spikeLines.add(timeFormat.format(new Date(spike.time())) + "  " + format(spike.mspt()) + " мс, игроков "
+                    + spike.players());
+            spikeHeaders.add(true);
+            for (LagSpike.Suspect suspect : spike.suspects()) {
+                spikeLines.add(suspect.name() + " (" + shortDimension(suspect.dimension()) + "): "
+                        + suspect.nearbyEntities() + " сущностей рядом" + (suspect.joinedRecently() ? ", только вошел" : ""));
+                spikeHeaders.add(false);
+            }
+        }
+    }
+
+    private static float value(MetricsSnapshot snapshot, String id) {
+        MetricsSnapshot.Series series = snapshot.get(id);
+        return series != null ? series.last() : 0.0f;
+    }
+
+    private static String shortDimension(String dimension) {
+        return dimension.startsWith("minecraft:") ? dimension.substring("minecraft:".length()) : dimension;
+    }
+
+    private static String format(float value) {
+        return value >= 100.0f || value == Math.rint(value)
+                ? Integer.toString(Math.round(value))
+                : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    /**
+     * Карточка графика; подпись и масштаб обновляются вместе с рядами
+     */
+    private static final class Chart {
+        final String seriesId;
+        final String title;
+        // Наименьший масштаб по высоте, чтобы ровный ряд не растягивался на всю карточку
+        final float minScale;
+        final String unit;
+        float scale;
+        float marker;
+        String valueText = "";
+
+        Chart(String seriesId, String title, float minScale, String unit) {
+            this.seriesId = seriesId;
+            this.title = title;
+            this.minScale = minScale;
+            this.unit = unit;
+            this.scale = minScale;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.RenderUtils;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import me.jlime.holyadmins.client.network.PanelClient;
+import me.jlime.holyadmins.moderation.BulkActionPipeline;
+import me.jlime.holyadmins.moderation.BulkProgress;
+import me.jlime.holyadmins.moderation.PunishmentType;
+import me.jlime.holyadmins.network.PanelSection;
+import me.jlime.holyadmins.network.packet.PanelBulkC2SPacket;
+import net.minecraft.SharedConstants;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таблица раздела с массовыми действиями: строки выбираются с Ctrl и Shift, действие применяется
+ * ко всем выбранным игрокам сразу (рейды). Под кнопками - ход действия с сервера и кнопка отмены.
+ * Бан выдается навсегда, мут - на MUTE_MINUTES; причину можно ввести в поле справа от кнопок
+ */
+public class BulkTableRenderer implements ContentManager.ContentRenderer {
+    private static final int BAR_HEIGHT = 16;
+    private static final int STATUS_HEIGHT = 12;
+    private static final int BUTTON_WIDTH = 56;
+    private static final int CANCEL_WIDTH = 70;
+    private static final int MIN_REASON_WIDTH = 80;
+    private static final int MAX_REASON_LENGTH = 64;
+    private static final long MUTE_MINUTES = 60;
+    private static final int CARET_BLINK_MS = 500;
+
+    private final PanelSection section;
+    private final PanelTableRenderer table;
+    private final String[] buttons;
+    private final PanelBulkC2SPacket.Action[] actions;
+    private final StringBuilder reason = new StringBuilder();
+
+    public BulkTableRenderer(PanelSection section, String... columnTitles) {
+        this.section = section;
+        this.table = new PanelTableRenderer(section, columnTitles);
+        this.table.setMultiSelect(true);
+        // Наказания снимаются только из их разделов
+        if (PunishmentType.bySectionId(section.getId()) != null) {
+            this.buttons = new String[]{"Бан", "Кик", "Мут 1ч", "Варн", "Снять"};
+            this.actions = new PanelBulkC2SPacket.Action[]{
+                    PanelBulkC2SPacket.Action.BAN,
+                    PanelBulkC2SPacket.Action.KICK,
+                    PanelBulkC2SPacket.Action.MUTE,
+                    PanelBulkC2SPacket.Action.WARN,
+                    PanelBulkC2SPacket.Action.REVOKE
+            };
+        } else {
+            this.buttons = new String[]{"Бан", "Кик", "Мут 1ч", "Варн"};
+            this.actions = new PanelBulkC2SPacket.Action[]{
+                    PanelBulkC2SPacket.Action.BAN,
+                    PanelBulkC2SPacket.Action.KICK,
+                    PanelBulkC2SPacket.Action.MUTE,
+                    PanelBulkC2SPacket.Action.WARN
+            };
+        }
+    }
+
+    /**
+     * Таблица под панелью действий
+     */
+    public PanelTableRenderer getTable() {
+        return table;
+    }
+
+    @Override
+    public void onShow() {
+        table.onShow();
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        PanelClient client = PanelClient.getInstance();
+        int selected = table.getSelectedCount();
+        boolean enabled = client.getStatus() == PanelClient.Status.ALLOWED && !client.isBulkRunning()
+                && selected > 0 && selected <= BulkActionPipeline.MAX_TARGETS;
+
+        for (int i = 0; i < buttons.length; i++) {
+            int buttonX = buttonX(x, i);
+            canvas.roundedRect(buttonX, y, BUTTON_WIDTH, BAR_HEIGHT, UIConstants.BUTTON_RADIUS,
+                    !enabled ? UIConstants.LIST_ROW_COLOR
+                            : RenderUtils.isPointInRect(mouseX, mouseY, buttonX, y, BUTTON_WIDTH, BAR_HEIGHT)
+                            ? UIConstants.BUTTON_HOVER_COLOR : UIConstants.BUTTON_COLOR);
+        }
+
+        // Поле причины
+        int reasonX = buttonX(x, buttons.length);
+        int reasonWidth = Math.max(MIN_REASON_WIDTH, x + width - reasonX);
+        canvas.roundedRect(reasonX, y, reasonWidth, BAR_HEIGHT, UIConstants.BUTTON_RADIUS, UIConstants.BUTTON_COLOR);
+
+        // Ход действия
+        int statusY = y + BAR_HEIGHT + UIConstants.PADDING_SMALL;
+        BulkProgress progress = client.getBulkProgress();
+        boolean running = client.isBulkRunning();
+        int cancelX = x + width - CANCEL_WIDTH;
+        int barWidth = cancelX - UIConstants.PADDING_SMALL - x;
+        if (running) {
+            canvas.fill(x, statusY + 4, x + barWidth, statusY + 8, UIConstants.LIST_ROW_COLOR);
+            if (progress != null && progress.issued() > 0) {
+                int filled = (int) ((long) barWidth * progress.done() / progress.issued());
+                canvas.fill(x, statusY + 4, x + filled, statusY + 8, UIConstants.ACCENT_COLOR);
+            }
+            canvas.roundedRect(cancelX, statusY - 2, CANCEL_WIDTH, STATUS_HEIGHT + 2, UIConstants.BUTTON_RADIUS,
+                    RenderUtils.isPointInRect(mouseX, mouseY, cancelX, statusY - 2, CANCEL_WIDTH, STATUS_HEIGHT + 2)
+                            ? UIConstants.BUTTON_HOVER_COLOR : UIConstants.BUTTON_COLOR);
+        }
+
+        int textY = y + (BAR_HEIGHT - canvas.fontHeight()) / 2 + 1;
+        String reasonText = reason.toString();
+        boolean caretVisible = System.currentTimeMillis() / CARET_BLINK_MS % 2 == 0;
+        String status = running ? null : statusText(progress, selected);
+        canvas.textBatch(() -> {
+            for (int i = 0; i < buttons.length; i++) {
+                canvas.text(buttons[i], buttonX(x, i) + (BUTTON_WIDTH - canvas.textWidth(buttons[i])) / 2, textY,
+                        enabled ? UIConstants.TEXT_WHITE : UIConstants.TEXT_SECONDARY, false);
+            }
+
+            int reasonTextX = reasonX + UIConstants.PADDING_SMALL;
+            if (reasonText.isEmpty()) {
+                canvas.text("Причина: " + BulkActionPipeline.DEFAULT_REASON, reasonTextX, textY,
+                        UIConstants.TEXT_SECONDARY, false);
+            } else {
+                String shown = canvas.trimToWidth(reasonText, reasonWidth - UIConstants.PADDING_SMALL * 3);
+                canvas.text(shown, reasonTextX, textY, UIConstants.TEXT_COLOR, false);
+                if (caretVisible) {
+                    canvas.text("_", reasonTextX + canvas.textWidth(shown), textY, UIConstants.TEXT_COLOR, false);
+                }
+            }
+
+            if (running) {
+                canvas.text("Отменить", cancelX + (CANCEL_WIDTH - canvas.textWidth("Отменить")) / 2, statusY + 1,
+                        UIConstants.TEXT_WHITE, false);
+            } else {
+                canvas.text(status, x, statusY + 1, UIConstants.TEXT_SECONDARY, false);
+            }
+        });
+
+        int offset = tableOffset();
+        table.render(canvas, x, y + offset, width, height - offset, mouseX, mouseY);
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (button == 0 && mouseY >= 0 && mouseY < BAR_HEIGHT) {
+            for (int i = 0; i < buttons.length; i++) {
+                int buttonX = buttonX(0, i);
+                if (mouseX >= buttonX && mouseX < buttonX + BUTTON_WIDTH) {
+                    runAction(actions[i]);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int statusY = BAR_HEIGHT + UIConstants.PADDING_SMALL;
+        if (button == 0 && mouseY >= statusY - 2 && mouseY < statusY + STATUS_HEIGHT) {
+            PanelClient client = PanelClient.getInstance();
+            if (client.isBulkRunning() && mouseX >= width - CANCEL_WIDTH) {
+                client.cancelBulk();
+                return true;
+            }
+            return false;
+        }
+
+        int offset = tableOffset();
+        return table.handleMouseClick(mouseX, mouseY - offset, button, width, height - offset);
+    }
+
+    @Override
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+        int offset = tableOffset();
+        return table.handleMouseScroll(mouseX, mouseY - offset, amount, width, height - offset);
+    }
+
+    @Override
+    public boolean handleKeyPress(int keyCode, int scanCode, int modifiers) {
+        if (keyCode != GLFW.GLFW_KEY_BACKSPACE || reason.length() == 0) return false;
+        reason.setLength(reason.length() - 1);
+        return true;
+    }
+
+    @Override
+    public boolean handleCharTyped(char chr, int modifiers) {
+        if (!SharedConstants.isValidChar(chr)) return false;
+        if (reason.length() < MAX_REASON_LENGTH) {
+            reason.append(chr);
+        }
+        return true;
+    }
+
+    /**
+     * Отправляет действие с выбранными строками; выбор снимается, чтобы не повторить действие случайно
+     */
+    private void runAction(PanelBulkC2SPacket.Action action) {
+        long durationMillis = action == PanelBulkC2SPacket.Action.MUTE ? TimeUnit.MINUTES.toMillis(MUTE_MINUTES) : 0L;
+        if (PanelClient.getInstance().bulkAction(section, table.getSelectedRows(), action, reason.toString().trim(),
+                durationMillis)) {
+            table.clearSelection();
+        }
+    }
+
+    private static String statusText(BulkProgress progress, int selected) {
+        if (progress == null || selected > 0) {
+            if (selected > BulkActionPipeline.MAX_TARGETS) {
+                return "Выбрано " + selected + ", за раз можно не больше " + BulkActionPipeline.MAX_TARGETS;
+            }
+            return selected > 0 ? "Выбрано: " + selected : "Ctrl+клик - добавить строку, Shift+клик - диапазон";
+        }
+        return switch (progress.state()) {
+            case RUNNING, DONE -> "Готово: " + progress.done() + " из " + progress.total()
+                    + (progress.skipped() > 0 ? ", пропущено " + progress.skipped() : "");
+            case CANCELLED -> "Отменено: применено " + progress.done() + ", снято не примененных " + progress.reverted();
+            case REJECTED -> "Сервер отклонил действие";
+        };
+    }
+
+    private static int tableOffset() {
+        return BAR_HEIGHT + UIConstants.PADDING_SMALL + STATUS_HEIGHT + UIConstants.PADDING_SMALL;
+    }
+
+    private static int buttonX(int x, int index) {
+        return x + index * (BUTTON_WIDTH + UIConstants.PADDING_SMALL);
+    }
+}
@@ -1,25 +1,44 @@
 package me.jlime.holyadmins.client.gui.components;
 
+import me.jlime.holyadmins.client.gui.utils.FrameProfiler;
 import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
 import me.jlime.holyadmins.client.gui.utils.RenderUtils;
-import net.minecraft.client.gui.DrawContext;
-import net.minecraft.client.font.TextRenderer;
-import net.minecraft.text.Text;
-
-import java.util.HashMap;
-import java.util.Map;
+import me.jlime.holyadmins.network.PanelSection;
 
 /**
  * Менеджер основного контента
  * Управляет отображением различных разделов в правой части экрана
+ * Рендерер текущего раздела определяется при смене раздела, а не в каждом кадре
  */
 public class ContentManager {
-    private String currentSection;
-    private final Map<String, ContentRenderer> contentRenderers;
+    private static final String[] WELCOME_LINES = {
+        "Добро пожаловать в Holy Admins!",
+        "",
+        "Выберите раздел из меню слева для начала работы.",
+        "",
+        "Доступные разделы:",
+        "• Поиск - по никам, наказаниям, жалобам и логам",
+        "• Переписка - управление сообщениями",
+        "• Настройки - конфигурация системы",
+        "• Причины бана - управление банами",
+        "• Пользователи - управление пользователями",
+        "• Жалобы - обработка жалоб",
+        "• Логи - просмотр логов системы",
+        "• Аналитика - статистика и отчеты",
+        "• Помощь - справочная информация"
+    };
+    
+    private final SectionRegistry<ContentRenderer> sections;
+    private SectionRegistry.Section<ContentRenderer> current;
+    
+    // Строки текущего раздела пересчитываются только при его смене
+    private String placeholderText;
+    private String sectionIdText;
     
     public ContentManager() {
-        this.currentSection = "";
-        this.contentRenderers = new HashMap<>();
+        this.sections = new SectionRegistry<>();
+        setCurrentSection("");
         initializeDefaultRenderers();
     }
     
@@ -27,42 +46,66 @@ public class ContentManager {
      * Устанавливает текущий раздел
      */
     public void setCurrentSection(String section) {
-        this.currentSection = section != null ? section : "";
+        if (current != null && current.renderer() != null) {
+            current.renderer().onHide();
+        }
+        
+        this.current = sections.resolve(section != null ? section : "");
+        this.placeholderText = "Содержимое раздела \"" + current.header() + "\" будет здесь.";
+        this.sectionIdText = "ID раздела: " + current.id();
+        
+        if (current.renderer() != null) {
+            current.renderer().onShow();
+        }
+    }
+    
+    /**
+     * Повторное открытие экрана: текущий раздел снова показывается и при необходимости обновляет данные
+     */
+    public void onScreenOpened() {
+        if (current.renderer() != null) {
+            current.renderer().onShow();
+        }
     }
     
     /**
      * Получает текущий раздел
      */
     public String getCurrentSection() {
-        return currentSection;
+        return current.id();
     }
     
     /**
      * Регистрирует рендерер для определенного раздела
      */
     public void registerContentRenderer(String sectionId, ContentRenderer renderer) {
-        contentRenderers.put(sectionId, renderer);
+        sections.register(sectionId, renderer, FrameProfiler.scope("section:" + sectionId));
+        // Раздел уже открыт - подхватываем новый рендерер
+        if (current != null && current.id().equals(sectionId)) {
+            current = sections.resolve(sectionId);
+        }
     }
     
     /**
      * Отрисовывает основной контент
      */
-    public void render(DrawContext context, TextRenderer textRenderer, int screenWidth, int screenHeight, int mouseX, int mouseY) {
+    public void render(UiCanvas canvas, int screenWidth, int screenHeight, int mouseX, int mouseY) {
         int contentX = UIConstants.SIDEBAR_WIDTH + UIConstants.PADDING_MEDIUM;
         int contentY = UIConstants.PADDING_MEDIUM;
         int contentWidth = screenWidth - UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM * 2;
         int contentHeight = screenHeight - UIConstants.PADDING_MEDIUM * 2;
         
-        // Фон основного контента
-        RenderUtils.drawRoundedRect(context, contentX, contentY, contentWidth, contentHeight, 
+        // Тень и фон основного контента
+        canvas.shadow(contentX, contentY, contentWidth, contentHeight, 
+                UIConstants.BORDER_RADIUS, UIConstants.SHADOW_SIZE, UIConstants.SHADOW_COLOR);
+        canvas.roundedRect(contentX, contentY, contentWidth, contentHeight, 
                 UIConstants.BORDER_RADIUS, UIConstants.CONTENT_COLOR);
         
         // Заголовок
-        String headerText = getHeaderText();
-        Text header = Text.literal(headerText);
-        context.drawText(textRenderer, header, 
-                contentX + UIConstants.PADDING_LARGE, contentY + UIConstants.PADDING_LARGE, 
-                UIConstants.TEXT_COLOR, true);
+        canvas.textBatch(() -> 
+            canvas.text(current.header(), 
+                    contentX + UIConstants.PADDING_LARGE, contentY + UIConstants.PADDING_LARGE, 
+                    UIConstants.TEXT_COLOR, true));
         
         // Контент
         int contentAreaX = contentX + UIConstants.PADDING_LARGE;
@@ -70,73 +113,43 @@ public class ContentManager {
         int contentAreaWidth = contentWidth - UIConstants.PADDING_LARGE * 2;
         int contentAreaHeight = contentHeight - UIConstants.PADDING_LARGE * 3 - 10;
         
-        renderContent(context, textRenderer, contentAreaX, contentAreaY, contentAreaWidth, contentAreaHeight, mouseX, mouseY);
-    }
-    
-    /**
-     * Получает текст заголовка для текущего раздела
-     */
-    private String getHeaderText() {
-        switch (currentSection) {
-            case "messages": return UIConstants.ICON_MESSAGES + " Переписка";
-            case "settings": return UIConstants.ICON_SETTINGS + " Настройки";
-            case "ban_reasons": return UIConstants.ICON_BAN + " Причины бана";
-            case "users": return UIConstants.ICON_USERS + " Пользователи";
-            case "reports": return UIConstants.ICON_REPORTS + " Жалобы";
-            case "logs": return UIConstants.ICON_LOGS + " Логи";
-            case "analytics": return UIConstants.ICON_ANALYTICS + " Аналитика";
-            case "help": return UIConstants.ICON_HELP + " Помощь";
-            default: return UIConstants.ICON_CROWN + " Holy Admins Panel";
-        }
+        renderContent(canvas, contentAreaX, contentAreaY, contentAreaWidth, contentAreaHeight, mouseX, mouseY);
     }
     
     /**
      * Отрисовывает контент текущего раздела
      */
-    private void renderContent(DrawContext context, TextRenderer textRenderer, int x, int y, int width, int height, int mouseX, int mouseY) {
-        ContentRenderer renderer = contentRenderers.get(currentSection);
+    private void renderContent(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        ContentRenderer renderer = current.renderer();
         if (renderer != null) {
-            renderer.render(context, textRenderer, x, y, width, height, mouseX, mouseY);
+            int scope = current.scope();
+            FrameProfiler.begin(scope);
+            renderer.render(canvas, x, y, width, height, mouseX, mouseY);
+            FrameProfiler.end(scope);
         } else {
-            renderDefaultContent(context, textRenderer, x, y, width, height);
+            canvas.textBatch(() -> renderDefaultContent(canvas, x, y, width, height));
         }
     }
     
     /**
      * Отрисовывает контент по умолчанию
      */
-    private void renderDefaultContent(DrawContext context, TextRenderer textRenderer, int x, int y, int width, int height) {
-        if (currentSection.isEmpty()) {
-            renderWelcomeScreen(context, textRenderer, x, y);
+    private void renderDefaultContent(UiCanvas canvas, int x, int y, int width, int height) {
+        if (current.id().isEmpty()) {
+            renderWelcomeScreen(canvas, x, y);
         } else {
-            renderPlaceholderContent(context, textRenderer, x, y);
+            renderPlaceholderContent(canvas, x, y);
         }
     }
     
     /**
      * Отрисовывает экран приветствия
      */
-    private void renderWelcomeScreen(DrawContext context, TextRenderer textRenderer, int x, int y) {
-        String[] welcomeLines = {
-            "Добро пожаловать в Holy Admins!",
-            "",
-            "Выберите раздел из меню слева для начала работы.",
-            "",
-            "Доступные разделы:",
-            "• Переписка - управление сообщениями",
-            "• Настройки - конфигурация системы",
-            "• Причины бана - управление банами",
-            "• Пользователи - управление пользователями",
-            "• Жалобы - обработка жалоб",
-            "• Логи - просмотр логов системы",
-            "• Аналитика - статистика и отчеты",
-            "• Помощь - справочная информация"
-        };
-        
+    private void renderWelcomeScreen(UiCanvas canvas, int x, int y) {
         int lineY = y;
-        for (String line : welcomeLines) {
+        for (String line : WELCOME_LINES) {
             int color = line.startsWith("•") ? UIConstants.ACCENT_COLOR : UIConstants.TEXT_COLOR;
-            context.drawText(textRenderer, Text.literal(line), x, lineY, color, false);
+            canvas.text(line, x, lineY, color, false);
             lineY += 15;
         }
     }
@@ -144,27 +157,41 @@ public class ContentManager {
     /**
      * Отрисовывает заглушку для раздела
      */
-    private void renderPlaceholderContent(DrawContext context, TextRenderer textRenderer, int x, int y) {
-        String headerText = getHeaderText();
-        Text placeholder = Text.literal("Содержимое раздела \"" + headerText + "\" будет здесь.");
-        context.drawText(textRenderer, placeholder, x, y, UIConstants.TEXT_SECONDARY, false);
+    private void renderPlaceholderContent(UiCanvas canvas, int x, int y) {
+        canvas.text(placeholderText, x, y, UIConstants.TEXT_SECONDARY, false);
         
-        Text instruction = Text.literal("Этот раздел готов для дальнейшей разработки.");
-        context.drawText(textRenderer, instruction, x, y + 20, UIConstants.TEXT_SECONDARY, false);
+        canvas.text("Этот раздел готов для дальнейшей разработки.", 
+                x, y + 20, UIConstants.TEXT_SECONDARY, false);
         
         // Дополнительная информация
-        Text info = Text.literal("ID раздела: " + currentSection);
-        context.drawText(textRenderer, info, x, y + 50, UIConstants.TEXT_SECONDARY, false);
+        canvas.text(sectionIdText, x, y + 50, UIConstants.TEXT_SECONDARY, false);
     }
     
     /**
      * Инициализирует рендереры по умолчанию
      */
     private void initializeDefaultRenderers() {
-        // Можно добавить специальные рендереры для разных разделов
-        // Например:
-        // registerContentRenderer("settings", new SettingsRenderer());
-        // registerContentRenderer("users", new UsersRenderer());
+        // Таблицы с данными сервера
+        registerContentRenderer(PanelSection.PLAYERS.getId(), new PlayersRenderer());
+        registerContentRenderer(PanelSection.BANS.getId(),
+                new BulkTableRenderer(PanelSection.BANS, "Игрок", "Выдал", "Причина", "Срок"));
+        registerContentRenderer(PanelSection.KICKS.getId(),
+                new BulkTableRenderer(PanelSection.KICKS, "Игрок", "Выдал", "Причина", "Время"));
+        registerContentRenderer(PanelSection.MUTES.getId(),
+                new BulkTableRenderer(PanelSection.MUTES, "Игрок", "Выдал", "Причина", "Срок"));
+        registerContentRenderer(PanelSection.WARNS.getId(),
+                new BulkTableRenderer(PanelSection.WARNS, "Игрок", "Выдал", "Причина", "Время"));
+        registerContentRenderer(PanelSection.REPORTS.getId(), new ReportsRenderer());
+        registerContentRenderer(PanelSection.LOGS.getId(),
+                new PanelTableRenderer(PanelSection.LOGS, "Игрок", "Кто", "Действие", "Время"));
+        // Лента чата: широкая колонка текста, новые сообщения приходят дельтами
+        registerContentRenderer(PanelSection.MESSAGES.getId(),
+                new PanelTableRenderer(PanelSection.MESSAGES, new float[]{0.0f, 0.18f, 0.26f, 0.84f},
+                        "Игрок", "", "Сообщение", "Время"));
+        registerContentRenderer(PanelSection.SEARCH.getId(), new SearchRenderer());
+        registerContentRenderer("analytics", new AnalyticsRenderer());
+        registerContentRenderer("lag", new LagRenderer());
+        registerContentRenderer("settings", new SettingsRenderer());
     }
     
     /**
@@ -181,7 +208,7 @@ public class ContentManager {
             return false;
         }
         
-        ContentRenderer renderer = contentRenderers.get(currentSection);
+        ContentRenderer renderer = current.renderer();
         if (renderer != null) {
             int contentAreaX = contentX + UIConstants.PADDING_LARGE;
             int contentAreaY = contentY + UIConstants.PADDING_LARGE * 2 + 10;
@@ -195,18 +222,86 @@ public class ContentManager {
         return false;
     }
     
+    /**
+     * Передает нажатие клавиши текущему разделу
+     */
+    public boolean handleKeyPress(int keyCode, int scanCode, int modifiers) {
+        ContentRenderer renderer = current.renderer();
+        return renderer != null && renderer.handleKeyPress(keyCode, scanCode, modifiers);
+    }
+    
+    /**
+     * Передает введенный символ текущему разделу
+     */
+    public boolean handleCharTyped(char chr, int modifiers) {
+        ContentRenderer renderer = current.renderer();
+        return renderer != null && renderer.handleCharTyped(chr, modifiers);
+    }
+    
+    /**
+     * Обрабатывает прокрутку мыши в области контента
+     */
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int screenWidth, int screenHeight) {
+        int contentX = UIConstants.SIDEBAR_WIDTH + UIConstants.PADDING_MEDIUM;
+        int contentY = UIConstants.PADDING_MEDIUM;
+        int contentWidth = screenWidth - UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM * 2;
+        int contentHeight = screenHeight - UIConstants.PADDING_MEDIUM * 2;
+        
+        if (!RenderUtils.isPointInRect(mouseX, mouseY, contentX, contentY, contentWidth, contentHeight)) {
+            return false;
+        }
+        
+        ContentRenderer renderer = current.renderer();
+        if (renderer != null) {
+            int contentAreaX = contentX + UIConstants.PADDING_LARGE;
+            int contentAreaY = contentY + UIConstants.PADDING_LARGE * 2 + 10;
+            int contentAreaWidth = contentWidth - UIConstants.PADDING_LARGE * 2;
+            int contentAreaHeight = contentHeight - UIConstants.PADDING_LARGE * 3 - 10;
+            
+            return renderer.handleMouseScroll(mouseX - contentAreaX, mouseY - contentAreaY, 
+                    amount, contentAreaWidth, contentAreaHeight);
+        }
+        
+        return false;
+    }
+    
     /**
      * Интерфейс для рендереров контента
+     * Все рисуется через UiCanvas: геометрия копится в пакет, а текст следует рисовать внутри canvas.textBatch,
+     * иначе текст окажется под еще не отправленной геометрией
      */
     public interface ContentRenderer {
-        void render(DrawContext context, TextRenderer textRenderer, int x, int y, int width, int height, int mouseX, int mouseY);
+        void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY);
         
         default boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
             return false;
         }
         
+        default boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+            return false;
+        }
+        
+        /**
+         * Вызывается при переходе в раздел
+         */
+        default void onShow() {
+        }
+        
+        /**
+         * Вызывается при уходе из раздела
+         */
+        default void onHide() {
+        }
+        
         default boolean handleKeyPress(int keyCode, int scanCode, int modifiers) {
             return false;
         }
+        
+        /**
+         * Ввод символа (поля ввода раздела)
+         */
+        default boolean handleCharTyped(char chr, int modifiers) {
+            return false;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.RenderUtils;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import me.jlime.holyadmins.client.network.PanelClient;
+import me.jlime.holyadmins.metrics.LagOffender;
+import me.jlime.holyadmins.metrics.LagReport;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Раздел нагрузки: игроки и чанки, на которые приходится больше всего времени тиков
+ * Итоги приходят с сервера раз в окно профилировщика; таблица сортируется кликом по заголовку,
+ * выбранная строка сохраняется между итогами по игроку или чанку
+ */
+public class LagRenderer implements ContentManager.ContentRenderer {
+    private static final int ROW_HEIGHT = 18;
+    private static final int HEADER_HEIGHT = 14;
+    private static final int BAR_HEIGHT = 16;
+    private static final int TOGGLE_WIDTH = 150;
+    private static final int TELEPORT_WIDTH = 80;
+    private static final float[] COLUMNS = {0.0f, 0.20f, 0.36f, 0.48f, 0.60f, 0.72f, 0.86f};
+    private static final String[] TITLES = {"Игрок", "Мир", "Всего, мс", "Сущности", "Блоки", "Сущ./блоки", "Чанк"};
+    // Колонка без сортировки
+    private static final int CHUNK_COLUMN = 6;
+    private static final int WARNING_COLOR = 0xFFef4444;
+    // Доля тика (мс), начиная с которой строка выделяется
+    private static final float HEAVY_MS = 5.0f;
+
+    private final VirtualListRenderer<LagOffender> list;
+    private final Map<LagOffender, String[]> labels = new IdentityHashMap<>();
+    private int labelsWidth = -1;
+    private LagReport report;
+    private int seenVersion = -1;
+    private int sortColumn = 2;
+    private boolean descending = true;
+    private String statusText = "";
+    private String toggleText = "";
+
+    public LagRenderer() {
+        this.list = new VirtualListRenderer<>(ROW_HEIGHT, new RowRenderer());
+        this.list.setEmptyText("Нагрузки нет");
+    }
+
+    @Override
+    public void onShow() {
+        PanelClient.getInstance().showLag();
+    }
+
+    @Override
+    public void onHide() {
+        PanelClient.getInstance().hideLag();
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        PanelClient client = PanelClient.getInstance();
+        String status = PanelTableRenderer.statusText(client.getStatus());
+        if (status != null) {
+            canvas.textBatch(() ->
+                canvas.text(status, x, y, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+
+        // Доступ мог подтвердиться уже после открытия раздела
+        client.showLag();
+        LagReport report = client.getLagReport();
+        if (report == null) {
+            canvas.textBatch(() ->
+                canvas.text("Загрузка...", x, y, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+        if (report != this.report || client.getLagVersion() != seenVersion) {
+            this.report = report;
+            seenVersion = client.getLagVersion();
+            updateRows();
+        }
+
+        renderBar(canvas, x, y, width, mouseX, mouseY);
+        if (!report.enabled()) {
+            canvas.textBatch(() ->
+                canvas.text("Профилирование выключено", x,
+                        y + BAR_HEIGHT + UIConstants.PADDING_MEDIUM, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+
+        // Заголовки колонок; у колонки сортировки - направление
+        int tableY = y + BAR_HEIGHT + UIConstants.PADDING_SMALL;
+        canvas.fill(x, tableY + HEADER_HEIGHT - 1, x + width, tableY + HEADER_HEIGHT, UIConstants.BORDER_COLOR);
+        canvas.textBatch(() -> {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                String title = i == sortColumn ? TITLES[i] + (descending ? " ▼" : " ▲") : TITLES[i];
+                canvas.text(title, columnX(x, width, i) + 4, tableY + 2,
+                        i == sortColumn ? UIConstants.TEXT_COLOR : UIConstants.TEXT_SECONDARY, false);
+            }
+        });
+
+        int listY = tableY + HEADER_HEIGHT + 2;
+        list.render(canvas, x, listY, width, y + height - listY, mouseX, mouseY);
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (button == 0 && mouseY < BAR_HEIGHT) {
+            if (report == null) return false;
+            if (mouseX >= 0 && mouseX < TOGGLE_WIDTH) {
+                PanelClient.getInstance().setProfilerEnabled(!report.enabled());
+                return true;
+            }
+            LagOffender selected = list.getSelectedItem();
+            if (selected != null && mouseX >= TOGGLE_WIDTH + UIConstants.PADDING_SMALL
+                    && mouseX < TOGGLE_WIDTH + UIConstants.PADDING_SMALL + TELEPORT_WIDTH) {
+                PanelClient.getInstance().teleport(selected);
+                return true;
+            }
+            return false;
+        }
+
+        int headerY = BAR_HEIGHT + UIConstants.PADDING_SMALL;
+        if (button == 0 && mouseY >= headerY && mouseY < headerY + HEADER_HEIGHT) {
+            int column = columnAt(mouseX, width);
+            if (column < 0 || column == CHUNK_COLUMN) return false;
+            if (column == sortColumn) {
+                descending = !descending;
+            } else {
+                sortColumn = column;
+                // Нагрузку удобнее смотреть от большей, имена - по алфавиту
+                descending = column >= 2;
+            }
+            updateRows();
+            return true;
+        }
+        return list.handleMouseClick(mouseX, mouseY - listOffset(), button, width, height - listOffset());
+    }
+
+    @Override
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+        return list.handleMouseScroll(mouseX, mouseY - listOffset(), amount, width, height - listOffset());
+    }
+
+    private void renderBar(UiCanvas canvas, int x, int y, int width, int mouseX, int mouseY) {
+        boolean canTeleport = list.getSelectedItem() != null;
+        int teleportX = x + TOGGLE_WIDTH + UIConstants.PADDING_SMALL;
+        canvas.roundedRect(x, y, TOGGLE_WIDTH, BAR_HEIGHT, UIConstants.BUTTON_RADIUS,
+                RenderUtils.isPointInRect(mouseX, mouseY, x, y, TOGGLE_WIDTH, BAR_HEIGHT)
+                        ? UIConstants.BUTTON_HOVER_COLOR : UIConstants.BUTTON_COLOR);
+        canvas.roundedRect(teleportX, y, TELEPORT_WIDTH, BAR_HEIGHT, UIConstants.BUTTON_RADIUS,
+                !canTeleport ? UIConstants.LIST_ROW_COLOR
+                        : RenderUtils.isPointInRect(mouseX, mouseY, teleportX, y, TELEPORT_WIDTH, BAR_HEIGHT)
+                        ? UIConstants.BUTTON_HOVER_COLOR : UIConstants.ACCENT_COLOR);
+
+        int textY = y + (BAR_HEIGHT - canvas.fontHeight()) / 2 + 1;
+        canvas.textBatch(() -> {
+            canvas.text(toggleText,
+                    x + (TOGGLE_WIDTH - canvas.textWidth(toggleText)) / 2, textY, UIConstants.TEXT_WHITE, false);
+            String teleport = "Телепорт";
+            canvas.text(teleport,
+                    teleportX + (TELEPORT_WIDTH - canvas.textWidth(teleport)) / 2, textY,
+                    canTeleport ? UIConstants.TEXT_WHITE : UIConstants.TEXT_SECONDARY, false);
+            canvas.text(statusText,
+                    x + width - canvas.textWidth(statusText), textY, UIConstants.TEXT_SECONDARY, false);
+        });
+    }
+
+    /**
+     * Сортирует строки итога и возвращает выделение к той же строке
+     */
+    private void updateRows() {
+        LagOffender selected = list.getSelectedItem();
+        List<LagOffender> rows = new ArrayList<>(report.offenders());
+        Comparator<LagOffender> comparator = switch (sortColumn) {
+            case 0 -> Comparator.comparing(LagRenderer::nameOf, String.CASE_INSENSITIVE_ORDER);
+            case 1 -> Comparator.comparing(LagOffender::dimension);
+            case 3 -> Comparator.comparingDouble(LagOffender::entityMs);
+            case 4 -> Comparator.comparingDouble(LagOffender::blockEntityMs);
+            case 5 -> Comparator.comparingInt(offender -> offender.entities() + offender.blockEntities());
+            default -> Comparator.comparingDouble(LagOffender::totalMs);
+        };
+        rows.sort(descending ? comparator.reversed() : comparator);
+
+        labels.clear();
+        list.setItems(rows);
+        list.setSelectedIndex(selected != null ? indexOf(rows, selected) : -1);
+
+        toggleText = report.enabled() ? "Выключить профилирование" : "Включить профилирование";
+        statusText = !report.enabled() || report.time() == 0L ? ""
+                : String.format(Locale.ROOT, "замер 1/%d · накладные %.2f%%", report.sampleEvery(), report.overheadPercent());
+    }
+
+    private static int indexOf(List<LagOffender> rows, LagOffender selected) {
+        for (int i = 0; i < rows.size(); i++) {
+            LagOffender row = rows.get(i);
+            boolean same = selected.playerId() != null
+                    ? selected.playerId().equals(row.playerId())
+                    : row.playerId() == null && row.chunkX() == selected.chunkX() && row.chunkZ() == selected.chunkZ()
+                    && Objects.equals(row.dimension(), selected.dimension());
+            if (same) return i;
+        }
+        return -1;
+    }
+
+    private static String nameOf(LagOffender offender) {
+        return offender.playerId() != null ? offender.name() : "Без игрока";
+    }
+
+    private static String shortDimension(String dimension) {
+        return dimension.startsWith("minecraft:") ? dimension.substring("minecraft:".length()) : dimension;
+    }
+
+    private int listOffset() {
+        return BAR_HEIGHT + UIConstants.PADDING_SMALL + HEADER_HEIGHT + 2;
+    }
+
+    private int columnAt(double mouseX, int width) {
+        for (int i = COLUMNS.length - 1; i >= 0; i--) {
+            if (mouseX >= columnX(0, width, i)) return i;
+        }
+        return -1;
+    }
+
+    private static int columnX(int x, int width, int column) {
+        return x + (int) (width * COLUMNS[column]);
+    }
+
+    /**
+     * Подписи колонок строки, обрезанные под текущую ширину
+     */
+    private String[] labelsFor(UiCanvas canvas, LagOffender row, int width) {
+        if (width != labelsWidth) {
+            labels.clear();
+            labelsWidth = width;
+        }
+        String[] rowLabels = labels.get(row);
+        if (rowLabels == null) {
+            String[] values = {
+                nameOf(row),
+                shortDimension(row.dimension()),
+                String.format(Locale.ROOT, "%.2f", row.totalMs()),
+                String.format(Locale.ROOT, "%.2f", row.entityMs()),
+                String.format(Locale.ROOT, "%.2f", row.blockEntityMs()),
+                row.entities() + " / " + row.blockEntities(),
+                row.chunkX() + ", " + row.chunkZ() + (row.chunks() > 1 ? " (+" + (row.chunks() - 1) + ")" : "")
+            };
+            rowLabels = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                int columnEnd = i + 1 < COLUMNS.length ? columnX(0, width, i + 1) : width;
+                rowLabels[i] = trim(canvas, values[i], columnEnd - columnX(0, width, i) - 8);
+            }
+            labels.put(row, rowLabels);
+        }
+        return rowLabels;
+    }
+
+    private static String trim(UiCanvas canvas, String value, int maxWidth) {
+        if (maxWidth <= 0) return "";
+        if (canvas.textWidth(value) <= maxWidth) return value;
+        return canvas.trimToWidth(value, maxWidth - canvas.textWidth("…")) + "…";
+    }
+
+    /**
+     * Строка таблицы; тяжелые строки (от HEAVY_MS за тик) отмечаются красной полосой
+     */
+    private class RowRenderer implements VirtualListRenderer.RowRenderer<LagOffender> {
+        @Override
+        public void renderRow(UiCanvas canvas, LagOffender item, int index,
+                              int x, int y, int width, int height, boolean hovered, boolean selected) {
+            String[] rowLabels = labelsFor(canvas, item, width);
+            int textY = y + (height - canvas.fontHeight()) / 2 + 1;
+            int color = item.playerId() != null || selected ? UIConstants.TEXT_COLOR : UIConstants.TEXT_SECONDARY;
+            for (int i = 0; i < rowLabels.length; i++) {
+                canvas.text(rowLabels[i], columnX(x, width, i) + 4, textY, color, false);
+            }
+        }
+
+        @Override
+        public void renderBackground(UiCanvas canvas, LagOffender item, int index, int x, int y, int width, int height) {
+            if (item.totalMs() >= HEAVY_MS) {
+                canvas.fill(x, y + 2, x + 2, y + height - 2, WARNING_COLOR);
+            }
+        }
+    }
+}
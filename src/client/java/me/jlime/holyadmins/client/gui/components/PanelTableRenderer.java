@@ -0,0 +1,314 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import me.jlime.holyadmins.client.network.PanelClient;
+import me.jlime.holyadmins.client.network.SectionData;
+import me.jlime.holyadmins.network.PanelRow;
+import me.jlime.holyadmins.network.PanelSection;
+
+import java.text.SimpleDateFormat;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблица раздела панели с данными сервера
+ * Первая страница запрашивается при открытии раздела, следующие - при прокрутке к концу списка;
+ * дальше таблица обновляется дельтами через PanelClient. Повторно открытый раздел показывается
+ * из кэша PanelClient, устаревшие данные обновляются в фоне
+ */
+public class PanelTableRenderer implements ContentManager.ContentRenderer {
+    private static final int ROW_HEIGHT = 18;
+    private static final int HEADER_HEIGHT = 14;
+    // Сколько строк до конца списка, когда пора запрашивать следующую страницу
+    private static final int PREFETCH_ROWS = 20;
+    private static final int ACTIVE_MARK_WIDTH = 2;
+    private static final float[] DEFAULT_COLUMNS = {0.0f, 0.25f, 0.45f, 0.8f};
+    private static final long NO_ANCHOR = Long.MIN_VALUE;
+
+    private final PanelSection section;
+    private final float[] columns;
+    private final String[] columnTitles;
+    private String filter = "";
+    private final VirtualListRenderer<PanelRow> list;
+    // Подписи строк с обрезкой под ширину колонок; строки неизменяемы, ключ - сам объект
+    private final Map<PanelRow, String[]> labels = new IdentityHashMap<>();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd.MM.yy HH:mm");
+    private int labelsWidth = -1;
+    // Запись кэша может быть вытеснена и создана заново, поэтому версия сверяется вместе с самой записью
+    private SectionData seenData;
+    private int seenVersion = -1;
+    // Строка у верхнего края прокрученной таблицы: новые строки сверху не сдвигают то, что читает администратор
+    private long anchorId = NO_ANCHOR;
+    private int anchorOffset;
+    // Выбор запоминается по ID при клике и возвращается к тем же строкам после дельт
+    private long selectedId = NO_ANCHOR;
+    private long[] selectedIds = new long[0];
+
+    public PanelTableRenderer(PanelSection section, String... columnTitles) {
+        this(section, DEFAULT_COLUMNS, columnTitles);
+    }
+
+    /**
+     * @param columns левые границы колонок в долях ширины
+     */
+    public PanelTableRenderer(PanelSection section, float[] columns, String... columnTitles) {
+        if (columnTitles.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " column titles");
+        }
+        this.section = section;
+        this.columns = columns;
+        this.columnTitles = columnTitles;
+        this.list = new VirtualListRenderer<>(ROW_HEIGHT, new RowRenderer());
+        this.list.setEmptyText("Записей нет");
+    }
+
+    /**
+     * Устанавливает текстовый фильтр (в нижнем регистре); пустая строка - полный раздел
+     */
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Включает выбор нескольких строк с Ctrl и Shift (массовые действия)
+     */
+    public void setMultiSelect(boolean multiSelect) {
+        list.setMultiSelect(multiSelect);
+    }
+
+    /**
+     * Устанавливает текст для пустой таблицы
+     */
+    public void setEmptyText(String emptyText) {
+        list.setEmptyText(emptyText);
+    }
+
+    @Override
+    public void onShow() {
+        PanelClient.getInstance().showSection(section, filter);
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        PanelClient client = PanelClient.getInstance();
+        String status = statusText(client.getStatus());
+        if (status != null) {
+            canvas.textBatch(() -> canvas.text(status, x, y, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+
+        // Доступ мог подтвердиться уже после открытия раздела
+        client.ensureLoaded(section, filter);
+        SectionData data = client.getSection(section, filter);
+        if (!data.isLoaded()) {
+            String loading = data.isBusy() ? "Сервер занят, повтор позже..." : "Загрузка...";
+            canvas.textBatch(() -> canvas.text(loading, x, y, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+
+        if (data != seenData || data.getVersion() != seenVersion) {
+            // Запись кэша могла быть вытеснена и создана заново: индексы строк в ней другие,
+            // поэтому выделение и прокрутка переносятся по ID. В выборке с другим фильтром выделение снимается
+            boolean sameKey = seenData != null && seenData.getFilter().equals(data.getFilter());
+            if (!sameKey) {
+                selectedId = NO_ANCHOR;
+                selectedIds = new long[0];
+            }
+            seenData = data;
+            seenVersion = data.getVersion();
+            labels.clear();
+            list.setItems(data.getRows());
+            restorePosition(data, sameKey);
+        }
+
+        // Заголовки колонок
+        canvas.fill(x, y + HEADER_HEIGHT - 1, x + width, y + HEADER_HEIGHT, UIConstants.BORDER_COLOR);
+        boolean refreshing = data.isRefreshing();
+        boolean busy = data.isBusy();
+        canvas.textBatch(() -> {
+            for (int i = 0; i < columns.length; i++) {
+                canvas.text(columnTitles[i], columnX(x, width, i) + ACTIVE_MARK_WIDTH + 4, y + 2,
+                        UIConstants.TEXT_SECONDARY, false);
+            }
+            // Показаны данные из кэша, свежая страница еще не пришла
+            if (refreshing || busy) {
+                String text = refreshing ? "Обновление..." : "Сервер занят";
+                canvas.text(text, x + width - canvas.textWidth(text), y + 2, UIConstants.TEXT_SECONDARY, false);
+            }
+        });
+
+        int listHeight = height - HEADER_HEIGHT - 2;
+        list.render(canvas, x, y + HEADER_HEIGHT + 2, width, listHeight, mouseX, mouseY);
+        rememberPosition(data);
+
+        // Подгрузка следующей страницы до того, как список закончится
+        if (data.hasMore() && list.getScrollOffset() + listHeight >= list.getTotalHeight() - PREFETCH_ROWS * ROW_HEIGHT) {
+            client.loadMore(section, filter);
+        }
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (!list.handleMouseClick(mouseX, mouseY - HEADER_HEIGHT - 2, button, width, height - HEADER_HEIGHT - 2)) {
+            return false;
+        }
+        rememberSelection();
+        return true;
+    }
+
+    @Override
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+        return list.handleMouseScroll(mouseX, mouseY - HEADER_HEIGHT - 2, amount, width, height - HEADER_HEIGHT - 2);
+    }
+
+    /**
+     * Выбранная строка или null
+     */
+    public PanelRow getSelectedRow() {
+        return list.getSelectedItem();
+    }
+
+    /**
+     * Все выбранные строки в порядке таблицы
+     */
+    public List<PanelRow> getSelectedRows() {
+        return list.getSelectedItems();
+    }
+
+    /**
+     * Количество выбранных строк
+     */
+    public int getSelectedCount() {
+        return list.getSelectedCount();
+    }
+
+    /**
+     * Снимает выбор со всех строк
+     */
+    public void clearSelection() {
+        list.setSelectedIndex(-1);
+        rememberSelection();
+    }
+
+    /**
+     * Запоминает выбранные строки по ID
+     */
+    private void rememberSelection() {
+        int lead = list.getSelectedIndex();
+        selectedId = lead >= 0 ? list.getItems().get(lead).getId() : NO_ANCHOR;
+        List<PanelRow> selected = list.getSelectedItems();
+        selectedIds = new long[selected.size()];
+        for (int i = 0; i < selectedIds.length; i++) {
+            selectedIds[i] = selected.get(i).getId();
+        }
+    }
+
+    /**
+     * Запоминает строку у верхнего края по ID
+     */
+    private void rememberPosition(SectionData data) {
+        int top = list.getScrollOffset() > 0 ? list.indexAt(list.getScrollOffset()) : -1;
+        if (top >= 0) {
+            anchorId = data.getRows().get(top).getId();
+            anchorOffset = list.getScrollOffset() - list.rowTop(top);
+        } else {
+            // Таблица у начала - новые строки просто появляются сверху
+            anchorId = NO_ANCHOR;
+        }
+    }
+
+    /**
+     * Возвращает выделение и прокрутку (если scroll) к тем же строкам после изменения данных
+     */
+    private void restorePosition(SectionData data, boolean scroll) {
+        if (scroll && anchorId != NO_ANCHOR) {
+            int index = data.indexOf(anchorId);
+            int top = index >= 0 ? index : Math.min(-index - 1, data.getRows().size());
+            list.setScrollOffset(list.rowTop(top) + (index >= 0 ? anchorOffset : 0));
+        }
+        BitSet selection = new BitSet();
+        for (long id : selectedIds) {
+            int index = data.indexOf(id);
+            if (index >= 0) {
+                selection.set(index);
+            }
+        }
+        list.setSelection(selectedId != NO_ANCHOR ? data.indexOf(selectedId) : -1, selection);
+    }
+
+    static String statusText(PanelClient.Status status) {
+        return switch (status) {
+            case ALLOWED -> null;
+            case DENIED -> "Недостаточно прав для просмотра раздела";
+            case UNAVAILABLE, UNKNOWN -> "Сервер не поддерживает Holy Admins";
+            case PENDING -> "Подключение к серверу...";
+        };
+    }
+
+    private int columnX(int x, int width, int column) {
+        return x + (int) (width * columns[column]);
+    }
+
+    /**
+     * Подписи колонок строки, обрезанные под текущую ширину
+     */
+    private String[] labelsFor(UiCanvas canvas, PanelRow row, int width) {
+        if (width != labelsWidth) {
+            labels.clear();
+            labelsWidth = width;
+        }
+        String[] rowLabels = labels.get(row);
+        if (rowLabels == null) {
+            String[] values = {row.getSubjectName(), row.getActorName(), row.getText(), timeText(row)};
+            rowLabels = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                int columnEnd = i + 1 < columns.length ? columnX(0, width, i + 1) : width;
+                int columnWidth = columnEnd - columnX(0, width, i);
+                rowLabels[i] = trim(canvas, values[i], columnWidth - ACTIVE_MARK_WIDTH - 8);
+            }
+            labels.put(row, rowLabels);
+        }
+        return rowLabels;
+    }
+
+    private String timeText(PanelRow row) {
+        String time = row.getTime() > 0 ? dateFormat.format(new Date(row.getTime())) : "";
+        if (row.getExpiresAt() > 0) {
+            time += " → " + dateFormat.format(new Date(row.getExpiresAt()));
+        }
+        return time;
+    }
+
+    private static String trim(UiCanvas canvas, String value, int maxWidth) {
+        if (maxWidth <= 0) return "";
+        if (canvas.textWidth(value) <= maxWidth) return value;
+        return canvas.trimToWidth(value, maxWidth - canvas.textWidth("…")) + "…";
+    }
+
+    /**
+     * Строка таблицы: отметка активности и колонки
+     */
+    private class RowRenderer implements VirtualListRenderer.RowRenderer<PanelRow> {
+        @Override
+        public void renderRow(UiCanvas canvas, PanelRow item, int index,
+                              int x, int y, int width, int height, boolean hovered, boolean selected) {
+            String[] rowLabels = labelsFor(canvas, item, width);
+            int textY = y + (height - canvas.fontHeight()) / 2 + 1;
+            int color = item.isActive() || selected ? UIConstants.TEXT_COLOR : UIConstants.TEXT_SECONDARY;
+            for (int i = 0; i < rowLabels.length; i++) {
+                canvas.text(rowLabels[i], columnX(x, width, i) + ACTIVE_MARK_WIDTH + 4, textY, color, false);
+            }
+        }
+
+        @Override
+        public void renderBackground(UiCanvas canvas, PanelRow item, int index, int x, int y, int width, int height) {
+            if (item.isActive()) {
+                canvas.fill(x, y + 2, x + ACTIVE_MARK_WIDTH, y + height - 2, UIConstants.ACCENT_COLOR);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import me.jlime.holyadmins.network.PanelRow;
+import me.jlime.holyadmins.network.PanelSection;
+
+import java.util.UUID;
+
+/**
+ * Раздел игроков: таблица игроков в сети с массовыми действиями, под ней - связанные аккаунты выбранного игрока
+ * Связанные аккаунты запрашиваются разделом ALTS с UUID игрока в фильтре. Раздел игроков
+ * при этом остается открытым в PanelClient, поэтому таблица аккаунтов не вызывает onShow
+ */
+public class PlayersRenderer implements ContentManager.ContentRenderer {
+    private static final int TITLE_HEIGHT = 14;
+    // Доля высоты под таблицу игроков, когда выбран игрок
+    private static final float PLAYERS_SHARE = 0.5f;
+
+    private final BulkTableRenderer bulk;
+    private final PanelTableRenderer players;
+    private final PanelTableRenderer alts;
+    private UUID altsOf;
+    private String altsTitle = "";
+
+    public PlayersRenderer() {
+        this.bulk = new BulkTableRenderer(PanelSection.PLAYERS, "Игрок", "", "Мир", "Вход");
+        this.players = bulk.getTable();
+        this.alts = new PanelTableRenderer(PanelSection.ALTS, "Аккаунт", "Бан", "Связь", "Последний вход");
+        this.alts.setEmptyText("Связанных аккаунтов нет");
+    }
+
+    @Override
+    public void onShow() {
+        bulk.onShow();
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        updateSelection();
+        if (altsOf == null) {
+            bulk.render(canvas, x, y, width, height, mouseX, mouseY);
+            return;
+        }
+
+        int playersHeight = playersHeight(height);
+        bulk.render(canvas, x, y, width, playersHeight, mouseX, mouseY);
+
+        int titleY = y + playersHeight + UIConstants.PADDING_SMALL;
+        canvas.fill(x, titleY - 1, x + width, titleY, UIConstants.BORDER_COLOR);
+        canvas.textBatch(() -> canvas.text(altsTitle, x, titleY + 3, UIConstants.TEXT_COLOR, false));
+
+        int altsOffset = altsOffset(height);
+        alts.render(canvas, x, y + altsOffset, width, height - altsOffset, mouseX, mouseY);
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (altsOf == null) {
+            return bulk.handleMouseClick(mouseX, mouseY, button, width, height);
+        }
+        int altsOffset = altsOffset(height);
+        if (mouseY >= altsOffset) {
+            return alts.handleMouseClick(mouseX, mouseY - altsOffset, button, width, height - altsOffset);
+        }
+        return bulk.handleMouseClick(mouseX, mouseY, button, width, playersHeight(height));
+    }
+
+    @Override
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+        if (altsOf == null) {
+            return bulk.handleMouseScroll(mouseX, mouseY, amount, width, height);
+        }
+        int altsOffset = altsOffset(height);
+        if (mouseY >= altsOffset) {
+            return alts.handleMouseScroll(mouseX, mouseY - altsOffset, amount, width, height - altsOffset);
+        }
+        return bulk.handleMouseScroll(mouseX, mouseY, amount, width, playersHeight(height));
+    }
+
+    @Override
+    public boolean handleKeyPress(int keyCode, int scanCode, int modifiers) {
+        return bulk.handleKeyPress(keyCode, scanCode, modifiers);
+    }
+
+    @Override
+    public boolean handleCharTyped(char chr, int modifiers) {
+        return bulk.handleCharTyped(chr, modifiers);
+    }
+
+    /**
+     * Переключает таблицу аккаунтов на выбранного игрока
+     */
+    private void updateSelection() {
+        PanelRow selected = players.getSelectedRow();
+        UUID playerId = selected != null ? selected.getSubjectId() : null;
+        if (playerId == null) {
+            altsOf = null;
+            return;
+        }
+        if (!playerId.equals(altsOf)) {
+            altsOf = playerId;
+            altsTitle = "Связанные аккаунты: " + selected.getSubjectName();
+            alts.setFilter(playerId.toString());
+        }
+    }
+
+    private static int playersHeight(int height) {
+        return (int) (height * PLAYERS_SHARE);
+    }
+
+    private static int altsOffset(int height) {
+        return playersHeight(height) + UIConstants.PADDING_SMALL + TITLE_HEIGHT;
+    }
+}
@@ -0,0 +1,91 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.RenderUtils;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import me.jlime.holyadmins.client.network.PanelClient;
+import me.jlime.holyadmins.network.PanelRow;
+import me.jlime.holyadmins.network.PanelSection;
+import me.jlime.holyadmins.network.packet.PanelReportC2SPacket;
+
+/**
+ * Раздел жалоб: верх очереди разбора и действия с выбранной заявкой
+ * Заявки идут от самой важной; взятая в работу заявка перестает быть активной и показывает,
+ * кто ее разбирает. Результат действия приходит дельтой раздела
+ */
+public class ReportsRenderer implements ContentManager.ContentRenderer {
+    private static final int BAR_HEIGHT = 16;
+    private static final int BUTTON_WIDTH = 80;
+    private static final String[] BUTTONS = {"Взять", "Отпустить", "Принять", "Отклонить"};
+    private static final PanelReportC2SPacket.Action[] ACTIONS = {
+            PanelReportC2SPacket.Action.CLAIM,
+            PanelReportC2SPacket.Action.RELEASE,
+            PanelReportC2SPacket.Action.RESOLVE,
+            PanelReportC2SPacket.Action.REJECT
+    };
+
+    private final PanelTableRenderer tickets;
+
+    public ReportsRenderer() {
+        this.tickets = new PanelTableRenderer(PanelSection.REPORTS, "Нарушитель", "Автор / разбирает", "Жалобы", "Ожидает с");
+        this.tickets.setEmptyText("Очередь пуста");
+    }
+
+    @Override
+    public void onShow() {
+        tickets.onShow();
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        boolean enabled = PanelClient.getInstance().getStatus() == PanelClient.Status.ALLOWED
+                && tickets.getSelectedRow() != null;
+        for (int i = 0; i < BUTTONS.length; i++) {
+            int buttonX = buttonX(x, i);
+            canvas.roundedRect(buttonX, y, BUTTON_WIDTH, BAR_HEIGHT, UIConstants.BUTTON_RADIUS,
+                    !enabled ? UIConstants.LIST_ROW_COLOR
+                            : RenderUtils.isPointInRect(mouseX, mouseY, buttonX, y, BUTTON_WIDTH, BAR_HEIGHT)
+                            ? UIConstants.BUTTON_HOVER_COLOR : UIConstants.BUTTON_COLOR);
+        }
+
+        int textY = y + (BAR_HEIGHT - canvas.fontHeight()) / 2 + 1;
+        canvas.textBatch(() -> {
+            for (int i = 0; i < BUTTONS.length; i++) {
+                canvas.text(BUTTONS[i], buttonX(x, i) + (BUTTON_WIDTH - canvas.textWidth(BUTTONS[i])) / 2, textY,
+                        enabled ? UIConstants.TEXT_WHITE : UIConstants.TEXT_SECONDARY, false);
+            }
+        });
+
+        int offset = BAR_HEIGHT + UIConstants.PADDING_SMALL;
+        tickets.render(canvas, x, y + offset, width, height - offset, mouseX, mouseY);
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (button == 0 && mouseY >= 0 && mouseY < BAR_HEIGHT) {
+            PanelRow selected = tickets.getSelectedRow();
+            if (selected == null) return false;
+            for (int i = 0; i < BUTTONS.length; i++) {
+                int buttonX = buttonX(0, i);
+                if (mouseX >= buttonX && mouseX < buttonX + BUTTON_WIDTH) {
+                    PanelClient.getInstance().reportAction(selected, ACTIONS[i]);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int offset = BAR_HEIGHT + UIConstants.PADDING_SMALL;
+        return tickets.handleMouseClick(mouseX, mouseY - offset, button, width, height - offset);
+    }
+
+    @Override
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+        int offset = BAR_HEIGHT + UIConstants.PADDING_SMALL;
+        return tickets.handleMouseScroll(mouseX, mouseY - offset, amount, width, height - offset);
+    }
+
+    private static int buttonX(int x, int index) {
+        return x + index * (BUTTON_WIDTH + UIConstants.PADDING_SMALL);
+    }
+}
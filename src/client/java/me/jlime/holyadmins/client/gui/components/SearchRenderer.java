@@ -0,0 +1,129 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import me.jlime.holyadmins.client.network.PanelClient;
+import me.jlime.holyadmins.network.PanelSection;
+import net.minecraft.SharedConstants;
+import net.minecraft.client.gui.screen.Screen;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.Locale;
+
+/**
+ * Раздел поиска: строка запроса и таблица результатов
+ * Запрос отправляется на сервер при каждом нажатии клавиши; ответы на устаревшие запросы
+ * отбрасываются, а недавние запросы показываются сразу из кэша PanelClient
+ */
+public class SearchRenderer implements ContentManager.ContentRenderer {
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_QUERY_LENGTH = 64;
+    private static final int BOX_HEIGHT = 20;
+    private static final int CARET_BLINK_MS = 500;
+
+    private final StringBuilder query = new StringBuilder();
+    private final PanelTableRenderer results;
+    private String queryText = "";
+    private String filter = "";
+
+    public SearchRenderer() {
+        this.results = new PanelTableRenderer(PanelSection.SEARCH, "Игрок", "Кто", "Запись", "Время");
+        this.results.setEmptyText("Ничего не найдено");
+    }
+
+    @Override
+    public void onShow() {
+        if (isSearchable()) {
+            results.onShow();
+        }
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        // Строка запроса
+        canvas.roundedRect(x, y, width, BOX_HEIGHT, UIConstants.BUTTON_RADIUS, UIConstants.BUTTON_COLOR);
+        canvas.border(x, y, width, BOX_HEIGHT, 1, UIConstants.ACCENT_COLOR);
+
+        int textY = y + (BOX_HEIGHT - canvas.fontHeight()) / 2 + 1;
+        boolean caretVisible = System.currentTimeMillis() / CARET_BLINK_MS % 2 == 0;
+        canvas.textBatch(() -> {
+            if (queryText.isEmpty()) {
+                canvas.text("Ник, причина или текст записи",
+                        x + UIConstants.PADDING_SMALL, textY, UIConstants.TEXT_SECONDARY, false);
+            } else {
+                canvas.text(queryText, x + UIConstants.PADDING_SMALL, textY, UIConstants.TEXT_COLOR, false);
+            }
+            if (caretVisible) {
+                int caretX = x + UIConstants.PADDING_SMALL + canvas.textWidth(queryText);
+                canvas.text("_", caretX, textY, UIConstants.TEXT_COLOR, false);
+            }
+        });
+
+        int resultsY = y + BOX_HEIGHT + UIConstants.PADDING_MEDIUM;
+        int resultsHeight = height - BOX_HEIGHT - UIConstants.PADDING_MEDIUM;
+        if (!isSearchable()) {
+            canvas.textBatch(() ->
+                canvas.text("Введите не менее " + MIN_QUERY_LENGTH + " символов",
+                        x, resultsY, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+        results.render(canvas, x, resultsY, width, resultsHeight, mouseX, mouseY);
+    }
+
+    @Override
+    public boolean handleKeyPress(int keyCode, int scanCode, int modifiers) {
+        if (keyCode != GLFW.GLFW_KEY_BACKSPACE || query.length() == 0) return false;
+
+        if (Screen.hasControlDown()) {
+            // Удаление слова целиком
+            int end = query.length();
+            while (end > 0 && query.charAt(end - 1) == ' ') end--;
+            while (end > 0 && query.charAt(end - 1) != ' ') end--;
+            query.setLength(end);
+        } else {
+            query.setLength(query.length() - 1);
+        }
+        queryChanged();
+        return true;
+    }
+
+    @Override
+    public boolean handleCharTyped(char chr, int modifiers) {
+        if (!SharedConstants.isValidChar(chr)) return false;
+        if (query.length() >= MAX_QUERY_LENGTH) return true;
+
+        query.append(chr);
+        queryChanged();
+        return true;
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (!isSearchable()) return false;
+        int offset = BOX_HEIGHT + UIConstants.PADDING_MEDIUM;
+        return results.handleMouseClick(mouseX, mouseY - offset, button, width, height - offset);
+    }
+
+    @Override
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+        if (!isSearchable()) return false;
+        int offset = BOX_HEIGHT + UIConstants.PADDING_MEDIUM;
+        return results.handleMouseScroll(mouseX, mouseY - offset, amount, width, height - offset);
+    }
+
+    private void queryChanged() {
+        queryText = query.toString();
+        String normalized = queryText.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals(filter)) return;
+
+        filter = normalized;
+        results.setFilter(filter);
+        if (isSearchable()) {
+            PanelClient.getInstance().search(filter);
+        }
+    }
+
+    private boolean isSearchable() {
+        return filter.length() >= MIN_QUERY_LENGTH;
+    }
+}
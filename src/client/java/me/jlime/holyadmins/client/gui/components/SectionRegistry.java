@@ -0,0 +1,64 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Разделы контента по ID без зависимостей от отрисовки
+ * Заголовок и рендерер раздела находятся один раз при переходе в раздел,
+ * дальше кадр и ввод работают с готовой записью без поиска по карте
+ * @param <R> тип рендерера
+ */
+public final class SectionRegistry<R> {
+    private final Map<String, Section<R>> sections = new HashMap<>();
+    
+    /**
+     * Регистрирует рендерер раздела
+     * @param scope область FrameProfiler рендерера
+     */
+    public void register(String id, R renderer, int scope) {
+        sections.put(id, new Section<>(id, headerText(id), renderer, scope));
+    }
+    
+    /**
+     * Запись раздела; для незарегистрированного ID - запись без рендерера
+     */
+    public Section<R> resolve(String id) {
+        Section<R> section = sections.get(id);
+        return section != null ? section : new Section<>(id, headerText(id), null, -1);
+    }
+    
+    /**
+     * Текст заголовка раздела
+     */
+    public static String headerText(String section) {
+        switch (section) {
+            case "search": return UIConstants.ICON_SEARCH + " Поиск";
+            case "players": return UIConstants.ICON_PLAYERS + " Игроки";
+            case "lag": return UIConstants.ICON_LAG + " Нагрузка";
+            case "bans": return UIConstants.ICON_BANS + " Баны";
+            case "kicks": return UIConstants.ICON_KICKS + " Кики";
+            case "mutes": return UIConstants.ICON_MUTES + " Муты";
+            case "warns": return UIConstants.ICON_WARNS + " Предупреждения";
+            case "messages": return UIConstants.ICON_MESSAGES + " Переписка";
+            case "settings": return UIConstants.ICON_SETTINGS + " Настройки";
+            case "ban_reasons": return UIConstants.ICON_BAN + " Причины бана";
+            case "users": return UIConstants.ICON_USERS + " Пользователи";
+            case "reports": return UIConstants.ICON_REPORTS + " Жалобы";
+            case "logs": return UIConstants.ICON_LOGS + " Логи";
+            case "analytics": return UIConstants.ICON_ANALYTICS + " Аналитика";
+            case "help": return UIConstants.ICON_HELP + " Помощь";
+            default: return UIConstants.ICON_CROWN + " Holy Admins Panel";
+        }
+    }
+    
+    /**
+     * Раздел контента
+     * @param renderer null, если у раздела нет рендерера (заглушка)
+     * @param scope    область FrameProfiler или -1
+     */
+    public record Section<R>(String id, String header, R renderer, int scope) {
+    }
+}
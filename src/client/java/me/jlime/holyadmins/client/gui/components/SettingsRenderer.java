@@ -0,0 +1,72 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.config.ClientSettings;
+import me.jlime.holyadmins.client.gui.utils.FrameProfiler;
+import me.jlime.holyadmins.client.gui.utils.RenderUtils;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+
+import java.nio.file.Path;
+
+/**
+ * Раздел настроек клиента: отладочный оверлей отрисовки панели и выгрузка его замеров в CSV
+ */
+public class SettingsRenderer implements ContentManager.ContentRenderer {
+    private static final int ROW_HEIGHT = 24;
+    private static final int BUTTON_WIDTH = 140;
+    private static final int BUTTON_HEIGHT = 16;
+
+    private String dumpText = "";
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        boolean overlay = ClientSettings.get().isDebugOverlay();
+        int buttonX = x + width - BUTTON_WIDTH;
+        renderButton(canvas, buttonX, y, mouseX, mouseY, true);
+        renderButton(canvas, buttonX, y + ROW_HEIGHT, mouseX, mouseY, overlay);
+
+        int textOffset = (BUTTON_HEIGHT - canvas.fontHeight()) / 2 + 1;
+        String toggle = overlay ? "Выключить" : "Включить";
+        String dump = "Сохранить CSV";
+        canvas.textBatch(() -> {
+            canvas.text("Отладочный оверлей: время отрисовки, память, вызовы отрисовки",
+                    x, y + textOffset, UIConstants.TEXT_COLOR, false);
+            canvas.text(toggle, buttonX + (BUTTON_WIDTH - canvas.textWidth(toggle)) / 2, y + textOffset,
+                    UIConstants.TEXT_WHITE, false);
+
+            canvas.text("Замеры последних 240 кадров в CSV",
+                    x, y + ROW_HEIGHT + textOffset, overlay ? UIConstants.TEXT_COLOR : UIConstants.TEXT_SECONDARY, false);
+            canvas.text(dump, buttonX + (BUTTON_WIDTH - canvas.textWidth(dump)) / 2, y + ROW_HEIGHT + textOffset,
+                    overlay ? UIConstants.TEXT_WHITE : UIConstants.TEXT_SECONDARY, false);
+
+            if (!dumpText.isEmpty()) {
+                canvas.text(dumpText, x, y + ROW_HEIGHT * 2 + textOffset, UIConstants.TEXT_SECONDARY, false);
+            }
+        });
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (button != 0) return false;
+
+        int buttonX = width - BUTTON_WIDTH;
+        ClientSettings settings = ClientSettings.get();
+        if (RenderUtils.isPointInRect(mouseX, mouseY, buttonX, 0, BUTTON_WIDTH, BUTTON_HEIGHT)) {
+            settings.setDebugOverlay(!settings.isDebugOverlay());
+            return true;
+        }
+        if (settings.isDebugOverlay() && RenderUtils.isPointInRect(mouseX, mouseY, buttonX, ROW_HEIGHT, BUTTON_WIDTH, BUTTON_HEIGHT)) {
+            Path path = FrameProfiler.dumpCsv();
+            dumpText = path != null ? "Сохранено: " + path.getFileName() : "Не удалось сохранить файл, см. лог";
+            return true;
+        }
+        return false;
+    }
+
+    private static void renderButton(UiCanvas canvas, int x, int y, int mouseX, int mouseY, boolean enabled) {
+        int color = !enabled ? UIConstants.LIST_ROW_COLOR
+                : RenderUtils.isPointInRect(mouseX, mouseY, x, y, BUTTON_WIDTH, BUTTON_HEIGHT)
+                ? UIConstants.BUTTON_HOVER_COLOR : UIConstants.BUTTON_COLOR;
+        canvas.roundedRect(x, y, BUTTON_WIDTH, BUTTON_HEIGHT, UIConstants.BUTTON_RADIUS, color);
+    }
+}
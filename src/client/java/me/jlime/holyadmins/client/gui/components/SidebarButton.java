@@ -13,6 +13,7 @@ public class SidebarButton {
     public final Runnable action;
     private boolean enabled;
     private boolean visible;
+    private Runnable changeListener;
     
     /**
      * Создает новую кнопку боковой панели
@@ -41,7 +42,10 @@ public class SidebarButton {
      * Устанавливает состояние активности кнопки
      */
     public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
+        if (this.enabled != enabled) {
+            this.enabled = enabled;
+            notifyChanged();
+        }
     }
     
     /**
@@ -62,7 +66,23 @@ public class SidebarButton {
      * Устанавливает видимость кнопки
      */
     public void setVisible(boolean visible) {
-        this.visible = visible;
+        if (this.visible != visible) {
+            this.visible = visible;
+            notifyChanged();
+        }
+    }
+    
+    /**
+     * Устанавливает слушателя изменений состояния (используется SidebarManager)
+     */
+    void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+    
+    private void notifyChanged() {
+        if (changeListener != null) {
+            changeListener.run();
+        }
     }
     
     /**
@@ -0,0 +1,202 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Раскладка списка кнопок боковой панели без зависимостей от отрисовки
+ * Хранит кнопки по порядку и по ID, пересобирает смещения видимых кнопок только после изменений
+ * и находит видимый диапазон и кнопку под курсором арифметикой, без перебора
+ * @param <T> тип кнопки
+ */
+public final class SidebarLayout<T> {
+    public static final int BUTTON_STRIDE = UIConstants.BUTTON_HEIGHT + UIConstants.BUTTON_SPACING;
+    public static final int LIST_TOP = UIConstants.LOGO_HEIGHT + UIConstants.PADDING_LARGE + UIConstants.PADDING_MEDIUM;
+    public static final int VIEWPORT_TOP = UIConstants.LOGO_HEIGHT + UIConstants.PADDING_LARGE;
+    
+    private final Function<T, String> idOf;
+    private final Predicate<T> visibleOf;
+    private final List<T> items = new ArrayList<>();
+    private final Map<String, T> itemsById = new HashMap<>();
+    // Видимые кнопки по порядку и их смещения от начала списка
+    private Object[] layoutItems = new Object[16];
+    private int[] layoutY = new int[16];
+    private int layoutCount;
+    private boolean dirty;
+    
+    /**
+     * @param idOf      уникальный ID кнопки
+     * @param visibleOf участвует ли кнопка в раскладке
+     */
+    public SidebarLayout(Function<T, String> idOf, Predicate<T> visibleOf) {
+        this.idOf = idOf;
+        this.visibleOf = visibleOf;
+    }
+    
+    /**
+     * Добавляет кнопку в конец списка
+     * @return false, если кнопка с таким ID уже есть
+     */
+    public boolean add(T item) {
+        String id = idOf.apply(item);
+        if (itemsById.containsKey(id)) return false;
+        items.add(item);
+        itemsById.put(id, item);
+        dirty = true;
+        return true;
+    }
+    
+    /**
+     * Удаляет кнопку по ID
+     * @return удаленная кнопка или null
+     */
+    public T remove(String id) {
+        T item = itemsById.remove(id);
+        if (item == null) return null;
+        items.remove(item);
+        dirty = true;
+        return item;
+    }
+    
+    public void clear() {
+        items.clear();
+        itemsById.clear();
+        dirty = true;
+    }
+    
+    /**
+     * Кнопка по ID
+     */
+    public T get(String id) {
+        return itemsById.get(id);
+    }
+    
+    /**
+     * Все кнопки по порядку добавления, включая скрытые
+     */
+    public List<T> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+    
+    /**
+     * Видимость кнопки изменилась: раскладка пересоберется при следующем обращении
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+    
+    /**
+     * Пересобирает раскладку видимых кнопок; вызывается только после изменений
+     */
+    public void ensureLayout() {
+        if (!dirty) return;
+        
+        if (layoutItems.length < items.size()) {
+            int capacity = Math.max(items.size(), layoutItems.length * 2);
+            layoutItems = new Object[capacity];
+            layoutY = new int[capacity];
+        }
+        
+        int count = 0;
+        for (T item : items) {
+            if (!visibleOf.test(item)) continue;
+            layoutItems[count] = item;
+            layoutY[count] = count * BUTTON_STRIDE;
+            count++;
+        }
+        for (int i = count; i < layoutCount; i++) {
+            layoutItems[i] = null;
+        }
+        
+        layoutCount = count;
+        dirty = false;
+    }
+    
+    /**
+     * Число видимых кнопок
+     */
+    public int size() {
+        ensureLayout();
+        return layoutCount;
+    }
+    
+    /**
+     * Видимая кнопка по индексу раскладки
+     */
+    @SuppressWarnings("unchecked")
+    public T itemAt(int index) {
+        ensureLayout();
+        return (T) layoutItems[index];
+    }
+    
+    /**
+     * Экранная Y кнопки при заданной прокрутке
+     */
+    public int buttonY(int index, int scrollOffset) {
+        ensureLayout();
+        return LIST_TOP - scrollOffset + layoutY[index];
+    }
+    
+    /**
+     * Первый индекс раскладки, видимый при заданной прокрутке
+     */
+    public int firstVisibleIndex(int scrollOffset) {
+        // buttonY + BUTTON_HEIGHT >= VIEWPORT_TOP, где buttonY = LIST_TOP - scrollOffset + i * STRIDE
+        int minOffset = VIEWPORT_TOP - UIConstants.BUTTON_HEIGHT - LIST_TOP + scrollOffset;
+        if (minOffset <= 0) return 0;
+        return (minOffset + BUTTON_STRIDE - 1) / BUTTON_STRIDE;
+    }
+    
+    /**
+     * Последний индекс раскладки, видимый при заданных прокрутке и высоте экрана
+     */
+    public int lastVisibleIndex(int scrollOffset, int screenHeight) {
+        ensureLayout();
+        // buttonY <= screenHeight
+        int maxOffset = screenHeight - LIST_TOP + scrollOffset;
+        if (maxOffset < 0) return -1;
+        return Math.min(layoutCount - 1, maxOffset / BUTTON_STRIDE);
+    }
+    
+    /**
+     * Индекс видимой кнопки под курсором или -1
+     */
+    public int indexAt(double mouseX, double mouseY, int scrollOffset, int screenHeight) {
+        if (mouseX < UIConstants.PADDING_MEDIUM || mouseX > UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM) return -1;
+        
+        ensureLayout();
+        
+        double listY = mouseY - LIST_TOP + scrollOffset;
+        if (listY < 0) return -1;
+        
+        int index = (int) (listY / BUTTON_STRIDE);
+        if (index >= layoutCount) return -1;
+        
+        // Промежуток между кнопками
+        if (listY - layoutY[index] > UIConstants.BUTTON_HEIGHT) return -1;
+        
+        // Кнопка должна быть в видимой области, как при отрисовке
+        int buttonY = LIST_TOP - scrollOffset + layoutY[index];
+        if (buttonY + UIConstants.BUTTON_HEIGHT < VIEWPORT_TOP || buttonY > screenHeight) return -1;
+        
+        return index;
+    }
+    
+    /**
+     * Максимальное смещение прокрутки для заданной высоты экрана
+     */
+    public int maxScroll(int screenHeight) {
+        ensureLayout();
+        int totalButtonsHeight = layoutCount * UIConstants.BUTTON_HEIGHT + 
+                                (layoutCount - 1) * UIConstants.BUTTON_SPACING;
+        int availableHeight = screenHeight - UIConstants.LOGO_HEIGHT - UIConstants.PADDING_LARGE * 2;
+        return Math.max(0, totalButtonsHeight - availableHeight);
+    }
+}
@@ -1,50 +1,69 @@
 package me.jlime.holyadmins.client.gui.components;
 
 import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
 import me.jlime.holyadmins.client.gui.utils.RenderUtils;
-import net.minecraft.client.gui.DrawContext;
-import net.minecraft.client.font.TextRenderer;
-import net.minecraft.text.Text;
+import me.jlime.holyadmins.client.gui.utils.RetainedLayer;
+import me.jlime.holyadmins.client.gui.utils.TextCache;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Consumer;
 
 /**
  * Менеджер боковой панели
  * Управляет кнопками, прокруткой и отрисовкой боковой панели
+ * Панель рисуется во внеэкранный буфер и перерисовывается только при изменениях
+ * Поиск по ID и попадание мыши работают без перебора кнопок (см. SidebarLayout)
  */
 public class SidebarManager {
-    private final List<SidebarButton> buttons;
+    private static final int DEFAULT_SCREEN_HEIGHT = 600;
+    
+    private final SidebarLayout<SidebarButton> layout;
+    private int screenHeight;
     private String selectedButtonId;
     private int scrollOffset;
     private int maxScroll;
+    // Кнопки или высота экрана изменились: раскладка и прокрутка пересчитаются один раз при отрисовке
+    private boolean scrollDirty;
     private Consumer<String> onButtonSelected;
+    private final RetainedLayer layer;
+    private SidebarButton hoveredButton;
+    private int textCacheGeneration;
     
     public SidebarManager() {
-        this.buttons = new ArrayList<>();
+        this.layout = new SidebarLayout<>(SidebarButton::getId, SidebarButton::isVisible);
+        this.screenHeight = DEFAULT_SCREEN_HEIGHT;
         this.scrollOffset = 0;
         this.maxScroll = 0;
         this.selectedButtonId = "";
+        this.layer = new RetainedLayer();
     }
     
     public void initializeDefaultButtons() {
         // Очищаем существующие кнопки
-        buttons.clear();
+        for (SidebarButton button : layout.getItems()) {
+            button.setChangeListener(null);
+        }
+        layout.clear();
+        hoveredButton = null;
         
         // Добавляем кнопки по умолчанию
         addButton(new SidebarButton("home", "Главная", UIConstants.ICON_HOME, () -> selectButton("home")));
+        addButton(new SidebarButton("search", "Поиск", UIConstants.ICON_SEARCH, () -> selectButton("search")));
         addButton(new SidebarButton("players", "Игроки", UIConstants.ICON_PLAYERS, () -> selectButton("players")));
+        addButton(new SidebarButton("lag", "Нагрузка", UIConstants.ICON_LAG, () -> selectButton("lag")));
         addButton(new SidebarButton("bans", "Баны", UIConstants.ICON_BANS, () -> selectButton("bans")));
         addButton(new SidebarButton("kicks", "Кики", UIConstants.ICON_KICKS, () -> selectButton("kicks")));
         addButton(new SidebarButton("mutes", "Муты", UIConstants.ICON_MUTES, () -> selectButton("mutes")));
         addButton(new SidebarButton("warns", "Предупреждения", UIConstants.ICON_WARNS, () -> selectButton("warns")));
         addButton(new SidebarButton("reports", "Жалобы", UIConstants.ICON_REPORTS, () -> selectButton("reports")));
+        addButton(new SidebarButton("messages", "Переписка", UIConstants.ICON_MESSAGES, () -> selectButton("messages")));
+        addButton(new SidebarButton("logs", "Логи", UIConstants.ICON_LOGS, () -> selectButton("logs")));
+        addButton(new SidebarButton("analytics", "Аналитика", UIConstants.ICON_ANALYTICS, () -> selectButton("analytics")));
         addButton(new SidebarButton("settings", "Настройки", UIConstants.ICON_SETTINGS, () -> selectButton("settings")));
         
         // Выбираем первую кнопку по умолчанию
-        if (!buttons.isEmpty()) {
-            selectButton(buttons.get(0).getId());
+        if (!layout.getItems().isEmpty()) {
+            selectButton(layout.getItems().get(0).getId());
         }
     }
     
@@ -52,9 +71,9 @@ public class SidebarManager {
      * Добавляет кнопку в боковую панель
      */
     public void addButton(SidebarButton button) {
-        if (button != null && !buttons.contains(button)) {
-            buttons.add(button);
-            calculateMaxScroll();
+        if (button != null && layout.add(button)) {
+            button.setChangeListener(this::onButtonChanged);
+            invalidateScroll();
         }
     }
     
@@ -62,18 +81,21 @@ public class SidebarManager {
      * Удаляет кнопку из боковой панели
      */
     public void removeButton(String buttonId) {
-        buttons.removeIf(button -> button.id.equals(buttonId));
-        calculateMaxScroll();
+        SidebarButton button = layout.remove(buttonId);
+        if (button == null) return;
+        
+        button.setChangeListener(null);
+        invalidateScroll();
+        if (hoveredButton == button) {
+            hoveredButton = null;
+        }
     }
     
     /**
      * Получает кнопку по ID
      */
     public SidebarButton getButton(String buttonId) {
-        return buttons.stream()
-                .filter(button -> button.id.equals(buttonId))
-                .findFirst()
-                .orElse(null);
+        return layout.get(buttonId);
     }
     
     /**
@@ -81,6 +103,7 @@ public class SidebarManager {
      */
     public void selectButton(String buttonId) {
         this.selectedButtonId = buttonId;
+        layer.invalidate();
         if (onButtonSelected != null) {
             onButtonSelected.accept(buttonId);
         }
@@ -102,72 +125,120 @@ public class SidebarManager {
     
 
     
+    /**
+     * Помечает панель для перерисовки
+     */
+    public void invalidate() {
+        layer.invalidate();
+    }
+    
+    /**
+     * Видимость или активность кнопки изменилась
+     */
+    private void onButtonChanged() {
+        layout.invalidate();
+        invalidateScroll();
+    }
+    
+    /**
+     * Освобождает внеэкранный буфер панели
+     */
+    public void release() {
+        layer.close();
+    }
+    
     /**
      * Отрисовывает боковую панель
+     * В установившемся состоянии выводится только готовая текстура
      */
-    public void render(DrawContext context, TextRenderer textRenderer, int screenHeight, int mouseX, int mouseY) {
+    public void render(UiCanvas canvas, int screenHeight, int mouseX, int mouseY) {
+        ensureMaxScroll();
+        
+        // После перезагрузки ресурсов текст в слое устарел
+        if (textCacheGeneration != TextCache.getGeneration()) {
+            textCacheGeneration = TextCache.getGeneration();
+            layer.invalidate();
+        }
+        
+        // Смена наведения меняет цвет кнопки
+        SidebarButton hovered = findButtonAt(mouseX, mouseY, screenHeight);
+        if (hovered != hoveredButton) {
+            hoveredButton = hovered;
+            layer.invalidate();
+        }
+        
+        canvas.retained(layer, 0, 0, UIConstants.SIDEBAR_WIDTH, screenHeight, () -> renderPanel(canvas, screenHeight));
+    }
+    
+    /**
+     * Отрисовывает панель целиком
+     * Сначала вся геометрия пакетом, затем весь текст одним вызовом
+     */
+    private void renderPanel(UiCanvas canvas, int screenHeight) {
         // Фон боковой панели
-        context.fill(0, 0, UIConstants.SIDEBAR_WIDTH, screenHeight, UIConstants.SIDEBAR_COLOR);
+        canvas.fill(0, 0, UIConstants.SIDEBAR_WIDTH, screenHeight, UIConstants.SIDEBAR_COLOR);
         
         // Логотип
-        renderLogo(context, textRenderer);
+        renderLogo(canvas);
         
         // Кнопки
-        renderButtons(context, textRenderer, screenHeight, mouseX, mouseY);
+        renderButtons(canvas, screenHeight);
         
         // Скроллбар
         if (maxScroll > 0) {
-            renderScrollbar(context, screenHeight);
+            renderScrollbar(canvas, screenHeight);
         }
         
         // Граница
-        context.fill(UIConstants.SIDEBAR_WIDTH - 1, 0, UIConstants.SIDEBAR_WIDTH, screenHeight, UIConstants.BORDER_COLOR);
+        canvas.fill(UIConstants.SIDEBAR_WIDTH - 1, 0, UIConstants.SIDEBAR_WIDTH, screenHeight, UIConstants.BORDER_COLOR);
+        
+        // Текст поверх геометрии
+        canvas.textBatch(() -> {
+            renderLogoText(canvas);
+            renderButtonLabels(canvas, screenHeight);
+        });
     }
     
     /**
-     * Отрисовывает логотип
+     * Отрисовывает фон логотипа
      */
-    private void renderLogo(DrawContext context, TextRenderer textRenderer) {
+    private void renderLogo(UiCanvas canvas) {
         // Фон логотипа с градиентом
-        RenderUtils.drawGradientRect(context, 
+        canvas.gradient(
                 UIConstants.PADDING_MEDIUM, UIConstants.PADDING_MEDIUM, 
                 UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM * 2, UIConstants.LOGO_HEIGHT, 
                 UIConstants.ACCENT_COLOR, UIConstants.ACCENT_SECONDARY);
-        
+    }
+    
+    /**
+     * Отрисовывает текст логотипа
+     */
+    private void renderLogoText(UiCanvas canvas) {
         // Текст логотипа
-        Text logoText = Text.literal("Holy Admins");
-        int logoWidth = textRenderer.getWidth(logoText);
+        String logoText = "Holy Admins";
+        int logoWidth = canvas.textWidth(logoText);
         int logoX = (UIConstants.SIDEBAR_WIDTH - logoWidth) / 2;
         int logoY = UIConstants.PADDING_MEDIUM + (UIConstants.LOGO_HEIGHT - 9) / 2;
         
-        context.drawText(textRenderer, logoText, logoX, logoY, UIConstants.TEXT_WHITE, true);
+        canvas.text(logoText, logoX, logoY, UIConstants.TEXT_WHITE, true);
         
         // Иконка логотипа
-        Text logoIcon = Text.literal(UIConstants.ICON_CROWN);
-        int iconWidth = textRenderer.getWidth(logoIcon);
+        int iconWidth = canvas.textWidth(UIConstants.ICON_CROWN);
         int iconX = (UIConstants.SIDEBAR_WIDTH - iconWidth) / 2;
-        context.drawText(textRenderer, logoIcon, iconX, logoY - 15, UIConstants.TEXT_WHITE, false);
+        canvas.text(UIConstants.ICON_CROWN, iconX, logoY - 15, UIConstants.TEXT_WHITE, false);
     }
     
     /**
-     * Отрисовывает кнопки
+     * Отрисовывает фоны кнопок
      */
-    private void renderButtons(DrawContext context, TextRenderer textRenderer, int screenHeight, int mouseX, int mouseY) {
-        int buttonY = UIConstants.LOGO_HEIGHT + UIConstants.PADDING_LARGE + UIConstants.PADDING_MEDIUM - scrollOffset;
+    private void renderButtons(UiCanvas canvas, int screenHeight) {
+        int last = layout.lastVisibleIndex(scrollOffset, screenHeight);
         
-        for (SidebarButton button : buttons) {
-            if (!button.isVisible()) continue;
-            
-            // Пропускаем невидимые кнопки
-            if (buttonY + UIConstants.BUTTON_HEIGHT < UIConstants.LOGO_HEIGHT + UIConstants.PADDING_LARGE || 
-                buttonY > screenHeight) {
-                buttonY += UIConstants.BUTTON_HEIGHT + UIConstants.BUTTON_SPACING;
-                continue;
-            }
+        for (int i = layout.firstVisibleIndex(scrollOffset); i <= last; i++) {
+            SidebarButton button = layout.itemAt(i);
+            int buttonY = layout.buttonY(i, scrollOffset);
             
-            boolean isHovered = RenderUtils.isPointInRect(mouseX, mouseY, 
-                    UIConstants.PADDING_MEDIUM, buttonY, 
-                    UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM * 2, UIConstants.BUTTON_HEIGHT);
+            boolean isHovered = button == hoveredButton;
             boolean isSelected = button.id.equals(selectedButtonId);
             
             // Цвет кнопки
@@ -183,35 +254,43 @@ public class SidebarManager {
             }
             
             // Фон кнопки
-            RenderUtils.drawRoundedRect(context, 
+            canvas.roundedRect(
                     UIConstants.PADDING_MEDIUM, buttonY, 
                     UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM * 2, UIConstants.BUTTON_HEIGHT, 
                     UIConstants.BUTTON_RADIUS, buttonColor);
+        }
+    }
+    
+    /**
+     * Отрисовывает иконки и подписи кнопок
+     */
+    private void renderButtonLabels(UiCanvas canvas, int screenHeight) {
+        int last = layout.lastVisibleIndex(scrollOffset, screenHeight);
+        
+        for (int i = layout.firstVisibleIndex(scrollOffset); i <= last; i++) {
+            SidebarButton button = layout.itemAt(i);
+            int buttonY = layout.buttonY(i, scrollOffset);
             
             // Текст кнопки
             int textColor = button.isEnabled() ? UIConstants.TEXT_COLOR : UIConstants.TEXT_SECONDARY;
             
             // Иконка
-            context.drawText(textRenderer, Text.literal(button.icon), 
-                    UIConstants.PADDING_LARGE, buttonY + UIConstants.PADDING_MEDIUM, textColor, false);
+            canvas.text(button.icon, UIConstants.PADDING_LARGE, buttonY + UIConstants.PADDING_MEDIUM, textColor, false);
             
             // Текст
-            context.drawText(textRenderer, Text.literal(button.text), 
-                    UIConstants.PADDING_LARGE * 2, buttonY + UIConstants.PADDING_MEDIUM, textColor, false);
-            
-            buttonY += UIConstants.BUTTON_HEIGHT + UIConstants.BUTTON_SPACING;
+            canvas.text(button.text, UIConstants.PADDING_LARGE * 2, buttonY + UIConstants.PADDING_MEDIUM, textColor, false);
         }
     }
     
     /**
      * Отрисовывает скроллбар
      */
-    private void renderScrollbar(DrawContext context, int screenHeight) {
+    private void renderScrollbar(UiCanvas canvas, int screenHeight) {
         int scrollbarX = UIConstants.SIDEBAR_WIDTH - UIConstants.SCROLLBAR_WIDTH - 2;
         int scrollbarY = UIConstants.LOGO_HEIGHT + UIConstants.PADDING_LARGE;
         int scrollbarHeight = screenHeight - UIConstants.LOGO_HEIGHT - UIConstants.PADDING_LARGE * 2;
         
-        RenderUtils.drawScrollbar(context, scrollbarX, scrollbarY, scrollbarHeight, 
+        canvas.scrollbar(scrollbarX, scrollbarY, scrollbarHeight, 
                 scrollOffset, maxScroll, UIConstants.SCROLLBAR_TRACK_COLOR, UIConstants.SCROLLBAR_THUMB_COLOR);
     }
     
@@ -219,70 +298,64 @@ public class SidebarManager {
      * Обрабатывает клик мыши
      */
     public boolean handleMouseClick(double mouseX, double mouseY, int screenHeight) {
-        if (mouseX < 0 || mouseX > UIConstants.SIDEBAR_WIDTH) return false;
-        
-        int buttonY = UIConstants.LOGO_HEIGHT + UIConstants.PADDING_LARGE + UIConstants.PADDING_MEDIUM - scrollOffset;
-        
-        for (SidebarButton button : buttons) {
-            if (!button.isVisible() || !button.isEnabled()) {
-                buttonY += UIConstants.BUTTON_HEIGHT + UIConstants.BUTTON_SPACING;
-                continue;
-            }
-            
-            if (buttonY + UIConstants.BUTTON_HEIGHT < UIConstants.LOGO_HEIGHT + UIConstants.PADDING_LARGE || 
-                buttonY > screenHeight) {
-                buttonY += UIConstants.BUTTON_HEIGHT + UIConstants.BUTTON_SPACING;
-                continue;
-            }
-            
-            if (RenderUtils.isPointInRect(mouseX, mouseY, 
-                    UIConstants.PADDING_MEDIUM, buttonY, 
-                    UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM * 2, UIConstants.BUTTON_HEIGHT)) {
-                button.performAction();
-                return true;
-            }
-            
-            buttonY += UIConstants.BUTTON_HEIGHT + UIConstants.BUTTON_SPACING;
-        }
+        ensureMaxScroll();
+        SidebarButton button = findButtonAt(mouseX, mouseY, screenHeight);
+        if (button == null || !button.isEnabled()) return false;
         
-        return false;
+        button.performAction();
+        return true;
+    }
+    
+    /**
+     * Находит видимую кнопку под курсором арифметикой по раскладке
+     */
+    private SidebarButton findButtonAt(double mouseX, double mouseY, int screenHeight) {
+        int index = layout.indexAt(mouseX, mouseY, scrollOffset, screenHeight);
+        return index >= 0 ? layout.itemAt(index) : null;
     }
     
     /**
      * Обрабатывает прокрутку мыши
      */
     public boolean handleMouseScroll(double mouseX, double mouseY, double amount) {
+        ensureMaxScroll();
         if (mouseX < UIConstants.SIDEBAR_WIDTH && maxScroll > 0) {
-            scrollOffset = RenderUtils.clamp(
+            int newOffset = RenderUtils.clamp(
                     scrollOffset - (int)(amount * UIConstants.SCROLL_SPEED), 
                     0, maxScroll);
+            if (newOffset != scrollOffset) {
+                scrollOffset = newOffset;
+                layer.invalidate();
+            }
             return true;
         }
         return false;
     }
     
     /**
-     * Вычисляет максимальное смещение прокрутки
+     * Помечает прокрутку для пересчета; добавление многих кнопок подряд не пересобирает раскладку на каждой
+     */
+    private void invalidateScroll() {
+        scrollDirty = true;
+        layer.invalidate();
+    }
+    
+    /**
+     * Вычисляет максимальное смещение прокрутки для последней известной высоты экрана, если что-то изменилось
      */
-    private void calculateMaxScroll() {
-        int visibleButtons = (int) buttons.stream().filter(SidebarButton::isVisible).count();
-        int totalButtonsHeight = visibleButtons * UIConstants.BUTTON_HEIGHT + 
-                                (visibleButtons - 1) * UIConstants.BUTTON_SPACING;
-        int availableHeight = 600 - UIConstants.LOGO_HEIGHT - UIConstants.PADDING_LARGE * 2; // Примерная высота экрана
+    private void ensureMaxScroll() {
+        if (!scrollDirty) return;
         
-        maxScroll = Math.max(0, totalButtonsHeight - availableHeight);
+        scrollDirty = false;
+        maxScroll = layout.maxScroll(screenHeight);
+        scrollOffset = RenderUtils.clamp(scrollOffset, 0, maxScroll);
     }
     
     /**
      * Обновляет максимальную прокрутку для заданной высоты экрана
      */
     public void updateMaxScroll(int screenHeight) {
-        int visibleButtons = (int) buttons.stream().filter(SidebarButton::isVisible).count();
-        int totalButtonsHeight = visibleButtons * UIConstants.BUTTON_HEIGHT + 
-                                (visibleButtons - 1) * UIConstants.BUTTON_SPACING;
-        int availableHeight = screenHeight - UIConstants.LOGO_HEIGHT - UIConstants.PADDING_LARGE * 2;
-        
-        maxScroll = Math.max(0, totalButtonsHeight - availableHeight);
-        scrollOffset = RenderUtils.clamp(scrollOffset, 0, maxScroll);
+        this.screenHeight = screenHeight;
+        invalidateScroll();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,422 @@
+package me.jlime.holyadmins.client.gui.components;
+
+import me.jlime.holyadmins.client.gui.utils.RenderUtils;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import me.jlime.holyadmins.client.gui.utils.UiCanvas;
+import net.minecraft.client.gui.screen.Screen;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Виртуализированный список для больших таблиц (игроки, баны, жалобы)
+ * Рисует только видимые строки; видимый диапазон и попадание мыши вычисляются
+ * арифметикой (фиксированная высота) или бинарным поиском по префиксным суммам (переменная высота).
+ * С множественным выбором Ctrl+клик добавляет или убирает строку, Shift+клик выбирает диапазон
+ * от последней строки, выбранной без Shift
+ *
+ * @param <T> тип элемента строки
+ */
+public class VirtualListRenderer<T> implements ContentManager.ContentRenderer {
+    private static final int EMPTY_INDEX = -1;
+
+    private final RowRenderer<T> rowRenderer;
+    private final RowHeight<T> rowHeight;
+    private final int fixedRowHeight;
+
+    private List<T> items;
+    // offsets[i] - верхняя граница строки i, offsets[size] - общая высота (только для переменной высоты)
+    private int[] offsets;
+    private boolean offsetsDirty;
+
+    private int scrollOffset;
+    // Последняя строка, выбранная без Shift; от нее отсчитывается диапазон
+    private int selectedIndex;
+    private final BitSet selection = new BitSet();
+    private boolean multiSelect;
+    private RowClickListener<T> clickListener;
+    private String emptyText;
+
+    /**
+     * Создает список со строками фиксированной высоты
+     */
+    public VirtualListRenderer(int rowHeight, RowRenderer<T> rowRenderer) {
+        if (rowHeight <= 0) {
+            throw new IllegalArgumentException("Row height must be positive");
+        }
+        this.rowRenderer = Objects.requireNonNull(rowRenderer, "Row renderer cannot be null");
+        this.rowHeight = null;
+        this.fixedRowHeight = rowHeight;
+        this.items = Collections.emptyList();
+        this.selectedIndex = EMPTY_INDEX;
+        this.emptyText = "Нет данных";
+    }
+
+    /**
+     * Создает список со строками переменной высоты
+     */
+    public VirtualListRenderer(RowHeight<T> rowHeight, RowRenderer<T> rowRenderer) {
+        this.rowRenderer = Objects.requireNonNull(rowRenderer, "Row renderer cannot be null");
+        this.rowHeight = Objects.requireNonNull(rowHeight, "Row height cannot be null");
+        this.fixedRowHeight = 0;
+        this.items = Collections.emptyList();
+        this.offsets = new int[1];
+        this.selectedIndex = EMPTY_INDEX;
+        this.emptyText = "Нет данных";
+    }
+
+    /**
+     * Устанавливает элементы списка. Список должен поддерживать быстрый доступ по индексу
+     */
+    public void setItems(List<T> items) {
+        this.items = items != null ? items : Collections.emptyList();
+        if (selectedIndex >= this.items.size()) {
+            selectedIndex = EMPTY_INDEX;
+        }
+        if (selection.length() > this.items.size()) {
+            selection.clear(this.items.size(), selection.length());
+        }
+        notifyItemsChanged();
+    }
+
+    /**
+     * Получает элементы списка
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Сообщает, что элементы или их высоты изменились
+     */
+    public void notifyItemsChanged() {
+        offsetsDirty = true;
+    }
+
+    /**
+     * Устанавливает обработчик клика по строке
+     */
+    public void setClickListener(RowClickListener<T> clickListener) {
+        this.clickListener = clickListener;
+    }
+
+    /**
+     * Устанавливает текст для пустого списка
+     */
+    public void setEmptyText(String emptyText) {
+        this.emptyText = Objects.requireNonNull(emptyText, "Empty text cannot be null");
+    }
+
+    /**
+     * Включает множественный выбор строк с Ctrl и Shift
+     */
+    public void setMultiSelect(boolean multiSelect) {
+        this.multiSelect = multiSelect;
+    }
+
+    /**
+     * Получает индекс выбранной строки или -1
+     */
+    public int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    /**
+     * Устанавливает выбранную строку; остальные строки снимаются с выбора
+     */
+    public void setSelectedIndex(int selectedIndex) {
+        this.selectedIndex = selectedIndex >= 0 && selectedIndex < items.size() ? selectedIndex : EMPTY_INDEX;
+        selection.clear();
+        if (this.selectedIndex != EMPTY_INDEX) {
+            selection.set(this.selectedIndex);
+        }
+    }
+
+    /**
+     * Получает выбранный элемент или null; при множественном выборе - последний выбранный без Shift
+     */
+    public T getSelectedItem() {
+        return selectedIndex != EMPTY_INDEX && selection.get(selectedIndex) ? items.get(selectedIndex) : null;
+    }
+
+    /**
+     * Получает копию набора индексов выбранных строк
+     */
+    public BitSet getSelection() {
+        return (BitSet) selection.clone();
+    }
+
+    /**
+     * Устанавливает выбранные строки
+     * @param selectedIndex строка, от которой отсчитывается диапазон Shift, или -1
+     */
+    public void setSelection(int selectedIndex, BitSet selected) {
+        this.selectedIndex = selectedIndex >= 0 && selectedIndex < items.size() ? selectedIndex : EMPTY_INDEX;
+        selection.clear();
+        selection.or(selected);
+        if (selection.length() > items.size()) {
+            selection.clear(items.size(), selection.length());
+        }
+    }
+
+    /**
+     * Получает выбранные элементы в порядке списка
+     */
+    public List<T> getSelectedItems() {
+        List<T> selected = new ArrayList<>(selection.cardinality());
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            selected.add(items.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Количество выбранных строк
+     */
+    public int getSelectedCount() {
+        return selection.cardinality();
+    }
+
+    /**
+     * Получает смещение прокрутки
+     */
+    public int getScrollOffset() {
+        return scrollOffset;
+    }
+
+    /**
+     * Устанавливает смещение прокрутки; границы проверяются при отрисовке
+     */
+    public void setScrollOffset(int scrollOffset) {
+        this.scrollOffset = Math.max(0, scrollOffset);
+    }
+
+    /**
+     * Прокручивает список так, чтобы строка была видна
+     */
+    public void scrollToIndex(int index, int viewportHeight) {
+        if (index < 0 || index >= items.size()) return;
+        int top = rowTop(index);
+        int bottom = rowTop(index + 1);
+        if (top < scrollOffset) {
+            scrollOffset = top;
+        } else if (bottom > scrollOffset + viewportHeight) {
+            scrollOffset = bottom - viewportHeight;
+        }
+        scrollOffset = RenderUtils.clamp(scrollOffset, 0, getMaxScroll(viewportHeight));
+    }
+
+    /**
+     * Общая высота всех строк
+     */
+    public int getTotalHeight() {
+        return rowTop(items.size());
+    }
+
+    /**
+     * Максимальное смещение прокрутки для заданной высоты области
+     */
+    public int getMaxScroll(int viewportHeight) {
+        return Math.max(0, getTotalHeight() - viewportHeight);
+    }
+
+    /**
+     * Индекс строки, содержащей вертикальную координату списка (с учетом прокрутки), или -1
+     */
+    public int indexAt(int listY) {
+        int size = items.size();
+        if (listY < 0 || size == 0) return EMPTY_INDEX;
+
+        if (rowHeight == null) {
+            int index = listY / fixedRowHeight;
+            return index < size ? index : EMPTY_INDEX;
+        }
+
+        ensureOffsets();
+        if (listY >= offsets[size]) return EMPTY_INDEX;
+
+        // Последняя строка, начало которой не больше listY
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= listY) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Верхняя граница строки в координатах списка
+     */
+    public int rowTop(int index) {
+        if (rowHeight == null) {
+            return index * fixedRowHeight;
+        }
+        ensureOffsets();
+        return offsets[index];
+    }
+
+    @Override
+    public void render(UiCanvas canvas, int x, int y, int width, int height, int mouseX, int mouseY) {
+        int size = items.size();
+        if (size == 0) {
+            canvas.textBatch(() -> canvas.text(emptyText, x, y, UIConstants.TEXT_SECONDARY, false));
+            return;
+        }
+
+        int maxScroll = getMaxScroll(height);
+        scrollOffset = RenderUtils.clamp(scrollOffset, 0, maxScroll);
+        int rowsWidth = maxScroll > 0 ? width - UIConstants.SCROLLBAR_WIDTH - 2 : width;
+
+        // Видимый диапазон строк без перебора всего списка
+        int first = indexAt(scrollOffset);
+        int last = indexAt(scrollOffset + height - 1);
+        if (last == EMPTY_INDEX) {
+            last = size - 1;
+        }
+
+        int hoveredIndex = EMPTY_INDEX;
+        if (RenderUtils.isPointInRect(mouseX, mouseY, x, y, rowsWidth, height)) {
+            hoveredIndex = indexAt(mouseY - y + scrollOffset);
+        }
+
+        // Геометрия до ножниц относится к остальному экрану
+        canvas.flush();
+        canvas.enableScissor(x, y, x + rowsWidth, y + height);
+
+        for (int i = first; i <= last; i++) {
+            int rowY = y + rowTop(i) - scrollOffset;
+            int rowH = rowTop(i + 1) - rowTop(i);
+            int background = rowBackground(i, i == hoveredIndex);
+            if (background != 0) {
+                canvas.fill(x, rowY, x + rowsWidth, rowY + rowH, background);
+            }
+            rowRenderer.renderBackground(canvas, items.get(i), i, x, rowY, rowsWidth, rowH);
+        }
+
+        int firstRow = first;
+        int lastRow = last;
+        int hovered = hoveredIndex;
+        canvas.textBatch(() -> {
+            for (int i = firstRow; i <= lastRow; i++) {
+                int rowY = y + rowTop(i) - scrollOffset;
+                int rowH = rowTop(i + 1) - rowTop(i);
+                rowRenderer.renderRow(canvas, items.get(i), i, x, rowY, rowsWidth, rowH,
+                        i == hovered, selection.get(i));
+            }
+        });
+
+        canvas.disableScissor();
+
+        if (maxScroll > 0) {
+            canvas.scrollbar(x + width - UIConstants.SCROLLBAR_WIDTH, y, height,
+                    scrollOffset, maxScroll, UIConstants.SCROLLBAR_TRACK_COLOR, UIConstants.SCROLLBAR_THUMB_COLOR);
+        }
+    }
+
+    @Override
+    public boolean handleMouseClick(double mouseX, double mouseY, int button, int width, int height) {
+        if (mouseX < 0 || mouseY < 0 || mouseX > width || mouseY > height) return false;
+
+        int index = indexAt((int) mouseY + scrollOffset);
+        if (index == EMPTY_INDEX) return false;
+
+        select(index);
+        if (clickListener != null) {
+            clickListener.onRowClicked(items.get(index), index, button);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handleMouseScroll(double mouseX, double mouseY, double amount, int width, int height) {
+        int maxScroll = getMaxScroll(height);
+        if (maxScroll <= 0) return false;
+
+        scrollOffset = RenderUtils.clamp(scrollOffset - (int) (amount * UIConstants.SCROLL_SPEED), 0, maxScroll);
+        return true;
+    }
+
+    /**
+     * Выбор строки кликом с учетом Ctrl и Shift
+     */
+    private void select(int index) {
+        if (multiSelect && Screen.hasShiftDown() && selectedIndex != EMPTY_INDEX) {
+            selection.clear();
+            selection.set(Math.min(selectedIndex, index), Math.max(selectedIndex, index) + 1);
+        } else if (multiSelect && Screen.hasControlDown()) {
+            selection.flip(index);
+            selectedIndex = index;
+        } else {
+            setSelectedIndex(index);
+        }
+    }
+
+    /**
+     * Цвет фона строки: выбранная, под курсором или чередование
+     */
+    private int rowBackground(int index, boolean hovered) {
+        if (selection.get(index)) return UIConstants.LIST_ROW_SELECTED_COLOR;
+        if (hovered) return UIConstants.LIST_ROW_HOVER_COLOR;
+        return (index & 1) == 0 ? UIConstants.LIST_ROW_COLOR : 0;
+    }
+
+    /**
+     * Пересчитывает префиксные суммы высот, если элементы изменились
+     */
+    private void ensureOffsets() {
+        if (!offsetsDirty) return;
+
+        int size = items.size();
+        if (offsets.length < size + 1) {
+            offsets = new int[Math.max(size + 1, offsets.length * 2)];
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            offsets[i] = total;
+            total += Math.max(1, rowHeight.getHeight(items.get(i), i));
+        }
+        offsets[size] = total;
+        offsetsDirty = false;
+    }
+
+    /**
+     * Отрисовка строки списка
+     */
+    public interface RowRenderer<T> {
+        /**
+         * Текст и прочие элементы строки; вызывается внутри общего пакета текста
+         */
+        void renderRow(UiCanvas canvas, T item, int index,
+                       int x, int y, int width, int height, boolean hovered, boolean selected);
+
+        /**
+         * Дополнительная геометрия строки (значки, полосы); рисуется до текста
+         */
+        default void renderBackground(UiCanvas canvas, T item, int index, int x, int y, int width, int height) {
+        }
+    }
+
+    /**
+     * Высота строки для списков с переменной высотой
+     */
+    @FunctionalInterface
+    public interface RowHeight<T> {
+        int getHeight(T item, int index);
+    }
+
+    /**
+     * Обработчик клика по строке
+     */
+    @FunctionalInterface
+    public interface RowClickListener<T> {
+        void onRowClicked(T item, int index, int button);
+    }
+}
@@ -0,0 +1,96 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.gui.DrawContext;
+
+/**
+ * Отрисовка на экран: геометрия через GeometryBatcher, текст через DrawContext и TextCache
+ * Один экземпляр на экран, контекст кадра передается через set
+ */
+public final class DrawContextCanvas implements UiCanvas {
+    private DrawContext context;
+    private TextRenderer textRenderer;
+    
+    /**
+     * Контекст и шрифт текущего кадра
+     */
+    public DrawContextCanvas set(DrawContext context, TextRenderer textRenderer) {
+        this.context = context;
+        this.textRenderer = textRenderer;
+        return this;
+    }
+    
+    @Override
+    public void fill(int x1, int y1, int x2, int y2, int color) {
+        RenderUtils.fill(context, x1, y1, x2, y2, color);
+    }
+    
+    @Override
+    public void gradient(int x, int y, int width, int height, int colorTop, int colorBottom) {
+        RenderUtils.drawGradientRect(context, x, y, width, height, colorTop, colorBottom);
+    }
+    
+    @Override
+    public void roundedRect(int x, int y, int width, int height, int radius, int color) {
+        RenderUtils.drawRoundedRect(context, x, y, width, height, radius, color);
+    }
+    
+    @Override
+    public void shadow(int x, int y, int width, int height, int radius, int size, int color) {
+        RenderUtils.drawShadow(context, x, y, width, height, radius, size, color);
+    }
+    
+    @Override
+    public void border(int x, int y, int width, int height, int thickness, int color) {
+        RenderUtils.drawRectBorder(context, x, y, width, height, thickness, color);
+    }
+    
+    @Override
+    public void text(String text, int x, int y, int color, boolean shadow) {
+        context.drawText(textRenderer, TextCache.ordered(text), x, y, color, shadow);
+    }
+    
+    @Override
+    public void textBatch(Runnable callback) {
+        RenderUtils.drawTextBatch(context, callback);
+    }
+    
+    @Override
+    public void flush() {
+        RenderUtils.flush(context);
+    }
+    
+    @Override
+    public void enableScissor(int x1, int y1, int x2, int y2) {
+        context.enableScissor(x1, y1, x2, y2);
+    }
+    
+    @Override
+    public void disableScissor() {
+        context.disableScissor();
+    }
+    
+    @Override
+    public int textWidth(String text) {
+        return TextCache.width(textRenderer, text);
+    }
+    
+    @Override
+    public int fontHeight() {
+        return textRenderer.fontHeight;
+    }
+    
+    @Override
+    public String trimToWidth(String text, int maxWidth) {
+        return textRenderer.trimToWidth(text, maxWidth);
+    }
+    
+    @Override
+    public void retained(RetainedLayer layer, int x, int y, int width, int height, Runnable callback) {
+        if (layer.beginCapture(context)) {
+            callback.run();
+            layer.endCapture(context);
+        }
+        layer.draw(context, x, y, width, height);
+    }
+}
@@ -0,0 +1,244 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Замеры отрисовки панели для отладочного оверлея
+ *
+ * Для каждой области (весь кадр, боковая панель, контент, рендерер раздела) в кольца последних
+ * WINDOW кадров пишутся время (System.nanoTime), выделенная потоком память (счетчик выделений потока JVM),
+ * вызовы отрисовки (растущий счетчик GeometryBatcher, поэтому кадр можно открыть и до GeometryBatcher.begin())
+ * и новые Text (промахи TextCache). Вложенные области входят в родительские.
+ * Вызовы отрисовки пакета учитываются в той области, где пакет был отправлен.
+ * Процентили пересчитываются раз в STATS_INTERVAL кадров. Выключенный профилировщик стоит одного сравнения.
+ * Используется только из потока отрисовки
+ */
+public final class FrameProfiler {
+    public static final int FRAME = 0;
+    private static final int WINDOW = 240;
+    private static final int STATS_INTERVAL = 15;
+    private static final int MAX_SCOPES = 32;
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private static final Map<String, Integer> SCOPES = new HashMap<>();
+    private static final List<String> SCOPE_NAMES = new ArrayList<>();
+    // Кольца по области: [область][кадр]
+    private static final long[][] NANOS = new long[MAX_SCOPES][WINDOW];
+    private static final long[][] BYTES = new long[MAX_SCOPES][WINDOW];
+    private static final int[][] DRAW_CALLS = new int[MAX_SCOPES][WINDOW];
+    private static final int[][] TEXTS = new int[MAX_SCOPES][WINDOW];
+    // Начало открытой области
+    private static final long[] START_NANOS = new long[MAX_SCOPES];
+    private static final long[] START_BYTES = new long[MAX_SCOPES];
+    private static final long[] START_DRAW_CALLS = new long[MAX_SCOPES];
+    private static final long[] START_TEXTS = new long[MAX_SCOPES];
+    // Область участвовала в текущем кадре (рендерер раздела рисуется не в каждом)
+    private static final boolean[] TOUCHED = new boolean[MAX_SCOPES];
+    private static final long[] SCRATCH = new long[WINDOW];
+
+    private static boolean enabled;
+    private static int frame;
+    private static int frameCount;
+    private static long frameIndex;
+    private static Stats[] stats = new Stats[0];
+
+    static {
+        scope("frame");
+    }
+
+    /**
+     * Номер области по имени; создается при первом обращении
+     */
+    public static int scope(String name) {
+        Integer index = SCOPES.get(name);
+        if (index != null) return index;
+        if (SCOPE_NAMES.size() == MAX_SCOPES) {
+            throw new IllegalStateException("Too many profiler scopes: " + name);
+        }
+        int scope = SCOPE_NAMES.size();
+        SCOPES.put(name, scope);
+        SCOPE_NAMES.add(name);
+        return scope;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        if (FrameProfiler.enabled == enabled) return;
+        FrameProfiler.enabled = enabled;
+        reset();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Начало кадра панели
+     */
+    public static void beginFrame() {
+        if (!enabled) return;
+        Arrays.fill(TOUCHED, false);
+        begin(FRAME);
+    }
+
+    /**
+     * Конец кадра панели: области, не рисовавшиеся в кадре, получают нули
+     */
+    public static void endFrame() {
+        if (!enabled) return;
+        end(FRAME);
+        for (int scope = 0; scope < SCOPE_NAMES.size(); scope++) {
+            if (!TOUCHED[scope]) {
+                NANOS[scope][frame] = 0L;
+                BYTES[scope][frame] = 0L;
+                DRAW_CALLS[scope][frame] = 0;
+                TEXTS[scope][frame] = 0;
+            }
+        }
+        frame = (frame + 1) % WINDOW;
+        frameCount = Math.min(frameCount + 1, WINDOW);
+        if (++frameIndex % STATS_INTERVAL == 0) {
+            updateStats();
+        }
+    }
+
+    public static void begin(int scope) {
+        if (!enabled) return;
+        START_BYTES[scope] = allocatedBytes();
+        START_DRAW_CALLS[scope] = GeometryBatcher.getTotalDrawCalls();
+        START_TEXTS[scope] = TextCache.getMisses();
+        START_NANOS[scope] = System.nanoTime();
+    }
+
+    public static void end(int scope) {
+        if (!enabled) return;
+        long nanos = System.nanoTime() - START_NANOS[scope];
+        // Область может открываться несколько раз за кадр - значения складываются
+        if (!TOUCHED[scope]) {
+            TOUCHED[scope] = true;
+            NANOS[scope][frame] = 0L;
+            BYTES[scope][frame] = 0L;
+            DRAW_CALLS[scope][frame] = 0;
+            TEXTS[scope][frame] = 0;
+        }
+        NANOS[scope][frame] += nanos;
+        BYTES[scope][frame] += Math.max(0L, allocatedBytes() - START_BYTES[scope]);
+        DRAW_CALLS[scope][frame] += (int) (GeometryBatcher.getTotalDrawCalls() - START_DRAW_CALLS[scope]);
+        TEXTS[scope][frame] += (int) (TextCache.getMisses() - START_TEXTS[scope]);
+    }
+
+    /**
+     * Процентили последних кадров по областям; обновляются раз в STATS_INTERVAL кадров
+     */
+    public static Stats[] getStats() {
+        return stats;
+    }
+
+    /**
+     * Сохраняет кольца в CSV (по строке на кадр и область) в папку holyadmins-debug игры
+     * @return путь файла или null при ошибке
+     */
+    public static Path dumpCsv() {
+        Path directory = FabricLoader.getInstance().getGameDir().resolve("holyadmins-debug");
+        String name = "panel-frames-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv";
+        Path path = directory.resolve(name);
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writer.write("frame,scope,nanos,allocated_bytes,draw_calls,text_allocations\n");
+                for (int i = 0; i < frameCount; i++) {
+                    int slot = Math.floorMod(frame - frameCount + i, WINDOW);
+                    for (int scope = 0; scope < SCOPE_NAMES.size(); scope++) {
+                        writer.write(i + "," + SCOPE_NAMES.get(scope) + "," + NANOS[scope][slot] + ","
+                                + BYTES[scope][slot] + "," + DRAW_CALLS[scope][slot] + "," + TEXTS[scope][slot] + "\n");
+                    }
+                }
+            }
+            Holyadmins.LOGGER.info("Saved panel frame timings to {}", path);
+            return path;
+        } catch (IOException e) {
+            Holyadmins.LOGGER.warn("Failed to save panel frame timings to {}", path, e);
+            return null;
+        }
+    }
+
+    private static void updateStats() {
+        Stats[] updated = new Stats[SCOPE_NAMES.size()];
+        for (int scope = 0; scope < updated.length; scope++) {
+            double p50 = percentile(NANOS[scope], 0.50);
+            double p99 = percentile(NANOS[scope], 0.99);
+            double bytes = percentile(BYTES[scope], 0.50);
+            long drawCalls = 0L;
+            long texts = 0L;
+            for (int i = 0; i < frameCount; i++) {
+                drawCalls += DRAW_CALLS[scope][i];
+                texts += TEXTS[scope][i];
+            }
+            updated[scope] = new Stats(SCOPE_NAMES.get(scope), p50 / 1_000_000.0, p99 / 1_000_000.0, (long) bytes,
+                    (float) drawCalls / frameCount, (float) texts / frameCount);
+        }
+        stats = updated;
+    }
+
+    private static double percentile(long[] values, double fraction) {
+        System.arraycopy(values, 0, SCRATCH, 0, frameCount);
+        Arrays.sort(SCRATCH, 0, frameCount);
+        return SCRATCH[Math.min(frameCount - 1, (int) (fraction * frameCount))];
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    private static void reset() {
+        for (int scope = 0; scope < MAX_SCOPES; scope++) {
+            Arrays.fill(NANOS[scope], 0L);
+            Arrays.fill(BYTES[scope], 0L);
+            Arrays.fill(DRAW_CALLS[scope], 0);
+            Arrays.fill(TEXTS[scope], 0);
+        }
+        frame = 0;
+        frameCount = 0;
+        frameIndex = 0L;
+        stats = new Stats[0];
+    }
+
+    /**
+     * Счетчик выделений потока есть только у HotSpot-совместимых JVM
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * Сводка области за последние кадры
+     * @param bytes       медиана выделенной памяти за кадр
+     * @param drawCalls   в среднем за кадр
+     * @param texts       новых Text в среднем за кадр
+     */
+    public record Stats(String name, double p50Ms, double p99Ms, long bytes, float drawCalls, float texts) {
+    }
+
+    private FrameProfiler() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
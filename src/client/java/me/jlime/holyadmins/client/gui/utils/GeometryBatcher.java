@@ -0,0 +1,326 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import org.joml.Matrix4f;
+
+/**
+ * Пакетный рендер геометрии UI
+ * Собирает все прямоугольники кадра и отправляет их одним буфером:
+ * через SDF шейдер RoundedRectShader, а если он недоступен - через POSITION_COLOR
+ */
+public final class GeometryBatcher {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final boolean DEBUG = Boolean.getBoolean("holyadmins.debug.drawcalls");
+
+    // Вершины четырехугольников: x1, y1, x2, y2, z
+    private static float[] bounds = new float[INITIAL_CAPACITY * 5];
+    // Цвета углов: верх-лево, верх-право, низ-право, низ-лево
+    private static int[] colors = new int[INITIAL_CAPACITY * 4];
+    // Параметры SDF: радиус, толщина рамки, размытие тени
+    private static int[] shapes = new int[INITIAL_CAPACITY * 3];
+    private static int quadCount;
+
+    private static boolean active;
+    private static int frameDrawCalls;
+    // Не сбрасывается между кадрами: замеры берут разность и не зависят от порядка с begin()
+    private static long totalDrawCalls;
+    private static int lastFrameDrawCalls;
+    private static int lastFrameQuads;
+    private static int frameQuads;
+
+    /**
+     * Начинает новый кадр. Все последующие вызовы RenderUtils попадают в пакет
+     */
+    public static void begin() {
+        active = true;
+        quadCount = 0;
+        frameDrawCalls = 0;
+        frameQuads = 0;
+    }
+
+    /**
+     * Завершает кадр: отправляет оставшуюся геометрию и фиксирует счетчики
+     */
+    public static void end(DrawContext context) {
+        flush(context);
+        active = false;
+        lastFrameDrawCalls = frameDrawCalls;
+        lastFrameQuads = frameQuads;
+    }
+
+    /**
+     * Проверяет, собирается ли сейчас пакет
+     */
+    public static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Добавляет одноцветный прямоугольник
+     */
+    public static void quad(DrawContext context, float x1, float y1, float x2, float y2, int color) {
+        quad(context, x1, y1, x2, y2, color, color, color, color);
+    }
+
+    /**
+     * Добавляет прямоугольник с вертикальным градиентом
+     */
+    public static void gradient(DrawContext context, float x1, float y1, float x2, float y2, int colorTop, int colorBottom) {
+        quad(context, x1, y1, x2, y2, colorTop, colorTop, colorBottom, colorBottom);
+    }
+
+    /**
+     * Добавляет прямоугольник с цветами для каждого угла
+     */
+    public static void quad(DrawContext context, float x1, float y1, float x2, float y2,
+                            int topLeft, int topRight, int bottomRight, int bottomLeft) {
+        shape(context, x1, y1, x2, y2, 0, 0, 0, topLeft, topRight, bottomRight, bottomLeft);
+    }
+
+    /**
+     * Добавляет скругленный прямоугольник
+     */
+    public static void roundedRect(DrawContext context, float x1, float y1, float x2, float y2, int radius, int color) {
+        shape(context, x1, y1, x2, y2, radius, 0, 0, color, color, color, color);
+    }
+
+    /**
+     * Добавляет рамку заданной толщины (одним четырехугольником в режиме шейдера)
+     */
+    public static void border(DrawContext context, float x1, float y1, float x2, float y2, int radius, int thickness, int color) {
+        if (thickness <= 0) return;
+        shape(context, x1, y1, x2, y2, radius, Math.min(thickness, 0xFF), 0, color, color, color, color);
+    }
+
+    /**
+     * Добавляет мягкую тень вокруг прямоугольника. Без шейдера тень не рисуется
+     */
+    public static void shadow(DrawContext context, float x1, float y1, float x2, float y2, int radius, int size, int color) {
+        if (size <= 0) return;
+        shape(context, x1, y1, x2, y2, radius, 0, Math.min(size, 0xFF), color, color, color, color);
+    }
+
+    private static void shape(DrawContext context, float x1, float y1, float x2, float y2,
+                              int radius, int border, int glow,
+                              int topLeft, int topRight, int bottomRight, int bottomLeft) {
+        if (x2 <= x1 || y2 <= y1) return;
+
+        // Поддерживается только перенос матрицы, как и во всем GUI
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+        float tx = matrix.m30();
+        float ty = matrix.m31();
+        float tz = matrix.m32();
+
+        ensureCapacity(quadCount + 1);
+        int b = quadCount * 5;
+        bounds[b] = x1 + tx;
+        bounds[b + 1] = y1 + ty;
+        bounds[b + 2] = x2 + tx;
+        bounds[b + 3] = y2 + ty;
+        bounds[b + 4] = tz;
+
+        int c = quadCount * 4;
+        colors[c] = topLeft;
+        colors[c + 1] = topRight;
+        colors[c + 2] = bottomRight;
+        colors[c + 3] = bottomLeft;
+
+        int p = quadCount * 3;
+        shapes[p] = Math.max(radius, 0);
+        shapes[p + 1] = border;
+        shapes[p + 2] = glow;
+        quadCount++;
+
+        if (!active) {
+            flush(context);
+        }
+    }
+
+    /**
+     * Отправляет накопленную геометрию одним вызовом отрисовки.
+     * Вызывается перед текстом и другими непакетными элементами, чтобы сохранить порядок слоев
+     */
+    public static void flush(DrawContext context) {
+        if (quadCount == 0) return;
+
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+
+        BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+        if (RoundedRectShader.isAvailable()) {
+            RenderSystem.setShader(RoundedRectShader::getProgram);
+            buffer.begin(VertexFormat.DrawMode.QUADS, RoundedRectShader.VERTEX_FORMAT);
+            for (int i = 0; i < quadCount; i++) {
+                emitShape(buffer, i);
+            }
+        } else {
+            RenderSystem.setShader(GameRenderer::getPositionColorProgram);
+            buffer.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_COLOR);
+            for (int i = 0; i < quadCount; i++) {
+                emitFlat(buffer, i);
+            }
+        }
+
+        BufferRenderer.drawWithGlobalProgram(buffer.end());
+        RenderSystem.disableBlend();
+
+        frameQuads += quadCount;
+        quadCount = 0;
+        countDrawCall();
+    }
+
+    /**
+     * Учитывает вызов отрисовки, выполненный в обход пакета (текст, текстуры)
+     */
+    public static void countDrawCall() {
+        frameDrawCalls++;
+        totalDrawCalls++;
+    }
+
+    /**
+     * Количество вызовов отрисовки в текущем кадре на данный момент
+     */
+    public static int getFrameDrawCalls() {
+        return frameDrawCalls;
+    }
+
+    /**
+     * Количество вызовов отрисовки за все время; только растет
+     */
+    public static long getTotalDrawCalls() {
+        return totalDrawCalls;
+    }
+
+    /**
+     * Количество вызовов отрисовки за последний завершенный кадр
+     */
+    public static int getLastFrameDrawCalls() {
+        return lastFrameDrawCalls;
+    }
+
+    /**
+     * Количество четырехугольников за последний завершенный кадр
+     */
+    public static int getLastFrameQuads() {
+        return lastFrameQuads;
+    }
+
+    /**
+     * Включен ли отладочный счетчик (-Dholyadmins.debug.drawcalls=true)
+     */
+    public static boolean isDebugEnabled() {
+        return DEBUG;
+    }
+
+    /**
+     * Один четырехугольник на фигуру; форму вычисляет фрагментный шейдер
+     */
+    private static void emitShape(BufferBuilder buffer, int i) {
+        int b = i * 5;
+        int c = i * 4;
+        int p = i * 3;
+        float x1 = bounds[b];
+        float y1 = bounds[b + 1];
+        float x2 = bounds[b + 2];
+        float y2 = bounds[b + 3];
+        float z = bounds[b + 4];
+
+        int glow = shapes[p + 2];
+        int packed = shapes[p + 1] | (glow << 8);
+        int radius = shapes[p];
+        int width = Math.round(x2 - x1);
+        int height = Math.round(y2 - y1);
+        float halfWidth = (x2 - x1) * 0.5f;
+        float halfHeight = (y2 - y1) * 0.5f;
+
+        // Тень выходит за границы фигуры на величину размытия
+        float ex = halfWidth + glow;
+        float ey = halfHeight + glow;
+        float cx = x1 + halfWidth;
+        float cy = y1 + halfHeight;
+
+        shapeVertex(buffer, cx - ex, cy + ey, z, colors[c + 3], -ex, ey, width, height, radius, packed);
+        shapeVertex(buffer, cx + ex, cy + ey, z, colors[c + 2], ex, ey, width, height, radius, packed);
+        shapeVertex(buffer, cx + ex, cy - ey, z, colors[c + 1], ex, -ey, width, height, radius, packed);
+        shapeVertex(buffer, cx - ex, cy - ey, z, colors[c], -ex, -ey, width, height, radius, packed);
+    }
+
+    /**
+     * Запасной путь без шейдера: плоские прямоугольники, рамка из четырех полос, тени пропускаются
+     */
+    private static void emitFlat(BufferBuilder buffer, int i) {
+        int b = i * 5;
+        int c = i * 4;
+        int p = i * 3;
+        if (shapes[p + 2] > 0) return;
+
+        float x1 = bounds[b];
+        float y1 = bounds[b + 1];
+        float x2 = bounds[b + 2];
+        float y2 = bounds[b + 3];
+        float z = bounds[b + 4];
+        int border = shapes[p + 1];
+
+        if (border > 0) {
+            int color = colors[c];
+            flatQuad(buffer, x1, y1, x2, y1 + border, z, color, color, color, color);
+            flatQuad(buffer, x1, y2 - border, x2, y2, z, color, color, color, color);
+            flatQuad(buffer, x1, y1 + border, x1 + border, y2 - border, z, color, color, color, color);
+            flatQuad(buffer, x2 - border, y1 + border, x2, y2 - border, z, color, color, color, color);
+            return;
+        }
+
+        flatQuad(buffer, x1, y1, x2, y2, z, colors[c], colors[c + 1], colors[c + 2], colors[c + 3]);
+    }
+
+    private static void flatQuad(BufferBuilder buffer, float x1, float y1, float x2, float y2, float z,
+                                 int topLeft, int topRight, int bottomRight, int bottomLeft) {
+        flatVertex(buffer, x1, y2, z, bottomLeft);
+        flatVertex(buffer, x2, y2, z, bottomRight);
+        flatVertex(buffer, x2, y1, z, topRight);
+        flatVertex(buffer, x1, y1, z, topLeft);
+    }
+
+    private static void flatVertex(BufferBuilder buffer, float x, float y, float z, int color) {
+        buffer.vertex(x, y, z)
+                .color((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF, (color >>> 24))
+                .next();
+    }
+
+    private static void shapeVertex(BufferBuilder buffer, float x, float y, float z, int color,
+                                    float localX, float localY, int width, int height, int radius, int packed) {
+        buffer.vertex(x, y, z)
+                .color((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF, (color >>> 24))
+                .texture(localX, localY)
+                .overlay(width, height)
+                .light(radius, packed)
+                .next();
+    }
+
+    private static void ensureCapacity(int quads) {
+        if (quads * 5 <= bounds.length) return;
+
+        int newCapacity = Math.max(quads, bounds.length / 5 * 2);
+        float[] newBounds = new float[newCapacity * 5];
+        int[] newColors = new int[newCapacity * 4];
+        int[] newShapes = new int[newCapacity * 3];
+        System.arraycopy(bounds, 0, newBounds, 0, quadCount * 5);
+        System.arraycopy(colors, 0, newColors, 0, quadCount * 4);
+        System.arraycopy(shapes, 0, newShapes, 0, quadCount * 3);
+        bounds = newBounds;
+        colors = newColors;
+        shapes = newShapes;
+    }
+
+    // Приватный конструктор
+    private GeometryBatcher() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
@@ -0,0 +1,58 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+/**
+ * Арифметика интерфейса без зависимостей от отрисовки: цвета, попадание в прямоугольник, ограничения
+ * Используется через RenderUtils и замеряется в бенчмарках без клиента
+ */
+public final class GuiMath {
+    
+    /**
+     * Интерполяция между двумя цветами ARGB по каналам
+     */
+    public static int interpolateColor(int color1, int color2, float progress) {
+        if (progress <= 0.0f) return color1;
+        if (progress >= 1.0f) return color2;
+        
+        int a1 = (color1 >> 24) & 0xFF;
+        int r1 = (color1 >> 16) & 0xFF;
+        int g1 = (color1 >> 8) & 0xFF;
+        int b1 = color1 & 0xFF;
+        
+        int a2 = (color2 >> 24) & 0xFF;
+        int r2 = (color2 >> 16) & 0xFF;
+        int g2 = (color2 >> 8) & 0xFF;
+        int b2 = color2 & 0xFF;
+        
+        int a = a1 + (int)((a2 - a1) * progress);
+        int r = r1 + (int)((r2 - r1) * progress);
+        int g = g1 + (int)((g2 - g1) * progress);
+        int b = b1 + (int)((b2 - b1) * progress);
+        
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+    
+    /**
+     * Проверка, находится ли точка внутри прямоугольника (границы включительно)
+     */
+    public static boolean isPointInRect(double x, double y, int rectX, int rectY, int rectWidth, int rectHeight) {
+        return x >= rectX && x <= rectX + rectWidth && y >= rectY && y <= rectY + rectHeight;
+    }
+    
+    /**
+     * Ограничение значения в заданных пределах
+     */
+    public static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+    
+    /**
+     * Ограничение значения в заданных пределах (float)
+     */
+    public static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(max, value));
+    }
+    
+    private GuiMath() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
@@ -0,0 +1,315 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Запись кадра панели без видеокарты
+ *
+ * Команды хранятся в одном массиве int по STRIDE значений (код, координаты, цвет, параметры),
+ * строки текста - отдельным списком. Запись можно считать по видам команд, сравнивать с другой записью,
+ * сворачивать в отпечаток и воспроизводить на любой UiCanvas, в том числе на экран.
+ * Вызовы отрисовки считаются по тем же правилам, что и в GeometryBatcher: пакет геометрии уходит
+ * перед текстом, ножницами и flush, каждый textBatch - еще один вызов.
+ * Шрифт моноширинный: ширина символа задается в конструкторе
+ */
+public final class RecordingCanvas implements UiCanvas {
+    public static final int FILL = 1;
+    public static final int GRADIENT = 2;
+    public static final int ROUNDED_RECT = 3;
+    public static final int SHADOW = 4;
+    public static final int BORDER = 5;
+    public static final int TEXT = 6;
+    public static final int TEXT_BATCH_BEGIN = 7;
+    public static final int TEXT_BATCH_END = 8;
+    public static final int FLUSH = 9;
+    public static final int SCISSOR = 10;
+    public static final int SCISSOR_END = 11;
+    private static final int OP_COUNT = 12;
+    private static final String[] OP_NAMES = {
+        "?", "fill", "gradient", "roundedRect", "shadow", "border", "text",
+        "textBatch", "textBatchEnd", "flush", "scissor", "scissorEnd"
+    };
+
+    // Команда: код, x1, y1, x2, y2, цвет, параметр 1, параметр 2
+    private static final int STRIDE = 8;
+    private static final int DEFAULT_CHAR_WIDTH = 6;
+    private static final int DEFAULT_FONT_HEIGHT = 9;
+
+    private final int charWidth;
+    private final int fontHeight;
+    private int[] commands = new int[256 * STRIDE];
+    private int size;
+    private final List<String> strings = new ArrayList<>();
+    private final int[] counts = new int[OP_COUNT];
+    private boolean pendingGeometry;
+    private int drawCalls;
+
+    public RecordingCanvas() {
+        this(DEFAULT_CHAR_WIDTH, DEFAULT_FONT_HEIGHT);
+    }
+
+    /**
+     * @param charWidth  ширина любого символа в пикселях
+     * @param fontHeight высота строки
+     */
+    public RecordingCanvas(int charWidth, int fontHeight) {
+        if (charWidth <= 0 || fontHeight <= 0) {
+            throw new IllegalArgumentException("Font metrics must be positive");
+        }
+        this.charWidth = charWidth;
+        this.fontHeight = fontHeight;
+    }
+
+    /**
+     * Очищает запись для следующего кадра; буферы переиспользуются
+     */
+    public void reset() {
+        size = 0;
+        strings.clear();
+        Arrays.fill(counts, 0);
+        pendingGeometry = false;
+        drawCalls = 0;
+    }
+
+    @Override
+    public void fill(int x1, int y1, int x2, int y2, int color) {
+        geometry(FILL, x1, y1, x2, y2, color, 0, 0);
+    }
+
+    @Override
+    public void gradient(int x, int y, int width, int height, int colorTop, int colorBottom) {
+        geometry(GRADIENT, x, y, x + width, y + height, colorTop, colorBottom, 0);
+    }
+
+    @Override
+    public void roundedRect(int x, int y, int width, int height, int radius, int color) {
+        geometry(ROUNDED_RECT, x, y, x + width, y + height, color, radius, 0);
+    }
+
+    @Override
+    public void shadow(int x, int y, int width, int height, int radius, int size, int color) {
+        if (size <= 0) return;
+        geometry(SHADOW, x, y, x + width, y + height, color, radius, size);
+    }
+
+    @Override
+    public void border(int x, int y, int width, int height, int thickness, int color) {
+        if (thickness <= 0) return;
+        geometry(BORDER, x, y, x + width, y + height, color, thickness, 0);
+    }
+
+    @Override
+    public void text(String text, int x, int y, int color, boolean shadow) {
+        strings.add(text);
+        add(TEXT, x, y, 0, 0, color, strings.size() - 1, shadow ? 1 : 0);
+    }
+
+    @Override
+    public void textBatch(Runnable callback) {
+        flushGeometry();
+        add(TEXT_BATCH_BEGIN, 0, 0, 0, 0, 0, 0, 0);
+        callback.run();
+        add(TEXT_BATCH_END, 0, 0, 0, 0, 0, 0, 0);
+        drawCalls++;
+    }
+
+    @Override
+    public void flush() {
+        flushGeometry();
+        add(FLUSH, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    public void enableScissor(int x1, int y1, int x2, int y2) {
+        flushGeometry();
+        add(SCISSOR, x1, y1, x2, y2, 0, 0, 0);
+    }
+
+    @Override
+    public void disableScissor() {
+        flushGeometry();
+        add(SCISSOR_END, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    public int textWidth(String text) {
+        return text.length() * charWidth;
+    }
+
+    @Override
+    public int fontHeight() {
+        return fontHeight;
+    }
+
+    @Override
+    public String trimToWidth(String text, int maxWidth) {
+        int chars = Math.max(0, maxWidth / charWidth);
+        return chars >= text.length() ? text : text.substring(0, chars);
+    }
+
+    /**
+     * Завершает кадр: оставшаяся геометрия считается отправленной, как в GeometryBatcher.end
+     */
+    public void end() {
+        flushGeometry();
+    }
+
+    /**
+     * Количество команд
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Количество команд заданного вида
+     */
+    public int count(int op) {
+        return counts[op];
+    }
+
+    /**
+     * Вызовы отрисовки, которые сделал бы GeometryBatcher для этой записи
+     */
+    public int getDrawCalls() {
+        return drawCalls + (pendingGeometry ? 1 : 0);
+    }
+
+    public int op(int index) {
+        return commands[index * STRIDE];
+    }
+
+    /**
+     * Значение команды: 1-4 - координаты, 5 - цвет, 6-7 - параметры
+     */
+    public int arg(int index, int arg) {
+        return commands[index * STRIDE + arg];
+    }
+
+    /**
+     * Строка команды TEXT
+     */
+    public String text(int index) {
+        return strings.get(commands[index * STRIDE + 6]);
+    }
+
+    /**
+     * Индекс первой команды, которая отличается от другой записи, или -1 для одинаковых записей
+     */
+    public int firstDifference(RecordingCanvas other) {
+        int common = Math.min(size, other.size);
+        for (int i = 0; i < common; i++) {
+            int base = i * STRIDE;
+            if (!Arrays.equals(commands, base, base + STRIDE, other.commands, base, base + STRIDE)) return i;
+            if (commands[base] == TEXT && !text(i).equals(other.text(i))) return i;
+        }
+        return size == other.size ? -1 : common;
+    }
+
+    /**
+     * Отпечаток записи: равен у одинаковых кадров
+     */
+    public long fingerprint() {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < size * STRIDE; i++) {
+            hash = 31 * hash + commands[i];
+        }
+        for (String string : strings) {
+            hash = 31 * hash + string.hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Воспроизводит запись на другой поверхности
+     */
+    public void replay(UiCanvas target) {
+        replay(target, 0);
+    }
+
+    private int replay(UiCanvas target, int from) {
+        int i = from;
+        while (i < size) {
+            int base = i * STRIDE;
+            int x1 = commands[base + 1];
+            int y1 = commands[base + 2];
+            int x2 = commands[base + 3];
+            int y2 = commands[base + 4];
+            int color = commands[base + 5];
+            int arg1 = commands[base + 6];
+            int arg2 = commands[base + 7];
+            switch (commands[base]) {
+                case FILL -> target.fill(x1, y1, x2, y2, color);
+                case GRADIENT -> target.gradient(x1, y1, x2 - x1, y2 - y1, color, arg1);
+                case ROUNDED_RECT -> target.roundedRect(x1, y1, x2 - x1, y2 - y1, arg1, color);
+                case SHADOW -> target.shadow(x1, y1, x2 - x1, y2 - y1, arg1, arg2, color);
+                case BORDER -> target.border(x1, y1, x2 - x1, y2 - y1, arg1, color);
+                case TEXT -> target.text(strings.get(arg1), x1, y1, color, arg2 != 0);
+                case TEXT_BATCH_BEGIN -> {
+                    int[] next = {i + 1};
+                    target.textBatch(() -> next[0] = replay(target, next[0]));
+                    i = next[0];
+                    continue;
+                }
+                case TEXT_BATCH_END -> {
+                    return i + 1;
+                }
+                case FLUSH -> target.flush();
+                case SCISSOR -> target.enableScissor(x1, y1, x2, y2);
+                case SCISSOR_END -> target.disableScissor();
+                default -> throw new IllegalStateException("Unknown command " + commands[base]);
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Команда в читаемом виде для сообщений проверок
+     */
+    public String describe(int index) {
+        int base = index * STRIDE;
+        int op = commands[base];
+        String name = op > 0 && op < OP_COUNT ? OP_NAMES[op] : "?";
+        if (op == TEXT) {
+            return index + ": text \"" + text(index) + "\" at " + commands[base + 1] + "," + commands[base + 2]
+                    + " color " + Integer.toHexString(commands[base + 5]);
+        }
+        return index + ": " + name + " " + commands[base + 1] + "," + commands[base + 2] + " - "
+                + commands[base + 3] + "," + commands[base + 4] + " color " + Integer.toHexString(commands[base + 5])
+                + " args " + commands[base + 6] + "," + commands[base + 7];
+    }
+
+    private void geometry(int op, int x1, int y1, int x2, int y2, int color, int arg1, int arg2) {
+        // Пустые фигуры GeometryBatcher отбрасывает
+        if (x2 <= x1 || y2 <= y1) return;
+        add(op, x1, y1, x2, y2, color, arg1, arg2);
+        pendingGeometry = true;
+    }
+
+    private void flushGeometry() {
+        if (pendingGeometry) {
+            pendingGeometry = false;
+            drawCalls++;
+        }
+    }
+
+    private void add(int op, int x1, int y1, int x2, int y2, int color, int arg1, int arg2) {
+        if ((size + 1) * STRIDE > commands.length) {
+            commands = Arrays.copyOf(commands, commands.length * 2);
+        }
+        int base = size * STRIDE;
+        commands[base] = op;
+        commands[base + 1] = x1;
+        commands[base + 2] = y1;
+        commands[base + 3] = x2;
+        commands[base + 4] = y2;
+        commands[base + 5] = color;
+        commands[base + 6] = arg1;
+        commands[base + 7] = arg2;
+        size++;
+        counts[op]++;
+    }
+}
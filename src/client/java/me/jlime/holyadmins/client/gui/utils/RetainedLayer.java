@@ -0,0 +1,132 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.SimpleFramebuffer;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.util.Window;
+import org.joml.Matrix4f;
+
+/**
+ * Закэшированный слой UI во внеэкранном буфере
+ * Перерисовывается только после invalidate(), в остальных кадрах выводится готовая текстура
+ *
+ * Использование:
+ * <pre>
+ * if (layer.beginCapture(context)) {
+ *     // отрисовка слоя
+ *     layer.endCapture(context);
+ * }
+ * layer.draw(context, x, y, width, height);
+ * </pre>
+ */
+public final class RetainedLayer {
+    private Framebuffer framebuffer;
+    private boolean dirty = true;
+
+    /**
+     * Помечает слой для перерисовки в следующем кадре
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Проверяет, нужна ли перерисовка
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Начинает запись слоя, если он устарел или изменился размер окна
+     * @return true, если слой нужно перерисовать; тогда обязательно вызвать endCapture
+     */
+    public boolean beginCapture(DrawContext context) {
+        Framebuffer main = MinecraftClient.getInstance().getFramebuffer();
+        int width = main.textureWidth;
+        int height = main.textureHeight;
+
+        if (framebuffer == null) {
+            framebuffer = new SimpleFramebuffer(width, height, false, MinecraftClient.IS_SYSTEM_MAC);
+            framebuffer.setClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+            dirty = true;
+        } else if (framebuffer.textureWidth != width || framebuffer.textureHeight != height) {
+            framebuffer.resize(width, height, MinecraftClient.IS_SYSTEM_MAC);
+            dirty = true;
+        }
+
+        if (!dirty) return false;
+
+        // Накопленная геометрия относится к основному буферу
+        GeometryBatcher.flush(context);
+
+        framebuffer.clear(MinecraftClient.IS_SYSTEM_MAC);
+        framebuffer.beginWrite(true);
+        return true;
+    }
+
+    /**
+     * Завершает запись слоя и возвращает основной буфер
+     */
+    public void endCapture(DrawContext context) {
+        GeometryBatcher.flush(context);
+        context.draw();
+
+        MinecraftClient.getInstance().getFramebuffer().beginWrite(true);
+        dirty = false;
+    }
+
+    /**
+     * Выводит область слоя на экран одним четырехугольником
+     */
+    public void draw(DrawContext context, int x, int y, int width, int height) {
+        if (framebuffer == null) return;
+
+        GeometryBatcher.flush(context);
+
+        Window window = MinecraftClient.getInstance().getWindow();
+        double scale = window.getScaleFactor();
+        float u1 = (float) (x * scale / framebuffer.textureWidth);
+        float u2 = (float) ((x + width) * scale / framebuffer.textureWidth);
+        // Начало координат текстуры буфера - нижний левый угол
+        float v1 = 1.0f - (float) (y * scale / framebuffer.textureHeight);
+        float v2 = 1.0f - (float) ((y + height) * scale / framebuffer.textureHeight);
+
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+
+        RenderSystem.setShader(GameRenderer::getPositionTexProgram);
+        RenderSystem.setShaderTexture(0, framebuffer.getColorAttachment());
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+
+        BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+        buffer.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE);
+        buffer.vertex(matrix, x, y + height, 0).texture(u1, v2).next();
+        buffer.vertex(matrix, x + width, y + height, 0).texture(u2, v2).next();
+        buffer.vertex(matrix, x + width, y, 0).texture(u2, v1).next();
+        buffer.vertex(matrix, x, y, 0).texture(u1, v1).next();
+        BufferRenderer.drawWithGlobalProgram(buffer.end());
+
+        RenderSystem.disableBlend();
+        GeometryBatcher.countDrawCall();
+    }
+
+    /**
+     * Освобождает видеопамять буфера
+     */
+    public void close() {
+        if (framebuffer != null) {
+            framebuffer.delete();
+            framebuffer = null;
+        }
+        dirty = true;
+    }
+}
@@ -0,0 +1,61 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+import com.google.common.collect.ImmutableMap;
+import net.fabricmc.fabric.api.client.rendering.v1.CoreShaderRegistrationCallback;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormatElement;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.Identifier;
+
+import java.io.IOException;
+
+/**
+ * SDF шейдер скругленных прямоугольников (assets/holyadmins/shaders/core/rounded_rect)
+ * Каждый прямоугольник, рамка или тень - один четырехугольник, параметры идут в атрибутах вершин
+ */
+public final class RoundedRectShader {
+    public static final Identifier ID = new Identifier("holyadmins", "rounded_rect");
+
+    /**
+     * Формат вершины:
+     * UV0 - позиция вершины относительно центра прямоугольника,
+     * UV1 - ширина и высота прямоугольника,
+     * UV2 - радиус и упакованные толщина рамки (младший байт) и размытие тени (старший байт)
+     */
+    public static final VertexFormat VERTEX_FORMAT = new VertexFormat(ImmutableMap.<String, VertexFormatElement>builder()
+            .put("Position", VertexFormats.POSITION_ELEMENT)
+            .put("Color", VertexFormats.COLOR_ELEMENT)
+            .put("UV0", VertexFormats.TEXTURE_ELEMENT)
+            .put("UV1", VertexFormats.OVERLAY_ELEMENT)
+            .put("UV2", VertexFormats.LIGHT_ELEMENT)
+            .build());
+
+    private static ShaderProgram program;
+
+    /**
+     * Регистрирует шейдер через колбэк Fabric для core шейдеров
+     */
+    public static void register(CoreShaderRegistrationCallback.RegistrationContext context) throws IOException {
+        context.register(ID, VERTEX_FORMAT, loaded -> program = loaded);
+    }
+
+    /**
+     * Загруженная программа или null, если ресурсы еще не загружены или шейдер не скомпилировался
+     */
+    public static ShaderProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * Проверяет, доступен ли шейдер
+     */
+    public static boolean isAvailable() {
+        return program != null;
+    }
+
+    // Приватный конструктор
+    private RoundedRectShader() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
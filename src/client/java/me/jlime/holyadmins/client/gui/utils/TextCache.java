@@ -0,0 +1,163 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш готовых Text/OrderedText и их ширины
+ * Убирает создание Text.literal и повторные измерения в каждом кадре.
+ * Используется только из потока рендера; очищается при перезагрузке ресурсов и смене языка
+ */
+public final class TextCache {
+    private static final int MAX_ENTRIES = 4096;
+
+    // Строки без стиля - самый частый случай, ключ без дополнительной аллокации
+    private static final Map<String, Entry> PLAIN = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static final Map<StyledKey, Entry> STYLED = new HashMap<>();
+
+    private static int generation;
+    private static long misses;
+
+    /**
+     * Получает готовый Text для строки
+     */
+    public static Text text(String string) {
+        return get(string).text;
+    }
+
+    /**
+     * Получает готовый OrderedText для строки
+     */
+    public static OrderedText ordered(String string) {
+        return get(string).ordered;
+    }
+
+    /**
+     * Получает ширину строки в пикселях
+     */
+    public static int width(TextRenderer textRenderer, String string) {
+        return get(string).width(textRenderer);
+    }
+
+    /**
+     * Получает запись кэша для строки без стиля
+     */
+    public static Entry get(String string) {
+        Entry entry = PLAIN.get(string);
+        if (entry == null) {
+            entry = new Entry(Text.literal(string));
+            PLAIN.put(string, entry);
+            misses++;
+        }
+        return entry;
+    }
+
+    /**
+     * Получает запись кэша для строки с заданным стилем
+     */
+    public static Entry get(String string, Style style) {
+        if (style == null || style.isEmpty()) {
+            return get(string);
+        }
+
+        StyledKey key = new StyledKey(string, style);
+        Entry entry = STYLED.get(key);
+        if (entry == null) {
+            if (STYLED.size() >= MAX_ENTRIES) {
+                STYLED.clear();
+            }
+            entry = new Entry(Text.literal(string).setStyle(style));
+            STYLED.put(key, entry);
+            misses++;
+        }
+        return entry;
+    }
+
+    /**
+     * Очищает кэш. Закэшированные слои UI сверяют поколение и перерисовываются
+     */
+    public static void clear() {
+        PLAIN.clear();
+        STYLED.clear();
+        generation++;
+    }
+
+    /**
+     * Поколение кэша, увеличивается при каждой очистке
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Количество созданных записей (промахов) с момента запуска
+     */
+    public static long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Регистрирует очистку кэша при перезагрузке ресурсов (шрифты, язык)
+     */
+    public static void registerReloadListener() {
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+            @Override
+            public Identifier getFabricId() {
+                return new Identifier("holyadmins", "text_cache");
+            }
+
+            @Override
+            public void reload(ResourceManager manager) {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * Запись кэша: текст, упорядоченный текст и ширина
+     */
+    public static final class Entry {
+        public final Text text;
+        public final OrderedText ordered;
+        private int width = -1;
+
+        private Entry(Text text) {
+            this.text = text;
+            this.ordered = text.asOrderedText();
+        }
+
+        /**
+         * Ширина в пикселях, измеряется один раз
+         */
+        public int width(TextRenderer textRenderer) {
+            if (width < 0) {
+                width = textRenderer.getWidth(ordered);
+            }
+            return width;
+        }
+    }
+
+    private record StyledKey(String string, Style style) {
+    }
+
+    // Приватный конструктор
+    private TextCache() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
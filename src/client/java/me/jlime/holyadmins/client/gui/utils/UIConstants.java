@@ -14,6 +14,7 @@ public final class UIConstants {
     public static final int SCROLLBAR_WIDTH = 6;
     public static final int BORDER_RADIUS = 8;
     public static final int BUTTON_RADIUS = 6;
+    public static final int SHADOW_SIZE = 12;
     
     // Отступы
     public static final int PADDING_SMALL = 5;
@@ -41,6 +42,12 @@ public final class UIConstants {
     public static final int BORDER_COLOR = 0xFF404040;
     public static final int SCROLLBAR_TRACK_COLOR = 0xFF404040;
     public static final int SCROLLBAR_THUMB_COLOR = ACCENT_COLOR;
+    public static final int SHADOW_COLOR = 0x66000000;
+    
+    // Цвета строк списков
+    public static final int LIST_ROW_COLOR = 0x14FFFFFF;
+    public static final int LIST_ROW_HOVER_COLOR = 0xFF2f3542;
+    public static final int LIST_ROW_SELECTED_COLOR = 0xFF3b3f8f;
     
     // Анимация
     public static final int ANIMATION_DURATION = 200; // мс
@@ -61,7 +68,9 @@ public final class UIConstants {
     public static final String ICON_USERS = "👥";
     public static final String ICON_LOGS = "📄";
     public static final String ICON_ANALYTICS = "📊";
+    public static final String ICON_LAG = "⏱";
     public static final String ICON_HELP = "❓";
+    public static final String ICON_SEARCH = "🔍";
     
     // Приватный конструктор для предотвращения создания экземпляров
     private UIConstants() {
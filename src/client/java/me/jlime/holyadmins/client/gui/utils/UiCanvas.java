@@ -0,0 +1,90 @@
+package me.jlime.holyadmins.client.gui.utils;
+
+/**
+ * Поверхность отрисовки панели
+ * Весь UI рисуется через нее: на экране - DrawContextCanvas (GeometryBatcher и DrawContext),
+ * без видеокарты - RecordingCanvas, который записывает команды для сравнения кадров и бенчмарков.
+ * Порядок как у GeometryBatcher: геометрия копится в пакет, текст рисуется внутри textBatch
+ */
+public interface UiCanvas {
+    /**
+     * Заливка прямоугольника
+     */
+    void fill(int x1, int y1, int x2, int y2, int color);
+    
+    /**
+     * Прямоугольник с вертикальным градиентом
+     */
+    void gradient(int x, int y, int width, int height, int colorTop, int colorBottom);
+    
+    /**
+     * Прямоугольник со скругленными углами
+     */
+    void roundedRect(int x, int y, int width, int height, int radius, int color);
+    
+    /**
+     * Мягкая тень под прямоугольником
+     */
+    void shadow(int x, int y, int width, int height, int radius, int size, int color);
+    
+    /**
+     * Рамка прямоугольника
+     */
+    void border(int x, int y, int width, int height, int thickness, int color);
+    
+    /**
+     * Строка текста; вызывается внутри textBatch
+     */
+    void text(String text, int x, int y, int color, boolean shadow);
+    
+    /**
+     * Весь текст из callback одним вызовом отрисовки поверх накопленной геометрии
+     */
+    void textBatch(Runnable callback);
+    
+    /**
+     * Отправляет накопленную геометрию (перед ножницами или непакетной отрисовкой)
+     */
+    void flush();
+    
+    void enableScissor(int x1, int y1, int x2, int y2);
+    
+    void disableScissor();
+    
+    /**
+     * Ширина строки в пикселях
+     */
+    int textWidth(String text);
+    
+    /**
+     * Высота строки шрифта
+     */
+    int fontHeight();
+    
+    /**
+     * Начало строки, помещающееся в ширину
+     */
+    String trimToWidth(String text, int maxWidth);
+    
+    /**
+     * Скроллбар: трек и ползунок
+     */
+    default void scrollbar(int x, int y, int height, int scrollOffset, int maxScroll, int trackColor, int thumbColor) {
+        if (maxScroll <= 0) return;
+        
+        int scrollbarWidth = UIConstants.SCROLLBAR_WIDTH;
+        fill(x, y, x + scrollbarWidth, y + height, trackColor);
+        
+        int thumbHeight = Math.max(20, (height * height) / (height + maxScroll));
+        int thumbY = y + (int)((float)scrollOffset / maxScroll * (height - thumbHeight));
+        fill(x + 1, thumbY, x + scrollbarWidth - 1, thumbY + thumbHeight, thumbColor);
+    }
+    
+    /**
+     * Область, закэшированная во внеэкранном слое: на экране callback вызывается только для устаревшего слоя,
+     * без видеокарты область рисуется каждый раз
+     */
+    default void retained(RetainedLayer layer, int x, int y, int width, int height, Runnable callback) {
+        callback.run();
+    }
+}
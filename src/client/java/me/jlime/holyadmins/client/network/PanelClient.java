@@ -0,0 +1,469 @@
+package me.jlime.holyadmins.client.network;
+
+import me.jlime.holyadmins.client.config.ClientSettings;
+import me.jlime.holyadmins.metrics.LagOffender;
+import me.jlime.holyadmins.metrics.LagReport;
+import me.jlime.holyadmins.metrics.MetricsResolution;
+import me.jlime.holyadmins.metrics.MetricsSnapshot;
+import me.jlime.holyadmins.moderation.BulkActionPipeline;
+import me.jlime.holyadmins.moderation.BulkProgress;
+import me.jlime.holyadmins.moderation.PunishmentQuery;
+import me.jlime.holyadmins.network.PanelRow;
+import me.jlime.holyadmins.network.PanelSection;
+import me.jlime.holyadmins.network.packet.PanelBulkC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelBulkS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelDeltaS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelLagC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelLagS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelMetricsC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelMetricsS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelPageS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelQueryC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelReportC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelStatusS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelSubscribeC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelTeleportC2SPacket;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Клиентская часть протокола панели
+ * Загруженные разделы хранятся в SectionCache до отключения от сервера: при переключении вкладок
+ * и повторном открытии панели таблица показывается сразу из кэша. Полные разделы поддерживаются
+ * дельтами сервера; устаревшие по TTL данные показываются, пока в фоне идет обновление.
+ * Используется только из потока клиента
+ */
+public final class PanelClient {
+    public static final int PAGE_SIZE = 100;
+    private static final int NO_BULK_JOB = -1;
+
+    private static final PanelClient INSTANCE = new PanelClient();
+
+    private final SectionCache cache = new SectionCache(ClientSettings.get().getCacheBudgetBytes());
+    // Незавершенные запросы по ID
+    private final Map<Integer, SectionData> pending = new HashMap<>();
+    private boolean subscribed;
+    // Шаг рядов, на которые подписан раздел аналитики, или null
+    private MetricsResolution metricsResolution;
+    private MetricsSnapshot metrics;
+    private int metricsVersion;
+    private boolean lagSubscribed;
+    private LagReport lagReport;
+    private int lagVersion;
+    // Массовое действие, ход которого показывает панель, и его последний ход (null - еще не пришел)
+    private int bulkJobId = NO_BULK_JOB;
+    private BulkProgress bulkProgress;
+    private Status status = Status.UNKNOWN;
+    private int nextRequestId;
+    private int nextBulkJobId;
+
+    private PanelClient() {
+    }
+
+    public static PanelClient getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Регистрирует обработчики пакетов и событий подключения
+     */
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(PanelStatusS2CPacket.TYPE,
+                (packet, player, sender) -> INSTANCE.onStatus(packet));
+        ClientPlayNetworking.registerGlobalReceiver(PanelPageS2CPacket.TYPE,
+                (packet, player, sender) -> INSTANCE.onPage(packet));
+        ClientPlayNetworking.registerGlobalReceiver(PanelDeltaS2CPacket.TYPE,
+                (packet, player, sender) -> INSTANCE.onDelta(packet));
+        ClientPlayNetworking.registerGlobalReceiver(PanelMetricsS2CPacket.TYPE,
+                (packet, player, sender) -> INSTANCE.onMetrics(packet));
+        ClientPlayNetworking.registerGlobalReceiver(PanelLagS2CPacket.TYPE,
+                (packet, player, sender) -> INSTANCE.onLag(packet));
+        ClientPlayNetworking.registerGlobalReceiver(PanelBulkS2CPacket.TYPE,
+                (packet, player, sender) -> INSTANCE.onBulk(packet));
+
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> INSTANCE.reset());
+    }
+
+    /**
+     * Подписывается на изменения при открытии панели
+     */
+    public void subscribe() {
+        if (subscribed) return;
+
+        if (!ClientPlayNetworking.canSend(PanelSubscribeC2SPacket.TYPE)) {
+            status = Status.UNAVAILABLE;
+            return;
+        }
+        cache.setBudgetBytes(ClientSettings.get().getCacheBudgetBytes());
+        ClientPlayNetworking.send(new PanelSubscribeC2SPacket(true));
+        subscribed = true;
+        if (status != Status.ALLOWED) {
+            status = Status.PENDING;
+        }
+    }
+
+    /**
+     * Отписывается от изменений при закрытии панели: сервер перестает присылать дельты разделов.
+     * Загруженные разделы остаются в кэше и при следующем показе заменяются свежей первой страницей
+     */
+    public void unsubscribe() {
+        if (!subscribed) return;
+
+        if (ClientPlayNetworking.canSend(PanelSubscribeC2SPacket.TYPE)) {
+            ClientPlayNetworking.send(new PanelSubscribeC2SPacket(false));
+        }
+        // Страница, собранная до отписки, не должна снять отметку об устаревании
+        abandonPending(data -> true);
+        cache.detachAll();
+        // Отписка от панели снимает и подписку на метрики
+        subscribed = false;
+        metricsResolution = null;
+        lagSubscribed = false;
+    }
+
+    /**
+     * Подписывается на ряды метрик с шагом; повторный вызов с тем же шагом ничего не отправляет
+     */
+    public void showMetrics(MetricsResolution resolution) {
+        if (!subscribed || status != Status.ALLOWED || resolution == metricsResolution) return;
+        if (!ClientPlayNetworking.canSend(PanelMetricsC2SPacket.TYPE)) return;
+
+        ClientPlayNetworking.send(new PanelMetricsC2SPacket(resolution, true));
+        metricsResolution = resolution;
+    }
+
+    /**
+     * Отписывается от рядов метрик при уходе из раздела аналитики
+     */
+    public void hideMetrics() {
+        if (metricsResolution == null) return;
+
+        if (subscribed && ClientPlayNetworking.canSend(PanelMetricsC2SPacket.TYPE)) {
+            ClientPlayNetworking.send(new PanelMetricsC2SPacket(metricsResolution, false));
+        }
+        metricsResolution = null;
+    }
+
+    /**
+     * Подписывается на итоги профилировщика нагрузки; повторный вызов ничего не отправляет
+     */
+    public void showLag() {
+        if (!subscribed || status != Status.ALLOWED || lagSubscribed) return;
+        if (!ClientPlayNetworking.canSend(PanelLagC2SPacket.TYPE)) return;
+
+        ClientPlayNetworking.send(new PanelLagC2SPacket(PanelLagC2SPacket.Action.SUBSCRIBE));
+        lagSubscribed = true;
+    }
+
+    /**
+     * Отписывается от итогов профилировщика при уходе из раздела
+     */
+    public void hideLag() {
+        if (!lagSubscribed) return;
+
+        if (subscribed && ClientPlayNetworking.canSend(PanelLagC2SPacket.TYPE)) {
+            ClientPlayNetworking.send(new PanelLagC2SPacket(PanelLagC2SPacket.Action.UNSUBSCRIBE));
+        }
+        lagSubscribed = false;
+    }
+
+    /**
+     * Включает или выключает профилировщик на сервере
+     */
+    public void setProfilerEnabled(boolean enabled) {
+        if (!lagSubscribed || !ClientPlayNetworking.canSend(PanelLagC2SPacket.TYPE)) return;
+        ClientPlayNetworking.send(new PanelLagC2SPacket(enabled
+                ? PanelLagC2SPacket.Action.ENABLE : PanelLagC2SPacket.Action.DISABLE));
+    }
+
+    /**
+     * Телепорт к игроку строки или в ее чанк
+     */
+    public void teleport(LagOffender offender) {
+        if (status != Status.ALLOWED || !ClientPlayNetworking.canSend(PanelTeleportC2SPacket.TYPE)) return;
+        Identifier dimension = Identifier.tryParse(offender.dimension());
+        if (dimension == null) return;
+        ClientPlayNetworking.send(new PanelTeleportC2SPacket(offender.playerId(), dimension,
+                offender.chunkX(), offender.chunkZ()));
+    }
+
+    /**
+     * Действие с заявкой очереди жалоб; результат придет дельтой раздела
+     */
+    public void reportAction(PanelRow row, PanelReportC2SPacket.Action action) {
+        if (status != Status.ALLOWED || !ClientPlayNetworking.canSend(PanelReportC2SPacket.TYPE)) return;
+        ClientPlayNetworking.send(new PanelReportC2SPacket(row.getId(), action));
+    }
+
+    /**
+     * Запускает массовое действие с выбранными строками раздела; ход приходит в getBulkProgress,
+     * изменения таблиц - дельтами разделов. Одновременно идет одно действие
+     * @param durationMillis длительность для бана и мута, 0 - навсегда
+     * @return отправлено ли действие
+     */
+    public boolean bulkAction(PanelSection section, List<PanelRow> rows, PanelBulkC2SPacket.Action action,
+                              String reason, long durationMillis) {
+        if (status != Status.ALLOWED || rows.isEmpty() || rows.size() > BulkActionPipeline.MAX_TARGETS
+                || isBulkRunning() || !ClientPlayNetworking.canSend(PanelBulkC2SPacket.TYPE)) {
+            return false;
+        }
+
+        long[] rowIds = new long[rows.size()];
+        for (int i = 0; i < rowIds.length; i++) {
+            rowIds[i] = rows.get(i).getId();
+        }
+        bulkJobId = nextBulkJobId++;
+        bulkProgress = null;
+        ClientPlayNetworking.send(new PanelBulkC2SPacket(bulkJobId, action, section, rowIds, reason, durationMillis));
+        return true;
+    }
+
+    /**
+     * Отменяет идущее массовое действие; итог придет ходом со статусом отмены
+     */
+    public void cancelBulk() {
+        if (!isBulkRunning() || !ClientPlayNetworking.canSend(PanelBulkC2SPacket.TYPE)) return;
+        ClientPlayNetworking.send(PanelBulkC2SPacket.cancel(bulkJobId));
+    }
+
+    /**
+     * Идет ли массовое действие, запущенное из панели
+     */
+    public boolean isBulkRunning() {
+        return bulkJobId != NO_BULK_JOB && (bulkProgress == null || !bulkProgress.isFinished());
+    }
+
+    /**
+     * Последний ход массового действия или null
+     */
+    public BulkProgress getBulkProgress() {
+        return bulkProgress;
+    }
+
+    /**
+     * Последний итог профилировщика или null
+     */
+    public LagReport getLagReport() {
+        return lagReport;
+    }
+
+    /**
+     * Номер версии итога профилировщика, растет с каждым пакетом
+     */
+    public int getLagVersion() {
+        return lagVersion;
+    }
+
+    /**
+     * Последние полученные ряды метрик или null
+     */
+    public MetricsSnapshot getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Номер версии рядов метрик, растет с каждым пакетом
+     */
+    public int getMetricsVersion() {
+        return metricsVersion;
+    }
+
+    /**
+     * Переход в раздел: сервер отменяет незавершенные запросы других разделов,
+     * поэтому клиент перестает их ждать, и показывает раздел из кэша, обновляя его при необходимости
+     */
+    public void showSection(PanelSection section) {
+        showSection(section, "");
+    }
+
+    /**
+     * Переход в раздел с фильтром
+     */
+    public void showSection(PanelSection section, String filter) {
+        abandonPending(data -> data.getSection() != section);
+        ensureLoaded(section, filter);
+    }
+
+    /**
+     * Поисковый запрос (в нижнем регистре); ответы на прежние запросы больше не ждутся,
+     * так как сервер отменяет их
+     */
+    public SectionData search(String query) {
+        abandonPending(data -> data.getSection() == PanelSection.SEARCH && !data.getFilter().equals(query));
+        ensureLoaded(PanelSection.SEARCH, query);
+        return getSection(PanelSection.SEARCH, query);
+    }
+
+    /**
+     * Запрашивает первую страницу полного раздела или обновляет устаревшие данные
+     */
+    public void ensureLoaded(PanelSection section) {
+        ensureLoaded(section, "");
+    }
+
+    /**
+     * Запрашивает первую страницу раздела с фильтром или обновляет устаревшие данные
+     */
+    public void ensureLoaded(PanelSection section, String filter) {
+        SectionData data = cache.getOrCreate(section, filter);
+        long now = System.currentTimeMillis();
+        if (data.isLoading() || !data.canRequest(now)) return;
+
+        if (!data.isLoaded()) {
+            request(data, PunishmentQuery.FIRST_PAGE, false);
+        } else if (data.isStale(now, ClientSettings.get().getCacheTtlMillis(section))) {
+            // Старые строки остаются на экране, пока не придет свежая первая страница
+            request(data, PunishmentQuery.FIRST_PAGE, true);
+        }
+    }
+
+    /**
+     * Запрашивает следующую страницу полного раздела
+     */
+    public void loadMore(PanelSection section) {
+        loadMore(section, "");
+    }
+
+    /**
+     * Запрашивает следующую страницу раздела с фильтром
+     */
+    public void loadMore(PanelSection section, String filter) {
+        SectionData data = cache.getOrCreate(section, filter);
+        if (!data.isLoaded() || data.isLoading() || !data.hasMore()) return;
+        if (!data.canRequest(System.currentTimeMillis())) return;
+        request(data, data.getNextCursor(), false);
+    }
+
+    /**
+     * Данные полного раздела
+     */
+    public SectionData getSection(PanelSection section) {
+        return cache.getOrCreate(section, "");
+    }
+
+    /**
+     * Данные раздела с фильтром
+     */
+    public SectionData getSection(PanelSection section, String filter) {
+        return cache.getOrCreate(section, filter);
+    }
+
+    /**
+     * Состояние доступа к панели
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    private void abandonPending(Predicate<SectionData> filter) {
+        for (Iterator<SectionData> iterator = pending.values().iterator(); iterator.hasNext(); ) {
+            SectionData data = iterator.next();
+            if (filter.test(data)) {
+                data.abandonRequest();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void request(SectionData data, long cursor, boolean refresh) {
+        if (!subscribed || status != Status.ALLOWED) return;
+        if (!ClientPlayNetworking.canSend(PanelQueryC2SPacket.TYPE)) return;
+
+        int requestId = nextRequestId++;
+        data.setPendingRequest(requestId, refresh);
+        pending.put(requestId, data);
+        ClientPlayNetworking.send(new PanelQueryC2SPacket(requestId, data.getSection(), null, data.getFilter(),
+                cursor, PAGE_SIZE));
+    }
+
+    private void onStatus(PanelStatusS2CPacket packet) {
+        status = packet.allowed() ? Status.ALLOWED : Status.DENIED;
+        if (!packet.allowed()) {
+            resetSections();
+        }
+    }
+
+    private void onPage(PanelPageS2CPacket packet) {
+        SectionData data = pending.remove(packet.requestId());
+        if (data == null) return;
+
+        // Отказ сервера: повтор после паузы, а не на следующем кадре
+        if (packet.busy()) {
+            data.applyBusy(packet.requestId(), System.currentTimeMillis());
+            return;
+        }
+        if (data.applyPage(packet.requestId(), packet.rows(), packet.nextCursor(), System.currentTimeMillis())) {
+            cache.trim(data);
+        }
+    }
+
+    private void onDelta(PanelDeltaS2CPacket packet) {
+        for (SectionData data : cache.entriesOf(packet.section())) {
+            if (data.getFilter().isEmpty()) {
+                data.applyDelta(packet.upserts(), packet.removedIds());
+            } else {
+                // Совпадение с фильтром решает сервер - выборка обновится при следующем показе
+                data.markStale();
+            }
+        }
+    }
+
+    private void onMetrics(PanelMetricsS2CPacket packet) {
+        // Пакет мог быть в пути, когда раздел переключил шаг
+        if (packet.snapshot().resolution() != metricsResolution) return;
+        metrics = packet.snapshot();
+        metricsVersion++;
+    }
+
+    private void onLag(PanelLagS2CPacket packet) {
+        if (!lagSubscribed) return;
+        lagReport = packet.report();
+        lagVersion++;
+    }
+
+    private void onBulk(PanelBulkS2CPacket packet) {
+        // Ход действия, запущенного до переподключения или из другой копии панели
+        if (packet.progress().jobId() != bulkJobId) return;
+        bulkProgress = packet.progress();
+    }
+
+    private void resetSections() {
+        pending.clear();
+        cache.clear();
+    }
+
+    /**
+     * Сбрасывает состояние при отключении от сервера
+     */
+    private void reset() {
+        resetSections();
+        subscribed = false;
+        status = Status.UNKNOWN;
+        metricsResolution = null;
+        metrics = null;
+        metricsVersion++;
+        lagSubscribed = false;
+        lagReport = null;
+        lagVersion++;
+        bulkJobId = NO_BULK_JOB;
+        bulkProgress = null;
+    }
+
+    /**
+     * Состояние доступа к панели
+     */
+    public enum Status {
+        UNKNOWN,
+        PENDING,
+        ALLOWED,
+        DENIED,
+        UNAVAILABLE
+    }
+}
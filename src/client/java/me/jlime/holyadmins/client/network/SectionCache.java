@@ -0,0 +1,89 @@
+package me.jlime.holyadmins.client.network;
+
+import me.jlime.holyadmins.network.PanelSection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU кэш загруженных разделов по ключу (раздел, фильтр) с бюджетом памяти
+ * Каждая запись хранит подряд загруженные страницы своего ключа; при превышении бюджета
+ * вытесняются давно не открывавшиеся записи. Живет до отключения от сервера
+ */
+final class SectionCache {
+    private final Map<Key, SectionData> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long budgetBytes;
+
+    SectionCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Получает запись, создавая пустую при необходимости; отмечает использование
+     */
+    SectionData getOrCreate(PanelSection section, String filter) {
+        return entries.computeIfAbsent(new Key(section, filter), key -> new SectionData(key.section(), key.filter()));
+    }
+
+    /**
+     * Записи раздела со всеми фильтрами (без изменения порядка LRU)
+     */
+    List<SectionData> entriesOf(PanelSection section) {
+        List<SectionData> result = new ArrayList<>(2);
+        for (SectionData data : entries.values()) {
+            if (data.getSection() == section) {
+                result.add(data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Вытесняет давно не использованные записи, пока объем больше бюджета.
+     * Записи с незавершенным запросом и keep не вытесняются
+     */
+    void trim(SectionData keep) {
+        long total = 0;
+        for (SectionData data : entries.values()) {
+            total += data.getEstimatedBytes();
+        }
+
+        // Итерация идет от давно использованных к недавним
+        for (Iterator<SectionData> iterator = entries.values().iterator(); iterator.hasNext() && total > budgetBytes; ) {
+            SectionData data = iterator.next();
+            if (data == keep || data.isLoading()) continue;
+            total -= data.getEstimatedBytes();
+            data.reset();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Помечает все записи при снятии подписки (без изменения порядка LRU)
+     */
+    void detachAll() {
+        for (SectionData data : entries.values()) {
+            data.detach();
+        }
+    }
+
+    /**
+     * Очищает кэш
+     */
+    void clear() {
+        for (SectionData data : entries.values()) {
+            data.reset();
+        }
+        entries.clear();
+    }
+
+    private record Key(PanelSection section, String filter) {
+    }
+}
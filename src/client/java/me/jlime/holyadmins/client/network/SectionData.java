@@ -0,0 +1,385 @@
+package me.jlime.holyadmins.client.network;
+
+import me.jlime.holyadmins.moderation.Page;
+import me.jlime.holyadmins.network.PanelRow;
+import me.jlime.holyadmins.network.PanelSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Загруженные строки раздела (с фильтром) на клиенте
+ * Строки упорядочены по ID от больших к меньшим, как их отдает сервер;
+ * дельты применяются бинарным поиском без повторной загрузки таблицы.
+ *
+ * Страница собирается на сервере вне основного потока, поэтому дельты, пришедшие во время запроса,
+ * могут быть как старше, так и новее снимка. Они запоминаются и повторно применяются после
+ * страницы по правилу "состояние только завершается": активная строка не заменяет неактивную
+ */
+public final class SectionData {
+    // Оценка памяти строки без учета символов: объект, UUID, три строки
+    private static final int ROW_OVERHEAD_BYTES = 200;
+    // Сколько строк держится при обновлении дельтами (живая лента чата); более старые загрузятся снова при прокрутке
+    private static final int MAX_LIVE_ROWS = 5000;
+    // Пауза перед повтором после отказа сервера удваивается с каждым отказом подряд
+    private static final long RETRY_BASE_MILLIS = 1000;
+    private static final long RETRY_MAX_MILLIS = 30_000;
+
+    private final PanelSection section;
+    private final String filter;
+    private final List<PanelRow> rows = new ArrayList<>();
+    private final List<PanelRow> view = Collections.unmodifiableList(rows);
+    // Дельты, пришедшие во время запроса
+    private final List<PanelRow> deferredUpserts = new ArrayList<>();
+    private final List<Long> deferredRemovals = new ArrayList<>();
+    private long nextCursor = Page.NO_CURSOR;
+    private boolean loaded;
+    private boolean refreshing;
+    private boolean stale;
+    // Подписка снималась: пропущенные дельты могли затронуть любые строки, а не только первую страницу
+    private boolean detached;
+    private int pendingRequest = -1;
+    private int busyStreak;
+    private long retryAt;
+    private long loadedAt;
+    private long estimatedBytes;
+    private int version;
+
+    SectionData(PanelSection section, String filter) {
+        this.section = section;
+        this.filter = filter;
+    }
+
+    public PanelSection getSection() {
+        return section;
+    }
+
+    /**
+     * Текстовый фильтр запроса; пустая строка - полный раздел
+     */
+    public String getFilter() {
+        return filter;
+    }
+
+    /**
+     * Строки раздела (только чтение)
+     */
+    public List<PanelRow> getRows() {
+        return view;
+    }
+
+    /**
+     * Получен ли первый снимок раздела
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Ожидается ли ответ сервера
+     */
+    public boolean isLoading() {
+        return pendingRequest >= 0;
+    }
+
+    /**
+     * Обновляются ли показанные данные в фоне
+     */
+    public boolean isRefreshing() {
+        return refreshing && isLoading();
+    }
+
+    /**
+     * Есть ли на сервере еще не загруженные страницы
+     */
+    public boolean hasMore() {
+        return nextCursor != Page.NO_CURSOR;
+    }
+
+    /**
+     * Отказал ли сервер в последнем запросе (занят или запрос упал); повтор будет после паузы
+     */
+    public boolean isBusy() {
+        return busyStreak > 0;
+    }
+
+    /**
+     * Версия данных, увеличивается при каждом изменении строк
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Устарели ли данные: истек срок или пришли изменения, которые нельзя применить к фильтру
+     */
+    boolean isStale(long now, long ttlMillis) {
+        return loaded && (stale || now - loadedAt >= ttlMillis);
+    }
+
+    /**
+     * Можно ли отправить запрос: после отказа сервера запросы не отправляются до конца паузы
+     */
+    boolean canRequest(long now) {
+        return now >= retryAt;
+    }
+
+    /**
+     * Помечает данные для обновления при следующем показе
+     */
+    void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Помечает данные при снятии подписки: строки показываются до следующего показа,
+     * а свежая первая страница заменяет их целиком
+     */
+    void detach() {
+        stale = true;
+        detached = true;
+    }
+
+    /**
+     * Приблизительный объем памяти строк
+     */
+    long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    long getNextCursor() {
+        return nextCursor;
+    }
+
+    void setPendingRequest(int requestId, boolean refresh) {
+        this.pendingRequest = requestId;
+        this.refreshing = refresh;
+        deferredUpserts.clear();
+        deferredRemovals.clear();
+    }
+
+    /**
+     * Добавляет полученную страницу, если это ответ на последний запрос
+     */
+    boolean applyPage(int requestId, List<PanelRow> page, long cursor, long now) {
+        if (requestId != pendingRequest) return false;
+
+        pendingRequest = -1;
+        busyStreak = 0;
+        retryAt = 0;
+        if (!loaded || refreshing) {
+            if (detached) {
+                clearRows();
+                detached = false;
+            }
+            replaceHead(page, cursor);
+            loaded = true;
+            stale = false;
+            loadedAt = now;
+        } else {
+            append(page, cursor);
+        }
+        refreshing = false;
+        applyDeferred();
+        version++;
+        return true;
+    }
+
+    /**
+     * Отказ сервера в ответ на последний запрос: строки и курсор не меняются,
+     * следующий запрос будет не раньше чем через паузу
+     */
+    boolean applyBusy(int requestId, long now) {
+        if (requestId != pendingRequest) return false;
+
+        abandonRequest();
+        long delay = RETRY_BASE_MILLIS << Math.min(busyStreak, 5);
+        busyStreak++;
+        retryAt = now + Math.min(delay, RETRY_MAX_MILLIS);
+        return true;
+    }
+
+    /**
+     * Забывает ожидаемый ответ (запрос отменен при переходе в другой раздел)
+     */
+    void abandonRequest() {
+        pendingRequest = -1;
+        refreshing = false;
+        deferredUpserts.clear();
+        deferredRemovals.clear();
+    }
+
+    /**
+     * Применяет серверную дельту к загруженному снимку
+     */
+    void applyDelta(List<PanelRow> upserts, long[] removedIds) {
+        if (isLoading()) {
+            deferredUpserts.addAll(upserts);
+            for (long id : removedIds) {
+                deferredRemovals.add(id);
+            }
+        }
+        if (!loaded) return;
+
+        boolean changed = false;
+        for (long id : removedIds) {
+            changed |= remove(id);
+        }
+        for (PanelRow row : upserts) {
+            changed |= upsert(row, false);
+        }
+        if (changed) {
+            trimLive();
+            version++;
+        }
+    }
+
+    /**
+     * Сбрасывает данные раздела
+     */
+    void reset() {
+        rows.clear();
+        deferredUpserts.clear();
+        deferredRemovals.clear();
+        nextCursor = Page.NO_CURSOR;
+        loaded = false;
+        refreshing = false;
+        stale = false;
+        detached = false;
+        pendingRequest = -1;
+        busyStreak = 0;
+        retryAt = 0;
+        estimatedBytes = 0;
+        version++;
+    }
+
+    /**
+     * Первая страница (или ее обновление): заменяет строки с ID не меньше последнего в странице,
+     * более старые загруженные строки сохраняются, если сервер сообщил о продолжении
+     */
+    private void replaceHead(List<PanelRow> page, long cursor) {
+        if (cursor == Page.NO_CURSOR || page.isEmpty() || rows.isEmpty()) {
+            clearRows();
+            append(page, cursor);
+            return;
+        }
+
+        long boundary = page.get(page.size() - 1).getId();
+        int index = indexOf(boundary);
+        int tailStart = index >= 0 ? index + 1 : -index - 1;
+        List<PanelRow> tail = new ArrayList<>(rows.subList(tailStart, rows.size()));
+        long tailCursor = nextCursor;
+
+        clearRows();
+        append(page, cursor);
+        if (!tail.isEmpty()) {
+            for (PanelRow row : tail) {
+                rows.add(row);
+                estimatedBytes += estimate(row);
+            }
+            nextCursor = tailCursor;
+        }
+    }
+
+    private void append(List<PanelRow> page, long cursor) {
+        // Строки, пришедшие дельтой между запросами страниц, не дублируются
+        long lastId = rows.isEmpty() ? Long.MAX_VALUE : rows.get(rows.size() - 1).getId();
+        for (PanelRow row : page) {
+            if (row.getId() < lastId) {
+                rows.add(row);
+                estimatedBytes += estimate(row);
+                lastId = row.getId();
+            }
+        }
+        nextCursor = cursor;
+    }
+
+    /**
+     * Отбрасывает самые старые строки сверх MAX_LIVE_ROWS, продолжение загрузится по курсору
+     */
+    private void trimLive() {
+        if (rows.size() <= MAX_LIVE_ROWS) return;
+
+        List<PanelRow> excess = rows.subList(MAX_LIVE_ROWS, rows.size());
+        for (PanelRow row : excess) {
+            estimatedBytes -= estimate(row);
+        }
+        excess.clear();
+        nextCursor = rows.get(rows.size() - 1).getId();
+    }
+
+    private void clearRows() {
+        rows.clear();
+        estimatedBytes = 0;
+    }
+
+    /**
+     * Повторно применяет дельты, пришедшие во время запроса
+     */
+    private void applyDeferred() {
+        for (long id : deferredRemovals) {
+            remove(id);
+        }
+        for (PanelRow row : deferredUpserts) {
+            upsert(row, true);
+        }
+        deferredUpserts.clear();
+        deferredRemovals.clear();
+    }
+
+    private boolean remove(long id) {
+        int index = indexOf(id);
+        if (index < 0) return false;
+        estimatedBytes -= estimate(rows.remove(index));
+        return true;
+    }
+
+    /**
+     * @param monotonic не заменять неактивную строку активной (дельта могла быть старше снимка)
+     */
+    private boolean upsert(PanelRow row, boolean monotonic) {
+        int index = indexOf(row.getId());
+        if (index >= 0) {
+            PanelRow current = rows.get(index);
+            if (monotonic && row.isActive() && !current.isActive()) return false;
+            rows.set(index, row);
+            estimatedBytes += estimate(row) - estimate(current);
+            return true;
+        }
+
+        // Строки за пределами загруженных страниц придут вместе со следующей страницей
+        int insertion = -index - 1;
+        if (insertion < rows.size() || !hasMore()) {
+            rows.add(insertion, row);
+            estimatedBytes += estimate(row);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Бинарный поиск по убывающим ID
+     * @return индекс строки или -(точка вставки) - 1
+     */
+    public int indexOf(long id) {
+        int low = 0;
+        int high = rows.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = rows.get(mid).getId();
+            if (midId > id) {
+                low = mid + 1;
+            } else if (midId < id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static long estimate(PanelRow row) {
+        return ROW_OVERHEAD_BYTES + 2L * (row.getSubjectName().length() + row.getActorName().length() + row.getText().length());
+    }
+}
@@ -0,0 +1,68 @@
+package me.jlime.holyadmins.client.gui;
+
+import me.jlime.holyadmins.client.gui.utils.GuiMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Арифметика интерфейса, вызываемая для каждого элемента в каждом кадре
+ * Входные данные берутся из заранее заполненных массивов, чтобы JIT не свернул вызов в константу
+ */
+@State(Scope.Thread)
+public class GuiMathBenchmark {
+    private static final int SIZE = 1024;
+    private static final int MASK = SIZE - 1;
+
+    private final int[] colors = new int[SIZE];
+    private final float[] progress = new float[SIZE];
+    private final double[] pointX = new double[SIZE];
+    private final double[] pointY = new double[SIZE];
+    private final int[] values = new int[SIZE];
+    private final float[] floatValues = new float[SIZE];
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            colors[i] = random.nextInt();
+            // Часть значений за пределами [0, 1] - ранний выход тоже должен попадать в замер
+            progress[i] = random.nextFloat() * 1.2f - 0.1f;
+            pointX[i] = random.nextDouble() * 800.0;
+            pointY[i] = random.nextDouble() * 600.0;
+            values[i] = random.nextInt(1200) - 100;
+            floatValues[i] = random.nextFloat() * 1.2f - 0.1f;
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & MASK;
+        return index;
+    }
+
+    @Benchmark
+    public int interpolateColor() {
+        int i = next();
+        return GuiMath.interpolateColor(colors[i], colors[(i + 1) & MASK], progress[i]);
+    }
+
+    @Benchmark
+    public boolean isPointInRect() {
+        int i = next();
+        return GuiMath.isPointInRect(pointX[i], pointY[i], 200, 150, 400, 300);
+    }
+
+    @Benchmark
+    public int clampInt() {
+        return GuiMath.clamp(values[next()], 0, 1000);
+    }
+
+    @Benchmark
+    public float clampFloat() {
+        return GuiMath.clamp(floatValues[next()], 0.0f, 1.0f);
+    }
+}
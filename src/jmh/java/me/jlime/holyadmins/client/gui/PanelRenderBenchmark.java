@@ -0,0 +1,101 @@
+package me.jlime.holyadmins.client.gui;
+
+import me.jlime.holyadmins.client.gui.components.SidebarButton;
+import me.jlime.holyadmins.client.gui.components.VirtualListRenderer;
+import me.jlime.holyadmins.client.gui.utils.RecordingCanvas;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Полный кадр панели в RecordingCanvas без окна игры: фон, боковая панель и таблица раздела
+ * Размеры экрана - 1080p и 4K при масштабе интерфейса 1, таблица на 1000 и 100000 строк.
+ * Мышь и прокрутка меняются от кадра к кадру, чтобы в замер попадали наведение и пересчет видимых строк
+ */
+@State(Scope.Thread)
+public class PanelRenderBenchmark {
+    private static final String SECTION = "benchmark";
+    private static final int ROW_HEIGHT = 18;
+    private static final int SIDEBAR_BUTTONS = 100;
+    private static final float[] COLUMNS = {0.0f, 0.25f, 0.45f, 0.8f};
+
+    @Param({"1920x1080", "3840x2160"})
+    public String screen;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private AdminPanel panel;
+    private VirtualListRenderer<String[]> table;
+    private final RecordingCanvas canvas = new RecordingCanvas();
+    private final RecordingCanvas replayCanvas = new RecordingCanvas();
+    private int width;
+    private int height;
+    private int frame;
+
+    @Setup
+    public void setup() {
+        String[] size = screen.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+
+        List<String[]> items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            items.add(new String[]{"Player" + i, "Admin" + (i % 17), "Причина наказания номер " + i, "01.01.25 12:00"});
+        }
+        table = new VirtualListRenderer<>(ROW_HEIGHT, (canvas, item, index, x, y, rowWidth, rowHeight, hovered, selected) -> {
+            int textY = y + (rowHeight - canvas.fontHeight()) / 2 + 1;
+            for (int column = 0; column < item.length; column++) {
+                canvas.text(item[column], x + (int) (rowWidth * COLUMNS[column]) + 4, textY, UIConstants.TEXT_COLOR, false);
+            }
+        });
+        table.setItems(items);
+
+        panel = new AdminPanel();
+        for (int i = 0; i < SIDEBAR_BUTTONS; i++) {
+            String id = "extra-" + i;
+            panel.getSidebar().addButton(new SidebarButton(id, "Раздел " + i, UIConstants.ICON_LOGS, () -> { }));
+        }
+        panel.getSidebar().updateMaxScroll(height);
+        panel.getContent().registerContentRenderer(SECTION, table);
+        panel.getContent().setCurrentSection(SECTION);
+
+        // Запись для воспроизведения
+        canvas.reset();
+        panel.render(canvas, width, height, width / 2, height / 2);
+        canvas.end();
+    }
+
+    @Benchmark
+    public int renderFrame() {
+        frame++;
+        canvas.reset();
+        panel.render(canvas, width, height, UIConstants.SIDEBAR_WIDTH + frame % 400, frame % height);
+        canvas.end();
+        return canvas.size();
+    }
+
+    @Benchmark
+    public int renderScrolledFrame() {
+        frame++;
+        table.setScrollOffset(frame * ROW_HEIGHT * 7 % Math.max(1, table.getMaxScroll(height)));
+        canvas.reset();
+        panel.render(canvas, width, height, width / 2, height / 2);
+        canvas.end();
+        return canvas.size();
+    }
+
+    @Benchmark
+    public int replayFrame() {
+        replayCanvas.reset();
+        canvas.replay(replayCanvas);
+        replayCanvas.end();
+        return replayCanvas.getDrawCalls();
+    }
+}
@@ -0,0 +1,76 @@
+package me.jlime.holyadmins.client.gui;
+
+import me.jlime.holyadmins.client.gui.components.SectionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Выбор раздела контента: смена раздела, заголовок и поиск рендерера в кадре
+ * mapLookupPerFrame - два поиска по картам в каждом кадре, как было до SectionRegistry, для сравнения
+ */
+@State(Scope.Thread)
+public class SectionDispatchBenchmark {
+    private static final String[] SECTIONS = {
+        "", "search", "players", "lag", "bans", "kicks", "mutes", "warns",
+        "reports", "messages", "logs", "analytics", "settings", "help"
+    };
+
+    private final SectionRegistry<Object> registry = new SectionRegistry<>();
+    private final Map<String, Object> renderers = new HashMap<>();
+    private final Map<String, Integer> scopes = new HashMap<>();
+    private SectionRegistry.Section<Object> current;
+    private String currentId;
+    private int index;
+
+    @Setup
+    public void setup() {
+        // У "help" и "" рендерера нет - для них рисуется заглушка
+        for (int i = 1; i < SECTIONS.length - 1; i++) {
+            Object renderer = new Object();
+            registry.register(SECTIONS[i], renderer, i);
+            renderers.put(SECTIONS[i], renderer);
+            scopes.put(SECTIONS[i], i);
+        }
+        current = registry.resolve("players");
+        currentId = "players";
+    }
+
+    private String nextSection() {
+        index = (index + 1) % SECTIONS.length;
+        return SECTIONS[index];
+    }
+
+    @Benchmark
+    public SectionRegistry.Section<Object> switchSection() {
+        return registry.resolve(nextSection());
+    }
+
+    @Benchmark
+    public String headerText() {
+        return SectionRegistry.headerText(nextSection());
+    }
+
+    @Benchmark
+    public void dispatchPerFrame(Blackhole blackhole) {
+        Object renderer = current.renderer();
+        if (renderer != null) {
+            blackhole.consume(current.scope());
+            blackhole.consume(renderer);
+        }
+    }
+
+    @Benchmark
+    public void mapLookupPerFrame(Blackhole blackhole) {
+        Object renderer = renderers.get(currentId);
+        if (renderer != null) {
+            blackhole.consume((int) scopes.get(currentId));
+            blackhole.consume(renderer);
+        }
+    }
+}
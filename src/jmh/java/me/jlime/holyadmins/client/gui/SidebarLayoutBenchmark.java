@@ -0,0 +1,103 @@
+package me.jlime.holyadmins.client.gui;
+
+import me.jlime.holyadmins.client.gui.components.SidebarLayout;
+import me.jlime.holyadmins.client.gui.utils.GuiMath;
+import me.jlime.holyadmins.client.gui.utils.UIConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Раскладка и попадание мыши в боковой панели при 10, 100 и 1000 кнопках
+ * linearHitTest - перебор видимых кнопок, как было до арифметического поиска, для сравнения
+ */
+@State(Scope.Thread)
+public class SidebarLayoutBenchmark {
+    private static final int SIZE = 1024;
+    private static final int MASK = SIZE - 1;
+    private static final int SCREEN_HEIGHT = 600;
+
+    @Param({"10", "100", "1000"})
+    public int buttons;
+
+    private SidebarLayout<Button> layout;
+    private final String[] ids = new String[SIZE];
+    private final double[] mouseX = new double[SIZE];
+    private final double[] mouseY = new double[SIZE];
+    private final int[] scroll = new int[SIZE];
+    private int index;
+
+    @Setup
+    public void setup() {
+        layout = new SidebarLayout<>(Button::id, Button::visible);
+        for (int i = 0; i < buttons; i++) {
+            // Каждая десятая кнопка скрыта - раскладка должна их пропускать
+            layout.add(new Button("button-" + i, i % 10 != 9));
+        }
+        int maxScroll = layout.maxScroll(SCREEN_HEIGHT);
+
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            ids[i] = "button-" + random.nextInt(buttons);
+            mouseX[i] = random.nextDouble() * UIConstants.SIDEBAR_WIDTH;
+            mouseY[i] = random.nextDouble() * SCREEN_HEIGHT;
+            scroll[i] = maxScroll > 0 ? random.nextInt(maxScroll + 1) : 0;
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & MASK;
+        return index;
+    }
+
+    @Benchmark
+    public int rebuildLayout() {
+        layout.invalidate();
+        layout.ensureLayout();
+        return layout.size();
+    }
+
+    @Benchmark
+    public int visibleRange() {
+        int offset = scroll[next()];
+        return layout.lastVisibleIndex(offset, SCREEN_HEIGHT) - layout.firstVisibleIndex(offset);
+    }
+
+    @Benchmark
+    public int hitTest() {
+        int i = next();
+        return layout.indexAt(mouseX[i], mouseY[i], scroll[i], SCREEN_HEIGHT);
+    }
+
+    @Benchmark
+    public int linearHitTest() {
+        int i = next();
+        int count = layout.size();
+        for (int button = 0; button < count; button++) {
+            int buttonY = layout.buttonY(button, scroll[i]);
+            if (buttonY + UIConstants.BUTTON_HEIGHT < SidebarLayout.VIEWPORT_TOP || buttonY > SCREEN_HEIGHT) continue;
+            if (GuiMath.isPointInRect(mouseX[i], mouseY[i], UIConstants.PADDING_MEDIUM, buttonY,
+                    UIConstants.SIDEBAR_WIDTH - UIConstants.PADDING_MEDIUM * 2, UIConstants.BUTTON_HEIGHT)) {
+                return button;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public Button getButton() {
+        return layout.get(ids[next()]);
+    }
+
+    @Benchmark
+    public int maxScroll() {
+        return layout.maxScroll(SCREEN_HEIGHT);
+    }
+
+    public record Button(String id, boolean visible) {
+    }
+}
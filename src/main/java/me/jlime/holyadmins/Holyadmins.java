@@ -1,10 +1,114 @@
 package me.jlime.holyadmins;
 
+import me.jlime.holyadmins.alts.AltTracker;
+import me.jlime.holyadmins.chat.ChatCapture;
+import me.jlime.holyadmins.chat.FloodDetector;
+import me.jlime.holyadmins.config.ServerSettings;
+import me.jlime.holyadmins.metrics.LagProfiler;
+import me.jlime.holyadmins.metrics.MetricsCollector;
+import me.jlime.holyadmins.moderation.BanCheck;
+import me.jlime.holyadmins.moderation.BulkActionPipeline;
+import me.jlime.holyadmins.moderation.ExpiryScheduler;
+import me.jlime.holyadmins.moderation.ModerationService;
+import me.jlime.holyadmins.moderation.ReportQueue;
+import me.jlime.holyadmins.network.PanelServer;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class Holyadmins implements ModInitializer {
+    public static final String MOD_ID = "holyadmins";
+    public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
+
+    private static final ModerationService MODERATION_SERVICE = new ModerationService();
+    private static final ExpiryScheduler EXPIRY_SCHEDULER = new ExpiryScheduler(MODERATION_SERVICE);
+    private static final BanCheck BAN_CHECK = new BanCheck(MODERATION_SERVICE);
+    private static final ReportQueue REPORT_QUEUE = new ReportQueue(MODERATION_SERVICE);
+    private static final BulkActionPipeline BULK_ACTIONS = new BulkActionPipeline(MODERATION_SERVICE);
+    private static final ChatCapture CHAT_CAPTURE = new ChatCapture();
+    private static final FloodDetector FLOOD_DETECTOR = new FloodDetector(MODERATION_SERVICE);
+    private static final MetricsCollector METRICS = new MetricsCollector(MODERATION_SERVICE);
+    private static final LagProfiler LAG_PROFILER = new LagProfiler();
+    private static final AltTracker ALT_TRACKER = new AltTracker();
+    private static final PanelServer PANEL_SERVER = new PanelServer(MODERATION_SERVICE, REPORT_QUEUE, BULK_ACTIONS,
+            CHAT_CAPTURE, METRICS, LAG_PROFILER, ALT_TRACKER);
 
     @Override
     public void onInitialize() {
+        // Moderation backend lives as long as the server
+        ServerLifecycleEvents.SERVER_STARTING.register(MODERATION_SERVICE::start);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> MODERATION_SERVICE.stop());
+        ServerTickEvents.END_SERVER_TICK.register(server -> MODERATION_SERVICE.tick());
+        // Temporary bans and mutes are lifted by a timing wheel on its own thread, never on the tick
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> EXPIRY_SCHEDULER.start());
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> EXPIRY_SCHEDULER.stop());
+        // Join-time ban check (PlayerManagerMixin): built from the journal before the server accepts connections
+        BAN_CHECK.register();
+        ServerLifecycleEvents.SERVER_STARTING.register(BAN_CHECK::start);
+        // Bulk actions (raids): issued in one batch, delivered to online players a few per tick
+        BULK_ACTIONS.register();
+
+        // Chat capture: the mixin only enqueues, a background thread writes the log
+        // and feeds the flood detector (started first, it runs on that thread)
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            ServerSettings.get().load();
+            FLOOD_DETECTOR.start(server);
+            CHAT_CAPTURE.start(server);
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            CHAT_CAPTURE.stop();
+            FLOOD_DETECTOR.stop();
+        });
+        CHAT_CAPTURE.addListener(FLOOD_DETECTOR);
+        // Report triage queue: rebuilt from open reports once settings (the duplicate window) are loaded
+        REPORT_QUEUE.register();
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> REPORT_QUEUE.start());
+
+        // Server analytics: tick timings and world counters, rolled up once per second on the server thread
+        METRICS.register();
+        // Per-player lag attribution; world mixins report sampled entity and block entity ticks
+        LAG_PROFILER.register();
+        // Alt-account links from login addresses (PlayerManagerMixin), persisted per world
+        ALT_TRACKER.register();
+
+        // Admin panel protocol: paged queries and live deltas
+        PANEL_SERVER.register();
+    }
+
+    /**
+     * Server-side moderation service
+     */
+    public static ModerationService getModerationService() {
+        return MODERATION_SERVICE;
+    }
+
+    /**
+     * Join-time ban check used by the login mixin
+     */
+    public static BanCheck getBanCheck() {
+        return BAN_CHECK;
+    }
+
+    /**
+     * Login address graph used by the login mixin
+     */
+    public static AltTracker getAltTracker() {
+        return ALT_TRACKER;
+    }
+
+    /**
+     * Server-side chat capture for the messages section
+     */
+    public static ChatCapture getChatCapture() {
+        return CHAT_CAPTURE;
+    }
+
+    /**
+     * Server-side lag profiler fed by the world mixins
+     */
+    public static LagProfiler getLagProfiler() {
+        return LAG_PROFILER;
     }
 }
@@ -0,0 +1,452 @@
+package me.jlime.holyadmins.alts;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Граф связей аккаунтов через общие адреса и отпечатки клиента
+ *
+ * Узлы - игроки и признаки (адрес IPv4, сеть IPv6 /64, отпечаток), номера узлов - индексы в массивах примитивов.
+ * Ребро игрок-признак добавляется при входе один раз и сразу объединяет компоненты (система непересекающихся
+ * множеств с объединением по размеру и сокращением пути). Узлы компоненты связаны в кольцо, поэтому
+ * объединение - O(1), а связанные аккаунты игрока перечисляются обходом кольца без поиска по графу.
+ * Компонента больше MAX_CLUSTER_SCAN узлов (цепочки через общие сети операторов) не обходится целиком:
+ * аккаунты ищутся обходом в ширину от игрока, сначала по новым ребрам, не дальше MAX_CLUSTER_SCAN ребер.
+ * Признак, которым пользуются больше maxAccountsPerAttribute игроков (общий NAT, VPN), новых игроков не связывает.
+ * Ребра хранятся еще и в порядке добавления: при загрузке они проигрываются заново, и решения об объединении
+ * совпадают с исходными. Не потокобезопасен: используется под блокировкой AltTracker
+ */
+public final class AltGraph {
+    public static final byte PLAYER = 0;
+    public static final byte ADDRESS_V4 = 1;
+    public static final byte NETWORK_V6 = 2;
+    public static final byte FINGERPRINT = 3;
+    // Сколько узлов кольца или ребер просматривает один запрос cluster
+    public static final int MAX_CLUSTER_SCAN = 4096;
+
+    private static final int MAGIC = 0x48414c54;
+    private static final int VERSION = 1;
+    private static final int INITIAL_NODES = 1024;
+    private static final int INITIAL_DEGREE = 2;
+    private static final int MAX_NAME_CHARS = 16;
+    private static final int[] NO_EDGES = new int[0];
+
+    private final int maxAccountsPerAttribute;
+    private final KeyIndex players = new KeyIndex(INITIAL_NODES);
+    private final KeyIndex attributes = new KeyIndex(INITIAL_NODES);
+    private int nodeCount;
+    private byte[] kinds = new byte[INITIAL_NODES];
+    // Игрок - UUID, признак - (вид, значение)
+    private long[] keyHigh = new long[INITIAL_NODES];
+    private long[] keyLow = new long[INITIAL_NODES];
+    private String[] names = new String[INITIAL_NODES];
+    private long[] lastSeen = new long[INITIAL_NODES];
+    private int[] parent = new int[INITIAL_NODES];
+    private int[] componentSize = new int[INITIAL_NODES];
+    private int[] ring = new int[INITIAL_NODES];
+    private int[][] edges = new int[INITIAL_NODES][];
+    private int[] degree = new int[INITIAL_NODES];
+    // Пары (игрок, признак) в порядке добавления
+    private int[] edgeLog = new int[INITIAL_NODES * 2];
+    private int edgeCount;
+
+    /**
+     * @param maxAccountsPerAttribute сколько игроков может связать один признак
+     */
+    public AltGraph(int maxAccountsPerAttribute) {
+        if (maxAccountsPerAttribute < 2) {
+            throw new IllegalArgumentException("At least two accounts must share an attribute to be linked");
+        }
+        this.maxAccountsPerAttribute = maxAccountsPerAttribute;
+    }
+
+    /**
+     * Записывает вход игрока с признаком
+     * @param kind  ADDRESS_V4, NETWORK_V6 или FINGERPRINT
+     * @param value значение признака
+     * @return появилось ли новое ребро
+     */
+    public boolean recordLogin(UUID playerId, String name, long time, byte kind, long value) {
+        if (kind == PLAYER) {
+            throw new IllegalArgumentException("Attribute kind expected");
+        }
+        int player = playerNode(playerId, name, time);
+        int attribute = attributes.get(kind, value);
+        if (attribute < 0) {
+            attribute = addNode(kind, kind, value);
+            attributes.put(kind, value, attribute);
+        } else if (hasEdge(player, attribute)) {
+            return false;
+        }
+        link(player, attribute);
+        return true;
+    }
+
+    /**
+     * Записывает вход без признаков (имя и время последнего входа)
+     */
+    public void recordPlayer(UUID playerId, String name, long time) {
+        playerNode(playerId, name, time);
+    }
+
+    /**
+     * Аккаунты, связанные с игроком, от недавно входивших к давним (без самого игрока)
+     * @param limit сколько аккаунтов вернуть
+     */
+    public List<Account> cluster(UUID playerId, int limit) {
+        int subject = players.get(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        if (subject < 0 || limit <= 0) return List.of();
+
+        // Признаки игрока, отсортированные для двоичного поиска
+        int[] own = Arrays.copyOf(edgesOf(subject), degree[subject]);
+        Arrays.sort(own);
+
+        // Компонента может быть большой: в куче по времени входа держатся только limit самых недавних
+        int component = root(subject);
+        int[] heap = new int[Math.min(limit, componentSize[component])];
+        int heapSize = 0;
+        if (componentSize[component] <= MAX_CLUSTER_SCAN) {
+            for (int node = ring[subject]; node != subject; node = ring[node]) {
+                if (kinds[node] == PLAYER) {
+                    heapSize = offer(heap, heapSize, node);
+                }
+            }
+        } else {
+            heapSize = scanNearest(subject, component, heap);
+        }
+
+        List<Account> accounts = new ArrayList<>(heapSize);
+        for (int i = 0; i < heapSize; i++) {
+            int node = heap[i];
+            int sharedAddresses = 0;
+            int sharedFingerprints = 0;
+            int[] nodeEdges = edgesOf(node);
+            for (int j = 0; j < degree[node]; j++) {
+                int attribute = nodeEdges[j];
+                if (Arrays.binarySearch(own, attribute) < 0) continue;
+                if (kinds[attribute] == FINGERPRINT) {
+                    sharedFingerprints++;
+                } else {
+                    sharedAddresses++;
+                }
+            }
+            accounts.add(new Account(new UUID(keyHigh[node], keyLow[node]), names[node], lastSeen[node],
+                    sharedAddresses, sharedFingerprints));
+        }
+        accounts.sort(Comparator.comparingLong(Account::lastSeen).reversed());
+        return accounts;
+    }
+
+    /**
+     * Обход в ширину от игрока в пределах его компоненты, не больше MAX_CLUSTER_SCAN ребер;
+     * ребра узла просматриваются от новых к старым
+     * @return сколько игроков попало в кучу
+     */
+    private int scanNearest(int subject, int component, int[] heap) {
+        int[] queue = new int[MAX_CLUSTER_SCAN + 1];
+        // Открытая адресация: номер узла + 1, ноль - пустая ячейка
+        int[] seen = new int[Integer.highestOneBit(MAX_CLUSTER_SCAN) * 4];
+        int heapSize = 0;
+        int head = 0;
+        int tail = 0;
+        int scanned = 0;
+        markSeen(seen, subject);
+        queue[tail++] = subject;
+        while (head < tail && scanned < MAX_CLUSTER_SCAN) {
+            int node = queue[head++];
+            int[] nodeEdges = edgesOf(node);
+            for (int i = degree[node] - 1; i >= 0 && scanned < MAX_CLUSTER_SCAN; i--) {
+                scanned++;
+                int next = nodeEdges[i];
+                // Ребро через переполненный признак не объединяло компоненты
+                if (!markSeen(seen, next) || root(next) != component) continue;
+                queue[tail++] = next;
+                if (kinds[next] == PLAYER) {
+                    heapSize = offer(heap, heapSize, next);
+                }
+            }
+        }
+        return heapSize;
+    }
+
+    private static boolean markSeen(int[] seen, int node) {
+        int mask = seen.length - 1;
+        for (int slot = (node * 0x9E3779B9) >>> 16 & mask; ; slot = (slot + 1) & mask) {
+            if (seen[slot] == node + 1) return false;
+            if (seen[slot] == 0) {
+                seen[slot] = node + 1;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Добавляет узел в кучу limit самых недавних
+     * @return новый размер кучи
+     */
+    private int offer(int[] heap, int heapSize, int node) {
+        if (heapSize < heap.length) {
+            heap[heapSize] = node;
+            siftUp(heap, heapSize);
+            return heapSize + 1;
+        }
+        if (lastSeen[node] > lastSeen[heap[0]]) {
+            heap[0] = node;
+            siftDown(heap, heapSize);
+        }
+        return heapSize;
+    }
+
+    /**
+     * Просеивание в min-куче узлов по времени последнего входа
+     */
+    private void siftUp(int[] heap, int index) {
+        int node = heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            if (lastSeen[heap[parentIndex]] <= lastSeen[node]) break;
+            heap[index] = heap[parentIndex];
+            index = parentIndex;
+        }
+        heap[index] = node;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int node = heap[0];
+        int index = 0;
+        for (int child = 1; child < size; child = index * 2 + 1) {
+            if (child + 1 < size && lastSeen[heap[child + 1]] < lastSeen[heap[child]]) child++;
+            if (lastSeen[heap[child]] >= lastSeen[node]) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = node;
+    }
+
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    public int getAttributeCount() {
+        return attributes.size();
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Сохраняет граф: узлы по номерам, затем ребра в порядке добавления (номера - VarInt)
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            out.writeByte(kinds[node]);
+            if (kinds[node] == PLAYER) {
+                out.writeLong(keyHigh[node]);
+                out.writeLong(keyLow[node]);
+                out.writeUTF(names[node]);
+                out.writeLong(lastSeen[node]);
+            } else {
+                out.writeLong(keyLow[node]);
+            }
+        }
+        out.writeInt(edgeCount);
+        for (int i = 0; i < edgeCount * 2; i++) {
+            writeVarInt(out, edgeLog[i]);
+        }
+    }
+
+    /**
+     * Загружает граф, сохраненный write
+     * @throws IOException файл поврежден или другой версии
+     */
+    public static AltGraph read(DataInput in, int maxAccountsPerAttribute) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not an alt graph file");
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported alt graph version " + version);
+
+        AltGraph graph = new AltGraph(maxAccountsPerAttribute);
+        int nodes = in.readInt();
+        if (nodes < 0) throw new IOException("Invalid node count " + nodes);
+        for (int node = 0; node < nodes; node++) {
+            byte kind = in.readByte();
+            if (kind == PLAYER) {
+                long high = in.readLong();
+                long low = in.readLong();
+                String name = in.readUTF();
+                long time = in.readLong();
+                graph.addNode(PLAYER, high, low);
+                graph.names[node] = name;
+                graph.lastSeen[node] = time;
+                graph.players.put(high, low, node);
+            } else if (kind == ADDRESS_V4 || kind == NETWORK_V6 || kind == FINGERPRINT) {
+                long value = in.readLong();
+                graph.addNode(kind, kind, value);
+                graph.attributes.put(kind, value, node);
+            } else {
+                throw new IOException("Unknown node kind " + kind);
+            }
+        }
+
+        int edges = in.readInt();
+        if (edges < 0) throw new IOException("Invalid edge count " + edges);
+        for (int i = 0; i < edges; i++) {
+            int player = readVarInt(in);
+            int attribute = readVarInt(in);
+            if (player >= nodes || attribute >= nodes || graph.kinds[player] != PLAYER || graph.kinds[attribute] == PLAYER) {
+                throw new IOException("Invalid edge " + player + " - " + attribute);
+            }
+            graph.link(player, attribute);
+        }
+        return graph;
+    }
+
+    private int playerNode(UUID playerId, String name, long time) {
+        long high = playerId.getMostSignificantBits();
+        long low = playerId.getLeastSignificantBits();
+        int node = players.get(high, low);
+        if (node < 0) {
+            node = addNode(PLAYER, high, low);
+            players.put(high, low, node);
+        }
+        names[node] = name.length() > MAX_NAME_CHARS ? name.substring(0, MAX_NAME_CHARS) : name;
+        lastSeen[node] = Math.max(lastSeen[node], time);
+        return node;
+    }
+
+    private int addNode(byte kind, long high, long low) {
+        if (nodeCount == kinds.length) {
+            int capacity = kinds.length * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            keyHigh = Arrays.copyOf(keyHigh, capacity);
+            keyLow = Arrays.copyOf(keyLow, capacity);
+            names = Arrays.copyOf(names, capacity);
+            lastSeen = Arrays.copyOf(lastSeen, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            componentSize = Arrays.copyOf(componentSize, capacity);
+            ring = Arrays.copyOf(ring, capacity);
+            edges = Arrays.copyOf(edges, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+        }
+        int node = nodeCount++;
+        kinds[node] = kind;
+        keyHigh[node] = high;
+        keyLow[node] = low;
+        names[node] = "";
+        parent[node] = node;
+        componentSize[node] = 1;
+        ring[node] = node;
+        return node;
+    }
+
+    private void link(int player, int attribute) {
+        addEdge(player, attribute);
+        addEdge(attribute, player);
+        if (edgeCount * 2 == edgeLog.length) {
+            edgeLog = Arrays.copyOf(edgeLog, edgeLog.length * 2);
+        }
+        edgeLog[edgeCount * 2] = player;
+        edgeLog[edgeCount * 2 + 1] = attribute;
+        edgeCount++;
+
+        // Степень признака - число его игроков
+        if (degree[attribute] <= maxAccountsPerAttribute) {
+            union(player, attribute);
+        }
+    }
+
+    private boolean hasEdge(int player, int attribute) {
+        int[] playerEdges = edgesOf(player);
+        for (int i = 0; i < degree[player]; i++) {
+            if (playerEdges[i] == attribute) return true;
+        }
+        return false;
+    }
+
+    private void addEdge(int from, int to) {
+        int[] list = edges[from];
+        if (list == null) {
+            list = new int[INITIAL_DEGREE];
+            edges[from] = list;
+        } else if (degree[from] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            edges[from] = list;
+        }
+        list[degree[from]++] = to;
+    }
+
+    private int[] edgesOf(int node) {
+        int[] list = edges[node];
+        return list != null ? list : NO_EDGES;
+    }
+
+    /**
+     * Корень без сокращения пути: запросы идут параллельно под блокировкой чтения и не пишут в массивы
+     */
+    private int root(int node) {
+        while (parent[node] != node) {
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private int find(int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return;
+        if (componentSize[rootA] < componentSize[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        componentSize[rootA] += componentSize[rootB];
+        // Обмен преемников сливает два кольца в одно
+        int next = ring[rootA];
+        ring[rootA] = ring[rootB];
+        ring[rootB] = next;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("VarInt is too long");
+    }
+
+    /**
+     * Связанный аккаунт
+     * @param sharedAddresses    сколько адресов и сетей он делит с игроком напрямую
+     * @param sharedFingerprints сколько отпечатков клиента он делит с игроком напрямую
+     */
+    public record Account(UUID id, String name, long lastSeen, int sharedAddresses, int sharedFingerprints) {
+    }
+}
@@ -0,0 +1,180 @@
+package me.jlime.holyadmins.alts;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.config.ServerSettings;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Учет входов для поиска мультиаккаунтов
+ *
+ * Каждая попытка входа (в том числе отклоненная баном) связывает аккаунт с адресом в AltGraph.
+ * Локальные и частные адреса не учитываются: за прокси или в локальной сети они общие для всех.
+ * Граф хранится в world/holyadmins/alts.bin, загружается при запуске и сохраняется при изменениях
+ * раз в SAVE_INTERVAL (в отдельном потоке) и при остановке сервера
+ */
+public final class AltTracker {
+    public static final String FILE_NAME = "alts.bin";
+
+    private static final long SAVE_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Под блокировкой lock
+    private AltGraph graph = new AltGraph(ServerSettings.get().getAltMaxAccountsPerAddress());
+    private volatile Path path;
+    private volatile boolean dirty;
+    private volatile boolean saving;
+    private long nextSave;
+
+    /**
+     * Регистрирует загрузку, сохранение и периодическую запись
+     */
+    public void register() {
+        ServerLifecycleEvents.SERVER_STARTING.register(this::start);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> stop());
+        ServerTickEvents.END_SERVER_TICK.register(server -> saveIfDue());
+    }
+
+    /**
+     * Записывает попытку входа; вызывается в потоке сервера до проверки банов
+     */
+    public void recordLogin(UUID playerId, String name, SocketAddress address) {
+        if (playerId == null || name == null || path == null) return;
+
+        long now = System.currentTimeMillis();
+        InetAddress inet = address instanceof InetSocketAddress socket ? socket.getAddress() : null;
+        boolean linkable = inet != null && !inet.isLoopbackAddress() && !inet.isAnyLocalAddress()
+                && !inet.isLinkLocalAddress() && !inet.isSiteLocalAddress();
+        lock.writeLock().lock();
+        try {
+            if (!linkable) {
+                graph.recordPlayer(playerId, name, now);
+            } else if (inet instanceof Inet4Address) {
+                graph.recordLogin(playerId, name, now, AltGraph.ADDRESS_V4,
+                        Integer.toUnsignedLong(ByteBuffer.wrap(inet.getAddress()).getInt()));
+            } else {
+                // Провайдеры выдают абоненту сеть /64, адреса внутри нее меняются
+                graph.recordLogin(playerId, name, now, AltGraph.NETWORK_V6, ByteBuffer.wrap(inet.getAddress()).getLong());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirty = true;
+    }
+
+    /**
+     * Аккаунты, связанные с игроком, от недавно входивших к давним
+     */
+    public List<AltGraph.Account> cluster(UUID playerId, int limit) {
+        lock.readLock().lock();
+        try {
+            return graph.cluster(playerId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void start(MinecraftServer server) {
+        Path file = server.getSavePath(WorldSavePath.ROOT).resolve(Holyadmins.MOD_ID).resolve(FILE_NAME).normalize();
+        int maxAccounts = ServerSettings.get().getAltMaxAccountsPerAddress();
+        AltGraph loaded = new AltGraph(maxAccounts);
+        if (Files.exists(file)) {
+            long started = System.nanoTime();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                loaded = AltGraph.read(in, maxAccounts);
+                Holyadmins.LOGGER.info("Loaded {} accounts, {} addresses and {} links in {} ms",
+                        loaded.getPlayerCount(), loaded.getAttributeCount(), loaded.getEdgeCount(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } catch (IOException | RuntimeException e) {
+                Holyadmins.LOGGER.error("Failed to load {}, alt links start empty", file, e);
+                loaded = new AltGraph(maxAccounts);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            graph = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirty = false;
+        nextSave = System.currentTimeMillis() + SAVE_INTERVAL;
+        path = file;
+    }
+
+    private void stop() {
+        Path file = path;
+        path = null;
+        if (file != null && dirty) {
+            save(file);
+        }
+    }
+
+    private void saveIfDue() {
+        Path file = path;
+        if (file == null || !dirty || saving) return;
+        long now = System.currentTimeMillis();
+        if (now < nextSave) return;
+        nextSave = now + SAVE_INTERVAL;
+
+        saving = true;
+        Thread thread = new Thread(() -> {
+            try {
+                save(file);
+            } finally {
+                saving = false;
+            }
+        }, "HolyAdmins Alt Saver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Снимает копию графа в память под блокировкой чтения, затем пишет ее во временный файл
+     * и подменяет им сохраненный; входы ждут только копирования в память
+     */
+    private synchronized void save(Path file) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            graph.write(out);
+            dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            Holyadmins.LOGGER.warn("Failed to save alt links to {}", file, e);
+        }
+    }
+}
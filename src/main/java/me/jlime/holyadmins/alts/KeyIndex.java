@@ -0,0 +1,89 @@
+package me.jlime.holyadmins.alts;
+
+import java.util.Arrays;
+
+/**
+ * Отображение 128-битного ключа (два long) в номер узла без упаковки в объекты
+ * Открытая адресация с линейным пробированием; ключи только добавляются
+ */
+final class KeyIndex {
+    private static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] high;
+    private long[] low;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    KeyIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Номер по ключу или -1
+     */
+    int get(long keyHigh, long keyLow) {
+        for (int slot = slot(keyHigh, keyLow); ; slot = (slot + 1) & mask) {
+            int value = values[slot];
+            if (value == EMPTY) return EMPTY;
+            if (high[slot] == keyHigh && low[slot] == keyLow) return value;
+        }
+    }
+
+    /**
+     * Добавляет ключ; ключа еще не должно быть в индексе
+     */
+    void put(long keyHigh, long keyLow, int value) {
+        if (size >= resizeAt) {
+            grow();
+        }
+        insert(keyHigh, keyLow, value);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void insert(long keyHigh, long keyLow, int value) {
+        int slot = slot(keyHigh, keyLow);
+        while (values[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        high[slot] = keyHigh;
+        low[slot] = keyLow;
+        values[slot] = value;
+    }
+
+    private void grow() {
+        long[] oldHigh = high;
+        long[] oldLow = low;
+        int[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                insert(oldHigh[i], oldLow[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        high = new long[capacity];
+        low = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long keyHigh, long keyLow) {
+        long hash = keyHigh * 0x9E3779B97F4A7C15L ^ keyLow;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
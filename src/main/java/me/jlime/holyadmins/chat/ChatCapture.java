@@ -0,0 +1,516 @@
+package me.jlime.holyadmins.chat;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.moderation.Page;
+import me.jlime.holyadmins.storage.AuditLog;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Запись сообщений чата для раздела "Переписка"
+ *
+ * Поток сервера только кладет сообщение в кольцевой буфер ChatRingBuffer (без блокировок и выделения памяти).
+ * Отдельный поток раз в DRAIN_INTERVAL забирает накопившиеся сообщения, пишет их пачками в журнал
+ * (world/holyadmins/chat), держит в памяти последние сообщения чата и окно последних сообщений каждого игрока
+ * и сообщает о пачке слушателям.
+ *
+ * Формат записи журнала: количество сообщений (short), далее для каждого время (long), UUID отправителя,
+ * флаги (byte), ник и текст. ID сообщения - номер записи, сдвинутый на ID_SHIFT, плюс номер внутри записи,
+ * поэтому ID возрастают и переживают перезапуск без отдельного счетчика
+ */
+public final class ChatCapture {
+    public static final int RING_CAPACITY = 1 << 16;
+    // Последние сообщения всего чата и каждого игрока, которые держатся в памяти
+    public static final int RECENT_CAPACITY = 10_000;
+    public static final int PLAYER_WINDOW = 50;
+
+    static final int ID_SHIFT = 11;
+    private static final int MAX_PER_RECORD = (1 << ID_SHIFT) - 1;
+    private static final int MAX_DRAIN = 8192;
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int MAX_WINDOWS = 1024;
+    private static final int MAX_NAME_CHARS = 64;
+    private static final int MAX_TEXT_CHARS = 512;
+    private static final int FLAG_BLOCKED = 1;
+    // Сколько записей журнала читается за раз и сколько максимум просматривается за один запрос
+    private static final int RECORDS_PER_READ = 8;
+    private static final int MAX_RECORDS_PER_QUERY = 64;
+    private static final long RETENTION_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final long COMPACTION_INTERVAL = TimeUnit.HOURS.toMillis(24);
+    private static final long STOP_TIMEOUT_SECONDS = 5L;
+
+    private final ChatRingBuffer ring = new ChatRingBuffer(RING_CAPACITY);
+    private final List<ChatListener> listeners = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Кольцо последних сообщений чата по возрастанию ID
+    private final ChatMessage[] recent = new ChatMessage[RECENT_CAPACITY];
+    private int recentHead;
+    private int recentSize;
+    // Игрок -> его последние сообщения; порядок вставки - по последнему сообщению, давно молчащие вытесняются
+    private final Map<UUID, ArrayDeque<ChatMessage>> windows = new LinkedHashMap<>(256, 0.75f) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, ArrayDeque<ChatMessage>> eldest) {
+            return size() > MAX_WINDOWS;
+        }
+    };
+
+    // Состояние потока записи
+    private final UUID[] stagedSenders = new UUID[MAX_DRAIN];
+    private final String[] stagedNames = new String[MAX_DRAIN];
+    private final String[] stagedTexts = new String[MAX_DRAIN];
+    private final long[] stagedTimes = new long[MAX_DRAIN];
+    private final boolean[] stagedBlocked = new boolean[MAX_DRAIN];
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(AuditLog.MAX_PAYLOAD);
+    private final ChatRingBuffer.SlotConsumer stager = this::stage;
+    private int staged;
+    private long localSeq;
+    private long nextCompaction;
+
+    private volatile AuditLog log;
+    private volatile Thread drainer;
+    private volatile boolean running;
+
+    /**
+     * Запускает запись для сервера: открывает журнал, восстанавливает последние сообщения и запускает поток записи
+     */
+    public void start(MinecraftServer server) {
+        clear();
+        Path directory = server.getSavePath(WorldSavePath.ROOT).resolve(Holyadmins.MOD_ID).resolve("chat").normalize();
+        try {
+            log = AuditLog.open(directory, AuditLog.DEFAULT_SEGMENT_SIZE, () -> new byte[0]);
+        } catch (IOException | RuntimeException e) {
+            Holyadmins.LOGGER.error("Failed to open chat log in {}, chat will not be saved", directory, e);
+            log = null;
+        }
+        if (log != null) {
+            long started = System.nanoTime();
+            restore();
+            nextCompaction = System.currentTimeMillis();
+            Holyadmins.LOGGER.info("Loaded {} recent chat messages in {} ms", recentSize,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+
+        running = true;
+        Thread thread = new Thread(this::runDrainer, "HolyAdmins Chat Drainer");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    /**
+     * Дописывает буфер в журнал и останавливает поток записи
+     */
+    public void stop() {
+        Thread thread = drainer;
+        if (thread == null) return;
+
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(STOP_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            Holyadmins.LOGGER.warn("Chat drainer did not finish in {}s, {} messages pending",
+                    STOP_TIMEOUT_SECONDS, ring.size());
+        }
+        drainer = null;
+
+        AuditLog log = this.log;
+        this.log = null;
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Записывает сообщение чата. Вызывается в потоке сервера на каждое сообщение, поэтому только
+     * кладет его в буфер; при переполнении буфера сообщение не записывается, но чат не задерживается
+     * @param blocked сообщение не отправлено в чат (мут)
+     * @return было ли сообщение принято
+     */
+    public boolean capture(UUID senderId, String senderName, String text, long time, boolean blocked) {
+        if (!running) return false;
+        return ring.offer(senderId, senderName, text, time, blocked);
+    }
+
+    /**
+     * Постраничное чтение от новых сообщений к старым; курсор - ID сообщения.
+     * Последние сообщения отдаются из памяти, более старые читаются из журнала
+     * @param senderId только сообщения игрока или null - весь чат
+     */
+    public Page<ChatMessage> query(UUID senderId, long cursor, int limit) {
+        List<ChatMessage> items = new ArrayList<>(Math.min(limit, 64));
+        long oldestInMemory;
+        lock.readLock().lock();
+        try {
+            oldestInMemory = senderId == null ? collectRecent(cursor, limit, items) : collectWindow(senderId, cursor, limit, items);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (items.size() == limit) {
+            return new Page<>(items, items.get(items.size() - 1).getId());
+        }
+        return readLog(senderId, Math.min(cursor, oldestInMemory), limit, items);
+    }
+
+    /**
+     * Последние сообщения игрока от старых к новым (не больше PLAYER_WINDOW)
+     */
+    public List<ChatMessage> getPlayerWindow(UUID playerId) {
+        lock.readLock().lock();
+        try {
+            ArrayDeque<ChatMessage> window = windows.get(playerId);
+            return window != null ? new ArrayList<>(window) : Collections.emptyList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество сообщений, ожидающих записи
+     */
+    public int getPendingCount() {
+        return ring.size();
+    }
+
+    /**
+     * Сколько сообщений не записано из-за переполнения буфера
+     */
+    public long getDroppedCount() {
+        return ring.getDroppedCount();
+    }
+
+    /**
+     * Добавляет слушателя новых сообщений
+     */
+    public void addListener(ChatListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    /**
+     * Удаляет слушателя новых сообщений
+     */
+    public void removeListener(ChatListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void runDrainer() {
+        while (true) {
+            // Флаг читается до разбора буфера, чтобы после остановки буфер был разобран целиком
+            boolean stopping = !running;
+            int drained;
+            do {
+                drained = drainBatch();
+            } while (drained == MAX_DRAIN);
+
+            if (stopping) return;
+            compactIfDue();
+            LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+        }
+    }
+
+    /**
+     * Забирает из буфера одну пачку и записывает ее
+     */
+    private int drainBatch() {
+        staged = 0;
+        int count = ring.drain(stager, MAX_DRAIN);
+        if (count == 0) return 0;
+
+        try {
+            List<ChatMessage> messages = writeStaged(count);
+            remember(messages);
+            for (ChatListener listener : listeners) {
+                listener.onMessages(messages);
+            }
+        } catch (RuntimeException e) {
+            Holyadmins.LOGGER.error("Failed to write {} chat messages", count, e);
+        } finally {
+            Arrays.fill(stagedNames, 0, count, null);
+            Arrays.fill(stagedTexts, 0, count, null);
+        }
+        return count;
+    }
+
+    private void stage(ChatRingBuffer.Slot slot) {
+        stagedSenders[staged] = slot.senderId;
+        stagedNames[staged] = slot.senderName;
+        stagedTexts[staged] = slot.text;
+        stagedTimes[staged] = slot.time;
+        stagedBlocked[staged] = slot.blocked;
+        staged++;
+    }
+
+    /**
+     * Пишет накопленные сообщения записями журнала, сколько поместится в каждую
+     */
+    private List<ChatMessage> writeStaged(int count) {
+        List<ChatMessage> messages = new ArrayList<>(count);
+        int start = 0;
+        while (start < count) {
+            recordBuffer.clear();
+            recordBuffer.putShort((short) 0);
+            int end = start;
+            while (end < count && end - start < MAX_PER_RECORD) {
+                int mark = recordBuffer.position();
+                try {
+                    encode(recordBuffer, end);
+                } catch (BufferOverflowException e) {
+                    recordBuffer.position(mark);
+                    break;
+                }
+                end++;
+            }
+            recordBuffer.putShort(0, (short) (end - start));
+
+            long seq = append(Arrays.copyOf(recordBuffer.array(), recordBuffer.position()));
+            for (int i = start; i < end; i++) {
+                messages.add(new ChatMessage((seq << ID_SHIFT) | (i - start), stagedSenders[i],
+                        trim(stagedNames[i], MAX_NAME_CHARS), trim(stagedTexts[i], MAX_TEXT_CHARS),
+                        stagedTimes[i], stagedBlocked[i]));
+            }
+            start = end;
+        }
+        return messages;
+    }
+
+    private long append(byte[] payload) {
+        AuditLog log = this.log;
+        if (log != null) {
+            try {
+                long seq = log.append(payload);
+                localSeq = seq;
+                return seq;
+            } catch (IllegalStateException e) {
+                // Журнал закрыт - сообщения остаются только в памяти
+            }
+        }
+        return ++localSeq;
+    }
+
+    private void encode(ByteBuffer out, int index) {
+        out.putLong(stagedTimes[index]);
+        out.putLong(stagedSenders[index].getMostSignificantBits());
+        out.putLong(stagedSenders[index].getLeastSignificantBits());
+        out.put((byte) (stagedBlocked[index] ? FLAG_BLOCKED : 0));
+        writeString(out, trim(stagedNames[index], MAX_NAME_CHARS));
+        writeString(out, trim(stagedTexts[index], MAX_TEXT_CHARS));
+    }
+
+    /**
+     * Добавляет сообщения в последние сообщения чата и окна игроков
+     */
+    private void remember(List<ChatMessage> messages) {
+        lock.writeLock().lock();
+        try {
+            for (ChatMessage message : messages) {
+                rememberLocked(message);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rememberLocked(ChatMessage message) {
+        recent[recentHead] = message;
+        recentHead = (recentHead + 1) % RECENT_CAPACITY;
+        recentSize = Math.min(recentSize + 1, RECENT_CAPACITY);
+
+        // Повторная вставка переносит игрока в конец порядка вытеснения
+        ArrayDeque<ChatMessage> window = windows.remove(message.getSenderId());
+        if (window == null) {
+            window = new ArrayDeque<>(16);
+        }
+        if (window.size() == PLAYER_WINDOW) {
+            window.pollFirst();
+        }
+        window.addLast(message);
+        windows.put(message.getSenderId(), window);
+    }
+
+    /**
+     * Сообщения чата из памяти с ID меньше курсора
+     * @return ID самого старого сообщения в памяти (граница, с которой продолжать по журналу)
+     */
+    private long collectRecent(long cursor, int limit, List<ChatMessage> out) {
+        if (recentSize == 0) return Long.MAX_VALUE;
+
+        for (int i = 1; i <= recentSize && out.size() < limit; i++) {
+            ChatMessage message = recent[Math.floorMod(recentHead - i, RECENT_CAPACITY)];
+            if (message.getId() < cursor) {
+                out.add(message);
+            }
+        }
+        return recent[Math.floorMod(recentHead - recentSize, RECENT_CAPACITY)].getId();
+    }
+
+    private long collectWindow(UUID senderId, long cursor, int limit, List<ChatMessage> out) {
+        ArrayDeque<ChatMessage> window = windows.get(senderId);
+        if (window == null || window.isEmpty()) return Long.MAX_VALUE;
+
+        Iterator<ChatMessage> iterator = window.descendingIterator();
+        while (iterator.hasNext() && out.size() < limit) {
+            ChatMessage message = iterator.next();
+            if (message.getId() < cursor) {
+                out.add(message);
+            }
+        }
+        return window.peekFirst().getId();
+    }
+
+    /**
+     * Дочитывает страницу из журнала, начиная с сообщений старше cursor
+     */
+    private Page<ChatMessage> readLog(UUID senderId, long cursor, int limit, List<ChatMessage> items) {
+        AuditLog log = this.log;
+        if (log == null || cursor <= 0) return new Page<>(items, Page.NO_CURSOR);
+
+        long beforeSeq = cursor == Long.MAX_VALUE ? Long.MAX_VALUE : (cursor >>> ID_SHIFT) + 1;
+        List<ChatMessage> batch = new ArrayList<>();
+        int records = 0;
+        while (records < MAX_RECORDS_PER_QUERY) {
+            List<AuditLog.LogRecord> tail = log.tail(beforeSeq, RECORDS_PER_READ);
+            if (tail.isEmpty()) return new Page<>(items, Page.NO_CURSOR);
+
+            for (AuditLog.LogRecord record : tail) {
+                records++;
+                batch.clear();
+                try {
+                    decode(record.seq(), ByteBuffer.wrap(record.payload()), batch);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    Holyadmins.LOGGER.debug("Unreadable chat log record {}", record.seq());
+                }
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    ChatMessage message = batch.get(i);
+                    if (message.getId() >= cursor) continue;
+                    if (senderId != null && !message.getSenderId().equals(senderId)) continue;
+                    items.add(message);
+                    if (items.size() == limit) {
+                        return new Page<>(items, message.getId());
+                    }
+                }
+                beforeSeq = record.seq();
+            }
+        }
+        // Просмотр ограничен, продолжение - со следующей записи
+        return new Page<>(items, beforeSeq << ID_SHIFT);
+    }
+
+    /**
+     * Восстанавливает последние сообщения из конца журнала
+     */
+    private void restore() {
+        List<AuditLog.LogRecord> records = new ArrayList<>();
+        int messages = 0;
+        long beforeSeq = Long.MAX_VALUE;
+        while (messages < RECENT_CAPACITY) {
+            List<AuditLog.LogRecord> tail = log.tail(beforeSeq, RECORDS_PER_READ);
+            if (tail.isEmpty()) break;
+            for (AuditLog.LogRecord record : tail) {
+                records.add(record);
+                messages += record.payload().length >= 2 ? Short.toUnsignedInt(ByteBuffer.wrap(record.payload()).getShort(0)) : 0;
+            }
+            beforeSeq = tail.get(tail.size() - 1).seq();
+        }
+
+        List<ChatMessage> batch = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (int i = records.size() - 1; i >= 0; i--) {
+                AuditLog.LogRecord record = records.get(i);
+                batch.clear();
+                try {
+                    decode(record.seq(), ByteBuffer.wrap(record.payload()), batch);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    continue;
+                }
+                for (ChatMessage message : batch) {
+                    rememberLocked(message);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        localSeq = log.getLastSeq();
+    }
+
+    private void compactIfDue() {
+        AuditLog log = this.log;
+        long now = System.currentTimeMillis();
+        if (log == null || now < nextCompaction) return;
+
+        nextCompaction = now + COMPACTION_INTERVAL;
+        long cutoff = now - RETENTION_MILLIS;
+        // Время первого сообщения записи; записи пишутся пачками за DRAIN_INTERVAL, этого достаточно
+        log.compact((seq, payload) -> payload.remaining() < 10 || payload.getLong(payload.position() + 2) >= cutoff);
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(recent, null);
+            recentHead = 0;
+            recentSize = 0;
+            windows.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        localSeq = 0L;
+    }
+
+    private static void decode(long seq, ByteBuffer in, List<ChatMessage> out) {
+        int count = Short.toUnsignedInt(in.getShort());
+        if (count > MAX_PER_RECORD) {
+            throw new IllegalArgumentException("Too many messages in record: " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            long time = in.getLong();
+            UUID senderId = new UUID(in.getLong(), in.getLong());
+            int flags = in.get();
+            String senderName = readString(in);
+            String text = readString(in);
+            out.add(new ChatMessage((seq << ID_SHIFT) | i, senderId, senderName, text, time, (flags & FLAG_BLOCKED) != 0));
+        }
+    }
+
+    private static String trim(String value, int maxChars) {
+        return value.length() > maxChars ? value.substring(0, maxChars) : value;
+    }
+
+    private static void writeString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
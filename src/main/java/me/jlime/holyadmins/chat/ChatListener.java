@@ -0,0 +1,15 @@
+package me.jlime.holyadmins.chat;
+
+import java.util.List;
+
+/**
+ * Слушатель новых сообщений чата
+ * Вызывается в потоке записи ChatCapture, а не в потоке сервера
+ */
+@FunctionalInterface
+public interface ChatListener {
+    /**
+     * Очередная пачка сообщений записана, ID возрастают
+     */
+    void onMessages(List<ChatMessage> messages);
+}
@@ -0,0 +1,65 @@
+package me.jlime.holyadmins.chat;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Сообщение чата (раздел "Переписка")
+ */
+public final class ChatMessage {
+    private final long id;
+    private final UUID senderId;
+    private final String senderName;
+    private final String text;
+    private final long time;
+    private final boolean blocked;
+
+    public ChatMessage(long id, UUID senderId, String senderName, String text, long time, boolean blocked) {
+        this.id = id;
+        this.senderId = Objects.requireNonNull(senderId, "Sender cannot be null");
+        this.senderName = Objects.requireNonNull(senderName, "Sender name cannot be null");
+        this.text = Objects.requireNonNull(text, "Text cannot be null");
+        this.time = time;
+        this.blocked = blocked;
+    }
+
+    /**
+     * Возрастающий ID сообщения, по нему идет постраничное чтение
+     */
+    public long getId() {
+        return id;
+    }
+
+    public UUID getSenderId() {
+        return senderId;
+    }
+
+    public String getSenderName() {
+        return senderName;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Сообщение не было отправлено в чат (у игрока мут)
+     */
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    @Override
+    public String toString() {
+        return "ChatMessage{" +
+                "id=" + id +
+                ", sender=" + senderName +
+                ", text='" + text + '\'' +
+                ", blocked=" + blocked +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package me.jlime.holyadmins.chat;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кольцевой буфер без блокировок: много писателей, один читатель
+ * Ячейки выделены заранее, поэтому запись сообщения ничего не создает: писатель занимает номер
+ * через CAS, заполняет ячейку и публикует номер. При заполненном буфере сообщение отбрасывается -
+ * поток сервера никогда не ждет читателя
+ */
+final class ChatRingBuffer {
+    private final Slot[] slots;
+    private final int mask;
+    // Номер ячейки, опубликованный последним, для каждого индекса
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param capacity емкость, степень двойки
+     */
+    ChatRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1L);
+        }
+    }
+
+    /**
+     * Записывает сообщение; вызывается из любого потока
+     * @return false, если буфер заполнен и сообщение отброшено
+     */
+    boolean offer(UUID senderId, String senderName, String text, long time, boolean blocked) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed.get() >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        int index = (int) (seq & mask);
+        Slot slot = slots[index];
+        slot.senderId = senderId;
+        slot.senderName = senderName;
+        slot.text = text;
+        slot.time = time;
+        slot.blocked = blocked;
+        published.lazySet(index, seq);
+        return true;
+    }
+
+    /**
+     * Читает опубликованные сообщения по порядку; вызывается только потоком-читателем.
+     * Ячейка действительна лишь внутри вызова consumer
+     * @return количество прочитанных сообщений
+     */
+    int drain(SlotConsumer consumer, int limit) {
+        long next = consumed.get();
+        int count = 0;
+        while (count < limit) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) break;
+
+            Slot slot = slots[index];
+            consumer.accept(slot);
+            slot.senderName = null;
+            slot.text = null;
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            // Ячейки освобождаются для писателей только после чтения
+            consumed.lazySet(next);
+        }
+        return count;
+    }
+
+    /**
+     * Количество сообщений, ожидающих чтения
+     */
+    int size() {
+        return (int) Math.max(0L, claimed.get() - consumed.get());
+    }
+
+    /**
+     * Сколько сообщений отброшено из-за заполненного буфера
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Ячейка буфера, переиспользуется по кругу
+     */
+    static final class Slot {
+        UUID senderId;
+        String senderName;
+        String text;
+        long time;
+        boolean blocked;
+    }
+
+    @FunctionalInterface
+    interface SlotConsumer {
+        void accept(Slot slot);
+    }
+}
@@ -0,0 +1,291 @@
+package me.jlime.holyadmins.chat;
+
+import me.jlime.holyadmins.config.ServerSettings;
+import me.jlime.holyadmins.moderation.ModerationService;
+import me.jlime.holyadmins.moderation.PunishmentType;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Антифлуд по записанному чату
+ *
+ * Работает в потоке записи ChatCapture, поток сервера не затрагивает. Состояние игроков лежит в массивах
+ * примитивов по номеру ячейки, поэтому разбор сообщения ничего не выделяет:
+ * - частота - "ведро с жетонами" (тысячные доли жетона), каждое сообщение тратит один жетон;
+ * - повторы - отпечатки SimHash последних HISTORY сообщений; похожими считаются отпечатки,
+ *   отличающиеся не больше чем на duplicateDistance бит.
+ * Каждое нарушение добавляет игроку балл, баллы со временем снимаются. При достижении порогов
+ * выдается предупреждение, мут или жалоба от имени антифлуда - в зависимости от настроек
+ */
+public final class FloodDetector implements ChatListener {
+    public static final String ISSUER_NAME = "Антифлуд";
+
+    private static final int HISTORY = 8;
+    private static final int MAX_PLAYERS = 4096;
+    private static final int INITIAL_PLAYERS = 256;
+    private static final long TOKEN = 1000L;
+    // Предупреждения и жалобы одному игроку не повторяются чаще, чем раз в этот срок
+    private static final long ACTION_COOLDOWN = TimeUnit.MINUTES.toMillis(5);
+    // Цитата сообщения в предложении мута; причина жалобы уходит в строку панели с лимитом длины
+    private static final int MAX_QUOTE_CHARS = 64;
+
+    private final ModerationService moderation;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private UUID[] slotIds = new UUID[INITIAL_PLAYERS];
+    private long[] tokens = new long[INITIAL_PLAYERS];
+    private long[] refilledAt = new long[INITIAL_PLAYERS];
+    private long[] lastMessageAt = new long[INITIAL_PLAYERS];
+    private int[] strikes = new int[INITIAL_PLAYERS];
+    private long[] strikeAt = new long[INITIAL_PLAYERS];
+    private long[] actedAt = new long[INITIAL_PLAYERS];
+    // Отпечатки последних сообщений: HISTORY ячеек подряд на игрока
+    private long[] hashes = new long[INITIAL_PLAYERS * HISTORY];
+    private long[] hashTimes = new long[INITIAL_PLAYERS * HISTORY];
+    private int[] hashCursors = new int[INITIAL_PLAYERS];
+    private int slotCount;
+    // Веса битов SimHash, переиспользуются между сообщениями
+    private final int[] weights = new int[Long.SIZE];
+
+    private ServerSettings.FloodSettings settings = ServerSettings.FloodSettings.DEFAULTS;
+    private volatile MinecraftServer server;
+
+    public FloodDetector(ModerationService moderation) {
+        this.moderation = moderation;
+    }
+
+    /**
+     * Сбрасывает состояние и перечитывает пороги; вызывается до запуска потока записи чата
+     */
+    public void start(MinecraftServer server) {
+        this.server = server;
+        this.settings = ServerSettings.get().getFlood();
+        slots.clear();
+        Arrays.fill(slotIds, null);
+        slotCount = 0;
+    }
+
+    public void stop() {
+        this.server = null;
+    }
+
+    @Override
+    public void onMessages(List<ChatMessage> messages) {
+        if (!settings.enabled()) return;
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage message = messages.get(i);
+            // Сообщения с мутом уже не попали в чат
+            if (!message.isBlocked()) {
+                check(message);
+            }
+        }
+    }
+
+    /**
+     * Количество игроков с состоянием
+     */
+    public int getTrackedCount() {
+        return slotCount;
+    }
+
+    private void check(ChatMessage message) {
+        long now = message.getTime();
+        int slot = slotOf(message.getSenderId(), now);
+        lastMessageAt[slot] = now;
+
+        // Ведро пополняется ratePerMinute жетонов в минуту, но не больше burst
+        long capacity = settings.burst() * TOKEN;
+        long elapsed = Math.max(0L, now - refilledAt[slot]);
+        tokens[slot] = Math.min(capacity, tokens[slot] + elapsed * settings.ratePerMinute() * TOKEN / 60_000L);
+        refilledAt[slot] = now;
+        boolean tooFast = tokens[slot] < TOKEN;
+        if (!tooFast) {
+            tokens[slot] -= TOKEN;
+        }
+
+        // Похожие сообщения за последние duplicateSeconds
+        long hash = simHash(message.getText());
+        long since = now - settings.duplicateSeconds() * 1000L;
+        int base = slot * HISTORY;
+        int similar = 1;
+        for (int i = 0; i < HISTORY; i++) {
+            if (hashTimes[base + i] >= since && hashTimes[base + i] != 0L
+                    && Long.bitCount(hash ^ hashes[base + i]) <= settings.duplicateDistance()) {
+                similar++;
+            }
+        }
+        int cursor = hashCursors[slot];
+        hashes[base + cursor] = hash;
+        hashTimes[base + cursor] = now;
+        hashCursors[slot] = (cursor + 1) % HISTORY;
+        boolean repeated = similar >= settings.duplicateLimit();
+
+        if (tooFast || repeated) {
+            strike(slot, message, now, repeated ? "повтор сообщений" : "слишком частые сообщения");
+        }
+    }
+
+    /**
+     * Засчитывает нарушение и выполняет действие, если достигнут порог
+     */
+    private void strike(int slot, ChatMessage message, long now, String cause) {
+        long decay = settings.strikeDecaySeconds() * 1000L;
+        int decayed = (int) Math.min(strikes[slot], Math.max(0L, now - strikeAt[slot]) / decay);
+        strikes[slot] = strikes[slot] - decayed + 1;
+        strikeAt[slot] = now;
+
+        int count = strikes[slot];
+        ServerSettings.FloodSettings.Action action = settings.action();
+        boolean cooledDown = now - actedAt[slot] >= ACTION_COOLDOWN;
+        if (count >= settings.muteStrikes()) {
+            strikes[slot] = 0;
+            if (action == ServerSettings.FloodSettings.Action.MUTE) {
+                act(PunishmentType.MUTE, message, cause, TimeUnit.MINUTES.toMillis(settings.muteMinutes()));
+            } else if (cooledDown) {
+                actedAt[slot] = now;
+                suggest(message, cause);
+            }
+        } else if (count == settings.warnStrikes() && action != ServerSettings.FloodSettings.Action.REPORT && cooledDown) {
+            actedAt[slot] = now;
+            act(PunishmentType.WARN, message, cause, 0L);
+        }
+    }
+
+    private void act(PunishmentType type, ChatMessage message, String cause, long duration) {
+        MinecraftServer server = this.server;
+        if (server == null) return;
+
+        UUID targetId = message.getSenderId();
+        String targetName = message.getSenderName();
+        String reason = "Флуд: " + cause;
+        server.execute(() -> {
+            // Пока действие ждало потока сервера, игрок мог уже получить мут
+            if (type == PunishmentType.MUTE && moderation.getActiveMute(targetId) != null) return;
+            moderation.issue(type, targetId, targetName, ModerationService.CONSOLE_ID, ISSUER_NAME, reason, duration);
+        });
+    }
+
+    /**
+     * Жалоба от имени антифлуда: предложение мута администратору
+     */
+    private void suggest(ChatMessage message, String cause) {
+        MinecraftServer server = this.server;
+        if (server == null) return;
+
+        UUID targetId = message.getSenderId();
+        String targetName = message.getSenderName();
+        String reason = "Предлагается мут за флуд: " + cause + " (\"" + quote(message.getText()) + "\")";
+        server.execute(() -> {
+            if (moderation.getActiveMute(targetId) != null) return;
+            moderation.report(ModerationService.CONSOLE_ID, ISSUER_NAME, targetId, targetName, reason);
+        });
+    }
+
+    private static String quote(String text) {
+        return text.length() > MAX_QUOTE_CHARS ? text.substring(0, MAX_QUOTE_CHARS) + "…" : text;
+    }
+
+    /**
+     * Ячейка игрока; при заполнении таблицы освобождается ячейка того, кто дольше всех молчит
+     */
+    private int slotOf(UUID playerId, long now) {
+        Integer existing = slots.get(playerId);
+        if (existing != null) return existing;
+
+        int slot;
+        if (slotCount < MAX_PLAYERS) {
+            slot = slotCount++;
+            if (slot == slotIds.length) {
+                grow(slot * 2);
+            }
+        } else {
+            slot = 0;
+            for (int i = 1; i < slotCount; i++) {
+                if (lastMessageAt[i] < lastMessageAt[slot]) slot = i;
+            }
+            slots.remove(slotIds[slot]);
+        }
+
+        slots.put(playerId, slot);
+        slotIds[slot] = playerId;
+        tokens[slot] = settings.burst() * TOKEN;
+        refilledAt[slot] = now;
+        lastMessageAt[slot] = now;
+        strikes[slot] = 0;
+        strikeAt[slot] = now;
+        actedAt[slot] = Long.MIN_VALUE / 2;
+        hashCursors[slot] = 0;
+        Arrays.fill(hashes, slot * HISTORY, (slot + 1) * HISTORY, 0L);
+        Arrays.fill(hashTimes, slot * HISTORY, (slot + 1) * HISTORY, 0L);
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        slotIds = Arrays.copyOf(slotIds, capacity);
+        tokens = Arrays.copyOf(tokens, capacity);
+        refilledAt = Arrays.copyOf(refilledAt, capacity);
+        lastMessageAt = Arrays.copyOf(lastMessageAt, capacity);
+        strikes = Arrays.copyOf(strikes, capacity);
+        strikeAt = Arrays.copyOf(strikeAt, capacity);
+        actedAt = Arrays.copyOf(actedAt, capacity);
+        hashes = Arrays.copyOf(hashes, capacity * HISTORY);
+        hashTimes = Arrays.copyOf(hashTimes, capacity * HISTORY);
+        hashCursors = Arrays.copyOf(hashCursors, capacity);
+    }
+
+    /**
+     * 64-битный SimHash по триграммам букв и цифр текста в нижнем регистре.
+     * Пробелы, знаки и регистр не влияют, поэтому "КУПИ!!!" и "купи" совпадают
+     */
+    private long simHash(String text) {
+        Arrays.fill(weights, 0);
+        char a = 0;
+        char b = 0;
+        int length = 0;
+        int shingles = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) continue;
+            c = Character.toLowerCase(c);
+            if (++length >= 3) {
+                addShingle(mix(((long) a << 32) | ((long) b << 16) | c));
+                shingles++;
+            }
+            a = b;
+            b = c;
+        }
+        if (shingles == 0) {
+            // Короткое сообщение - отпечаток всего текста
+            return mix(((long) length << 32) | ((long) a << 16) | b);
+        }
+
+        long hash = 0L;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                hash |= 1L << bit;
+            }
+        }
+        return hash;
+    }
+
+    private void addShingle(long hash) {
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            weights[bit] += (int) ((hash >>> bit) & 1L) * 2 - 1;
+        }
+    }
+
+    /**
+     * Перемешивание битов (финализатор SplitMix64)
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,345 @@
+package me.jlime.holyadmins.concurrent;
+
+import me.jlime.holyadmins.Holyadmins;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Исполнитель запросов панели вне потока сервера (или рендера)
+ *
+ * Запросы выполняются в небольшом пуле с ограниченной очередью. Одинаковые запросы (по ключу),
+ * пока первый еще не завершился, объединяются в одно выполнение. Результат передается обратно
+ * через указанный Executor (server::execute, MinecraftClient::execute). Запросы владельца
+ * (администратора) можно отменить, например при переходе в другой раздел
+ */
+public final class QueryExecutor {
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final ThreadPoolExecutor pool;
+    // Выполняющиеся и ожидающие запросы по ключу; под блокировкой this
+    private final Map<Object, Task<?>> inFlight = new HashMap<>();
+    // Все незавершенные запросы владельца, включая запросы без ключа; под блокировкой this
+    private final Map<Object, Set<Task<?>>> byOwner = new HashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * @param name          имя потоков
+     * @param threads       количество потоков
+     * @param queueCapacity сколько запросов может ждать; сверх этого запросы отклоняются
+     */
+    public QueryExecutor(String name, int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Thread count and queue capacity must be positive");
+        }
+        int poolId = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + " #" + poolId + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        this.pool = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Количество потоков по умолчанию: половина ядер, от 1 до 4
+     */
+    public static int defaultThreads() {
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Ставит запрос в очередь
+     * @param owner    владелец запроса для отмены (например UUID администратора)
+     * @param key      ключ объединения: запросы с равными ключами выполняются один раз; null - без объединения
+     * @param query    сам запрос, выполняется в пуле
+     * @param handoff  куда передать результат (поток сервера или клиента)
+     * @param callback получает результат или ошибку; не вызывается для отмененного запроса
+     */
+    public <T> Handle submit(Object owner, Object key, Supplier<T> query, Executor handoff, BiConsumer<T, Throwable> callback) {
+        Objects.requireNonNull(owner, "Owner cannot be null");
+        Objects.requireNonNull(query, "Query cannot be null");
+        Objects.requireNonNull(handoff, "Handoff executor cannot be null");
+        Objects.requireNonNull(callback, "Callback cannot be null");
+        submitted.incrementAndGet();
+
+        Task<T> task;
+        Subscription<T> subscription = new Subscription<>(owner, handoff, callback);
+        synchronized (this) {
+            if (key != null) {
+                @SuppressWarnings("unchecked")
+                Task<T> existing = (Task<T>) inFlight.get(key);
+                if (existing != null && existing.subscribe(subscription)) {
+                    track(owner, existing);
+                    coalesced.incrementAndGet();
+                    return subscription;
+                }
+            }
+
+            task = new Task<>(key, query);
+            task.subscribe(subscription);
+            track(owner, task);
+            if (key != null) {
+                inFlight.put(key, task);
+            }
+        }
+
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            task.complete(null, new RejectedExecutionException("Query queue is full"));
+        }
+        return subscription;
+    }
+
+    /**
+     * Отменяет все запросы владельца
+     */
+    public void cancel(Object owner) {
+        cancel(owner, key -> true);
+    }
+
+    /**
+     * Отменяет запросы владельца, ключ которых подходит под условие; запросы без ключа отменяются всегда.
+     * Запрос, у которого не осталось получателей, не выполняется
+     */
+    public void cancel(Object owner, Predicate<Object> keyFilter) {
+        List<Task<?>> tasks;
+        synchronized (this) {
+            Set<Task<?>> owned = byOwner.get(owner);
+            if (owned == null) return;
+            tasks = new ArrayList<>(owned);
+        }
+        for (Task<?> task : tasks) {
+            if (task.key != null && !keyFilter.test(task.key)) continue;
+            cancelled.addAndGet(task.cancelOwner(owner));
+        }
+    }
+
+    /**
+     * Останавливает пул; ожидающие запросы отбрасываются
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+        synchronized (this) {
+            inFlight.clear();
+            byOwner.clear();
+        }
+    }
+
+    /**
+     * Запросов в очереди
+     */
+    public int getQueuedCount() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Запросов, выполняющихся сейчас
+     */
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * Запросов, присоединенных к уже выполняющимся
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Запросов, отклоненных из-за переполнения очереди
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    /**
+     * Запоминает запрос за владельцем до завершения запроса; вызывается под блокировкой this
+     */
+    private void track(Object owner, Task<?> task) {
+        byOwner.computeIfAbsent(owner, o -> new HashSet<>()).add(task);
+        task.owners.add(owner);
+    }
+
+    /**
+     * Отменяемый запрос
+     */
+    public interface Handle {
+        /**
+         * Отменяет получение результата этим владельцем
+         */
+        void cancel();
+
+        boolean isCancelled();
+    }
+
+    private final class Task<T> implements Runnable {
+        private final Object key;
+        private final Supplier<T> query;
+        // Все владельцы, когда-либо подписанные на задачу; под блокировкой QueryExecutor.this
+        private final Set<Object> owners = new HashSet<>(2);
+        // Под блокировкой задачи; null после завершения
+        private List<Subscription<T>> subscriptions = new ArrayList<>(2);
+
+        private Task(Object key, Supplier<T> query) {
+            this.key = key;
+            this.query = query;
+        }
+
+        /**
+         * Добавляет получателя, если задача еще не завершилась
+         */
+        synchronized boolean subscribe(Subscription<T> subscription) {
+            if (subscriptions == null) return false;
+            subscriptions.add(subscription);
+            subscription.task = this;
+            return true;
+        }
+
+        synchronized int cancelOwner(Object owner) {
+            if (subscriptions == null) return 0;
+            int count = 0;
+            for (Iterator<Subscription<T>> iterator = subscriptions.iterator(); iterator.hasNext(); ) {
+                Subscription<T> subscription = iterator.next();
+                if (subscription.owner.equals(owner)) {
+                    subscription.cancelled = true;
+                    iterator.remove();
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        synchronized void unsubscribe(Subscription<T> subscription) {
+            if (subscriptions != null) {
+                subscriptions.remove(subscription);
+            }
+        }
+
+        synchronized boolean hasSubscribers() {
+            return subscriptions != null && !subscriptions.isEmpty();
+        }
+
+        @Override
+        public void run() {
+            // Все получатели отменили запрос, пока он ждал в очереди
+            if (!hasSubscribers()) {
+                complete(null, null);
+                return;
+            }
+
+            T result = null;
+            Throwable error = null;
+            try {
+                result = query.get();
+            } catch (Throwable e) {
+                error = e;
+                Holyadmins.LOGGER.warn("Panel query failed", e);
+            } finally {
+                // Ключ освобождается при любом исходе, иначе равные запросы ждали бы эту задачу вечно
+                complete(result, error);
+            }
+        }
+
+        void complete(T result, Throwable error) {
+            synchronized (QueryExecutor.this) {
+                if (key != null) {
+                    inFlight.remove(key, this);
+                }
+                for (Object owner : owners) {
+                    Set<Task<?>> owned = byOwner.get(owner);
+                    if (owned != null && owned.remove(this) && owned.isEmpty()) {
+                        byOwner.remove(owner);
+                    }
+                }
+            }
+            List<Subscription<T>> delivered;
+            synchronized (this) {
+                delivered = subscriptions;
+                subscriptions = null;
+            }
+            if (delivered == null) return;
+
+            for (Subscription<T> subscription : delivered) {
+                subscription.deliver(result, error);
+            }
+        }
+    }
+
+    private static final class Subscription<T> implements Handle {
+        private final Object owner;
+        private final Executor handoff;
+        private final BiConsumer<T, Throwable> callback;
+        private volatile boolean cancelled;
+        private volatile Task<T> task;
+
+        private Subscription(Object owner, Executor handoff, BiConsumer<T, Throwable> callback) {
+            this.owner = owner;
+            this.handoff = handoff;
+            this.callback = callback;
+        }
+
+        void deliver(T result, Throwable error) {
+            if (cancelled) return;
+            try {
+                handoff.execute(() -> {
+                    // Отмена могла произойти, пока результат ждал передачи
+                    if (!cancelled) {
+                        callback.accept(result, error);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Поток-получатель уже остановлен (сервер выключается)
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Task<T> task = this.task;
+            if (task != null) {
+                task.unsubscribe(this);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package me.jlime.holyadmins.config;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Серверные настройки (config/holyadmins-server.properties)
+ * Файл создается со значениями по умолчанию при первом запуске и перечитывается при каждом запуске сервера
+ */
+public final class ServerSettings {
+    private static final String FILE_NAME = "holyadmins-server.properties";
+    private static final ServerSettings INSTANCE = new ServerSettings();
+
+    private volatile FloodSettings flood = FloodSettings.DEFAULTS;
+    private volatile int lagSpikeMs = 100;
+    private volatile boolean profilerEnabled = false;
+    private volatile int profilerSampleEvery = 8;
+    private volatile int altMaxAccountsPerAddress = 8;
+    private volatile int reportDuplicateWindowSeconds = 600;
+
+    private ServerSettings() {
+    }
+
+    public static ServerSettings get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Загружает настройки с диска и дописывает отсутствующие значения
+     */
+    public void load() {
+        Path path = getPath();
+        Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                Holyadmins.LOGGER.warn("Failed to read {}, using defaults", FILE_NAME, e);
+            }
+        }
+
+        FloodSettings defaults = FloodSettings.DEFAULTS;
+        flood = new FloodSettings(
+                readBoolean(properties, "flood.enabled", defaults.enabled()),
+                readInt(properties, "flood.rate.perMinute", defaults.ratePerMinute(), 1, 6000),
+                readInt(properties, "flood.rate.burst", defaults.burst(), 1, 100),
+                readInt(properties, "flood.duplicate.seconds", defaults.duplicateSeconds(), 1, 3600),
+                readInt(properties, "flood.duplicate.limit", defaults.duplicateLimit(), 2, 64),
+                readInt(properties, "flood.duplicate.distance", defaults.duplicateDistance(), 0, 32),
+                readInt(properties, "flood.strikes.warn", defaults.warnStrikes(), 1, 100),
+                readInt(properties, "flood.strikes.mute", defaults.muteStrikes(), 1, 100),
+                readInt(properties, "flood.strikes.decaySeconds", defaults.strikeDecaySeconds(), 1, 86400),
+                readAction(properties, "flood.action", defaults.action()),
+                readInt(properties, "flood.muteMinutes", defaults.muteMinutes(), 1, 43200));
+        lagSpikeMs = readInt(properties, "metrics.lagSpikeMs", lagSpikeMs, 10, 60000);
+        profilerEnabled = readBoolean(properties, "profiler.enabled", profilerEnabled);
+        profilerSampleEvery = readInt(properties, "profiler.sampleEvery", profilerSampleEvery, 1, 1024);
+        altMaxAccountsPerAddress = readInt(properties, "alts.maxAccountsPerAddress", altMaxAccountsPerAddress, 2, 1000);
+        reportDuplicateWindowSeconds = readInt(properties, "reports.duplicateWindowSeconds", reportDuplicateWindowSeconds,
+                0, 86400);
+
+        save();
+    }
+
+    /**
+     * Сохраняет текущие настройки
+     */
+    public void save() {
+        FloodSettings flood = this.flood;
+        Properties properties = new Properties();
+        properties.setProperty("flood.enabled", Boolean.toString(flood.enabled()));
+        properties.setProperty("flood.rate.perMinute", Integer.toString(flood.ratePerMinute()));
+        properties.setProperty("flood.rate.burst", Integer.toString(flood.burst()));
+        properties.setProperty("flood.duplicate.seconds", Integer.toString(flood.duplicateSeconds()));
+        properties.setProperty("flood.duplicate.limit", Integer.toString(flood.duplicateLimit()));
+        properties.setProperty("flood.duplicate.distance", Integer.toString(flood.duplicateDistance()));
+        properties.setProperty("flood.strikes.warn", Integer.toString(flood.warnStrikes()));
+        properties.setProperty("flood.strikes.mute", Integer.toString(flood.muteStrikes()));
+        properties.setProperty("flood.strikes.decaySeconds", Integer.toString(flood.strikeDecaySeconds()));
+        properties.setProperty("flood.action", flood.action().name().toLowerCase(Locale.ROOT));
+        properties.setProperty("flood.muteMinutes", Integer.toString(flood.muteMinutes()));
+        properties.setProperty("metrics.lagSpikeMs", Integer.toString(lagSpikeMs));
+        properties.setProperty("profiler.enabled", Boolean.toString(profilerEnabled));
+        properties.setProperty("profiler.sampleEvery", Integer.toString(profilerSampleEvery));
+        properties.setProperty("alts.maxAccountsPerAddress", Integer.toString(altMaxAccountsPerAddress));
+        properties.setProperty("reports.duplicateWindowSeconds", Integer.toString(reportDuplicateWindowSeconds));
+
+        Path path = getPath();
+        try {
+            Files.createDirectories(path.getParent());
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Holy Admins server settings");
+            }
+        } catch (IOException e) {
+            Holyadmins.LOGGER.warn("Failed to save {}", FILE_NAME, e);
+        }
+    }
+
+    /**
+     * Пороги антифлуда
+     */
+    public FloodSettings getFlood() {
+        return flood;
+    }
+
+    /**
+     * С какой длительности тика (мс) он записывается как задержка
+     */
+    public int getLagSpikeMs() {
+        return lagSpikeMs;
+    }
+
+    /**
+     * Включен ли профилировщик нагрузки по игрокам
+     */
+    public boolean isProfilerEnabled() {
+        return profilerEnabled;
+    }
+
+    /**
+     * Включает или выключает профилировщик и сохраняет настройки
+     */
+    public void setProfilerEnabled(boolean enabled) {
+        profilerEnabled = enabled;
+        save();
+    }
+
+    /**
+     * Замеряется каждый N-й тик сущности или блока; профилировщик может увеличить шаг сам,
+     * если замеры стоят больше допустимого
+     */
+    public int getProfilerSampleEvery() {
+        return profilerSampleEvery;
+    }
+
+    /**
+     * Сколько аккаунтов может связать один адрес; адреса, общие для большего числа игроков (NAT, VPN),
+     * новых игроков в группы мультиаккаунтов не добавляют
+     */
+    public int getAltMaxAccountsPerAddress() {
+        return altMaxAccountsPerAddress;
+    }
+
+    /**
+     * Жалобы на игрока, поданные в пределах стольких секунд от предыдущей, сводятся в одну заявку очереди разбора
+     */
+    public int getReportDuplicateWindowSeconds() {
+        return reportDuplicateWindowSeconds;
+    }
+
+    private static int readInt(Properties properties, String key, int fallback, int min, int max) {
+        String value = properties.getProperty(key);
+        if (value == null) return fallback;
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            Holyadmins.LOGGER.warn("Invalid value '{}' for {} in {}", value, key, FILE_NAME);
+            return fallback;
+        }
+    }
+
+    private static boolean readBoolean(Properties properties, String key, boolean fallback) {
+        String value = properties.getProperty(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : fallback;
+    }
+
+    private static FloodSettings.Action readAction(Properties properties, String key, FloodSettings.Action fallback) {
+        String value = properties.getProperty(key);
+        if (value == null) return fallback;
+        try {
+            return FloodSettings.Action.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Holyadmins.LOGGER.warn("Invalid value '{}' for {} in {}", value, key, FILE_NAME);
+            return fallback;
+        }
+    }
+
+    private static Path getPath() {
+        return FabricLoader.getInstance().getConfigDir().resolve(FILE_NAME);
+    }
+
+    /**
+     * Пороги антифлуда
+     * @param ratePerMinute     сколько сообщений в минуту восполняется в "ведре" игрока
+     * @param burst             емкость ведра: столько сообщений подряд можно отправить без паузы
+     * @param duplicateSeconds  за какое время учитываются похожие сообщения
+     * @param duplicateLimit    сколько похожих сообщений за это время считается нарушением
+     * @param duplicateDistance сколько бит отпечатка SimHash могут отличаться у похожих сообщений
+     * @param warnStrikes       после скольких нарушений выдается предупреждение
+     * @param muteStrikes       после скольких нарушений выдается мут или жалоба
+     * @param strikeDecaySeconds через сколько секунд без нарушений снимается одно нарушение
+     */
+    public record FloodSettings(boolean enabled, int ratePerMinute, int burst, int duplicateSeconds,
+                                int duplicateLimit, int duplicateDistance, int warnStrikes, int muteStrikes,
+                                int strikeDecaySeconds, Action action, int muteMinutes) {
+        public static final FloodSettings DEFAULTS = new FloodSettings(true, 30, 8, 30, 3, 10, 2, 4, 120,
+                Action.WARN, 10);
+
+        /**
+         * Наибольшее действие, которое антифлуд выполняет сам
+         */
+        public enum Action {
+            // Только жалоба от имени антифлуда, решение за администратором
+            REPORT,
+            // Предупреждения выдаются сами, вместо мута - жалоба
+            WARN,
+            // Предупреждения и муты выдаются сами
+            MUTE
+        }
+    }
+}
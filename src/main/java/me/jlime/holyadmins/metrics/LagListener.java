@@ -0,0 +1,10 @@
+package me.jlime.holyadmins.metrics;
+
+/**
+ * Слушатель итогов профилировщика нагрузки
+ * Вызывается в потоке сервера
+ */
+@FunctionalInterface
+public interface LagListener {
+    void onReport(LagReport report);
+}
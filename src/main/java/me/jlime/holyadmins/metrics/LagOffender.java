@@ -0,0 +1,24 @@
+package me.jlime.holyadmins.metrics;
+
+import java.util.UUID;
+
+/**
+ * Нагрузка, приписанная игроку (или чанку без игроков рядом) за окно профилировщика
+ * @param playerId      игрок или null, если рядом с чанком никого нет
+ * @param name          ник игрока или пустая строка
+ * @param chunkX        самый нагруженный чанк (координаты чанка)
+ * @param entityMs      тики сущностей, мс за тик сервера
+ * @param blockEntityMs тики блоков с логикой (воронки, печи и т.п.), мс за тик сервера
+ * @param entities      сущностей в приписанных чанках
+ * @param blockEntities блоков с логикой в приписанных чанках
+ * @param chunks        приписанных чанков
+ */
+public record LagOffender(UUID playerId, String name, String dimension, int chunkX, int chunkZ,
+                          float entityMs, float blockEntityMs, int entities, int blockEntities, int chunks) {
+    /**
+     * Общая нагрузка, мс за тик
+     */
+    public float totalMs() {
+        return entityMs + blockEntityMs;
+    }
+}
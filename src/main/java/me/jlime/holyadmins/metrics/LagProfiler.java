@@ -0,0 +1,353 @@
+package me.jlime.holyadmins.metrics;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import me.jlime.holyadmins.config.ServerSettings;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Профилировщик нагрузки по игрокам
+ *
+ * Миксины мира сообщают о тиках сущностей и блоков с логикой; замеряется только каждый N-й тик,
+ * остальные стоят одного сравнения. Замеры складываются в массивы примитивов по чанкам (без выделений),
+ * а раз в окно (5 секунд) чанки приписываются ближайшему игроку в радиусе ATTRIBUTION_RADIUS чанков.
+ * Чанки без игроков рядом (загрузчики, фермы на спавне) попадают в итог отдельными строками.
+ *
+ * Накладные расходы оцениваются по числу замеров и измеренной цене одного замера; если они выше
+ * OVERHEAD_HIGH от времени тиков, шаг замеров удваивается. Все вызовы - в потоке сервера
+ */
+public final class LagProfiler {
+    private static final int WINDOW_TICKS = 100;
+    private static final int ATTRIBUTION_RADIUS = 8;
+    private static final int MAX_OFFENDERS = 50;
+    private static final int MAX_SAMPLE_EVERY = 1024;
+    private static final double OVERHEAD_HIGH = 0.01;
+    private static final double OVERHEAD_LOW = 0.0025;
+    private static final int CALIBRATION_ROUNDS = 20_000;
+    private static final LagReport DISABLED = new LagReport(false, 0L, 0, 0.0f, List.of());
+
+    private final List<LagListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<ServerWorld, ChunkCosts> worlds = new IdentityHashMap<>();
+    // Последний мир замера: тики идут по мирам подряд, поэтому поиск в таблице почти не нужен
+    private ServerWorld lastWorld;
+    private ChunkCosts lastCosts;
+
+    private MinecraftServer server;
+    private boolean active;
+    private int sampleEvery = 8;
+    private int entityCounter;
+    private int blockEntityCounter;
+    private long entityStart;
+    private long tickStart;
+    private long windowTickNanos;
+    private long windowSamples;
+    private long windowOverheadNanos;
+    private int windowTicks;
+    private double sampleCostNanos;
+    private LagReport report = DISABLED;
+
+    /**
+     * Регистрирует обработчики тиков
+     */
+    public void register() {
+        ServerLifecycleEvents.SERVER_STARTED.register(this::start);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            this.server = null;
+            this.active = false;
+            clear();
+        });
+        ServerTickEvents.START_SERVER_TICK.register(server -> onTickStart());
+        ServerTickEvents.END_SERVER_TICK.register(server -> onTickEnd());
+    }
+
+    public void addListener(LagListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Последний итог; флаг включения - текущий
+     */
+    public LagReport getReport() {
+        boolean enabled = ServerSettings.get().isProfilerEnabled();
+        LagReport report = this.report;
+        return report.enabled() == enabled ? report
+                : new LagReport(enabled, report.time(), report.sampleEvery(), report.overheadPercent(), report.offenders());
+    }
+
+    /**
+     * Начало тика сущности (миксин мира)
+     */
+    public void beginEntity() {
+        if (!active || ++entityCounter < sampleEvery) return;
+        entityCounter = 0;
+        entityStart = System.nanoTime();
+    }
+
+    /**
+     * Окончание тика сущности; учитывается, только если начало было замерено
+     */
+    public void endEntity(ServerWorld world, Entity entity) {
+        if (entityStart == 0L) return;
+        long nanos = System.nanoTime() - entityStart;
+        entityStart = 0L;
+        ChunkPos pos = entity.getChunkPos();
+        costsOf(world).addEntity(pos.toLong(), nanos);
+        windowSamples++;
+    }
+
+    /**
+     * Нужно ли замерить этот тик блока с логикой
+     */
+    public boolean sampleBlockEntity() {
+        if (!active || ++blockEntityCounter < sampleEvery) return false;
+        blockEntityCounter = 0;
+        return true;
+    }
+
+    /**
+     * Замеренный тик блока с логикой
+     */
+    public void blockEntityTicked(ServerWorld world, BlockPos pos, long nanos) {
+        costsOf(world).addBlockEntity(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), nanos);
+        windowSamples++;
+    }
+
+    private void start(MinecraftServer server) {
+        this.server = server;
+        clear();
+        sampleEvery = ServerSettings.get().getProfilerSampleEvery();
+        sampleCostNanos = calibrate();
+        report = DISABLED;
+    }
+
+    private void onTickStart() {
+        boolean enabled = server != null && ServerSettings.get().isProfilerEnabled();
+        if (active && !enabled) {
+            // Выключен: данные окна больше не нужны
+            clear();
+            report = DISABLED;
+            notifyReport(getReport());
+        }
+        active = enabled;
+        tickStart = System.nanoTime();
+    }
+
+    private void onTickEnd() {
+        if (!active) return;
+
+        windowTickNanos += System.nanoTime() - tickStart;
+        if (++windowTicks >= WINDOW_TICKS) {
+            finishWindow();
+        }
+    }
+
+    /**
+     * Приписывает нагрузку чанков игрокам и публикует итог окна
+     */
+    private void finishWindow() {
+        long started = System.nanoTime();
+        List<LagOffender> offenders = new ArrayList<>();
+        // Замер дает нагрузку sampleEvery тиков, итог - в среднем за тик сервера
+        double scale = (double) sampleEvery / windowTicks;
+        for (Map.Entry<ServerWorld, ChunkCosts> entry : worlds.entrySet()) {
+            if (entry.getValue().size > 0) {
+                attribute(entry.getKey(), entry.getValue(), scale, offenders);
+            }
+        }
+        offenders.sort((a, b) -> Float.compare(b.totalMs(), a.totalMs()));
+        List<LagOffender> top = List.copyOf(offenders.subList(0, Math.min(MAX_OFFENDERS, offenders.size())));
+
+        windowOverheadNanos += (long) (windowSamples * sampleCostNanos) + System.nanoTime() - started;
+        double overhead = windowTickNanos > 0 ? (double) windowOverheadNanos / windowTickNanos : 0.0;
+        report = new LagReport(true, System.currentTimeMillis(), sampleEvery, (float) (overhead * 100.0), top);
+
+        // Шаг замеров подстраивается под допустимые накладные расходы
+        int configured = ServerSettings.get().getProfilerSampleEvery();
+        if (overhead > OVERHEAD_HIGH && sampleEvery < MAX_SAMPLE_EVERY) {
+            sampleEvery *= 2;
+        } else if (overhead < OVERHEAD_LOW && sampleEvery > configured) {
+            sampleEvery = Math.max(configured, sampleEvery / 2);
+        }
+
+        for (ChunkCosts costs : worlds.values()) {
+            costs.clear();
+        }
+        windowTicks = 0;
+        windowTickNanos = 0L;
+        windowSamples = 0L;
+        windowOverheadNanos = 0L;
+        notifyReport(report);
+    }
+
+    private void attribute(ServerWorld world, ChunkCosts costs, double scale, List<LagOffender> offenders) {
+        String dimension = world.getRegistryKey().getValue().toString();
+        List<ServerPlayerEntity> players = world.getPlayers();
+        int count = players.size();
+        double[] entityNanos = new double[count];
+        double[] blockNanos = new double[count];
+        double[] entities = new double[count];
+        double[] blockEntities = new double[count];
+        int[] chunks = new int[count];
+        long[] hottest = new long[count];
+        double[] hottestNanos = new double[count];
+
+        for (int slot = 0; slot < costs.size; slot++) {
+            long key = costs.keys[slot];
+            int chunkX = ChunkPos.getPackedX(key);
+            int chunkZ = ChunkPos.getPackedZ(key);
+            double chunkNanos = (costs.entityNanos[slot] + costs.blockNanos[slot]) * scale;
+
+            int owner = -1;
+            int ownerDistance = ATTRIBUTION_RADIUS + 1;
+            for (int i = 0; i < count; i++) {
+                ChunkPos pos = players.get(i).getChunkPos();
+                int distance = Math.max(Math.abs(pos.x - chunkX), Math.abs(pos.z - chunkZ));
+                if (distance < ownerDistance) {
+                    owner = i;
+                    ownerDistance = distance;
+                }
+            }
+
+            if (owner < 0) {
+                offenders.add(new LagOffender(null, "", dimension, chunkX, chunkZ,
+                        toMillis(costs.entityNanos[slot] * scale), toMillis(costs.blockNanos[slot] * scale),
+                        (int) Math.round(costs.entitySamples[slot] * scale),
+                        (int) Math.round(costs.blockSamples[slot] * scale), 1));
+                continue;
+            }
+            entityNanos[owner] += costs.entityNanos[slot] * scale;
+            blockNanos[owner] += costs.blockNanos[slot] * scale;
+            entities[owner] += costs.entitySamples[slot] * scale;
+            blockEntities[owner] += costs.blockSamples[slot] * scale;
+            chunks[owner]++;
+            if (chunkNanos > hottestNanos[owner]) {
+                hottestNanos[owner] = chunkNanos;
+                hottest[owner] = key;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (chunks[i] == 0) continue;
+            ServerPlayerEntity player = players.get(i);
+            offenders.add(new LagOffender(player.getUuid(), player.getEntityName(), dimension,
+                    ChunkPos.getPackedX(hottest[i]), ChunkPos.getPackedZ(hottest[i]),
+                    toMillis(entityNanos[i]), toMillis(blockNanos[i]),
+                    (int) Math.round(entities[i]), (int) Math.round(blockEntities[i]), chunks[i]));
+        }
+    }
+
+    private ChunkCosts costsOf(ServerWorld world) {
+        if (world != lastWorld) {
+            lastWorld = world;
+            lastCosts = worlds.computeIfAbsent(world, key -> new ChunkCosts());
+        }
+        return lastCosts;
+    }
+
+    /**
+     * Цена одного замера: два System.nanoTime и запись в таблицу чанков
+     */
+    private static double calibrate() {
+        ChunkCosts scratch = new ChunkCosts();
+        long sink = 0L;
+        long started = System.nanoTime();
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long begin = System.nanoTime();
+            sink += System.nanoTime() - begin;
+            scratch.addEntity(ChunkPos.toLong(i & 63, i >> 6 & 63), sink);
+        }
+        return (double) (System.nanoTime() - started) / CALIBRATION_ROUNDS;
+    }
+
+    private void clear() {
+        worlds.clear();
+        lastWorld = null;
+        lastCosts = null;
+        entityStart = 0L;
+        windowTicks = 0;
+        windowTickNanos = 0L;
+        windowSamples = 0L;
+        windowOverheadNanos = 0L;
+    }
+
+    private void notifyReport(LagReport report) {
+        for (LagListener listener : listeners) {
+            listener.onReport(report);
+        }
+    }
+
+    private static float toMillis(double nanos) {
+        return (float) (nanos / 1_000_000.0);
+    }
+
+    /**
+     * Замеры окна по чанкам одного мира: ячейка чанка и массивы по номеру ячейки
+     */
+    private static final class ChunkCosts {
+        private static final int INITIAL_CAPACITY = 256;
+
+        final Long2IntOpenHashMap slots = new Long2IntOpenHashMap();
+        long[] keys = new long[INITIAL_CAPACITY];
+        long[] entityNanos = new long[INITIAL_CAPACITY];
+        long[] blockNanos = new long[INITIAL_CAPACITY];
+        int[] entitySamples = new int[INITIAL_CAPACITY];
+        int[] blockSamples = new int[INITIAL_CAPACITY];
+        int size;
+
+        ChunkCosts() {
+            slots.defaultReturnValue(-1);
+        }
+
+        void addEntity(long chunk, long nanos) {
+            int slot = slotOf(chunk);
+            entityNanos[slot] += nanos;
+            entitySamples[slot]++;
+        }
+
+        void addBlockEntity(long chunk, long nanos) {
+            int slot = slotOf(chunk);
+            blockNanos[slot] += nanos;
+            blockSamples[slot]++;
+        }
+
+        private int slotOf(long chunk) {
+            int slot = slots.get(chunk);
+            if (slot >= 0) return slot;
+
+            slot = size++;
+            if (slot == keys.length) {
+                int capacity = slot * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                entityNanos = Arrays.copyOf(entityNanos, capacity);
+                blockNanos = Arrays.copyOf(blockNanos, capacity);
+                entitySamples = Arrays.copyOf(entitySamples, capacity);
+                blockSamples = Arrays.copyOf(blockSamples, capacity);
+            }
+            slots.put(chunk, slot);
+            keys[slot] = chunk;
+            entityNanos[slot] = 0L;
+            blockNanos[slot] = 0L;
+            entitySamples[slot] = 0;
+            blockSamples[slot] = 0;
+            return slot;
+        }
+
+        void clear() {
+            slots.clear();
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package me.jlime.holyadmins.metrics;
+
+import java.util.List;
+
+/**
+ * Итог окна профилировщика нагрузки
+ * @param enabled         профилировщик включен
+ * @param time            окончание окна (мс) или 0, если окон еще не было
+ * @param sampleEvery     замерялся каждый N-й тик
+ * @param overheadPercent оценка накладных расходов в процентах от времени тиков
+ * @param offenders       игроки и чанки по убыванию нагрузки
+ */
+public record LagReport(boolean enabled, long time, int sampleEvery, float overheadPercent,
+                        List<LagOffender> offenders) {
+}
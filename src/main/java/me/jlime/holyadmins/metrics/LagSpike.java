@@ -0,0 +1,19 @@
+package me.jlime.holyadmins.metrics;
+
+import java.util.List;
+
+/**
+ * Тик, превысивший порог, и игроки, рядом с которыми больше всего сущностей
+ * @param time    окончание тика (мс)
+ * @param mspt    длительность тика (мс)
+ * @param players игроков в сети
+ */
+public record LagSpike(long time, float mspt, int players, List<Suspect> suspects) {
+    /**
+     * Игрок, который мог вызвать задержку
+     * @param nearbyEntities сущностей в чанках вокруг игрока
+     * @param joinedRecently игрок недавно вошел (генерация и загрузка чанков)
+     */
+    public record Suspect(String name, String dimension, int nearbyEntities, boolean joinedRecently) {
+    }
+}
@@ -0,0 +1,422 @@
+package me.jlime.holyadmins.metrics;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import me.jlime.holyadmins.config.ServerSettings;
+import me.jlime.holyadmins.moderation.ModerationListener;
+import me.jlime.holyadmins.moderation.ModerationService;
+import me.jlime.holyadmins.moderation.Punishment;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Метрики сервера для раздела "Аналитика"
+ *
+ * Длительность каждого тика попадает в гистограммы текущих точек всех шагов и в кольцо последних тиков.
+ * Раз в секунду собирается точка: средний и максимальный MSPT, процентили, TPS, игроки, сущности и чанки
+ * по измерениям, выданные наказания. Точки хранятся в кольцах примитивов фиксированного размера;
+ * каждые 60 секундных точек сворачиваются в минутную, 60 минутных - в часовую.
+ *
+ * Тик дольше metrics.lagSpikeMs записывается как задержка вместе с игроками, рядом с которыми
+ * больше всего сущностей, и недавно вошедшими игроками. Все вызовы - в потоке сервера
+ */
+public final class MetricsCollector implements ModerationListener {
+    public static final String MSPT = "mspt";
+    public static final String MSPT_MAX = "mspt.max";
+    public static final String MSPT_P50 = "mspt.p50";
+    public static final String MSPT_P95 = "mspt.p95";
+    public static final String MSPT_P99 = "mspt.p99";
+    public static final String TPS = "tps";
+    public static final String PLAYERS = "players";
+    public static final String ENTITIES = "entities";
+    public static final String CHUNKS = "chunks";
+    public static final String PUNISHMENTS = "punishments";
+
+    private static final int TICK_HISTORY = 6000;
+    private static final int MAX_DIMENSIONS = 16;
+    private static final int MAX_SPIKES = 32;
+    private static final int MAX_SUSPECTS = 3;
+    private static final int SUSPECT_RADIUS_CHUNKS = 4;
+    private static final long SPIKE_COOLDOWN = TimeUnit.SECONDS.toMillis(1);
+    private static final long RECENT_JOIN = TimeUnit.SECONDS.toMillis(30);
+    private static final float TICKS_PER_SECOND = 20.0f;
+
+    // Как точка сворачивается в точку следующего шага
+    private static final int AGG_AVG = 0;
+    private static final int AGG_MAX = 1;
+    private static final int AGG_SUM = 2;
+    // Считается заново по гистограмме тиков точки
+    private static final int AGG_PERCENTILE = 3;
+
+    private static final int S_MSPT = 0;
+    private static final int S_MSPT_MAX = 1;
+    private static final int S_P50 = 2;
+    private static final int S_P95 = 3;
+    private static final int S_P99 = 4;
+    private static final int S_TPS = 5;
+    private static final int S_PLAYERS = 6;
+    private static final int S_ENTITIES = 7;
+    private static final int S_CHUNKS = 8;
+    private static final int S_PUNISHMENTS = 9;
+    private static final int FIXED_SERIES = 10;
+    private static final int SERIES = FIXED_SERIES + MAX_DIMENSIONS * 2;
+
+    private final ModerationService moderation;
+    private final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private final String[] seriesIds = new String[SERIES];
+    private final int[] aggregations = new int[SERIES];
+    private final Level[] levels;
+    private final Map<String, Integer> dimensions = new HashMap<>();
+    private int seriesCount = FIXED_SERIES;
+
+    // Последние тики для гистограммы раздела
+    private final float[] tickHistory = new float[TICK_HISTORY];
+    private int tickHead;
+    private int tickCount;
+    // Текущая секунда
+    private int secondTicks;
+    private double secondSum;
+    private float secondMax;
+    private long lastSampleAt;
+    private long nextSampleAt;
+    private long tickStartNanos;
+    private final AtomicInteger punishments = new AtomicInteger();
+
+    private final ArrayDeque<LagSpike> spikes = new ArrayDeque<>(MAX_SPIKES);
+    private final Map<UUID, Long> joinTimes = new HashMap<>();
+    private final Long2IntOpenHashMap entitiesByChunk = new Long2IntOpenHashMap();
+    private long lastSpikeAt;
+    private MinecraftServer server;
+
+    public MetricsCollector(ModerationService moderation) {
+        this.moderation = moderation;
+        MetricsResolution[] resolutions = MetricsResolution.values();
+        this.levels = new Level[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            levels[i] = new Level(resolutions[i]);
+        }
+
+        defineSeries(S_MSPT, MSPT, AGG_AVG);
+        defineSeries(S_MSPT_MAX, MSPT_MAX, AGG_MAX);
+        defineSeries(S_P50, MSPT_P50, AGG_PERCENTILE);
+        defineSeries(S_P95, MSPT_P95, AGG_PERCENTILE);
+        defineSeries(S_P99, MSPT_P99, AGG_PERCENTILE);
+        defineSeries(S_TPS, TPS, AGG_AVG);
+        defineSeries(S_PLAYERS, PLAYERS, AGG_AVG);
+        defineSeries(S_ENTITIES, ENTITIES, AGG_AVG);
+        defineSeries(S_CHUNKS, CHUNKS, AGG_AVG);
+        defineSeries(S_PUNISHMENTS, PUNISHMENTS, AGG_SUM);
+    }
+
+    /**
+     * Регистрирует обработчики тиков и событий
+     */
+    public void register() {
+        ServerLifecycleEvents.SERVER_STARTED.register(this::start);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> this.server = null);
+        ServerTickEvents.START_SERVER_TICK.register(server -> tickStartNanos = System.nanoTime());
+        ServerTickEvents.END_SERVER_TICK.register(this::onTickEnd);
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) ->
+                joinTimes.put(handler.player.getUuid(), System.currentTimeMillis()));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> joinTimes.remove(handler.player.getUuid()));
+        moderation.addListener(this);
+    }
+
+    /**
+     * Добавляет слушателя новых точек
+     */
+    public void addListener(MetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Ряды шага для панели; значения копируются
+     */
+    public MetricsSnapshot snapshot(MetricsResolution resolution) {
+        Level level = levels[resolution.getCode()];
+        List<MetricsSnapshot.Series> series = new ArrayList<>(seriesCount);
+        for (int s = 0; s < seriesCount; s++) {
+            float[] values = new float[level.size];
+            for (int i = 0; i < level.size; i++) {
+                values[i] = level.rings[s][Math.floorMod(level.head - level.size + i, level.capacity)];
+            }
+            series.add(new MetricsSnapshot.Series(seriesIds[s], values));
+        }
+
+        int[] histogram = new int[MsptHistogram.BUCKETS];
+        for (int i = 0; i < tickCount; i++) {
+            histogram[MsptHistogram.bucketOf(tickHistory[i])]++;
+        }
+        return new MetricsSnapshot(resolution, level.lastTime, series, histogram, new ArrayList<>(spikes));
+    }
+
+    @Override
+    public void onPunishmentIssued(Punishment punishment) {
+        punishments.incrementAndGet();
+    }
+
+    private void start(MinecraftServer server) {
+        this.server = server;
+        for (Level level : levels) {
+            level.clear();
+        }
+        Arrays.fill(tickHistory, 0.0f);
+        tickHead = 0;
+        tickCount = 0;
+        secondTicks = 0;
+        secondSum = 0.0;
+        secondMax = 0.0f;
+        spikes.clear();
+        joinTimes.clear();
+        punishments.set(0);
+        lastSampleAt = System.currentTimeMillis();
+        nextSampleAt = lastSampleAt + MetricsResolution.SECOND.getStepMillis();
+    }
+
+    private void onTickEnd(MinecraftServer server) {
+        if (this.server == null) return;
+
+        float millis = (System.nanoTime() - tickStartNanos) / 1_000_000.0f;
+        tickHistory[tickHead] = millis;
+        tickHead = (tickHead + 1) % TICK_HISTORY;
+        tickCount = Math.min(tickCount + 1, TICK_HISTORY);
+
+        secondTicks++;
+        secondSum += millis;
+        secondMax = Math.max(secondMax, millis);
+        int bucket = MsptHistogram.bucketOf(millis);
+        for (Level level : levels) {
+            level.histogram[bucket]++;
+            level.histogramTotal++;
+        }
+
+        long now = System.currentTimeMillis();
+        if (millis >= ServerSettings.get().getLagSpikeMs() && now - lastSpikeAt >= SPIKE_COOLDOWN) {
+            lastSpikeAt = now;
+            recordSpike(server, millis, now);
+        }
+        if (now >= nextSampleAt) {
+            sample(server, now);
+        }
+    }
+
+    /**
+     * Собирает секундную точку и сворачивает ее в следующие шаги
+     */
+    private void sample(MinecraftServer server, long now) {
+        Level second = levels[0];
+        float[] point = second.point;
+        Arrays.fill(point, 0.0f);
+
+        float elapsedSeconds = Math.max(1L, now - lastSampleAt) / 1000.0f;
+        point[S_MSPT] = secondTicks > 0 ? (float) (secondSum / secondTicks) : 0.0f;
+        point[S_MSPT_MAX] = secondMax;
+        point[S_TPS] = Math.min(TICKS_PER_SECOND, secondTicks / elapsedSeconds);
+        point[S_PLAYERS] = server.getCurrentPlayerCount();
+        point[S_PUNISHMENTS] = punishments.getAndSet(0);
+
+        for (ServerWorld world : server.getWorlds()) {
+            int entities = 0;
+            for (Entity ignored : world.iterateEntities()) {
+                entities++;
+            }
+            int chunks = world.getChunkManager().getLoadedChunkCount();
+            point[S_ENTITIES] += entities;
+            point[S_CHUNKS] += chunks;
+
+            int dimension = dimensionIndex(world);
+            if (dimension >= 0) {
+                point[FIXED_SERIES + dimension * 2] = entities;
+                point[FIXED_SERIES + dimension * 2 + 1] = chunks;
+            }
+        }
+
+        secondTicks = 0;
+        secondSum = 0.0;
+        secondMax = 0.0f;
+        lastSampleAt = now;
+        nextSampleAt = Math.max(nextSampleAt + MetricsResolution.SECOND.getStepMillis(), now);
+
+        for (int i = 0; i < levels.length; i++) {
+            Level level = levels[i];
+            level.fillPercentiles();
+            level.push(now);
+            notifyPoint(level.resolution);
+
+            if (i + 1 == levels.length) break;
+            Level next = levels[i + 1];
+            if (!next.accumulate(level.point, aggregations, seriesCount, level.resolution.getPointsPerNext())) break;
+            // Следующий шаг получил полную точку - сворачиваем дальше
+        }
+    }
+
+    /**
+     * Запоминает задержку и игроков, рядом с которыми больше всего сущностей
+     */
+    private void recordSpike(MinecraftServer server, float millis, long now) {
+        List<LagSpike.Suspect> suspects = new ArrayList<>();
+        for (ServerWorld world : server.getWorlds()) {
+            List<ServerPlayerEntity> players = world.getPlayers();
+            if (players.isEmpty()) continue;
+
+            entitiesByChunk.clear();
+            for (Entity entity : world.iterateEntities()) {
+                entitiesByChunk.addTo(entity.getChunkPos().toLong(), 1);
+            }
+            String dimension = world.getRegistryKey().getValue().toString();
+            for (ServerPlayerEntity player : players) {
+                ChunkPos center = player.getChunkPos();
+                int nearby = 0;
+                for (int dx = -SUSPECT_RADIUS_CHUNKS; dx <= SUSPECT_RADIUS_CHUNKS; dx++) {
+                    for (int dz = -SUSPECT_RADIUS_CHUNKS; dz <= SUSPECT_RADIUS_CHUNKS; dz++) {
+                        nearby += entitiesByChunk.get(ChunkPos.toLong(center.x + dx, center.z + dz));
+                    }
+                }
+                Long joinedAt = joinTimes.get(player.getUuid());
+                boolean joinedRecently = joinedAt != null && now - joinedAt <= RECENT_JOIN;
+                suspects.add(new LagSpike.Suspect(player.getEntityName(), dimension, nearby, joinedRecently));
+            }
+        }
+
+        // Сначала недавно вошедшие, затем по числу сущностей рядом
+        suspects.sort((a, b) -> a.joinedRecently() != b.joinedRecently()
+                ? Boolean.compare(b.joinedRecently(), a.joinedRecently())
+                : Integer.compare(b.nearbyEntities(), a.nearbyEntities()));
+        List<LagSpike.Suspect> top = List.copyOf(suspects.subList(0, Math.min(MAX_SUSPECTS, suspects.size())));
+
+        if (spikes.size() == MAX_SPIKES) {
+            spikes.pollLast();
+        }
+        spikes.addFirst(new LagSpike(now, millis, server.getCurrentPlayerCount(), top));
+    }
+
+    private int dimensionIndex(ServerWorld world) {
+        String id = world.getRegistryKey().getValue().toString();
+        Integer index = dimensions.get(id);
+        if (index != null) return index;
+        if (dimensions.size() == MAX_DIMENSIONS) return -1;
+
+        int dimension = dimensions.size();
+        dimensions.put(id, dimension);
+        defineSeries(FIXED_SERIES + dimension * 2, ENTITIES + "/" + id, AGG_AVG);
+        defineSeries(FIXED_SERIES + dimension * 2 + 1, CHUNKS + "/" + id, AGG_AVG);
+        seriesCount = FIXED_SERIES + dimensions.size() * 2;
+        return dimension;
+    }
+
+    private void defineSeries(int index, String id, int aggregation) {
+        seriesIds[index] = id;
+        aggregations[index] = aggregation;
+    }
+
+    private void notifyPoint(MetricsResolution resolution) {
+        for (MetricsListener listener : listeners) {
+            listener.onPoint(resolution);
+        }
+    }
+
+    /**
+     * Ряды одного шага: кольца точек и накопление следующей точки
+     */
+    private static final class Level {
+        final MetricsResolution resolution;
+        final int capacity;
+        final float[][] rings;
+        // Собираемая точка: для секунд - замеры, для остальных - свертка точек предыдущего шага
+        final float[] point = new float[SERIES];
+        final double[] sums = new double[SERIES];
+        final int[] histogram = new int[MsptHistogram.BUCKETS];
+        long histogramTotal;
+        int accumulated;
+        int head;
+        int size;
+        long lastTime;
+
+        Level(MetricsResolution resolution) {
+            this.resolution = resolution;
+            this.capacity = resolution.getCapacity();
+            this.rings = new float[SERIES][capacity];
+        }
+
+        /**
+         * Добавляет точку предыдущего шага
+         * @return собрана ли полная точка
+         */
+        boolean accumulate(float[] source, int[] aggregations, int seriesCount, int pointsPerNext) {
+            for (int s = 0; s < seriesCount; s++) {
+                switch (aggregations[s]) {
+                    case AGG_MAX -> point[s] = accumulated == 0 ? source[s] : Math.max(point[s], source[s]);
+                    case AGG_PERCENTILE -> {
+                    }
+                    default -> sums[s] += source[s];
+                }
+            }
+            accumulated++;
+            if (accumulated < pointsPerNext) return false;
+
+            for (int s = 0; s < seriesCount; s++) {
+                if (aggregations[s] == AGG_AVG) {
+                    point[s] = (float) (sums[s] / accumulated);
+                } else if (aggregations[s] == AGG_SUM) {
+                    point[s] = (float) sums[s];
+                }
+            }
+            Arrays.fill(sums, 0.0);
+            accumulated = 0;
+            return true;
+        }
+
+        /**
+         * Процентили точки по гистограмме ее тиков
+         */
+        void fillPercentiles() {
+            point[S_P50] = MsptHistogram.percentile(histogram, histogramTotal, 0.50);
+            point[S_P95] = MsptHistogram.percentile(histogram, histogramTotal, 0.95);
+            point[S_P99] = MsptHistogram.percentile(histogram, histogramTotal, 0.99);
+            Arrays.fill(histogram, 0);
+            histogramTotal = 0;
+        }
+
+        /**
+         * Записывает собранную точку в кольца
+         */
+        void push(long time) {
+            for (int s = 0; s < SERIES; s++) {
+                rings[s][head] = point[s];
+            }
+            head = (head + 1) % capacity;
+            size = Math.min(size + 1, capacity);
+            lastTime = time;
+        }
+
+        void clear() {
+            for (float[] ring : rings) {
+                Arrays.fill(ring, 0.0f);
+            }
+            Arrays.fill(point, 0.0f);
+            Arrays.fill(sums, 0.0);
+            Arrays.fill(histogram, 0);
+            histogramTotal = 0;
+            accumulated = 0;
+            head = 0;
+            size = 0;
+            lastTime = 0L;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package me.jlime.holyadmins.metrics;
+
+/**
+ * Слушатель новых точек метрик
+ * Вызывается в потоке сервера
+ */
+@FunctionalInterface
+public interface MetricsListener {
+    /**
+     * Добавлена точка ряда с этим шагом
+     */
+    void onPoint(MetricsResolution resolution);
+}
@@ -0,0 +1,61 @@
+package me.jlime.holyadmins.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шаг рядов метрик: секундные точки сворачиваются в минутные, минутные - в часовые
+ * Код передается по сети, поэтому порядок менять нельзя
+ */
+public enum MetricsResolution {
+    // 5 минут по секундам
+    SECOND(TimeUnit.SECONDS.toMillis(1), 300),
+    // Сутки по минутам
+    MINUTE(TimeUnit.MINUTES.toMillis(1), 1440),
+    // 30 дней по часам
+    HOUR(TimeUnit.HOURS.toMillis(1), 720);
+
+    private static final MetricsResolution[] BY_CODE = values();
+
+    private final long stepMillis;
+    private final int capacity;
+
+    MetricsResolution(long stepMillis, int capacity) {
+        this.stepMillis = stepMillis;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Длительность одной точки (мс)
+     */
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    /**
+     * Сколько точек хранится
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Сколько точек этого шага сворачивается в одну точку следующего
+     */
+    public int getPointsPerNext() {
+        return ordinal() + 1 < BY_CODE.length ? (int) (BY_CODE[ordinal() + 1].stepMillis / stepMillis) : 0;
+    }
+
+    public int getCode() {
+        return ordinal();
+    }
+
+    /**
+     * Получает шаг по коду
+     */
+    public static MetricsResolution byCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown metrics resolution code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
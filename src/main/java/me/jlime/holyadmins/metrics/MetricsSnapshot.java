@@ -0,0 +1,36 @@
+package me.jlime.holyadmins.metrics;
+
+import java.util.List;
+
+/**
+ * Ряды метрик одного шага для панели
+ * @param endTime   время последней точки (мс)
+ * @param series    ряды, значения от старых к новым
+ * @param histogram длительности тиков за последние минуты по корзинам MsptHistogram
+ * @param spikes    последние задержки, от новых к старым
+ */
+public record MetricsSnapshot(MetricsResolution resolution, long endTime, List<Series> series,
+                              int[] histogram, List<LagSpike> spikes) {
+    /**
+     * Ряд по ID или null
+     */
+    public Series get(String id) {
+        for (Series item : series) {
+            if (item.id().equals(id)) return item;
+        }
+        return null;
+    }
+
+    /**
+     * Ряд значений
+     * @param id ID метрики (см. MetricsCollector), для измерений - с суффиксом "/" + ID измерения
+     */
+    public record Series(String id, float[] values) {
+        /**
+         * Последнее значение или 0
+         */
+        public float last() {
+            return values.length > 0 ? values[values.length - 1] : 0.0f;
+        }
+    }
+}
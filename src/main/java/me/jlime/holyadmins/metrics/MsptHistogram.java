@@ -0,0 +1,58 @@
+package me.jlime.holyadmins.metrics;
+
+/**
+ * Корзины гистограммы длительности тика
+ * До 50 мс - по 0.5 мс, дальше - четыре корзины на каждое удвоение (до ~6.4 с),
+ * поэтому процентили из гистограммы точны там, где обычно лежат тики, и не теряют выбросы
+ */
+public final class MsptHistogram {
+    public static final int BUCKETS = 128;
+
+    private static final int LINEAR_BUCKETS = 100;
+    private static final float LINEAR_LIMIT_MS = 50.0f;
+    private static final int BUCKETS_PER_DOUBLING = 4;
+
+    /**
+     * Корзина для длительности тика
+     */
+    public static int bucketOf(float millis) {
+        if (millis < LINEAR_LIMIT_MS) {
+            return Math.max(0, (int) (millis * 2.0f));
+        }
+        int step = (int) (BUCKETS_PER_DOUBLING * Math.log(millis / LINEAR_LIMIT_MS) / Math.log(2.0));
+        return Math.min(BUCKETS - 1, LINEAR_BUCKETS + step);
+    }
+
+    /**
+     * Верхняя граница корзины (мс)
+     */
+    public static float upperBoundMs(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return (bucket + 1) / 2.0f;
+        }
+        return (float) (LINEAR_LIMIT_MS * Math.pow(2.0, (bucket - LINEAR_BUCKETS + 1) / (double) BUCKETS_PER_DOUBLING));
+    }
+
+    /**
+     * Процентиль по гистограмме: верхняя граница корзины, в которой он лежит
+     * @param fraction доля от 0 до 1
+     */
+    public static float percentile(int[] counts, long total, double fraction) {
+        if (total <= 0) return 0.0f;
+
+        long rank = Math.max(1L, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return upperBoundMs(bucket);
+            }
+        }
+        return upperBoundMs(counts.length - 1);
+    }
+
+    // Приватный конструктор
+    private MsptHistogram() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
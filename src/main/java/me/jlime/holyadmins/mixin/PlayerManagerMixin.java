@@ -0,0 +1,28 @@
+package me.jlime.holyadmins.mixin;
+
+import com.mojang.authlib.GameProfile;
+import me.jlime.holyadmins.Holyadmins;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.text.Text;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.net.SocketAddress;
+
+/**
+ * Вход на сервер: учет адреса для поиска мультиаккаунтов и проверка банов модерации до ванильных списков
+ */
+@Mixin(PlayerManager.class)
+public abstract class PlayerManagerMixin {
+    @Inject(method = "checkCanJoin", at = @At("HEAD"), cancellable = true)
+    private void holyadmins$checkBans(SocketAddress address, GameProfile profile, CallbackInfoReturnable<Text> cir) {
+        // Попытки забаненных аккаунтов тоже учитываются: с того же адреса обычно заходят их мультиаккаунты
+        Holyadmins.getAltTracker().recordLogin(profile.getId(), profile.getName(), address);
+        Text reason = Holyadmins.getBanCheck().checkJoin(profile.getId(), address);
+        if (reason != null) {
+            cir.setReturnValue(reason);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package me.jlime.holyadmins.mixin;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.moderation.ModerationService;
+import me.jlime.holyadmins.moderation.Punishment;
+import net.minecraft.network.message.SignedMessage;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Перехват сообщений чата: запись для раздела "Переписка" и мут
+ * Вызывается в потоке сервера перед рассылкой уже проверенного сообщения
+ */
+@Mixin(ServerPlayNetworkHandler.class)
+public abstract class ServerPlayNetworkHandlerMixin {
+    @Shadow
+    public ServerPlayerEntity player;
+
+    @Inject(method = "handleDecoratedMessage", at = @At("HEAD"), cancellable = true)
+    private void holyadmins$captureChat(SignedMessage message, CallbackInfo ci) {
+        Punishment mute = Holyadmins.getModerationService().getActiveMute(player.getUuid());
+        Holyadmins.getChatCapture().capture(player.getUuid(), player.getEntityName(), message.getSignedContent(),
+                System.currentTimeMillis(), mute != null);
+
+        if (mute != null) {
+            player.sendMessage(ModerationService.muteMessage(mute));
+            ci.cancel();
+        }
+    }
+}
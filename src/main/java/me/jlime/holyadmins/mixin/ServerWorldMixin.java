@@ -0,0 +1,25 @@
+package me.jlime.holyadmins.mixin;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Замеры тиков сущностей для профилировщика нагрузки (каждый N-й тик)
+ */
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin {
+    @Inject(method = "tickEntity", at = @At("HEAD"))
+    private void holyadmins$beginEntityTick(Entity entity, CallbackInfo ci) {
+        Holyadmins.getLagProfiler().beginEntity();
+    }
+
+    @Inject(method = "tickEntity", at = @At("RETURN"))
+    private void holyadmins$endEntityTick(Entity entity, CallbackInfo ci) {
+        Holyadmins.getLagProfiler().endEntity((ServerWorld) (Object) this, entity);
+    }
+}
@@ -0,0 +1,34 @@
+package me.jlime.holyadmins.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.metrics.LagProfiler;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.BlockEntityTickInvoker;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Замеры тиков блоков с логикой для профилировщика нагрузки
+ * Вызов оборачивается через WrapOperation, а не заменяется, поэтому совместим с модами,
+ * которые тоже оборачивают тик блоков. Миры клиента тикают в своем потоке и не замеряются
+ */
+@Mixin(World.class)
+public abstract class WorldMixin {
+    @WrapOperation(method = "tickBlockEntities",
+            at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/BlockEntityTickInvoker;tick()V"))
+    private void holyadmins$tickBlockEntity(BlockEntityTickInvoker invoker, Operation<Void> original) {
+        if ((Object) this instanceof ServerWorld world) {
+            LagProfiler profiler = Holyadmins.getLagProfiler();
+            if (profiler.sampleBlockEntity()) {
+                long started = System.nanoTime();
+                original.call(invoker);
+                profiler.blockEntityTicked(world, invoker.getPos(), System.nanoTime() - started);
+                return;
+            }
+        }
+        original.call(invoker);
+    }
+}
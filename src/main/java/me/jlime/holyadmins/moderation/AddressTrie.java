@@ -0,0 +1,105 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.Arrays;
+
+/**
+ * Префиксное дерево диапазонов адресов (CIDR) для IPv4 и IPv6
+ *
+ * Двоичное дерево по битам адреса, отдельные корни для 4- и 16-байтовых адресов.
+ * Поиск проходит не больше 32 или 128 узлов и возвращает значение самого длинного совпавшего префикса.
+ * Адреса IPv4, отображенные в IPv6 (::ffff:a.b.c.d), ищутся и добавляются как IPv4.
+ * После заполнения не меняется, поэтому читается из любых потоков без блокировок
+ */
+final class AddressTrie<V> {
+    // Длина префикса ::ffff:0:0/96, за которым в IPv6 лежит адрес IPv4
+    private static final int MAPPED_PREFIX_BITS = 96;
+
+    private final Node<V> v4 = new Node<>();
+    private final Node<V> v6 = new Node<>();
+    private int size;
+
+    /**
+     * Добавляет диапазон; биты адреса после prefixLength не учитываются
+     * @param address 4 или 16 байт
+     */
+    void put(byte[] address, int prefixLength, V value) {
+        Node<V> node = root(address);
+        if (prefixLength < 0 || prefixLength > address.length * 8) {
+            throw new IllegalArgumentException("Invalid prefix length " + prefixLength + " for " + address.length * 8 + "-bit address");
+        }
+        if (isMappedV4(address) && prefixLength >= MAPPED_PREFIX_BITS) {
+            address = Arrays.copyOfRange(address, MAPPED_PREFIX_BITS / 8, 16);
+            prefixLength -= MAPPED_PREFIX_BITS;
+            node = v4;
+        }
+        for (int bit = 0; bit < prefixLength; bit++) {
+            int branch = bitAt(address, bit);
+            Node<V> child = node.children[branch];
+            if (child == null) {
+                child = new Node<>();
+                node.children[branch] = child;
+            }
+            node = child;
+        }
+        if (node.value == null) {
+            size++;
+        }
+        node.value = value;
+    }
+
+    /**
+     * Значение самого узкого диапазона, в который попадает адрес, или null
+     */
+    V find(byte[] address) {
+        Node<V> node = root(address);
+        if (isMappedV4(address)) {
+            address = Arrays.copyOfRange(address, MAPPED_PREFIX_BITS / 8, 16);
+            node = v4;
+        }
+        V match = node.value;
+        for (int bit = 0, bits = address.length * 8; bit < bits; bit++) {
+            node = node.children[bitAt(address, bit)];
+            if (node == null) break;
+            if (node.value != null) {
+                match = node.value;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Количество диапазонов
+     */
+    int size() {
+        return size;
+    }
+
+    private Node<V> root(byte[] address) {
+        return switch (address.length) {
+            case 4 -> v4;
+            case 16 -> v6;
+            default -> throw new IllegalArgumentException("Unsupported address length: " + address.length);
+        };
+    }
+
+    /**
+     * Адрес вида ::ffff:a.b.c.d
+     */
+    private static boolean isMappedV4(byte[] address) {
+        if (address.length != 16 || address[10] != (byte) 0xFF || address[11] != (byte) 0xFF) return false;
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) return false;
+        }
+        return true;
+    }
+
+    private static int bitAt(byte[] address, int bit) {
+        return (address[bit >>> 3] >>> (7 - (bit & 7))) & 1;
+    }
+
+    private static final class Node<V> {
+        @SuppressWarnings("unchecked")
+        private final Node<V>[] children = new Node[2];
+        private V value;
+    }
+}
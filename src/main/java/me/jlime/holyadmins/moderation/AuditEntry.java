@@ -0,0 +1,101 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Строка журнала действий модерации (раздел "Логи")
+ */
+public final class AuditEntry {
+    private final long seq;
+    private final Kind kind;
+    private final long time;
+    private final UUID subjectId;
+    private final String subjectName;
+    private final String actorName;
+    private final String text;
+
+    public AuditEntry(long seq, Kind kind, long time, UUID subjectId, String subjectName, String actorName, String text) {
+        this.seq = seq;
+        this.kind = Objects.requireNonNull(kind, "Kind cannot be null");
+        this.time = time;
+        this.subjectId = Objects.requireNonNull(subjectId, "Subject cannot be null");
+        this.subjectName = Objects.requireNonNull(subjectName, "Subject name cannot be null");
+        this.actorName = Objects.requireNonNull(actorName, "Actor name cannot be null");
+        this.text = Objects.requireNonNull(text, "Text cannot be null");
+    }
+
+    /**
+     * Порядковый номер записи в журнале
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Игрок, к которому относится действие
+     */
+    public UUID getSubjectId() {
+        return subjectId;
+    }
+
+    public String getSubjectName() {
+        return subjectName;
+    }
+
+    /**
+     * Кто выполнил действие
+     */
+    public String getActorName() {
+        return actorName;
+    }
+
+    /**
+     * Описание действия
+     */
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditEntry{" +
+                "seq=" + seq +
+                ", kind=" + kind +
+                ", actor='" + actorName + '\'' +
+                ", text='" + text + '\'' +
+                '}';
+    }
+
+    /**
+     * Вид записи
+     * Код хранится в журнале на диске, порядок менять нельзя
+     */
+    public enum Kind {
+        PUNISHMENT_ISSUED,
+        PUNISHMENT_REVOKED,
+        REPORT_CREATED,
+        REPORT_CLOSED;
+
+        private static final Kind[] BY_CODE = values();
+
+        public int getCode() {
+            return ordinal();
+        }
+
+        public static Kind byCode(int code) {
+            if (code < 0 || code >= BY_CODE.length) {
+                throw new IllegalArgumentException("Unknown audit entry kind: " + code);
+            }
+            return BY_CODE[code];
+        }
+    }
+}
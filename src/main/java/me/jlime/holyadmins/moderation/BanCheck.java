@@ -0,0 +1,204 @@
+package me.jlime.holyadmins.moderation;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.text.Text;
+import net.minecraft.util.WorldSavePath;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Проверка банов при входе на сервер
+ *
+ * Перед индексом банов по UUID стоит фильтр Блума: незабаненный игрок отсекается одной проверкой
+ * без блокировки хранилища. Фильтр пополняется при выдаче бана и пересобирается из хранилища,
+ * когда снятых банов в нем накапливается больше половины или банов становится больше, чем он рассчитан.
+ * Баны адресов и подсетей (CIDR, IPv4 и IPv6) читаются при запуске сервера из world/holyadmins/ip-bans.txt
+ * в префиксное дерево. Проверка не обращается к диску
+ */
+public final class BanCheck implements ModerationListener {
+    public static final String ADDRESS_FILE_NAME = "ip-bans.txt";
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private final ModerationService moderation;
+    private volatile BanFilter filter = new BanFilter(MIN_CAPACITY);
+    private volatile AddressTrie<AddressBan> addresses = new AddressTrie<>();
+    // Под блокировкой this
+    private int filtered;
+    private int stale;
+
+    public BanCheck(ModerationService moderation) {
+        this.moderation = Objects.requireNonNull(moderation, "Moderation service cannot be null");
+    }
+
+    /**
+     * Подписывается на события модерации
+     */
+    public void register() {
+        moderation.addListener(this);
+    }
+
+    /**
+     * Строит фильтр по банам из журнала и читает баны адресов; вызывается после запуска сервиса модерации
+     */
+    public void start(MinecraftServer server) {
+        rebuild();
+        loadAddresses(server.getSavePath(WorldSavePath.ROOT).resolve(Holyadmins.MOD_ID).resolve(ADDRESS_FILE_NAME).normalize());
+    }
+
+    /**
+     * Проверяет, может ли игрок войти
+     * @return причина отказа или null
+     */
+    public Text checkJoin(UUID playerId, SocketAddress address) {
+        if (filter.mightContain(playerId)) {
+            Punishment ban = moderation.getActiveBan(playerId);
+            if (ban != null) {
+                return ModerationService.banMessage(ban);
+            }
+        }
+
+        if (address instanceof InetSocketAddress socket && socket.getAddress() != null) {
+            AddressBan ban = addresses.find(socket.getAddress().getAddress());
+            if (ban != null) {
+                return Text.literal(ban.reason().isEmpty()
+                        ? "Ваш адрес заблокирован"
+                        : "Ваш адрес заблокирован: " + ban.reason());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void onPunishmentIssued(Punishment punishment) {
+        if (punishment.getType() != PunishmentType.BAN) return;
+        synchronized (this) {
+            if (filtered + 1 > filter.getCapacity()) {
+                rebuild();
+                return;
+            }
+            filter.add(punishment.getTargetId());
+            filtered++;
+        }
+    }
+
+    @Override
+    public void onPunishmentRevoked(Punishment punishment) {
+        lifted(punishment);
+    }
+
+    @Override
+    public void onPunishmentExpired(Punishment punishment) {
+        lifted(punishment);
+    }
+
+    private void lifted(Punishment punishment) {
+        if (punishment.getType() != PunishmentType.BAN) return;
+        synchronized (this) {
+            if (++stale > filtered / 2 && stale >= MIN_CAPACITY / 2) {
+                rebuild();
+            }
+        }
+    }
+
+    /**
+     * Собирает фильтр заново по действующим банам.
+     * Выдача бана ждет пересборку на блокировке, поэтому бан, выданный во время пересборки, не теряется
+     */
+    private synchronized void rebuild() {
+        List<UUID> banned = new ArrayList<>();
+        moderation.getPunishmentStore().forEachActive(PunishmentType.BAN, punishment -> banned.add(punishment.getTargetId()));
+
+        // Запас в два раза, чтобы фильтр не пересобирался на каждом новом бане
+        BanFilter rebuilt = new BanFilter(Math.max(MIN_CAPACITY, banned.size() * 2));
+        for (UUID id : banned) {
+            rebuilt.add(id);
+        }
+        filtered = banned.size();
+        stale = 0;
+        filter = rebuilt;
+    }
+
+    private void loadAddresses(Path path) {
+        AddressTrie<AddressBan> loaded = new AddressTrie<>();
+        if (Files.exists(path)) {
+            List<String> lines;
+            try {
+                lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                Holyadmins.LOGGER.warn("Failed to read {}, address bans are disabled", path, e);
+                addresses = loaded;
+                return;
+            }
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i).trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                try {
+                    addRange(loaded, line);
+                } catch (IllegalArgumentException e) {
+                    Holyadmins.LOGGER.warn("Skipped invalid address ban at {}:{}: {}", ADDRESS_FILE_NAME, i + 1, e.getMessage());
+                }
+            }
+        }
+        addresses = loaded;
+        Holyadmins.LOGGER.info("Loaded {} address bans", loaded.size());
+    }
+
+    /**
+     * Строка файла: адрес или диапазон CIDR, через пробел - причина
+     */
+    private static void addRange(AddressTrie<AddressBan> trie, String line) {
+        int space = line.indexOf(' ');
+        String range = space < 0 ? line : line.substring(0, space);
+        String reason = space < 0 ? "" : line.substring(space + 1).trim();
+
+        int slash = range.indexOf('/');
+        String host = slash < 0 ? range : range.substring(0, slash);
+        byte[] address = parseAddress(host);
+        int prefixLength = address.length * 8;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(range.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix length in " + range);
+            }
+        }
+        trie.put(address, prefixLength, new AddressBan(range, reason));
+    }
+
+    /**
+     * Разбирает только числовые адреса: имя хоста привело бы к запросу DNS
+     */
+    private static byte[] parseAddress(String host) {
+        boolean v4 = !host.isEmpty() && host.chars().allMatch(c -> c == '.' || (c >= '0' && c <= '9'));
+        boolean v6 = host.indexOf(':') >= 0 && host.chars().allMatch(c -> c == '.' || c == ':' || Character.digit(c, 16) >= 0);
+        if (!v4 && !v6) {
+            throw new IllegalArgumentException("Not a numeric address: " + host);
+        }
+        try {
+            return InetAddress.getByName(host).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not a numeric address: " + host);
+        }
+    }
+
+    /**
+     * Бан адреса или подсети
+     * @param range  строка диапазона из файла
+     * @param reason причина или пустая строка
+     */
+    private record AddressBan(String range, String reason) {
+    }
+}
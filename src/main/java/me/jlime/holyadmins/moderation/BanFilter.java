@@ -0,0 +1,90 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Блочный фильтр Блума по UUID забаненных игроков
+ *
+ * Все HASHES битов записи лежат в одном блоке из BLOCK_LONGS слов (512 бит - одна линия кэша),
+ * поэтому проверка незабаненного игрока - одно обращение к памяти без блокировок.
+ * Ложных отрицаний нет, ложные срабатывания (меньше 0.1% при заполнении до capacity) уточняются по индексу банов.
+ * Удалять из фильтра нельзя: снятые баны остаются в нем до пересборки
+ */
+final class BanFilter {
+    private static final int BLOCK_LONGS = 8;
+    private static final int BLOCK_BITS = BLOCK_LONGS * Long.SIZE;
+    private static final int BIT_INDEX_BITS = 9;
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ENTRY = 16;
+    private static final int MAX_BLOCKS = 1 << 20;
+
+    private final AtomicLongArray words;
+    private final int blockMask;
+    private final int capacity;
+
+    /**
+     * @param capacity на сколько записей рассчитан фильтр
+     */
+    BanFilter(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        long needed = ((long) this.capacity * BITS_PER_ENTRY + BLOCK_BITS - 1) / BLOCK_BITS;
+        int blocks = 1;
+        while (blocks < needed && blocks < MAX_BLOCKS) {
+            blocks <<= 1;
+        }
+        this.words = new AtomicLongArray(blocks * BLOCK_LONGS);
+        this.blockMask = blocks - 1;
+    }
+
+    void add(UUID id) {
+        long hash = hash(id);
+        int base = ((int) hash & blockMask) * BLOCK_LONGS;
+        long bits = mix(hash);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) (bits >>> (i * BIT_INDEX_BITS)) & (BLOCK_BITS - 1);
+            long mask = 1L << bit;
+            int index = base + (bit >>> 6);
+            if ((words.get(index) & mask) == 0) {
+                words.getAndAccumulate(index, mask, (current, added) -> current | added);
+            }
+        }
+    }
+
+    /**
+     * Может ли игрок быть в фильтре; false - точно не забанен
+     */
+    boolean mightContain(UUID id) {
+        long hash = hash(id);
+        int base = ((int) hash & blockMask) * BLOCK_LONGS;
+        long bits = mix(hash);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) (bits >>> (i * BIT_INDEX_BITS)) & (BLOCK_BITS - 1);
+            if ((words.get(base + (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * На сколько записей рассчитан фильтр
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    private static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ id.getLeastSignificantBits());
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,246 @@
+package me.jlime.holyadmins.moderation;
+
+import com.mojang.authlib.GameProfile;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Массовые действия модерации (рейды): наказание или снятие наказаний у многих игроков за раз
+ *
+ * Цели проверяются пачкой, наказания выдаются одной пачкой ModerationService.issueAll (одна блокировка
+ * хранилища, один сброс журнала на диск, одна дельта панели). Бан и мут действуют сразу после выдачи,
+ * а их доставка игрокам в сети - отключение и сообщения - идет порциями в конце тиков в пределах
+ * TICK_BUDGET_NANOS, чтобы десятки отключений не давали скачок MSPT.
+ * Отмена останавливает доставку и снимает еще не примененные баны и муты; не доставленные кики
+ * и предупреждения остаются в истории выданными.
+ * Все методы вызываются в потоке сервера
+ */
+public final class BulkActionPipeline {
+    public static final int MAX_TARGETS = 500;
+    public static final String DEFAULT_REASON = "Массовое действие";
+
+    // Отключение игрока сохраняет его данные, поэтому порция ограничена и по времени, и по количеству
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int MAX_APPLIED_PER_TICK = 16;
+
+    private final ModerationService moderation;
+    private final List<BulkListener> listeners = new CopyOnWriteArrayList<>();
+    private final Deque<Job> jobs = new ArrayDeque<>();
+
+    public BulkActionPipeline(ModerationService moderation) {
+        this.moderation = Objects.requireNonNull(moderation, "Moderation service cannot be null");
+    }
+
+    /**
+     * Регистрирует доставку наказаний в конце тика
+     */
+    public void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> jobs.clear());
+    }
+
+    /**
+     * Выдает наказание типа всем подходящим целям и ставит доставку в очередь
+     * Отсеиваются повторы, консоль, сам администратор, операторы и администраторы, уже забаненные
+     * или замученные (для бана и мута) и игроки не в сети (для кика)
+     * @param jobId          номер действия, выбранный панелью; по нему приходит ход и выполняется отмена
+     * @param durationMillis длительность для бана и мута, 0 - навсегда
+     * @return первый ход действия; он же передан слушателям
+     */
+    public BulkProgress submitPunish(UUID adminId, String adminName, int jobId, PunishmentType type,
+                                     List<GameProfile> targets, String reason, long durationMillis) {
+        MinecraftServer server = moderation.getServer();
+        if (server == null || targets.size() > MAX_TARGETS || durationMillis < 0 || find(adminId, jobId) != null) {
+            return report(adminId, BulkProgress.rejected(jobId, targets.size()));
+        }
+
+        Map<UUID, GameProfile> unique = new LinkedHashMap<>();
+        for (GameProfile target : targets) {
+            if (target != null && target.getId() != null) {
+                unique.putIfAbsent(target.getId(), target);
+            }
+        }
+        Set<UUID> punished = type.isLasting()
+                ? moderation.getPunishmentStore().getActiveTargets(unique.keySet(), type, System.currentTimeMillis())
+                : Collections.emptySet();
+
+        List<GameProfile> eligible = new ArrayList<>(unique.size());
+        for (GameProfile target : unique.values()) {
+            if (punished.contains(target.getId()) || isExempt(server, adminId, target)) continue;
+            if (type == PunishmentType.KICK && server.getPlayerManager().getPlayer(target.getId()) == null) continue;
+            eligible.add(target);
+        }
+
+        String text = reason == null || reason.isBlank() ? DEFAULT_REASON : reason.trim();
+        List<Punishment> issued = moderation.issueAll(type, eligible, adminId, adminName, text, durationMillis);
+        Job job = new Job(adminId, jobId, targets.size(), targets.size() - issued.size(), issued);
+        if (!job.hasNext()) {
+            return report(adminId, job.progress(BulkProgress.State.DONE));
+        }
+        jobs.add(job);
+        return report(adminId, job.progress(BulkProgress.State.RUNNING));
+    }
+
+    /**
+     * Снимает пачку наказаний одной записью журнала; доставлять игрокам нечего, поэтому действие сразу завершено
+     * @return итог действия; он же передан слушателям
+     */
+    public BulkProgress submitRevoke(UUID adminId, int jobId, long[] punishmentIds) {
+        if (moderation.getServer() == null || punishmentIds.length > MAX_TARGETS || find(adminId, jobId) != null) {
+            return report(adminId, BulkProgress.rejected(jobId, punishmentIds.length));
+        }
+
+        long[] unique = LongStream.of(punishmentIds).distinct().toArray();
+        int revoked = moderation.revokeAll(unique, adminId).size();
+        return report(adminId, new BulkProgress(jobId, BulkProgress.State.DONE, punishmentIds.length,
+                punishmentIds.length - revoked, revoked, 0));
+    }
+
+    /**
+     * Отменяет действие администратора: доставка останавливается, не примененные баны и муты снимаются
+     * @return было ли действие еще в работе
+     */
+    public boolean cancel(UUID adminId, int jobId) {
+        Job job = find(adminId, jobId);
+        if (job == null) return false;
+
+        jobs.remove(job);
+        long[] pending = job.pendingLasting();
+        job.reverted = pending.length > 0 ? moderation.revokeAll(pending, adminId).size() : 0;
+        report(adminId, job.progress(BulkProgress.State.CANCELLED));
+        return true;
+    }
+
+    /**
+     * Добавляет слушателя хода действий
+     */
+    public void addListener(BulkListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    /**
+     * Удаляет слушателя хода действий
+     */
+    public void removeListener(BulkListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Доставляет очередную порцию наказаний; действия обслуживаются по очереди запуска
+     */
+    private void tick() {
+        if (jobs.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        long deadline = System.nanoTime() + TICK_BUDGET_NANOS;
+        int budget = MAX_APPLIED_PER_TICK;
+        Iterator<Job> iterator = jobs.iterator();
+        while (iterator.hasNext() && budget > 0 && System.nanoTime() < deadline) {
+            Job job = iterator.next();
+            while (job.hasNext() && budget > 0 && System.nanoTime() < deadline) {
+                Punishment punishment = job.next();
+                // Бан или мут, снятый другим администратором до доставки, уже не применяется
+                if (!punishment.getType().isLasting() || punishment.isActive(now)) {
+                    moderation.apply(punishment);
+                    budget--;
+                }
+            }
+
+            if (!job.hasNext()) {
+                iterator.remove();
+                report(job.adminId, job.progress(BulkProgress.State.DONE));
+            } else {
+                report(job.adminId, job.progress(BulkProgress.State.RUNNING));
+            }
+        }
+    }
+
+    private Job find(UUID adminId, int jobId) {
+        for (Job job : jobs) {
+            if (job.jobId == jobId && job.adminId.equals(adminId)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private BulkProgress report(UUID adminId, BulkProgress progress) {
+        for (BulkListener listener : listeners) {
+            listener.onProgress(adminId, progress);
+        }
+        return progress;
+    }
+
+    /**
+     * Цели, которых массовое действие не касается: консоль, сам администратор, администраторы и операторы
+     */
+    private static boolean isExempt(MinecraftServer server, UUID adminId, GameProfile target) {
+        if (ModerationService.CONSOLE_ID.equals(target.getId()) || target.getId().equals(adminId)) return true;
+
+        ServerPlayerEntity player = server.getPlayerManager().getPlayer(target.getId());
+        if (player != null) {
+            return player.hasPermissionLevel(ModerationService.ADMIN_PERMISSION_LEVEL);
+        }
+        return server.getPlayerManager().isOperator(target);
+    }
+
+    /**
+     * Выданные наказания одного действия и позиция доставки
+     */
+    private static final class Job {
+        private final UUID adminId;
+        private final int jobId;
+        private final int total;
+        private final int skipped;
+        private final List<Punishment> issued;
+        private int applied;
+        private int reverted;
+
+        private Job(UUID adminId, int jobId, int total, int skipped, List<Punishment> issued) {
+            this.adminId = adminId;
+            this.jobId = jobId;
+            this.total = total;
+            this.skipped = skipped;
+            this.issued = issued;
+        }
+
+        private boolean hasNext() {
+            return applied < issued.size();
+        }
+
+        private Punishment next() {
+            return issued.get(applied++);
+        }
+
+        /**
+         * ID еще не доставленных банов и мутов
+         */
+        private long[] pendingLasting() {
+            return issued.subList(applied, issued.size()).stream()
+                    .filter(punishment -> punishment.getType().isLasting())
+                    .mapToLong(Punishment::getId)
+                    .toArray();
+        }
+
+        private BulkProgress progress(BulkProgress.State state) {
+            return new BulkProgress(jobId, state, total, skipped, applied, reverted);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.UUID;
+
+/**
+ * Слушатель хода массовых действий
+ * Вызывается в потоке сервера
+ */
+@FunctionalInterface
+public interface BulkListener {
+    /**
+     * @param adminId администратор, запустивший действие
+     */
+    void onProgress(UUID adminId, BulkProgress progress);
+}
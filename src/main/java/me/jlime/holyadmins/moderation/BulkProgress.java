@@ -0,0 +1,42 @@
+package me.jlime.holyadmins.moderation;
+
+/**
+ * Ход массового действия
+ * @param jobId    номер действия, выбранный панелью администратора
+ * @param total    сколько целей было запрошено
+ * @param skipped  сколько целей отсеяно проверкой (администраторы, уже наказанные, не в сети для кика)
+ * @param done     сколько наказаний применено к игрокам (для снятия - сколько снято)
+ * @param reverted сколько еще не примененных банов и мутов снято при отмене
+ */
+public record BulkProgress(int jobId, State state, int total, int skipped, int done, int reverted) {
+    /**
+     * Действие отклонено целиком: сервис не запущен, слишком много целей или номер уже занят
+     */
+    public static BulkProgress rejected(int jobId, int total) {
+        return new BulkProgress(jobId, State.REJECTED, total, total, 0, 0);
+    }
+
+    /**
+     * Сколько наказаний выдано и ждет или ждало применения
+     */
+    public int issued() {
+        return total - skipped;
+    }
+
+    /**
+     * Завершено ли действие
+     */
+    public boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    /**
+     * Код передается по сети, поэтому порядок менять нельзя
+     */
+    public enum State {
+        RUNNING,
+        DONE,
+        CANCELLED,
+        REJECTED
+    }
+}
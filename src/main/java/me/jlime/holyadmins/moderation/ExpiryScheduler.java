@@ -0,0 +1,78 @@
+package me.jlime.holyadmins.moderation;
+
+import me.jlime.holyadmins.Holyadmins;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Планировщик окончания сроков банов и мутов
+ *
+ * Отдельный поток раз в шаг колеса сроков (PunishmentStore.EXPIRY_RESOLUTION_MILLIS) сдвигает колесо
+ * и снимает истекшие наказания пачками по BATCH_SIZE, отпуская блокировку хранилища между пачками,
+ * так что массовое истечение не задерживает ни тик сервера, ни запросы панели.
+ * Сроки записаны в журнале вместе с наказаниями: после перезапуска колесо заполняется при чтении журнала,
+ * а истекшие за время простоя наказания в него уже не попадают
+ */
+public final class ExpiryScheduler {
+    private static final int BATCH_SIZE = 4096;
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(PunishmentStore.EXPIRY_RESOLUTION_MILLIS);
+    private static final long STOP_TIMEOUT_SECONDS = 5L;
+
+    private final ModerationService service;
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public ExpiryScheduler(ModerationService service) {
+        this.service = Objects.requireNonNull(service, "Moderation service cannot be null");
+    }
+
+    /**
+     * Запускает поток планировщика; сервис модерации к этому моменту уже должен быть запущен
+     */
+    public void start() {
+        if (worker != null) return;
+
+        running = true;
+        Thread thread = new Thread(this::run, "HolyAdmins Expiry");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * Останавливает поток планировщика
+     */
+    public void stop() {
+        Thread thread = worker;
+        if (thread == null) return;
+
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(STOP_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            Holyadmins.LOGGER.warn("Expiry scheduler did not finish in {}s", STOP_TIMEOUT_SECONDS);
+        }
+        worker = null;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                int expired;
+                do {
+                    expired = service.expireDue(now, BATCH_SIZE);
+                } while (expired == BATCH_SIZE && running);
+            } catch (RuntimeException e) {
+                Holyadmins.LOGGER.error("Failed to lift expired punishments", e);
+            }
+            LockSupport.parkNanos(this, INTERVAL_NANOS);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо сроков
+ *
+ * LEVELS уровней по SLOTS ячеек; ячейка уровня l покрывает SLOTS^l шагов по resolutionMillis.
+ * Запись кладется на уровень старшего бита, которым ее шаг отличается от текущего, в ячейку по битам этого уровня.
+ * Когда текущий шаг доходит до границы уровня, ячейка уровня перекладывается на нижние, ячейка нижнего
+ * уровня целиком переносится в список наступивших. Ячейки - кольцевые списки с заглушкой, поэтому добавление
+ * и отмена - O(1), а сдвиг на шаг - O(LEVELS) плюс перекладываемые записи (каждая не больше LEVELS раз).
+ * Сроки дальше 2^(6 * LEVELS) шагов лежат в отдельном списке и перекладываются при переполнении верхнего уровня.
+ * Не потокобезопасно: используется под блокировкой владельца
+ */
+final class ExpiryWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    // Сдвиг больше этого быстрее пересобрать, чем проходить по шагам
+    private static final long MAX_STEPS = 1L << 16;
+
+    private final long resolutionMillis;
+    private final Node<T>[] slots;
+    private final Node<T> overflow = new Node<>(null, 0L);
+    private final Node<T> due = new Node<>(null, 0L);
+    private final Map<T, Node<T>> nodes = new HashMap<>();
+    private long currentTick;
+    private int dueCount;
+
+    /**
+     * @param resolutionMillis шаг колеса
+     * @param now              текущий момент (мс)
+     */
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(long resolutionMillis, long now) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive");
+        }
+        this.resolutionMillis = resolutionMillis;
+        this.slots = new Node[LEVELS * SLOTS];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Node<>(null, 0L);
+        }
+        this.currentTick = tickOf(now);
+    }
+
+    /**
+     * Ставит запись на момент expiresAt; повторная постановка переносит срок
+     */
+    void schedule(T value, long expiresAt) {
+        Node<T> node = nodes.get(value);
+        if (node != null) {
+            node.unlink();
+            if (node.tick <= currentTick) {
+                dueCount--;
+            }
+        } else {
+            node = new Node<>(value, 0L);
+            nodes.put(value, node);
+        }
+        // Срок округляется вверх: запись не срабатывает раньше времени
+        node.tick = Math.floorDiv(expiresAt + resolutionMillis - 1, resolutionMillis);
+        place(node);
+    }
+
+    /**
+     * Снимает запись
+     * @return была ли запись в колесе
+     */
+    boolean cancel(T value) {
+        Node<T> node = nodes.remove(value);
+        if (node == null) return false;
+        node.unlink();
+        if (node.tick <= currentTick) {
+            dueCount--;
+        }
+        return true;
+    }
+
+    /**
+     * Сдвигает колесо к моменту now: записи со сроком не позже now переходят в список наступивших
+     */
+    void advance(long now) {
+        long target = tickOf(now);
+        if (target <= currentTick) return;
+        if (nodes.size() == dueCount) {
+            currentTick = target;
+            return;
+        }
+        // Простой сервера или скачок часов: одна пересборка вместо прохода по каждому шагу
+        if (target - currentTick > MAX_STEPS) {
+            rebuild(target);
+            return;
+        }
+        while (currentTick < target) {
+            long tick = ++currentTick;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) continue;
+                if (level == LEVELS - 1 && (tick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+                    cascade(overflow);
+                }
+                cascade(slot(level, tick));
+            }
+            Node<T> slot = slot(0, tick);
+            if (slot.next != slot) {
+                dueCount += slot.spliceTo(due);
+            }
+            if (nodes.size() == dueCount) {
+                currentTick = target;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Забирает до limit наступивших записей
+     * @return сколько записей передано
+     */
+    int pollDue(int limit, Consumer<T> consumer) {
+        int polled = 0;
+        while (polled < limit && due.next != due) {
+            Node<T> node = due.next;
+            node.unlink();
+            nodes.remove(node.value);
+            dueCount--;
+            polled++;
+            consumer.accept(node.value);
+        }
+        return polled;
+    }
+
+    /**
+     * Есть ли наступившие записи
+     */
+    boolean hasDue() {
+        return dueCount > 0;
+    }
+
+    /**
+     * Количество записей в колесе
+     */
+    int size() {
+        return nodes.size();
+    }
+
+    private void place(Node<T> node) {
+        if (node.tick <= currentTick) {
+            due.linkBefore(node);
+            dueCount++;
+            return;
+        }
+        int level = (63 - Long.numberOfLeadingZeros(node.tick ^ currentTick)) / SLOT_BITS;
+        if (level >= LEVELS) {
+            overflow.linkBefore(node);
+            return;
+        }
+        slot(level, node.tick).linkBefore(node);
+    }
+
+    private void cascade(Node<T> slot) {
+        Node<T> node = slot.next;
+        // Ячейка отцепляется целиком, записи раскладываются заново относительно текущего шага
+        slot.next = slot;
+        slot.prev = slot;
+        while (node != slot) {
+            Node<T> next = node.next;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void rebuild(long target) {
+        currentTick = target;
+        for (Node<T> slot : slots) {
+            cascade(slot);
+        }
+        cascade(overflow);
+    }
+
+    private Node<T> slot(int level, long tick) {
+        return slots[level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+    }
+
+    private long tickOf(long millis) {
+        return Math.floorDiv(millis, resolutionMillis);
+    }
+
+    /**
+     * Элемент кольцевого списка; заглушка ячейки - элемент без значения
+     */
+    private static final class Node<T> {
+        private final T value;
+        private long tick;
+        private Node<T> prev = this;
+        private Node<T> next = this;
+
+        private Node(T value, long tick) {
+            this.value = value;
+            this.tick = tick;
+        }
+
+        void linkBefore(Node<T> node) {
+            node.prev = prev;
+            node.next = this;
+            prev.next = node;
+            prev = node;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+
+        /**
+         * Переносит все элементы этой заглушки в конец другой
+         * @return количество перенесенных элементов
+         */
+        int spliceTo(Node<T> target) {
+            int count = 0;
+            for (Node<T> node = next; node != this; node = node.next) {
+                count++;
+            }
+            Node<T> first = next;
+            Node<T> last = prev;
+            first.prev = target.prev;
+            target.prev.next = first;
+            last.next = target;
+            target.prev = last;
+            next = this;
+            prev = this;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package me.jlime.holyadmins.moderation;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.storage.AuditLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Журнал модерации на диске поверх AuditLog
+ * Каждое изменение наказаний и жалоб записывается одной записью; при запуске журнал
+ * проигрывается в хранилища. Он же служит источником раздела "Логи"
+ *
+ * Формат записи: код вида (byte), ID наказания или жалобы (long), далее поля вида.
+ * Заголовок сегмента: счетчики ID наказаний и жалоб на момент его создания
+ */
+final class ModerationJournal implements AutoCloseable {
+    // Неактивные наказания и закрытые жалобы старше этого срока удаляются при уплотнении
+    static final long RETENTION_MILLIS = TimeUnit.DAYS.toMillis(90);
+    private static final int MAX_STRING_CHARS = 1024;
+
+    private final AuditLog log;
+
+    private ModerationJournal(AuditLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Открывает журнал в каталоге
+     * @param punishmentIds текущий счетчик ID наказаний (для заголовков новых сегментов)
+     * @param reportIds     текущий счетчик ID жалоб
+     */
+    static ModerationJournal open(Path directory, LongSupplier punishmentIds, LongSupplier reportIds) throws IOException {
+        AuditLog log = AuditLog.open(directory, AuditLog.DEFAULT_SEGMENT_SIZE, () -> ByteBuffer.allocate(16)
+                .putLong(punishmentIds.getAsLong())
+                .putLong(reportIds.getAsLong())
+                .array());
+        return new ModerationJournal(log);
+    }
+
+    /**
+     * Восстанавливает хранилища из журнала
+     * @param entries получает каждую прочитанную запись в виде строки журнала (для поискового индекса)
+     * @return наибольшие выданные ID с учетом удаленных при уплотнении записей
+     */
+    Watermark replay(PunishmentStore punishments, ReportStore reports, Consumer<AuditEntry> entries, long now) {
+        long[] watermark = new long[2];
+        int[] skipped = new int[1];
+        log.replay(new AuditLog.RecordVisitor() {
+            @Override
+            public void header(ByteBuffer header) {
+                if (header.remaining() >= 16) {
+                    watermark[0] = Math.max(watermark[0], header.getLong(0));
+                    watermark[1] = Math.max(watermark[1], header.getLong(8));
+                }
+            }
+
+            @Override
+            public void visit(long seq, ByteBuffer payload) {
+                try {
+                    entries.accept(describe(seq, payload.duplicate()));
+                    apply(payload, punishments, reports, now);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    skipped[0]++;
+                }
+            }
+        });
+
+        if (skipped[0] > 0) {
+            Holyadmins.LOGGER.warn("Skipped {} unreadable moderation journal records", skipped[0]);
+        }
+        // Истекшие за время простоя наказания не попадают в индексы действующих
+        punishments.expireDue(now);
+        return new Watermark(Math.max(watermark[0], punishments.maxId()), Math.max(watermark[1], reports.maxId()));
+    }
+
+    private static void apply(ByteBuffer in, PunishmentStore punishments, ReportStore reports, long now) {
+        AuditEntry.Kind kind = AuditEntry.Kind.byCode(in.get());
+        long id = in.getLong();
+        switch (kind) {
+            case PUNISHMENT_ISSUED -> {
+                PunishmentType type = PunishmentType.byCode(in.get());
+                UUID targetId = readUuid(in);
+                String targetName = readString(in);
+                UUID issuerId = readUuid(in);
+                String issuerName = readString(in);
+                String reason = readString(in);
+                long createdAt = in.getLong();
+                long expiresAt = in.getLong();
+                punishments.add(new Punishment(id, type, targetId, targetName, issuerId, issuerName, reason,
+                        createdAt, expiresAt), now);
+            }
+            case PUNISHMENT_REVOKED -> {
+                long revokedAt = in.getLong();
+                UUID revokedBy = readUuid(in);
+                punishments.revoke(id, revokedAt, revokedBy);
+            }
+            case REPORT_CREATED -> {
+                UUID reporterId = readUuid(in);
+                String reporterName = readString(in);
+                UUID targetId = readUuid(in);
+                String targetName = readString(in);
+                String reason = readString(in);
+                long createdAt = in.getLong();
+                reports.add(new Report(id, reporterId, reporterName, targetId, targetName, reason, createdAt));
+            }
+            case REPORT_CLOSED -> {
+                Report.Status status = Report.Status.byCode(in.get());
+                UUID handledBy = readUuid(in);
+                reports.close(id, status, handledBy);
+            }
+        }
+    }
+
+    /**
+     * Записывает выдачу наказания
+     */
+    AuditEntry issued(Punishment punishment) {
+        return append(issuedRecord(punishment));
+    }
+
+    /**
+     * Записывает выдачу пачки наказаний одним элементом очереди записи, с одним сбросом на диск
+     */
+    List<AuditEntry> issuedAll(List<Punishment> punishments) {
+        List<RecordWriter> writers = new ArrayList<>(punishments.size());
+        for (Punishment punishment : punishments) {
+            writers.add(issuedRecord(punishment));
+        }
+        return appendAll(writers);
+    }
+
+    /**
+     * Записывает снятие наказания
+     */
+    AuditEntry revoked(Punishment punishment, String revokerName) {
+        return append(revokedRecord(punishment, revokerName));
+    }
+
+    /**
+     * Записывает снятие пачки наказаний одним элементом очереди записи
+     */
+    List<AuditEntry> revokedAll(List<Punishment> punishments, String revokerName) {
+        List<RecordWriter> writers = new ArrayList<>(punishments.size());
+        for (Punishment punishment : punishments) {
+            writers.add(revokedRecord(punishment, revokerName));
+        }
+        return appendAll(writers);
+    }
+
+    private static RecordWriter issuedRecord(Punishment punishment) {
+        return out -> {
+            out.writeByte(AuditEntry.Kind.PUNISHMENT_ISSUED.getCode());
+            out.writeLong(punishment.getId());
+            out.writeByte(punishment.getType().getCode());
+            writeUuid(out, punishment.getTargetId());
+            writeString(out, punishment.getTargetName());
+            writeUuid(out, punishment.getIssuerId());
+            writeString(out, punishment.getIssuerName());
+            writeString(out, punishment.getReason());
+            out.writeLong(punishment.getCreatedAt());
+            out.writeLong(punishment.getExpiresAt());
+        };
+    }
+
+    private static RecordWriter revokedRecord(Punishment punishment, String revokerName) {
+        return out -> {
+            out.writeByte(AuditEntry.Kind.PUNISHMENT_REVOKED.getCode());
+            out.writeLong(punishment.getId());
+            out.writeLong(punishment.getRevokedAt());
+            writeUuid(out, punishment.getRevokedBy());
+            writeString(out, revokerName);
+            out.writeByte(punishment.getType().getCode());
+            writeUuid(out, punishment.getTargetId());
+            writeString(out, punishment.getTargetName());
+        };
+    }
+
+    /**
+     * Записывает новую жалобу
+     */
+    AuditEntry reportCreated(Report report) {
+        return append(out -> {
+            out.writeByte(AuditEntry.Kind.REPORT_CREATED.getCode());
+            out.writeLong(report.getId());
+            writeUuid(out, report.getReporterId());
+            writeString(out, report.getReporterName());
+            writeUuid(out, report.getTargetId());
+            writeString(out, report.getTargetName());
+            writeString(out, report.getReason());
+            out.writeLong(report.getCreatedAt());
+        });
+    }
+
+    /**
+     * Записывает закрытие жалобы
+     */
+    AuditEntry reportClosed(Report report, String handlerName, long closedAt) {
+        return append(out -> {
+            out.writeByte(AuditEntry.Kind.REPORT_CLOSED.getCode());
+            out.writeLong(report.getId());
+            out.writeByte(report.getStatus().getCode());
+            writeUuid(out, report.getHandledBy());
+            writeString(out, handlerName);
+            out.writeLong(closedAt);
+            writeUuid(out, report.getTargetId());
+            writeString(out, report.getTargetName());
+        });
+    }
+
+    /**
+     * Последние записи журнала, читаются с конца файла
+     */
+    Page<AuditEntry> tail(long cursor, int limit) {
+        List<AuditLog.LogRecord> records = log.tail(cursor, limit + 1);
+        List<AuditEntry> entries = new ArrayList<>(Math.min(records.size(), limit));
+        for (int i = 0; i < records.size() && i < limit; i++) {
+            AuditLog.LogRecord record = records.get(i);
+            try {
+                entries.add(describe(record.seq(), ByteBuffer.wrap(record.payload())));
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                Holyadmins.LOGGER.debug("Unreadable moderation journal record {}", record.seq());
+            }
+        }
+        long nextCursor = records.size() > limit ? records.get(limit - 1).seq() : Page.NO_CURSOR;
+        return new Page<>(entries, nextCursor);
+    }
+
+    /**
+     * Запускает уплотнение закрытых сегментов в фоне
+     */
+    void compact(PunishmentStore punishments, ReportStore reports) {
+        log.compact((seq, payload) -> {
+            if (payload.remaining() < 9) return true;
+
+            int kind = payload.get(0);
+            long id = payload.getLong(1);
+            long now = System.currentTimeMillis();
+            long cutoff = now - RETENTION_MILLIS;
+            if (kind == AuditEntry.Kind.PUNISHMENT_ISSUED.getCode() || kind == AuditEntry.Kind.PUNISHMENT_REVOKED.getCode()) {
+                Punishment punishment = punishments.get(id);
+                return punishment != null && (punishment.isActive(now) || punishment.getCreatedAt() >= cutoff);
+            }
+            if (kind == AuditEntry.Kind.REPORT_CREATED.getCode() || kind == AuditEntry.Kind.REPORT_CLOSED.getCode()) {
+                Report report = reports.get(id);
+                return report != null && (report.isOpen() || report.getCreatedAt() >= cutoff);
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Разбирает запись в строку журнала для панели
+     */
+    private static AuditEntry describe(long seq, ByteBuffer in) {
+        AuditEntry.Kind kind = AuditEntry.Kind.byCode(in.get());
+        long id = in.getLong();
+        switch (kind) {
+            case PUNISHMENT_ISSUED -> {
+                PunishmentType type = PunishmentType.byCode(in.get());
+                UUID targetId = readUuid(in);
+                String targetName = readString(in);
+                readUuid(in);
+                String issuerName = readString(in);
+                String reason = readString(in);
+                long createdAt = in.getLong();
+                long expiresAt = in.getLong();
+
+                String text = type.getDisplayName() + " #" + id;
+                if (type.isLasting()) {
+                    text += expiresAt == Punishment.PERMANENT ? " навсегда" : " на " + formatDuration(expiresAt - createdAt);
+                }
+                return new AuditEntry(seq, kind, createdAt, targetId, targetName, issuerName, text + ": " + reason);
+            }
+            case PUNISHMENT_REVOKED -> {
+                long revokedAt = in.getLong();
+                readUuid(in);
+                String revokerName = readString(in);
+                PunishmentType type = PunishmentType.byCode(in.get());
+                UUID targetId = readUuid(in);
+                String targetName = readString(in);
+                return new AuditEntry(seq, kind, revokedAt, targetId, targetName, revokerName,
+                        "снят " + type.getDisplayName() + " #" + id);
+            }
+            case REPORT_CREATED -> {
+                readUuid(in);
+                String reporterName = readString(in);
+                UUID targetId = readUuid(in);
+                String targetName = readString(in);
+                String reason = readString(in);
+                long createdAt = in.getLong();
+                return new AuditEntry(seq, kind, createdAt, targetId, targetName, reporterName,
+                        "жалоба #" + id + ": " + reason);
+            }
+            case REPORT_CLOSED -> {
+                Report.Status status = Report.Status.byCode(in.get());
+                readUuid(in);
+                String handlerName = readString(in);
+                long closedAt = in.getLong();
+                UUID targetId = readUuid(in);
+                String targetName = readString(in);
+                String result = status == Report.Status.RESOLVED ? "принята" : "отклонена";
+                return new AuditEntry(seq, kind, closedAt, targetId, targetName, handlerName,
+                        "жалоба #" + id + " " + result);
+            }
+            default -> throw new IllegalArgumentException("Unknown audit entry kind: " + kind);
+        }
+    }
+
+    private AuditEntry append(RecordWriter writer) {
+        byte[] payload = encode(writer);
+        long seq = log.append(payload);
+        return describe(seq, ByteBuffer.wrap(payload));
+    }
+
+    private List<AuditEntry> appendAll(List<RecordWriter> writers) {
+        if (writers.isEmpty()) return List.of();
+
+        List<byte[]> payloads = new ArrayList<>(writers.size());
+        for (RecordWriter writer : writers) {
+            payloads.add(encode(writer));
+        }
+        long seq = log.appendAll(payloads);
+        List<AuditEntry> entries = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            entries.add(describe(seq + i, ByteBuffer.wrap(payloads.get(i))));
+        }
+        return entries;
+    }
+
+    private static byte[] encode(RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        UUID value = uuid != null ? uuid : ModerationService.CONSOLE_ID;
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        String trimmed = value.length() > MAX_STRING_CHARS ? value.substring(0, MAX_STRING_CHARS) : value;
+        byte[] bytes = trimmed.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String formatDuration(long millis) {
+        long minutes = Math.max(1L, millis / 60_000L);
+        long days = minutes / (60 * 24);
+        long hours = minutes / 60 % 24;
+        minutes %= 60;
+
+        StringBuilder builder = new StringBuilder();
+        if (days > 0) builder.append(days).append("д ");
+        if (hours > 0) builder.append(hours).append("ч ");
+        if (minutes > 0 || builder.length() == 0) builder.append(minutes).append("м ");
+        return builder.substring(0, builder.length() - 1);
+    }
+
+    /**
+     * Наибольшие ID наказаний и жалоб после восстановления
+     */
+    record Watermark(long punishmentId, long reportId) {
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
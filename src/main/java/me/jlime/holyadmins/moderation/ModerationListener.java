@@ -0,0 +1,60 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.List;
+
+/**
+ * Слушатель событий модерации
+ * Вызывается в потоке, выполнившем изменение (обычно поток сервера)
+ */
+public interface ModerationListener {
+    default void onPunishmentIssued(Punishment punishment) {
+    }
+
+    default void onPunishmentRevoked(Punishment punishment) {
+    }
+
+    /**
+     * Выдана пачка наказаний одним массовым действием; по умолчанию - по одному
+     */
+    default void onPunishmentsIssued(List<Punishment> punishments) {
+        for (Punishment punishment : punishments) {
+            onPunishmentIssued(punishment);
+        }
+    }
+
+    /**
+     * Снята пачка наказаний одним массовым действием; по умолчанию - по одному
+     */
+    default void onPunishmentsRevoked(List<Punishment> punishments) {
+        for (Punishment punishment : punishments) {
+            onPunishmentRevoked(punishment);
+        }
+    }
+
+    /**
+     * Срок наказания истек; вызывается в потоке ExpiryScheduler
+     */
+    default void onPunishmentExpired(Punishment punishment) {
+    }
+
+    default void onReportCreated(Report report) {
+    }
+
+    default void onReportClosed(Report report) {
+    }
+
+    /**
+     * Запись добавлена в журнал модерации
+     */
+    default void onAuditRecorded(AuditEntry entry) {
+    }
+
+    /**
+     * Пачка записей добавлена в журнал одним массовым действием; по умолчанию - по одной
+     */
+    default void onAuditRecorded(List<AuditEntry> entries) {
+        for (AuditEntry entry : entries) {
+            onAuditRecorded(entry);
+        }
+    }
+}
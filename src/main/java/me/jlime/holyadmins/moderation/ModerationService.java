@@ -0,0 +1,414 @@
+package me.jlime.holyadmins.moderation;
+
+import com.mojang.authlib.GameProfile;
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.search.SearchIndex;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.WorldSavePath;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Серверный сервис модерации
+ * Хранит наказания и жалобы в индексированных хранилищах и отвечает на постраничные запросы панели.
+ * Изменения записываются в журнал на диске (world/holyadmins/journal), из которого хранилища восстанавливаются при запуске.
+ * Записи журнала попадают в поисковый индекс SearchIndex, он тоже строится при запуске и пополняется по ходу работы
+ */
+public final class ModerationService {
+    public static final UUID CONSOLE_ID = new UUID(0L, 0L);
+    public static final String CONSOLE_NAME = "Console";
+    public static final int ADMIN_PERMISSION_LEVEL = 3;
+
+    private static final int COMPACTION_CHECK_INTERVAL = 20;
+    private static final long COMPACTION_INTERVAL = TimeUnit.HOURS.toMillis(24);
+
+    private final List<ModerationListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong punishmentIds = new AtomicLong();
+    private final AtomicLong reportIds = new AtomicLong();
+    private volatile PunishmentStore punishments = new PunishmentStore();
+    private volatile ReportStore reports = new ReportStore();
+    private volatile ModerationJournal journal;
+    private volatile SearchIndex search = new SearchIndex();
+    private volatile MinecraftServer server;
+    private int tickCounter;
+    private long nextCompaction;
+
+    /**
+     * Запускает сервис для сервера; данные прошлого мира сбрасываются
+     */
+    public void start(MinecraftServer server) {
+        this.server = server;
+        this.punishments = new PunishmentStore();
+        this.reports = new ReportStore();
+        this.search = new SearchIndex();
+        this.punishmentIds.set(0L);
+        this.reportIds.set(0L);
+        this.tickCounter = 0;
+        openJournal(server.getSavePath(WorldSavePath.ROOT).resolve(Holyadmins.MOD_ID).resolve("journal").normalize());
+    }
+
+    /**
+     * Открывает журнал и восстанавливает из него хранилища.
+     * Если журнал недоступен, сервис работает без сохранения на диск
+     */
+    private void openJournal(Path directory) {
+        try {
+            journal = ModerationJournal.open(directory, punishmentIds::get, reportIds::get);
+        } catch (IOException | RuntimeException e) {
+            Holyadmins.LOGGER.error("Failed to open moderation journal in {}, punishments will not be saved", directory, e);
+            journal = null;
+            return;
+        }
+
+        long started = System.nanoTime();
+        ModerationJournal.Watermark watermark = journal.replay(punishments, reports, search::add, System.currentTimeMillis());
+        punishmentIds.set(watermark.punishmentId());
+        reportIds.set(watermark.reportId());
+        Holyadmins.LOGGER.info("Loaded {} punishments, {} reports and {} log entries from journal in {} ms",
+                punishments.size(), reports.size(), search.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        journal.compact(punishments, reports);
+        nextCompaction = System.currentTimeMillis() + COMPACTION_INTERVAL;
+    }
+
+    /**
+     * Останавливает сервис
+     */
+    public void stop() {
+        this.server = null;
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Работает ли сервис
+     */
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Сервер, для которого запущен сервис, или null
+     */
+    public MinecraftServer getServer() {
+        return server;
+    }
+
+    /**
+     * Вызывается в конце каждого тика сервера; сроки наказаний снимает ExpiryScheduler в своем потоке
+     */
+    public void tick() {
+        if (server == null || ++tickCounter < COMPACTION_CHECK_INTERVAL) return;
+        tickCounter = 0;
+
+        long now = System.currentTimeMillis();
+        if (journal != null && now >= nextCompaction) {
+            nextCompaction = now + COMPACTION_INTERVAL;
+            journal.compact(punishments, reports);
+        }
+    }
+
+    /**
+     * Снимает не больше limit наказаний, истекших к моменту now, и оповещает слушателей (поток ExpiryScheduler)
+     * @return сколько наказаний истекло
+     */
+    int expireDue(long now, int limit) {
+        if (server == null) return 0;
+
+        List<Punishment> expired = punishments.expireDue(now, limit);
+        for (Punishment punishment : expired) {
+            for (ModerationListener listener : listeners) {
+                listener.onPunishmentExpired(punishment);
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Выдает наказание и применяет его к игроку, если он в сети
+     * @param durationMillis длительность для бана и мута, 0 - навсегда
+     */
+    public Punishment issue(PunishmentType type, UUID targetId, String targetName,
+                            UUID issuerId, String issuerName, String reason, long durationMillis) {
+        Objects.requireNonNull(type, "Type cannot be null");
+        if (durationMillis < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative");
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAt = durationMillis == 0 ? Punishment.PERMANENT : now + durationMillis;
+        Punishment punishment = new Punishment(punishmentIds.incrementAndGet(), type, targetId, targetName,
+                issuerId, issuerName, reason, now, expiresAt);
+
+        punishments.add(punishment, now);
+        if (journal != null) {
+            recorded(journal.issued(punishment));
+        }
+        apply(punishment);
+
+        for (ModerationListener listener : listeners) {
+            listener.onPunishmentIssued(punishment);
+        }
+        return punishment;
+    }
+
+    /**
+     * Снимает действующее наказание
+     * @return снятое наказание или null
+     */
+    public Punishment revoke(long punishmentId, UUID revokedBy) {
+        Punishment punishment = punishments.revoke(punishmentId, System.currentTimeMillis(), revokedBy);
+        if (punishment != null) {
+            if (journal != null) {
+                recorded(journal.revoked(punishment, nameOf(revokedBy)));
+            }
+            for (ModerationListener listener : listeners) {
+                listener.onPunishmentRevoked(punishment);
+            }
+        }
+        return punishment;
+    }
+
+    /**
+     * Выдает наказание типа каждому игроку из targets одной пачкой: в хранилище под одной блокировкой,
+     * в журнал одним элементом очереди записи. К игрокам в сети наказания не применяются -
+     * это делает BulkActionPipeline порциями по тикам
+     * @param durationMillis длительность для бана и мута, 0 - навсегда
+     */
+    List<Punishment> issueAll(PunishmentType type, List<GameProfile> targets,
+                              UUID issuerId, String issuerName, String reason, long durationMillis) {
+        Objects.requireNonNull(type, "Type cannot be null");
+        if (durationMillis < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative");
+        }
+        if (targets.isEmpty()) return List.of();
+
+        long now = System.currentTimeMillis();
+        long expiresAt = durationMillis == 0 ? Punishment.PERMANENT : now + durationMillis;
+        List<Punishment> issued = new ArrayList<>(targets.size());
+        for (GameProfile target : targets) {
+            issued.add(new Punishment(punishmentIds.incrementAndGet(), type, target.getId(), target.getName(),
+                    issuerId, issuerName, reason, now, expiresAt));
+        }
+
+        punishments.addAll(issued, now);
+        if (journal != null) {
+            recordedAll(journal.issuedAll(issued));
+        }
+        for (ModerationListener listener : listeners) {
+            listener.onPunishmentsIssued(issued);
+        }
+        return issued;
+    }
+
+    /**
+     * Снимает пачку действующих наказаний одной записью в журнал
+     * @return снятые наказания; не найденные и уже не действующие пропускаются
+     */
+    List<Punishment> revokeAll(long[] punishmentIds, UUID revokedBy) {
+        List<Punishment> revoked = punishments.revokeAll(punishmentIds, System.currentTimeMillis(), revokedBy);
+        if (revoked.isEmpty()) return revoked;
+
+        if (journal != null) {
+            recordedAll(journal.revokedAll(revoked, nameOf(revokedBy)));
+        }
+        for (ModerationListener listener : listeners) {
+            listener.onPunishmentsRevoked(revoked);
+        }
+        return revoked;
+    }
+
+    /**
+     * Регистрирует жалобу
+     */
+    public Report report(UUID reporterId, String reporterName, UUID targetId, String targetName, String reason) {
+        Report report = new Report(reportIds.incrementAndGet(), reporterId, reporterName, targetId, targetName,
+                reason, System.currentTimeMillis());
+        reports.add(report);
+        if (journal != null) {
+            recorded(journal.reportCreated(report));
+        }
+
+        for (ModerationListener listener : listeners) {
+            listener.onReportCreated(report);
+        }
+        return report;
+    }
+
+    /**
+     * Закрывает жалобу
+     * @return закрытая жалоба или null
+     */
+    public Report closeReport(long reportId, Report.Status status, UUID handledBy) {
+        Report report = reports.close(reportId, status, handledBy);
+        if (report != null) {
+            if (journal != null) {
+                recorded(journal.reportClosed(report, nameOf(handledBy), System.currentTimeMillis()));
+            }
+            for (ModerationListener listener : listeners) {
+                listener.onReportClosed(report);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Постраничный запрос наказаний
+     */
+    public Page<Punishment> queryPunishments(PunishmentQuery query) {
+        return punishments.query(query, System.currentTimeMillis());
+    }
+
+    /**
+     * Постраничный запрос жалоб
+     */
+    public Page<Report> queryReports(ReportQuery query) {
+        return reports.query(query);
+    }
+
+    /**
+     * Постраничное чтение журнала от новых записей к старым; курсор - номер записи
+     */
+    public Page<AuditEntry> queryLog(long cursor, int limit) {
+        if (journal == null) return Page.empty();
+        return journal.tail(cursor, Math.max(1, Math.min(PunishmentQuery.MAX_LIMIT, limit)));
+    }
+
+    /**
+     * Действующий бан игрока или null
+     */
+    public Punishment getActiveBan(UUID playerId) {
+        return punishments.getActive(playerId, PunishmentType.BAN, System.currentTimeMillis());
+    }
+
+    /**
+     * Действующий мут игрока или null
+     */
+    public Punishment getActiveMute(UUID playerId) {
+        return punishments.getActive(playerId, PunishmentType.MUTE, System.currentTimeMillis());
+    }
+
+    /**
+     * Поиск по журналу и никам игроков
+     */
+    public SearchIndex getSearchIndex() {
+        return search;
+    }
+
+    public PunishmentStore getPunishmentStore() {
+        return punishments;
+    }
+
+    public ReportStore getReportStore() {
+        return reports;
+    }
+
+    /**
+     * Добавляет слушателя событий модерации
+     */
+    public void addListener(ModerationListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    /**
+     * Удаляет слушателя событий модерации
+     */
+    public void removeListener(ModerationListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void recorded(AuditEntry entry) {
+        search.add(entry);
+        for (ModerationListener listener : listeners) {
+            listener.onAuditRecorded(entry);
+        }
+    }
+
+    private void recordedAll(List<AuditEntry> entries) {
+        for (AuditEntry entry : entries) {
+            search.add(entry);
+        }
+        for (ModerationListener listener : listeners) {
+            listener.onAuditRecorded(entries);
+        }
+    }
+
+    /**
+     * Имя игрока для журнала: из списка игроков в сети или кэша профилей
+     */
+    private String nameOf(UUID playerId) {
+        if (playerId == null || CONSOLE_ID.equals(playerId)) return CONSOLE_NAME;
+
+        MinecraftServer server = this.server;
+        if (server != null) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerId);
+            if (player != null) {
+                return player.getEntityName();
+            }
+            if (server.getUserCache() != null) {
+                return server.getUserCache().getByUuid(playerId).map(GameProfile::getName).orElse(playerId.toString());
+            }
+        }
+        return playerId.toString();
+    }
+
+    /**
+     * Применяет наказание к игроку в сети (в потоке сервера)
+     */
+    void apply(Punishment punishment) {
+        MinecraftServer server = this.server;
+        if (server == null) return;
+
+        if (!server.isOnThread()) {
+            server.execute(() -> apply(punishment));
+            return;
+        }
+
+        ServerPlayerEntity player = server.getPlayerManager().getPlayer(punishment.getTargetId());
+        if (player == null) return;
+
+        switch (punishment.getType()) {
+            case BAN -> player.networkHandler.disconnect(banMessage(punishment));
+            case KICK -> player.networkHandler.disconnect(Text.literal("Вы были кикнуты: " + punishment.getReason()));
+            case MUTE -> player.sendMessage(Text.literal("Вы получили мут: " + punishment.getReason())
+                    .formatted(Formatting.RED));
+            case WARN -> player.sendMessage(Text.literal("Предупреждение: " + punishment.getReason())
+                    .formatted(Formatting.GOLD));
+        }
+
+        Holyadmins.LOGGER.info("{} {} issued {} to {}: {}", punishment.getIssuerName(), punishment.getIssuerId(),
+                punishment.getType(), punishment.getTargetName(), punishment.getReason());
+    }
+
+    /**
+     * Сообщение для забаненного игрока
+     */
+    public static Text banMessage(Punishment punishment) {
+        String until = punishment.isPermanent() ? "навсегда" : "до " + new Date(punishment.getExpiresAt());
+        return Text.literal("Вы забанены " + until + ": " + punishment.getReason());
+    }
+
+    /**
+     * Ответ игроку с мутом на попытку написать в чат
+     */
+    public static Text muteMessage(Punishment punishment) {
+        String until = punishment.isPermanent() ? "навсегда" : "до " + new Date(punishment.getExpiresAt());
+        return Text.literal("Вы не можете писать в чат: мут " + until + ": " + punishment.getReason())
+                .formatted(Formatting.RED);
+    }
+}
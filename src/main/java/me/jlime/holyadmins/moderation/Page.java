@@ -0,0 +1,46 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Страница результатов запроса с курсором продолжения
+ *
+ * @param <T> тип элементов
+ */
+public final class Page<T> {
+    public static final long NO_CURSOR = -1L;
+
+    private final List<T> items;
+    private final long nextCursor;
+
+    public Page(List<T> items, long nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Пустая страница без продолжения
+     */
+    public static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), NO_CURSOR);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Курсор следующей страницы или NO_CURSOR, если это последняя
+     */
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Есть ли следующая страница
+     */
+    public boolean hasMore() {
+        return nextCursor != NO_CURSOR;
+    }
+}
@@ -0,0 +1,156 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Запись о наказании
+ * Неизменяема, кроме отметки о снятии
+ */
+public final class Punishment {
+    public static final long PERMANENT = 0L;
+
+    private final long id;
+    private final PunishmentType type;
+    private final UUID targetId;
+    private final String targetName;
+    private final UUID issuerId;
+    private final String issuerName;
+    private final String reason;
+    private final long createdAt;
+    private final long expiresAt;
+    private volatile long revokedAt;
+    private volatile UUID revokedBy;
+
+    /**
+     * Создает запись о наказании
+     * @param expiresAt момент окончания (мс) или PERMANENT
+     */
+    public Punishment(long id, PunishmentType type, UUID targetId, String targetName,
+                      UUID issuerId, String issuerName, String reason, long createdAt, long expiresAt) {
+        this.id = id;
+        this.type = Objects.requireNonNull(type, "Type cannot be null");
+        this.targetId = Objects.requireNonNull(targetId, "Target cannot be null");
+        this.targetName = Objects.requireNonNull(targetName, "Target name cannot be null");
+        this.issuerId = Objects.requireNonNull(issuerId, "Issuer cannot be null");
+        this.issuerName = Objects.requireNonNull(issuerName, "Issuer name cannot be null");
+        this.reason = Objects.requireNonNull(reason, "Reason cannot be null");
+        this.createdAt = createdAt;
+        this.expiresAt = type.isLasting() ? expiresAt : createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public PunishmentType getType() {
+        return type;
+    }
+
+    public UUID getTargetId() {
+        return targetId;
+    }
+
+    public String getTargetName() {
+        return targetName;
+    }
+
+    public UUID getIssuerId() {
+        return issuerId;
+    }
+
+    public String getIssuerName() {
+        return issuerName;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Момент окончания или PERMANENT
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Бессрочное ли наказание
+     */
+    public boolean isPermanent() {
+        return type.isLasting() && expiresAt == PERMANENT;
+    }
+
+    /**
+     * Временное ли наказание (бан или мут со сроком)
+     */
+    public boolean isTemporary() {
+        return type.isLasting() && expiresAt != PERMANENT;
+    }
+
+    /**
+     * Момент снятия или 0
+     */
+    public long getRevokedAt() {
+        return revokedAt;
+    }
+
+    /**
+     * Кто снял наказание или null
+     */
+    public UUID getRevokedBy() {
+        return revokedBy;
+    }
+
+    /**
+     * Снято ли наказание вручную
+     */
+    public boolean isRevoked() {
+        return revokedAt != 0L;
+    }
+
+    /**
+     * Действует ли наказание в заданный момент
+     */
+    public boolean isActive(long now) {
+        if (!type.isLasting() || isRevoked()) return false;
+        return expiresAt == PERMANENT || expiresAt > now;
+    }
+
+    /**
+     * Отмечает снятие наказания (вызывается только хранилищем)
+     */
+    void markRevoked(long revokedAt, UUID revokedBy) {
+        this.revokedBy = revokedBy;
+        this.revokedAt = revokedAt;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return id == ((Punishment) obj).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "Punishment{" +
+                "id=" + id +
+                ", type=" + type +
+                ", target='" + targetName + '\'' +
+                ", issuer='" + issuerName + '\'' +
+                ", reason='" + reason + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", revokedAt=" + revokedAt +
+                '}';
+    }
+}
@@ -0,0 +1,142 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Фильтр постраничного запроса наказаний
+ * Результаты идут от новых к старым; курсор - ID, с которого (не включая) продолжить
+ */
+public final class PunishmentQuery {
+    public static final long FIRST_PAGE = Long.MAX_VALUE;
+    public static final int MAX_LIMIT = 500;
+
+    private final PunishmentType type;
+    private final UUID targetId;
+    private final UUID issuerId;
+    private final boolean activeOnly;
+    private final long cursor;
+    private final int limit;
+
+    private PunishmentQuery(Builder builder) {
+        this.type = builder.type;
+        this.targetId = builder.targetId;
+        this.issuerId = builder.issuerId;
+        this.activeOnly = builder.activeOnly;
+        this.cursor = builder.cursor;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Тип наказания или null для всех типов
+     */
+    public PunishmentType getType() {
+        return type;
+    }
+
+    /**
+     * Игрок-цель или null
+     */
+    public UUID getTargetId() {
+        return targetId;
+    }
+
+    /**
+     * Выдавший администратор или null
+     */
+    public UUID getIssuerId() {
+        return issuerId;
+    }
+
+    /**
+     * Только действующие наказания
+     */
+    public boolean isActiveOnly() {
+        return activeOnly;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Проверяет оставшиеся условия для записи из выбранного индекса
+     */
+    boolean matches(Punishment punishment, long now) {
+        if (type != null && punishment.getType() != type) return false;
+        if (targetId != null && !punishment.getTargetId().equals(targetId)) return false;
+        if (issuerId != null && !punishment.getIssuerId().equals(issuerId)) return false;
+        return !activeOnly || punishment.isActive(now);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        PunishmentQuery that = (PunishmentQuery) obj;
+        return activeOnly == that.activeOnly && cursor == that.cursor && limit == that.limit
+                && type == that.type && Objects.equals(targetId, that.targetId) && Objects.equals(issuerId, that.issuerId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, targetId, issuerId, activeOnly, cursor, limit);
+    }
+
+    /**
+     * Построитель запроса
+     */
+    public static final class Builder {
+        private PunishmentType type;
+        private UUID targetId;
+        private UUID issuerId;
+        private boolean activeOnly;
+        private long cursor = FIRST_PAGE;
+        private int limit = 50;
+
+        private Builder() {
+        }
+
+        public Builder type(PunishmentType type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder target(UUID targetId) {
+            this.targetId = targetId;
+            return this;
+        }
+
+        public Builder issuer(UUID issuerId) {
+            this.issuerId = issuerId;
+            return this;
+        }
+
+        public Builder activeOnly(boolean activeOnly) {
+            this.activeOnly = activeOnly;
+            return this;
+        }
+
+        public Builder cursor(long cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            this.limit = Math.max(1, Math.min(MAX_LIMIT, limit));
+            return this;
+        }
+
+        public PunishmentQuery build() {
+            return new PunishmentQuery(this);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Индексированное хранилище наказаний в памяти
+ * Основной индекс по ID и вторичные: по цели, по выдавшему, по типу, все действующие и действующие по типу.
+ * Запрос выбирает самый узкий индекс и идет от курсора, не просматривая всю историю.
+ * Сроки действующих временных наказаний стоят в колесе ExpiryWheel с шагом EXPIRY_RESOLUTION_MILLIS
+ */
+public final class PunishmentStore {
+    public static final long EXPIRY_RESOLUTION_MILLIS = 1000L;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, Punishment> byId = new TreeMap<>();
+    private final Map<UUID, NavigableMap<Long, Punishment>> byTarget = new HashMap<>();
+    private final Map<UUID, NavigableMap<Long, Punishment>> byIssuer = new HashMap<>();
+    private final Map<PunishmentType, NavigableMap<Long, Punishment>> byType = new EnumMap<>(PunishmentType.class);
+    private final NavigableMap<Long, Punishment> activeById = new TreeMap<>();
+    private final Map<PunishmentType, NavigableMap<Long, Punishment>> activeByType = new EnumMap<>(PunishmentType.class);
+    // Последнее действующее наказание каждого типа для игрока (проверки бана и мута)
+    private final Map<PunishmentType, Map<UUID, Punishment>> activeByTarget = new EnumMap<>(PunishmentType.class);
+    private final ExpiryWheel<Punishment> expiries = new ExpiryWheel<>(EXPIRY_RESOLUTION_MILLIS, System.currentTimeMillis());
+
+    public PunishmentStore() {
+        for (PunishmentType type : PunishmentType.values()) {
+            byType.put(type, new TreeMap<>());
+            activeByType.put(type, new TreeMap<>());
+            activeByTarget.put(type, new HashMap<>());
+        }
+    }
+
+    /**
+     * Добавляет наказание во все индексы
+     */
+    public void add(Punishment punishment, long now) {
+        lock.writeLock().lock();
+        try {
+            index(punishment, now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет пачку наказаний под одной блокировкой записи
+     */
+    public void addAll(List<Punishment> punishments, long now) {
+        lock.writeLock().lock();
+        try {
+            for (Punishment punishment : punishments) {
+                index(punishment, now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Снимает наказание вручную
+     * @return снятое наказание или null, если оно не найдено или уже не действует
+     */
+    public Punishment revoke(long id, long now, UUID revokedBy) {
+        lock.writeLock().lock();
+        try {
+            return revokeLocked(id, now, revokedBy);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Снимает пачку наказаний под одной блокировкой записи
+     * @return снятые наказания; не найденные и уже не действующие пропускаются
+     */
+    public List<Punishment> revokeAll(long[] ids, long now, UUID revokedBy) {
+        List<Punishment> revoked = new ArrayList<>(ids.length);
+        lock.writeLock().lock();
+        try {
+            for (long id : ids) {
+                Punishment punishment = revokeLocked(id, now, revokedBy);
+                if (punishment != null) {
+                    revoked.add(punishment);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return revoked;
+    }
+
+    private void index(Punishment punishment, long now) {
+        Long id = punishment.getId();
+        byId.put(id, punishment);
+        byTarget.computeIfAbsent(punishment.getTargetId(), key -> new TreeMap<>()).put(id, punishment);
+        byIssuer.computeIfAbsent(punishment.getIssuerId(), key -> new TreeMap<>()).put(id, punishment);
+        byType.get(punishment.getType()).put(id, punishment);
+
+        if (punishment.isActive(now)) {
+            activeById.put(id, punishment);
+            activeByType.get(punishment.getType()).put(id, punishment);
+            activeByTarget.get(punishment.getType()).merge(punishment.getTargetId(), punishment,
+                    (current, added) -> added.getId() > current.getId() ? added : current);
+            if (punishment.isTemporary()) {
+                expiries.schedule(punishment, punishment.getExpiresAt());
+            }
+        }
+    }
+
+    private Punishment revokeLocked(long id, long now, UUID revokedBy) {
+        Punishment punishment = byId.get(id);
+        if (punishment == null || !punishment.isActive(now)) return null;
+
+        punishment.markRevoked(now, revokedBy);
+        deactivate(punishment);
+        return punishment;
+    }
+
+    /**
+     * Убирает из индексов действующих все наказания, срок которых истек к моменту now
+     * @return истекшие наказания
+     */
+    public List<Punishment> expireDue(long now) {
+        return expireDue(now, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Убирает из индексов действующих не больше limit наказаний, срок которых истек к моменту now.
+     * Остальные истекшие остаются в очереди до следующего вызова
+     * @return истекшие наказания
+     */
+    public List<Punishment> expireDue(long now, int limit) {
+        lock.writeLock().lock();
+        try {
+            expiries.advance(now);
+            if (!expiries.hasDue()) return Collections.emptyList();
+
+            List<Punishment> expired = new ArrayList<>();
+            expiries.pollDue(limit, punishment -> {
+                deactivate(punishment);
+                expired.add(punishment);
+            });
+            return expired;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Количество действующих временных наказаний, ожидающих окончания срока
+     */
+    public int scheduledExpiries() {
+        lock.readLock().lock();
+        try {
+            return expiries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Действующее наказание заданного типа для игрока или null
+     */
+    public Punishment getActive(UUID targetId, PunishmentType type, long now) {
+        lock.readLock().lock();
+        try {
+            Punishment punishment = activeByTarget.get(type).get(targetId);
+            return punishment != null && punishment.isActive(now) ? punishment : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Игроки из targets, у которых есть действующее наказание типа; проверяются под одной блокировкой чтения
+     */
+    public Set<UUID> getActiveTargets(Collection<UUID> targets, PunishmentType type, long now) {
+        Set<UUID> active = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            Map<UUID, Punishment> byTargetOfType = activeByTarget.get(type);
+            for (UUID targetId : targets) {
+                Punishment punishment = byTargetOfType.get(targetId);
+                if (punishment != null && punishment.isActive(now)) {
+                    active.add(targetId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return active;
+    }
+
+    /**
+     * Передает все действующие наказания типа (под блокировкой чтения, consumer не должен менять хранилище)
+     * @return количество действующих наказаний
+     */
+    public int forEachActive(PunishmentType type, Consumer<Punishment> consumer) {
+        lock.readLock().lock();
+        try {
+            Collection<Punishment> active = activeByType.get(type).values();
+            active.forEach(consumer);
+            return active.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество наказаний игрока за все время
+     */
+    public int countForTarget(UUID targetId) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Punishment> punishments = byTarget.get(targetId);
+            return punishments != null ? punishments.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Наказание по ID или null
+     */
+    public Punishment get(long id) {
+        lock.readLock().lock();
+        try {
+            return byId.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество записей
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Наибольший ID в хранилище или 0
+     */
+    public long maxId() {
+        lock.readLock().lock();
+        try {
+            return byId.isEmpty() ? 0L : byId.lastKey();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Выполняет постраничный запрос
+     */
+    public Page<Punishment> query(PunishmentQuery query, long now) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Punishment> index = selectIndex(query);
+            if (index == null || index.isEmpty()) return Page.empty();
+
+            Collection<Punishment> candidates = index.headMap(query.getCursor(), false).descendingMap().values();
+            List<Punishment> items = new ArrayList<>(Math.min(query.getLimit(), 64));
+            long nextCursor = Page.NO_CURSOR;
+
+            for (Punishment punishment : candidates) {
+                if (!query.matches(punishment, now)) continue;
+                if (items.size() == query.getLimit()) {
+                    nextCursor = items.get(items.size() - 1).getId();
+                    break;
+                }
+                items.add(punishment);
+            }
+
+            return new Page<>(items, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Выбирает самый узкий индекс для запроса
+     */
+    private NavigableMap<Long, Punishment> selectIndex(PunishmentQuery query) {
+        if (query.getTargetId() != null) {
+            return byTarget.get(query.getTargetId());
+        }
+        if (query.getIssuerId() != null) {
+            return byIssuer.get(query.getIssuerId());
+        }
+        if (query.getType() != null) {
+            return query.isActiveOnly() ? activeByType.get(query.getType()) : byType.get(query.getType());
+        }
+        return query.isActiveOnly() ? activeById : byId;
+    }
+
+    /**
+     * Убирает наказание из индексов действующих (под блокировкой записи)
+     */
+    private void deactivate(Punishment punishment) {
+        activeById.remove(punishment.getId());
+        activeByType.get(punishment.getType()).remove(punishment.getId());
+        expiries.cancel(punishment);
+
+        // Если у игрока осталось другое действующее наказание того же типа, оно становится текущим
+        Map<UUID, Punishment> active = activeByTarget.get(punishment.getType());
+        if (active.remove(punishment.getTargetId(), punishment)) {
+            for (Punishment other : byTarget.get(punishment.getTargetId()).descendingMap().values()) {
+                if (other.getType() == punishment.getType() && activeByType.get(other.getType()).containsKey(other.getId())) {
+                    active.put(other.getTargetId(), other);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package me.jlime.holyadmins.moderation;
+
+/**
+ * Тип наказания
+ * Код используется в бинарных форматах (сеть, журнал), поэтому порядок менять нельзя
+ */
+public enum PunishmentType {
+    BAN(0, "bans", "бан", true),
+    KICK(1, "kicks", "кик", false),
+    MUTE(2, "mutes", "мут", true),
+    WARN(3, "warns", "предупреждение", false);
+
+    private static final PunishmentType[] BY_CODE = values();
+
+    private final int code;
+    private final String sectionId;
+    private final String displayName;
+    private final boolean lasting;
+
+    PunishmentType(int code, String sectionId, String displayName, boolean lasting) {
+        this.code = code;
+        this.sectionId = sectionId;
+        this.displayName = displayName;
+        this.lasting = lasting;
+    }
+
+    /**
+     * Код типа для бинарных форматов
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * ID раздела панели, в котором отображается тип
+     */
+    public String getSectionId() {
+        return sectionId;
+    }
+
+    /**
+     * Название для журнала и сообщений
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Действует ли наказание во времени (бан, мут), а не однократно (кик, предупреждение)
+     */
+    public boolean isLasting() {
+        return lasting;
+    }
+
+    /**
+     * Получает тип по коду
+     */
+    public static PunishmentType byCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown punishment type code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Получает тип по ID раздела панели или null
+     */
+    public static PunishmentType bySectionId(String sectionId) {
+        for (PunishmentType type : BY_CODE) {
+            if (type.sectionId.equals(sectionId)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
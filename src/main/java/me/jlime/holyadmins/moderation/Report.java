@@ -0,0 +1,131 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Жалоба игрока на другого игрока
+ */
+public final class Report {
+    private final long id;
+    private final UUID reporterId;
+    private final String reporterName;
+    private final UUID targetId;
+    private final String targetName;
+    private final String reason;
+    private final long createdAt;
+    private volatile Status status;
+    private volatile UUID handledBy;
+
+    public Report(long id, UUID reporterId, String reporterName, UUID targetId, String targetName,
+                  String reason, long createdAt) {
+        this.id = id;
+        this.reporterId = Objects.requireNonNull(reporterId, "Reporter cannot be null");
+        this.reporterName = Objects.requireNonNull(reporterName, "Reporter name cannot be null");
+        this.targetId = Objects.requireNonNull(targetId, "Target cannot be null");
+        this.targetName = Objects.requireNonNull(targetName, "Target name cannot be null");
+        this.reason = Objects.requireNonNull(reason, "Reason cannot be null");
+        this.createdAt = createdAt;
+        this.status = Status.OPEN;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public UUID getReporterId() {
+        return reporterId;
+    }
+
+    public String getReporterName() {
+        return reporterName;
+    }
+
+    public UUID getTargetId() {
+        return targetId;
+    }
+
+    public String getTargetName() {
+        return targetName;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Администратор, закрывший жалобу, или null
+     */
+    public UUID getHandledBy() {
+        return handledBy;
+    }
+
+    /**
+     * Открыта ли жалоба
+     */
+    public boolean isOpen() {
+        return status == Status.OPEN;
+    }
+
+    /**
+     * Меняет статус (вызывается только хранилищем)
+     */
+    void setStatus(Status status, UUID handledBy) {
+        this.handledBy = handledBy;
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return id == ((Report) obj).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "Report{" +
+                "id=" + id +
+                ", reporter='" + reporterName + '\'' +
+                ", target='" + targetName + '\'' +
+                ", reason='" + reason + '\'' +
+                ", status=" + status +
+                '}';
+    }
+
+    /**
+     * Статус жалобы
+     * Код используется в бинарных форматах, порядок менять нельзя
+     */
+    public enum Status {
+        OPEN,
+        RESOLVED,
+        REJECTED;
+
+        private static final Status[] BY_CODE = values();
+
+        public int getCode() {
+            return ordinal();
+        }
+
+        public static Status byCode(int code) {
+            if (code < 0 || code >= BY_CODE.length) {
+                throw new IllegalArgumentException("Unknown report status code: " + code);
+            }
+            return BY_CODE[code];
+        }
+    }
+}
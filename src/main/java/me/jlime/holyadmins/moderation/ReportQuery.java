@@ -0,0 +1,116 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Фильтр постраничного запроса жалоб
+ * Результаты идут от новых к старым; курсор - ID, с которого (не включая) продолжить
+ */
+public final class ReportQuery {
+    public static final long FIRST_PAGE = Long.MAX_VALUE;
+
+    private final UUID targetId;
+    private final UUID reporterId;
+    private final boolean openOnly;
+    private final long cursor;
+    private final int limit;
+
+    private ReportQuery(Builder builder) {
+        this.targetId = builder.targetId;
+        this.reporterId = builder.reporterId;
+        this.openOnly = builder.openOnly;
+        this.cursor = builder.cursor;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public UUID getTargetId() {
+        return targetId;
+    }
+
+    public UUID getReporterId() {
+        return reporterId;
+    }
+
+    public boolean isOpenOnly() {
+        return openOnly;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Проверяет оставшиеся условия для записи из выбранного индекса
+     */
+    boolean matches(Report report) {
+        if (targetId != null && !report.getTargetId().equals(targetId)) return false;
+        if (reporterId != null && !report.getReporterId().equals(reporterId)) return false;
+        return !openOnly || report.isOpen();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        ReportQuery that = (ReportQuery) obj;
+        return openOnly == that.openOnly && cursor == that.cursor && limit == that.limit
+                && Objects.equals(targetId, that.targetId) && Objects.equals(reporterId, that.reporterId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(targetId, reporterId, openOnly, cursor, limit);
+    }
+
+    /**
+     * Построитель запроса
+     */
+    public static final class Builder {
+        private UUID targetId;
+        private UUID reporterId;
+        private boolean openOnly;
+        private long cursor = FIRST_PAGE;
+        private int limit = 50;
+
+        private Builder() {
+        }
+
+        public Builder target(UUID targetId) {
+            this.targetId = targetId;
+            return this;
+        }
+
+        public Builder reporter(UUID reporterId) {
+            this.reporterId = reporterId;
+            return this;
+        }
+
+        public Builder openOnly(boolean openOnly) {
+            this.openOnly = openOnly;
+            return this;
+        }
+
+        public Builder cursor(long cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            this.limit = Math.max(1, Math.min(PunishmentQuery.MAX_LIMIT, limit));
+            return this;
+        }
+
+        public ReportQuery build() {
+            return new ReportQuery(this);
+        }
+    }
+}
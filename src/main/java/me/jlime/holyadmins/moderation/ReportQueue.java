@@ -0,0 +1,385 @@
+package me.jlime.holyadmins.moderation;
+
+import me.jlime.holyadmins.config.ServerSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очередь разбора жалоб
+ *
+ * Жалобы на игрока, поданные в пределах окна от предыдущей, сводятся в одну заявку ReportTicket.
+ * Оценка заявки растет с числом разных авторов, историей нарушений игрока и временем ожидания.
+ * Ожидание прибавляет всем заявкам одинаково, поэтому порядок от времени не зависит и задается
+ * постоянным ключом (оценка без ожидания минус время первой жалобы): заявки лежат в ConcurrentSkipListMap
+ * по убыванию ключа, и верх очереди читается без блокировок. Изменения идут под блокировкой this
+ * и копятся до drainChanges, так что при наплыве жалоб панель получает одну дельту за тик.
+ * Заявку берет в работу один администратор: закрепление - compareAndSet, общий для всех версий заявки
+ */
+public final class ReportQueue implements ModerationListener {
+    // Очки оценки; одна минута ожидания - одно очко
+    private static final long AGE_STEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int REPORTER_POINTS = 10;
+    private static final int DUPLICATE_POINTS = 1;
+    private static final int HISTORY_POINTS = 5;
+    private static final int MAX_HISTORY = 10;
+    private static final int MAX_POINTS = 100_000;
+    // Ключ: (очки * шаг - время первой жалобы + сдвиг) << TIE_BITS | младшие биты ID заявки
+    private static final long KEY_OFFSET = 1L << 42;
+    private static final int TIE_BITS = 16;
+    private static final long TIE_MASK = (1L << TIE_BITS) - 1;
+    private static final long[] NO_KEYS = new long[0];
+
+    private final ModerationService moderation;
+    private final ConcurrentSkipListMap<Long, ReportTicket> byPriority = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final List<ReportQueueListener> listeners = new CopyOnWriteArrayList<>();
+    // Под блокировкой this
+    private final Map<Long, ReportTicket> byId = new HashMap<>();
+    private final Map<UUID, Long> latestByTarget = new HashMap<>();
+    private final Map<Long, Long> ticketOfReport = new HashMap<>();
+    private final Map<Long, Members> membersOf = new HashMap<>();
+    private final Set<Long> changedTickets = new LinkedHashSet<>();
+    private long[] removedKeys = new long[16];
+    private int removedCount;
+
+    public ReportQueue(ModerationService moderation) {
+        this.moderation = Objects.requireNonNull(moderation, "Moderation service cannot be null");
+    }
+
+    /**
+     * Подписывается на события модерации
+     */
+    public void register() {
+        moderation.addListener(this);
+    }
+
+    /**
+     * Собирает очередь из открытых жалоб журнала; вызывается после запуска сервиса модерации
+     */
+    public void start() {
+        List<Report> open = new ArrayList<>();
+        moderation.getReportStore().forEachOpen(open::add);
+        synchronized (this) {
+            byPriority.clear();
+            byId.clear();
+            latestByTarget.clear();
+            ticketOfReport.clear();
+            membersOf.clear();
+            changedTickets.clear();
+            removedCount = 0;
+            for (Report report : open) {
+                add(report);
+            }
+            changedTickets.clear();
+            removedCount = 0;
+        }
+    }
+
+    public void addListener(ReportQueueListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ReportQueueListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Заявки от самой важной; обход без блокировки, слабо согласован с изменениями
+     */
+    public Collection<ReportTicket> getTickets() {
+        return byPriority.values();
+    }
+
+    /**
+     * Ключ заявки на месте count в очереди (с единицы) или Long.MIN_VALUE, если заявок меньше
+     */
+    public long keyAt(int count) {
+        int seen = 0;
+        for (Long key : byPriority.keySet()) {
+            if (++seen == count) return key;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    public int size() {
+        return byPriority.size();
+    }
+
+    /**
+     * Закрепляет заявку за администратором
+     * @return закрепление после вызова (свое или другого администратора) или null, если заявка уже закрыта
+     *         или сменила ключ
+     */
+    public ReportTicket.Claim claim(long priorityKey, UUID adminId, String adminName) {
+        ReportTicket ticket = byPriority.get(priorityKey);
+        if (ticket == null) return null;
+
+        ReportTicket.Claim wanted = new ReportTicket.Claim(adminId, adminName, System.currentTimeMillis());
+        ReportTicket.Claim result = ticket.claim(wanted);
+        if (result == wanted) {
+            changed(ticket.getId());
+        }
+        return result;
+    }
+
+    /**
+     * Снимает закрепление администратора с заявки
+     * @return было ли снято
+     */
+    public boolean release(long priorityKey, UUID adminId) {
+        ReportTicket ticket = byPriority.get(priorityKey);
+        if (ticket == null || !ticket.release(adminId)) return false;
+        changed(ticket.getId());
+        return true;
+    }
+
+    /**
+     * Закрывает все жалобы заявки; заявку, взятую другим администратором, закрыть нельзя.
+     * Свободная заявка сперва закрепляется за закрывающим, поэтому другой администратор не возьмет ее
+     * между проверкой и закрытием; затем заявка уходит из очереди под блокировкой, и только потом
+     * закрываются ее жалобы
+     * @return закрытая заявка или null
+     */
+    public ReportTicket close(long priorityKey, Report.Status status, UUID adminId, String adminName) {
+        ReportTicket ticket = byPriority.get(priorityKey);
+        if (ticket == null) return null;
+        ReportTicket.Claim claim = ticket.claim(new ReportTicket.Claim(adminId, adminName, System.currentTimeMillis()));
+        if (claim == null || !claim.adminId().equals(adminId)) return null;
+
+        ReportTicket current;
+        long[] reportIds;
+        synchronized (this) {
+            // Заявка могла смениться новой версией с другим ключом или уже уйти из очереди
+            current = byId.get(ticket.getId());
+            if (current == null) return null;
+            Members members = membersOf.get(current.getId());
+            reportIds = members.reportIds.stream().mapToLong(Long::longValue).toArray();
+            for (long reportId : reportIds) {
+                ticketOfReport.remove(reportId);
+            }
+            remove(current);
+        }
+        notifyListeners();
+
+        // Жалобы уже отвязаны от заявки, onReportClosed их пропустит
+        for (long reportId : reportIds) {
+            moderation.closeReport(reportId, status, adminId);
+        }
+        return current;
+    }
+
+    /**
+     * Забирает накопленные изменения: ключи, которых больше нет в очереди, и текущие версии измененных заявок
+     */
+    public synchronized Changes drainChanges() {
+        if (removedCount == 0 && changedTickets.isEmpty()) return Changes.EMPTY;
+
+        long[] removed = removedCount > 0 ? Arrays.copyOf(removedKeys, removedCount) : NO_KEYS;
+        List<ReportTicket> updated = new ArrayList<>(changedTickets.size());
+        for (Long id : changedTickets) {
+            ReportTicket ticket = byId.get(id);
+            if (ticket != null) {
+                updated.add(ticket);
+            }
+        }
+        removedCount = 0;
+        changedTickets.clear();
+        return new Changes(removed, updated);
+    }
+
+    @Override
+    public void onReportCreated(Report report) {
+        synchronized (this) {
+            add(report);
+        }
+        notifyListeners();
+    }
+
+    @Override
+    public void onReportClosed(Report report) {
+        synchronized (this) {
+            Long ticketId = ticketOfReport.remove(report.getId());
+            ReportTicket ticket = ticketId != null ? byId.get(ticketId) : null;
+            if (ticket == null) return;
+
+            Members members = membersOf.get(ticketId);
+            members.reportIds.remove(report.getId());
+            if (members.reportIds.isEmpty()) {
+                remove(ticket);
+            } else {
+                replace(ticket, ticket.withoutReport());
+            }
+        }
+        notifyListeners();
+    }
+
+    @Override
+    public void onPunishmentIssued(Punishment punishment) {
+        synchronized (this) {
+            Long ticketId = latestByTarget.get(punishment.getTargetId());
+            ReportTicket ticket = ticketId != null ? byId.get(ticketId) : null;
+            if (ticket == null) return;
+            replace(ticket, ticket.withHistory(history(ticket.getTargetId())));
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Сводит жалобу с последней заявкой на того же игрока или открывает новую
+     */
+    private void add(Report report) {
+        long window = TimeUnit.SECONDS.toMillis(ServerSettings.get().getReportDuplicateWindowSeconds());
+        Long latestId = latestByTarget.get(report.getTargetId());
+        ReportTicket latest = latestId != null ? byId.get(latestId) : null;
+
+        ReportTicket ticket;
+        Members members;
+        if (latest != null && report.getCreatedAt() - latest.getLastReportAt() <= window) {
+            // История игрока от новой открытой жалобы не меняется
+            members = membersOf.get(latest.getId());
+            boolean newReporter = members.reporters.add(report.getReporterId());
+            ticket = replace(latest, latest.withReport(report, newReporter));
+        } else {
+            ticket = insert(ReportTicket.open(report, history(report.getTargetId())));
+            latestByTarget.put(ticket.getTargetId(), ticket.getId());
+            members = new Members();
+            members.reporters.add(report.getReporterId());
+            membersOf.put(ticket.getId(), members);
+        }
+        members.reportIds.add(report.getId());
+        ticketOfReport.put(report.getId(), ticket.getId());
+    }
+
+    private ReportTicket insert(ReportTicket ticket) {
+        ReportTicket keyed = ticket.withKey(freeKey(ticket));
+        byPriority.put(keyed.getPriorityKey(), keyed);
+        byId.put(keyed.getId(), keyed);
+        changedTickets.add(keyed.getId());
+        return keyed;
+    }
+
+    /**
+     * Ставит новую версию заявки; при смене ключа новая версия появляется раньше, чем исчезает старая
+     */
+    private ReportTicket replace(ReportTicket current, ReportTicket updated) {
+        long key = current.getPriorityKey();
+        if (priorityKey(updated) >> TIE_BITS != key >> TIE_BITS) {
+            key = freeKey(updated);
+        }
+        ReportTicket keyed = updated.withKey(key);
+        byPriority.put(key, keyed);
+        if (key != current.getPriorityKey()) {
+            byPriority.remove(current.getPriorityKey(), current);
+            removedKey(current.getPriorityKey());
+        }
+        byId.put(keyed.getId(), keyed);
+        changedTickets.add(keyed.getId());
+        return keyed;
+    }
+
+    private void remove(ReportTicket ticket) {
+        byPriority.remove(ticket.getPriorityKey(), ticket);
+        byId.remove(ticket.getId());
+        membersOf.remove(ticket.getId());
+        latestByTarget.remove(ticket.getTargetId(), ticket.getId());
+        changedTickets.remove(ticket.getId());
+        removedKey(ticket.getPriorityKey());
+    }
+
+    /**
+     * Ключ без совпадений с другими заявками; совпадение возможно только у заявок
+     * с одинаковой оценкой и первой жалобой в одну миллисекунду
+     */
+    private long freeKey(ReportTicket ticket) {
+        long key = priorityKey(ticket);
+        while (byPriority.containsKey(key)) {
+            key--;
+        }
+        return key;
+    }
+
+    private void removedKey(long key) {
+        if (removedCount == removedKeys.length) {
+            removedKeys = Arrays.copyOf(removedKeys, removedCount * 2);
+        }
+        removedKeys[removedCount++] = key;
+    }
+
+    private void changed(long ticketId) {
+        synchronized (this) {
+            if (!byId.containsKey(ticketId)) return;
+            changedTickets.add(ticketId);
+        }
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        for (ReportQueueListener listener : listeners) {
+            listener.onQueueChanged();
+        }
+    }
+
+    /**
+     * Наказания и закрытые жалобы игрока
+     */
+    private int history(UUID targetId) {
+        return moderation.getPunishmentStore().countForTarget(targetId)
+                + moderation.getReportStore().countClosedForTarget(targetId);
+    }
+
+    /**
+     * Оценка заявки без учета ожидания
+     */
+    static int points(ReportTicket ticket) {
+        long points = (long) ticket.getReporterCount() * REPORTER_POINTS
+                + (long) (ticket.getReportCount() - ticket.getReporterCount()) * DUPLICATE_POINTS
+                + (long) Math.min(ticket.getHistory(), MAX_HISTORY) * HISTORY_POINTS;
+        return (int) Math.min(points, MAX_POINTS);
+    }
+
+    /**
+     * Оценка заявки на момент now: очки плюс минуты ожидания
+     */
+    public static long score(ReportTicket ticket, long now) {
+        return points(ticket) + Math.max(0L, now - ticket.getFirstReportAt()) / AGE_STEP_MILLIS;
+    }
+
+    private static long priorityKey(ReportTicket ticket) {
+        long rank = points(ticket) * AGE_STEP_MILLIS - ticket.getFirstReportAt() + KEY_OFFSET;
+        return rank << TIE_BITS | (ticket.getId() & TIE_MASK);
+    }
+
+    /**
+     * Открытые жалобы заявки и все ее авторы
+     */
+    private static final class Members {
+        final Set<Long> reportIds = new LinkedHashSet<>();
+        final Set<UUID> reporters = new HashSet<>();
+    }
+
+    /**
+     * Изменения очереди с прошлого drainChanges
+     * @param removedKeys ключи, которых больше нет в очереди
+     * @param updated     новые и измененные заявки
+     */
+    public record Changes(long[] removedKeys, List<ReportTicket> updated) {
+        static final Changes EMPTY = new Changes(NO_KEYS, List.of());
+
+        public boolean isEmpty() {
+            return removedKeys.length == 0 && updated.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package me.jlime.holyadmins.moderation;
+
+/**
+ * Слушатель очереди разбора жалоб
+ * Вызывается в потоке, изменившем очередь; изменения забираются через ReportQueue.drainChanges
+ */
+public interface ReportQueueListener {
+    void onQueueChanged();
+}
@@ -0,0 +1,185 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Индексированное хранилище жалоб в памяти
+ * Индексы: по ID, по цели, по автору и открытые жалобы
+ */
+public final class ReportStore {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, Report> byId = new TreeMap<>();
+    private final Map<UUID, NavigableMap<Long, Report>> byTarget = new HashMap<>();
+    private final Map<UUID, NavigableMap<Long, Report>> byReporter = new HashMap<>();
+    private final NavigableMap<Long, Report> open = new TreeMap<>();
+
+    /**
+     * Добавляет жалобу во все индексы
+     */
+    public void add(Report report) {
+        lock.writeLock().lock();
+        try {
+            Long id = report.getId();
+            byId.put(id, report);
+            byTarget.computeIfAbsent(report.getTargetId(), key -> new TreeMap<>()).put(id, report);
+            byReporter.computeIfAbsent(report.getReporterId(), key -> new TreeMap<>()).put(id, report);
+            if (report.isOpen()) {
+                open.put(id, report);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Закрывает жалобу
+     * @return жалоба или null, если она не найдена или уже закрыта
+     */
+    public Report close(long id, Report.Status status, UUID handledBy) {
+        if (status == Report.Status.OPEN) {
+            throw new IllegalArgumentException("Report can only be closed with a final status");
+        }
+
+        lock.writeLock().lock();
+        try {
+            Report report = open.remove(id);
+            if (report == null) return null;
+            report.setStatus(status, handledBy);
+            return report;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Жалоба по ID или null
+     */
+    public Report get(long id) {
+        lock.readLock().lock();
+        try {
+            return byId.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество открытых жалоб
+     */
+    public int openCount() {
+        lock.readLock().lock();
+        try {
+            return open.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Передает открытые жалобы от старых к новым (под блокировкой чтения, consumer не должен менять хранилище)
+     */
+    public void forEachOpen(Consumer<Report> consumer) {
+        lock.readLock().lock();
+        try {
+            open.values().forEach(consumer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество жалоб в хранилище
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество жалоб на игрока за все время
+     */
+    public int countForTarget(UUID targetId) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Report> reports = byTarget.get(targetId);
+            return reports != null ? reports.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество закрытых жалоб на игрока
+     */
+    public int countClosedForTarget(UUID targetId) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Report> reports = byTarget.get(targetId);
+            if (reports == null) return 0;
+            int closed = 0;
+            for (Report report : reports.values()) {
+                if (!report.isOpen()) closed++;
+            }
+            return closed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Наибольший ID в хранилище или 0
+     */
+    public long maxId() {
+        lock.readLock().lock();
+        try {
+            return byId.isEmpty() ? 0L : byId.lastKey();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Выполняет постраничный запрос
+     */
+    public Page<Report> query(ReportQuery query) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Report> index;
+            if (query.getTargetId() != null) {
+                index = byTarget.get(query.getTargetId());
+            } else if (query.getReporterId() != null) {
+                index = byReporter.get(query.getReporterId());
+            } else {
+                index = query.isOpenOnly() ? open : byId;
+            }
+            if (index == null || index.isEmpty()) return Page.empty();
+
+            List<Report> items = new ArrayList<>(Math.min(query.getLimit(), 64));
+            long nextCursor = Page.NO_CURSOR;
+            for (Report report : index.headMap(query.getCursor(), false).descendingMap().values()) {
+                if (!query.matches(report)) continue;
+                if (items.size() == query.getLimit()) {
+                    nextCursor = items.get(items.size() - 1).getId();
+                    break;
+                }
+                items.add(report);
+            }
+            return new Page<>(items, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
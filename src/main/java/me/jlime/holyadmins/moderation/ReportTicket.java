@@ -0,0 +1,187 @@
+package me.jlime.holyadmins.moderation;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Заявка очереди разбора: открытые жалобы на одного игрока, поданные подряд в пределах окна
+ *
+ * Неизменяема: при новой жалобе очередь ReportQueue заменяет заявку новой с тем же ID, а сами жалобы
+ * и их авторов хранит у себя. Общая для всех версий заявки только ссылка на администратора, который ее разбирает
+ */
+public final class ReportTicket {
+    private final long id;
+    private final long priorityKey;
+    private final UUID targetId;
+    private final String targetName;
+    private final String reason;
+    private final String lastReporterName;
+    private final int reportCount;
+    private final int reporterCount;
+    private final int history;
+    private final long firstReportAt;
+    private final long lastReportAt;
+    private final AtomicReference<Claim> claim;
+
+    private ReportTicket(long id, long priorityKey, UUID targetId, String targetName, String reason,
+                         String lastReporterName, int reportCount, int reporterCount, int history,
+                         long firstReportAt, long lastReportAt, AtomicReference<Claim> claim) {
+        this.id = id;
+        this.priorityKey = priorityKey;
+        this.targetId = targetId;
+        this.targetName = targetName;
+        this.reason = reason;
+        this.lastReporterName = lastReporterName;
+        this.reportCount = reportCount;
+        this.reporterCount = reporterCount;
+        this.history = history;
+        this.firstReportAt = firstReportAt;
+        this.lastReportAt = lastReportAt;
+        this.claim = claim;
+    }
+
+    /**
+     * Новая заявка из первой жалобы; ключ назначается очередью
+     */
+    static ReportTicket open(Report report, int history) {
+        return new ReportTicket(report.getId(), 0L, report.getTargetId(), report.getTargetName(), report.getReason(),
+                report.getReporterName(), 1, 1, history, report.getCreatedAt(), report.getCreatedAt(),
+                new AtomicReference<>());
+    }
+
+    /**
+     * Заявка с добавленной жалобой
+     * @param newReporter впервые ли автор жалуется в этой заявке
+     */
+    ReportTicket withReport(Report report, boolean newReporter) {
+        return new ReportTicket(id, 0L, targetId, report.getTargetName(), report.getReason(), report.getReporterName(),
+                reportCount + 1, newReporter ? reporterCount + 1 : reporterCount, history, firstReportAt,
+                Math.max(lastReportAt, report.getCreatedAt()), claim);
+    }
+
+    /**
+     * Заявка без одной закрытой жалобы; авторы не вычитаются
+     */
+    ReportTicket withoutReport() {
+        return new ReportTicket(id, 0L, targetId, targetName, reason, lastReporterName, reportCount - 1, reporterCount,
+                history, firstReportAt, lastReportAt, claim);
+    }
+
+    ReportTicket withHistory(int history) {
+        return new ReportTicket(id, 0L, targetId, targetName, reason, lastReporterName, reportCount, reporterCount,
+                history, firstReportAt, lastReportAt, claim);
+    }
+
+    ReportTicket withKey(long priorityKey) {
+        return new ReportTicket(id, priorityKey, targetId, targetName, reason, lastReporterName, reportCount,
+                reporterCount, history, firstReportAt, lastReportAt, claim);
+    }
+
+    /**
+     * ID заявки - ID первой жалобы
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Ключ приоритета: чем больше, тем выше заявка в очереди; меняется вместе с оценкой
+     */
+    public long getPriorityKey() {
+        return priorityKey;
+    }
+
+    public UUID getTargetId() {
+        return targetId;
+    }
+
+    public String getTargetName() {
+        return targetName;
+    }
+
+    /**
+     * Причина последней жалобы
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public String getLastReporterName() {
+        return lastReporterName;
+    }
+
+    /**
+     * Количество открытых жалоб
+     */
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    /**
+     * Количество разных авторов жалоб
+     */
+    public int getReporterCount() {
+        return reporterCount;
+    }
+
+    /**
+     * Наказания и закрытые жалобы игрока до заявки
+     */
+    public int getHistory() {
+        return history;
+    }
+
+    public long getFirstReportAt() {
+        return firstReportAt;
+    }
+
+    public long getLastReportAt() {
+        return lastReportAt;
+    }
+
+    /**
+     * Администратор, разбирающий заявку, или null
+     */
+    public Claim getClaim() {
+        return claim.get();
+    }
+
+    /**
+     * Закрепляет заявку за администратором, если ее еще никто не взял
+     * @return закрепление после вызова: свое или чужое, никогда не null
+     */
+    Claim claim(Claim wanted) {
+        // Чужое закрепление могут снять между неудачной попыткой и чтением - тогда пробуем снова
+        while (true) {
+            if (claim.compareAndSet(null, wanted)) return wanted;
+            Claim current = claim.get();
+            if (current != null) return current;
+        }
+    }
+
+    /**
+     * Снимает закрепление администратора
+     * @return было ли снято
+     */
+    boolean release(UUID adminId) {
+        Claim current = claim.get();
+        return current != null && current.adminId().equals(adminId) && claim.compareAndSet(current, null);
+    }
+
+    @Override
+    public String toString() {
+        return "ReportTicket{" +
+                "id=" + id +
+                ", target='" + targetName + '\'' +
+                ", reports=" + reportCount +
+                ", reporters=" + reporterCount +
+                ", history=" + history +
+                '}';
+    }
+
+    /**
+     * Закрепление заявки за администратором
+     */
+    public record Claim(UUID adminId, String adminName, long claimedAt) {
+    }
+}
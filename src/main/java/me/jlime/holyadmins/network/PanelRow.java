@@ -0,0 +1,116 @@
+package me.jlime.holyadmins.network;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Строка таблицы панели
+ * Общая модель для игроков, наказаний и жалоб; значение полей зависит от раздела
+ */
+public final class PanelRow {
+    public static final int FLAG_ACTIVE = 1;
+    public static final int FLAG_REVOKED = 1 << 1;
+
+    private final long id;
+    private final UUID subjectId;
+    private final String subjectName;
+    private final String actorName;
+    private final String text;
+    private final long time;
+    private final long expiresAt;
+    private final int flags;
+    private final int kind;
+
+    /**
+     * @param id        ключ строки внутри раздела (ID записи, для игроков - ID сущности)
+     * @param subjectId игрок, к которому относится строка
+     * @param actorName выдавший наказание, автор жалобы или пустая строка
+     * @param text      причина, мир игрока и т.п.
+     * @param time      момент события (мс)
+     * @param expiresAt окончание наказания или 0
+     * @param flags     FLAG_ACTIVE, FLAG_REVOKED
+     * @param kind      код типа наказания или статуса жалобы
+     */
+    public PanelRow(long id, UUID subjectId, String subjectName, String actorName, String text,
+                    long time, long expiresAt, int flags, int kind) {
+        this.id = id;
+        this.subjectId = Objects.requireNonNull(subjectId, "Subject cannot be null");
+        this.subjectName = Objects.requireNonNull(subjectName, "Subject name cannot be null");
+        this.actorName = Objects.requireNonNull(actorName, "Actor name cannot be null");
+        this.text = Objects.requireNonNull(text, "Text cannot be null");
+        this.time = time;
+        this.expiresAt = expiresAt;
+        this.flags = flags;
+        this.kind = kind;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public UUID getSubjectId() {
+        return subjectId;
+    }
+
+    public String getSubjectName() {
+        return subjectName;
+    }
+
+    public String getActorName() {
+        return actorName;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public boolean isActive() {
+        return (flags & FLAG_ACTIVE) != 0;
+    }
+
+    public boolean isRevoked() {
+        return (flags & FLAG_REVOKED) != 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        PanelRow that = (PanelRow) obj;
+        return id == that.id && time == that.time && expiresAt == that.expiresAt && flags == that.flags
+                && kind == that.kind && subjectId.equals(that.subjectId) && subjectName.equals(that.subjectName)
+                && actorName.equals(that.actorName) && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "PanelRow{" +
+                "id=" + id +
+                ", subject='" + subjectName + '\'' +
+                ", actor='" + actorName + '\'' +
+                ", text='" + text + '\'' +
+                ", flags=" + flags +
+                '}';
+    }
+}
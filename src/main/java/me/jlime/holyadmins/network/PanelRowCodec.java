@@ -0,0 +1,164 @@
+package me.jlime.holyadmins.network;
+
+import net.minecraft.network.PacketByteBuf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Компактное бинарное кодирование строк панели
+ * Строки пакета собираются в словарь и передаются один раз, в строках - индексы словаря.
+ * ID и время кодируются varint-дельтами от предыдущей строки, UUID - двумя long.
+ * Строки длиннее MAX_STRING_LENGTH обрезаются при записи: причина наказания или жалобы может быть
+ * любой длины, и одна такая строка не должна ломать пакет целиком
+ */
+public final class PanelRowCodec {
+    public static final int MAX_ROWS = 1000;
+    private static final int MAX_STRING_LENGTH = 512;
+
+    /**
+     * Записывает строки в буфер
+     */
+    public static void write(PacketByteBuf buf, List<PanelRow> rows) {
+        if (rows.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many rows in one packet: " + rows.size());
+        }
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (PanelRow row : rows) {
+            intern(dictionary, strings, row.getSubjectName());
+            intern(dictionary, strings, row.getActorName());
+            intern(dictionary, strings, row.getText());
+        }
+
+        buf.writeVarInt(strings.size());
+        for (String string : strings) {
+            buf.writeString(string, MAX_STRING_LENGTH);
+        }
+
+        buf.writeVarInt(rows.size());
+        long previousId = 0L;
+        long previousTime = 0L;
+        for (PanelRow row : rows) {
+            buf.writeVarLong(zigZag(row.getId() - previousId));
+            buf.writeUuid(row.getSubjectId());
+            buf.writeVarInt(dictionary.get(row.getSubjectName()));
+            buf.writeVarInt(dictionary.get(row.getActorName()));
+            buf.writeVarInt(dictionary.get(row.getText()));
+            buf.writeVarLong(zigZag(row.getTime() - previousTime));
+            // 0 - без срока, иначе смещение от времени события + 1
+            buf.writeVarLong(row.getExpiresAt() == 0L ? 0L : zigZag(row.getExpiresAt() - row.getTime()) + 1L);
+            buf.writeVarInt(row.getFlags());
+            buf.writeVarInt(row.getKind());
+
+            previousId = row.getId();
+            previousTime = row.getTime();
+        }
+    }
+
+    /**
+     * Читает строки из буфера
+     */
+    public static List<PanelRow> read(PacketByteBuf buf) {
+        int stringCount = buf.readVarInt();
+        if (stringCount < 0 || stringCount > MAX_ROWS * 3) {
+            throw new IllegalArgumentException("Invalid dictionary size: " + stringCount);
+        }
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = buf.readString(MAX_STRING_LENGTH);
+        }
+
+        int rowCount = buf.readVarInt();
+        if (rowCount < 0 || rowCount > MAX_ROWS) {
+            throw new IllegalArgumentException("Invalid row count: " + rowCount);
+        }
+
+        List<PanelRow> rows = new ArrayList<>(rowCount);
+        long previousId = 0L;
+        long previousTime = 0L;
+        for (int i = 0; i < rowCount; i++) {
+            long id = previousId + unZigZag(buf.readVarLong());
+            UUID subjectId = buf.readUuid();
+            String subjectName = strings[buf.readVarInt()];
+            String actorName = strings[buf.readVarInt()];
+            String text = strings[buf.readVarInt()];
+            long time = previousTime + unZigZag(buf.readVarLong());
+            long encodedExpiry = buf.readVarLong();
+            long expiresAt = encodedExpiry == 0L ? 0L : time + unZigZag(encodedExpiry - 1L);
+            int flags = buf.readVarInt();
+            int kind = buf.readVarInt();
+
+            rows.add(new PanelRow(id, subjectId, subjectName, actorName, text, time, expiresAt, flags, kind));
+            previousId = id;
+            previousTime = time;
+        }
+        return rows;
+    }
+
+    /**
+     * Записывает массив ID varint-дельтами
+     */
+    public static void writeIds(PacketByteBuf buf, long[] ids) {
+        buf.writeVarInt(ids.length);
+        long previous = 0L;
+        for (long id : ids) {
+            buf.writeVarLong(zigZag(id - previous));
+            previous = id;
+        }
+    }
+
+    /**
+     * Читает массив ID
+     */
+    public static long[] readIds(PacketByteBuf buf) {
+        int count = buf.readVarInt();
+        if (count < 0 || count > MAX_ROWS) {
+            throw new IllegalArgumentException("Invalid id count: " + count);
+        }
+        long[] ids = new long[count];
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(buf.readVarLong());
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    private static void intern(Map<String, Integer> dictionary, List<String> strings, String string) {
+        if (!dictionary.containsKey(string)) {
+            dictionary.put(string, strings.size());
+            strings.add(fit(string));
+        }
+    }
+
+    /**
+     * Обрезает строку под лимит словаря, не разрывая суррогатную пару
+     */
+    private static String fit(String string) {
+        if (string.length() <= MAX_STRING_LENGTH) return string;
+
+        int end = MAX_STRING_LENGTH - 1;
+        if (Character.isHighSurrogate(string.charAt(end - 1))) {
+            end--;
+        }
+        return string.substring(0, end) + "…";
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Приватный конструктор
+    private PanelRowCodec() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
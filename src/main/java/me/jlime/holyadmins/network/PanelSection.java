@@ -0,0 +1,66 @@
+package me.jlime.holyadmins.network;
+
+/**
+ * Разделы панели, для которых сервер отдает данные
+ * Код передается по сети, поэтому порядок менять нельзя
+ */
+public enum PanelSection {
+    PLAYERS("players"),
+    BANS("bans"),
+    KICKS("kicks"),
+    MUTES("mutes"),
+    WARNS("warns"),
+    // Очередь разбора жалоб: ID строки - ключ приоритета заявки, строки упорядочены по убыванию приоритета
+    REPORTS("reports"),
+    LOGS("logs"),
+    // Результаты поиска: фильтр - текст запроса, строки упорядочены по убыванию оценки
+    SEARCH("search"),
+    // Сообщения чата, ID строки - ID сообщения
+    MESSAGES("messages"),
+    // Мультиаккаунты игрока: фильтр - UUID игрока, строки упорядочены по последнему входу
+    ALTS("alts");
+
+    private static final PanelSection[] BY_CODE = values();
+
+    private final String id;
+
+    PanelSection(String id) {
+        this.id = id;
+    }
+
+    /**
+     * ID раздела, совпадает с ID кнопки боковой панели
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Код раздела для сетевого протокола
+     */
+    public int getCode() {
+        return ordinal();
+    }
+
+    /**
+     * Получает раздел по коду
+     */
+    public static PanelSection byCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown panel section code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Получает раздел по ID кнопки или null
+     */
+    public static PanelSection byId(String id) {
+        for (PanelSection section : BY_CODE) {
+            if (section.id.equals(id)) {
+                return section;
+            }
+        }
+        return null;
+    }
+}
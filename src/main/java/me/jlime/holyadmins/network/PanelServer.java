@@ -0,0 +1,897 @@
+package me.jlime.holyadmins.network;
+
+import com.mojang.authlib.GameProfile;
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.alts.AltGraph;
+import me.jlime.holyadmins.alts.AltTracker;
+import me.jlime.holyadmins.chat.ChatCapture;
+import me.jlime.holyadmins.chat.ChatListener;
+import me.jlime.holyadmins.chat.ChatMessage;
+import me.jlime.holyadmins.concurrent.QueryExecutor;
+import me.jlime.holyadmins.config.ServerSettings;
+import me.jlime.holyadmins.metrics.LagListener;
+import me.jlime.holyadmins.metrics.LagProfiler;
+import me.jlime.holyadmins.metrics.LagReport;
+import me.jlime.holyadmins.metrics.MetricsCollector;
+import me.jlime.holyadmins.metrics.MetricsListener;
+import me.jlime.holyadmins.metrics.MetricsResolution;
+import me.jlime.holyadmins.metrics.MetricsSnapshot;
+import me.jlime.holyadmins.moderation.AuditEntry;
+import me.jlime.holyadmins.moderation.BulkActionPipeline;
+import me.jlime.holyadmins.moderation.BulkListener;
+import me.jlime.holyadmins.moderation.BulkProgress;
+import me.jlime.holyadmins.moderation.ModerationListener;
+import me.jlime.holyadmins.moderation.ModerationService;
+import me.jlime.holyadmins.moderation.Page;
+import me.jlime.holyadmins.moderation.Punishment;
+import me.jlime.holyadmins.moderation.PunishmentQuery;
+import me.jlime.holyadmins.moderation.PunishmentStore;
+import me.jlime.holyadmins.moderation.PunishmentType;
+import me.jlime.holyadmins.moderation.Report;
+import me.jlime.holyadmins.moderation.ReportQueue;
+import me.jlime.holyadmins.moderation.ReportQueueListener;
+import me.jlime.holyadmins.moderation.ReportTicket;
+import me.jlime.holyadmins.network.packet.PanelBulkC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelBulkS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelDeltaS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelLagC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelLagS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelMetricsC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelMetricsS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelPageS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelQueryC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelReportC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelStatusS2CPacket;
+import me.jlime.holyadmins.network.packet.PanelSubscribeC2SPacket;
+import me.jlime.holyadmins.network.packet.PanelTeleportC2SPacket;
+import me.jlime.holyadmins.search.SearchIndex;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.Heightmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Серверная часть протокола панели
+ * Отдает разделы постранично по курсору, а после первой страницы раздела
+ * рассылает подписанным администраторам только изменения (дельты).
+ * Состояние подписок живет в потоке сервера; запросы истории выполняются в QueryExecutor
+ */
+public final class PanelServer implements ModerationListener, ReportQueueListener, ChatListener, MetricsListener,
+        LagListener, BulkListener {
+    public static final int DEFAULT_PAGE_LIMIT = 100;
+    // Сколько записей можно просмотреть при текстовом фильтре, чтобы набрать одну страницу
+    private static final int MAX_FILTER_SCAN = 5000;
+    private static final int QUERY_QUEUE_CAPACITY = 64;
+    // Сколько заявок очереди жалоб видит администратор; дельты ниже этого места не рассылаются
+    private static final int REPORT_QUEUE_ROWS = 100;
+
+    private final ModerationService moderation;
+    private final ReportQueue reportQueue;
+    private final BulkActionPipeline bulk;
+    private final ChatCapture chat;
+    private final MetricsCollector metrics;
+    private final LagProfiler profiler;
+    private final AltTracker alts;
+    // Подписчик -> маска разделов, первая страница которых уже отправлена
+    private final Map<UUID, Integer> subscribers = new HashMap<>();
+    // Подписчик на аналитику -> шаг рядов
+    private final Map<UUID, MetricsResolution> metricsSubscribers = new HashMap<>();
+    // Подписчики на итоги профилировщика нагрузки
+    private final Set<UUID> lagSubscribers = new HashSet<>();
+    // Время входа игроков в сети для раздела игроков
+    private final Map<UUID, Long> joinTimes = new HashMap<>();
+    // Рассылка изменений очереди жалоб уже запланирована на поток сервера
+    private final AtomicBoolean reportFlushScheduled = new AtomicBoolean();
+    private MinecraftServer server;
+    private QueryExecutor queries;
+
+    public PanelServer(ModerationService moderation, ReportQueue reportQueue, BulkActionPipeline bulk, ChatCapture chat,
+                       MetricsCollector metrics, LagProfiler profiler, AltTracker alts) {
+        this.moderation = moderation;
+        this.reportQueue = reportQueue;
+        this.bulk = bulk;
+        this.chat = chat;
+        this.metrics = metrics;
+        this.profiler = profiler;
+        this.alts = alts;
+    }
+
+    /**
+     * Регистрирует обработчики пакетов и событий
+     */
+    public void register() {
+        ServerPlayNetworking.registerGlobalReceiver(PanelSubscribeC2SPacket.TYPE, this::onSubscribe);
+        ServerPlayNetworking.registerGlobalReceiver(PanelQueryC2SPacket.TYPE, this::onQuery);
+        ServerPlayNetworking.registerGlobalReceiver(PanelMetricsC2SPacket.TYPE, this::onMetricsSubscribe);
+        ServerPlayNetworking.registerGlobalReceiver(PanelLagC2SPacket.TYPE, this::onLag);
+        ServerPlayNetworking.registerGlobalReceiver(PanelTeleportC2SPacket.TYPE, this::onTeleport);
+        ServerPlayNetworking.registerGlobalReceiver(PanelReportC2SPacket.TYPE, this::onReportAction);
+        ServerPlayNetworking.registerGlobalReceiver(PanelBulkC2SPacket.TYPE, this::onBulkAction);
+
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> onJoin(handler.player));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> onDisconnect(handler.player));
+
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            this.server = server;
+            this.queries = new QueryExecutor("HolyAdmins Panel Query", QueryExecutor.defaultThreads(), QUERY_QUEUE_CAPACITY);
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            this.server = null;
+            if (queries != null) {
+                queries.shutdown();
+                queries = null;
+            }
+            subscribers.clear();
+            metricsSubscribers.clear();
+            lagSubscribers.clear();
+            joinTimes.clear();
+            reportFlushScheduled.set(false);
+        });
+
+        moderation.addListener(this);
+        reportQueue.addListener(this);
+        bulk.addListener(this);
+        chat.addListener(this);
+        metrics.addListener(this);
+        profiler.addListener(this);
+    }
+
+    private void onSubscribe(PanelSubscribeC2SPacket packet, ServerPlayerEntity player, PacketSender sender) {
+        if (!packet.subscribed()) {
+            subscribers.remove(player.getUuid());
+            metricsSubscribers.remove(player.getUuid());
+            lagSubscribers.remove(player.getUuid());
+            return;
+        }
+
+        boolean allowed = isAllowed(player);
+        if (allowed) {
+            // Повторная подписка: клиент заново запросит показываемые разделы, дельты - только по ним
+            subscribers.put(player.getUuid(), 0);
+        }
+        sender.sendPacket(new PanelStatusS2CPacket(allowed));
+    }
+
+    private void onMetricsSubscribe(PanelMetricsC2SPacket packet, ServerPlayerEntity player, PacketSender sender) {
+        if (!packet.subscribed()) {
+            metricsSubscribers.remove(player.getUuid());
+            return;
+        }
+        if (!subscribers.containsKey(player.getUuid()) || !isAllowed(player)) {
+            metricsSubscribers.remove(player.getUuid());
+            sender.sendPacket(new PanelStatusS2CPacket(false));
+            return;
+        }
+
+        // Сразу отдаем накопленные ряды, дальше - после каждой новой точки
+        metricsSubscribers.put(player.getUuid(), packet.resolution());
+        sender.sendPacket(new PanelMetricsS2CPacket(metrics.snapshot(packet.resolution())));
+    }
+
+    private void onLag(PanelLagC2SPacket packet, ServerPlayerEntity player, PacketSender sender) {
+        if (packet.action() == PanelLagC2SPacket.Action.UNSUBSCRIBE) {
+            lagSubscribers.remove(player.getUuid());
+            return;
+        }
+        if (!subscribers.containsKey(player.getUuid()) || !isAllowed(player)) {
+            lagSubscribers.remove(player.getUuid());
+            sender.sendPacket(new PanelStatusS2CPacket(false));
+            return;
+        }
+
+        switch (packet.action()) {
+            case SUBSCRIBE -> {
+                lagSubscribers.add(player.getUuid());
+                sender.sendPacket(new PanelLagS2CPacket(profiler.getReport()));
+            }
+            case ENABLE, DISABLE -> {
+                boolean enabled = packet.action() == PanelLagC2SPacket.Action.ENABLE;
+                if (ServerSettings.get().isProfilerEnabled() == enabled) return;
+                ServerSettings.get().setProfilerEnabled(enabled);
+                Holyadmins.LOGGER.info("{} {} the lag profiler", player.getEntityName(), enabled ? "enabled" : "disabled");
+                onReport(profiler.getReport());
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Телепорт к игроку из раздела нагрузки; если игрок вышел - в его самый нагруженный чанк
+     */
+    private void onTeleport(PanelTeleportC2SPacket packet, ServerPlayerEntity player, PacketSender sender) {
+        if (server == null) return;
+        if (!isAllowed(player)) {
+            sender.sendPacket(new PanelStatusS2CPacket(false));
+            return;
+        }
+
+        ServerPlayerEntity target = packet.targetId() != null
+                ? server.getPlayerManager().getPlayer(packet.targetId()) : null;
+        if (target != null) {
+            player.teleport(target.getServerWorld(), target.getX(), target.getY(), target.getZ(),
+                    target.getYaw(), target.getPitch());
+            Holyadmins.LOGGER.info("{} teleported to {} from the admin panel", player.getEntityName(), target.getEntityName());
+            return;
+        }
+
+        ServerWorld world = server.getWorld(RegistryKey.of(RegistryKeys.WORLD, packet.dimension()));
+        if (world == null) return;
+        ChunkPos chunk = new ChunkPos(packet.chunkX(), packet.chunkZ());
+        int x = chunk.getCenterX();
+        int z = chunk.getCenterZ();
+        int y = world.getTopY(Heightmap.Type.MOTION_BLOCKING, x, z);
+        player.teleport(world, x + 0.5, y, z + 0.5, player.getYaw(), player.getPitch());
+        Holyadmins.LOGGER.info("{} teleported to chunk {} in {} from the admin panel", player.getEntityName(),
+                chunk, packet.dimension());
+    }
+
+    /**
+     * Действие с заявкой очереди жалоб; заявку, взятую другим администратором, можно только посмотреть
+     */
+    private void onReportAction(PanelReportC2SPacket packet, ServerPlayerEntity player, PacketSender sender) {
+        if (!isAllowed(player)) {
+            sender.sendPacket(new PanelStatusS2CPacket(false));
+            return;
+        }
+
+        UUID adminId = player.getUuid();
+        switch (packet.action()) {
+            case CLAIM -> {
+                ReportTicket.Claim claim = reportQueue.claim(packet.ticketKey(), adminId, player.getEntityName());
+                if (claim == null) {
+                    player.sendMessage(Text.literal("Заявка уже закрыта или изменилась").formatted(Formatting.RED));
+                } else if (!claim.adminId().equals(adminId)) {
+                    player.sendMessage(Text.literal("Заявку уже разбирает " + claim.adminName()).formatted(Formatting.RED));
+                }
+            }
+            case RELEASE -> reportQueue.release(packet.ticketKey(), adminId);
+            case RESOLVE, REJECT -> {
+                Report.Status status = packet.action() == PanelReportC2SPacket.Action.RESOLVE
+                        ? Report.Status.RESOLVED : Report.Status.REJECTED;
+                ReportTicket ticket = reportQueue.close(packet.ticketKey(), status, adminId, player.getEntityName());
+                if (ticket == null) {
+                    player.sendMessage(Text.literal("Заявка закрыта, изменилась или ее разбирает другой администратор")
+                            .formatted(Formatting.RED));
+                    return;
+                }
+                Holyadmins.LOGGER.info("{} closed {} reports against {} as {} from the admin panel",
+                        player.getEntityName(), ticket.getReportCount(), ticket.getTargetName(), status);
+            }
+        }
+    }
+
+    /**
+     * Массовое действие с выбранными строками: строки игроков сводятся к игрокам в сети,
+     * строки наказаний - к их целям, а для снятия - к самим наказаниям. Ход приходит в onProgress
+     */
+    private void onBulkAction(PanelBulkC2SPacket packet, ServerPlayerEntity player, PacketSender sender) {
+        if (server == null) return;
+        if (!isAllowed(player)) {
+            sender.sendPacket(new PanelStatusS2CPacket(false));
+            return;
+        }
+
+        UUID adminId = player.getUuid();
+        switch (packet.action()) {
+            case CANCEL -> {
+                if (bulk.cancel(adminId, packet.jobId())) {
+                    Holyadmins.LOGGER.info("{} cancelled a bulk action from the admin panel", player.getEntityName());
+                }
+            }
+            case REVOKE -> {
+                if (PunishmentType.bySectionId(packet.section().getId()) == null) {
+                    onProgress(adminId, BulkProgress.rejected(packet.jobId(), packet.rowIds().length));
+                    return;
+                }
+                BulkProgress progress = bulk.submitRevoke(adminId, packet.jobId(), packet.rowIds());
+                Holyadmins.LOGGER.info("{} revoked {} punishments in bulk from the admin panel",
+                        player.getEntityName(), progress.done());
+            }
+            default -> {
+                PunishmentType type = typeOf(packet.action());
+                BulkProgress progress = bulk.submitPunish(adminId, player.getEntityName(), packet.jobId(), type,
+                        bulkTargets(packet.section(), packet.rowIds()), packet.reason(), packet.durationMillis());
+                if (progress.state() != BulkProgress.State.REJECTED) {
+                    Holyadmins.LOGGER.info("{} issued {} to {} players in bulk from the admin panel",
+                            player.getEntityName(), type, progress.issued());
+                }
+            }
+        }
+    }
+
+    /**
+     * Цели массового действия по ID строк; ненайденные строки остаются null и считаются отсеянными
+     */
+    private List<GameProfile> bulkTargets(PanelSection section, long[] rowIds) {
+        List<GameProfile> targets = new ArrayList<>(rowIds.length);
+        if (section == PanelSection.PLAYERS) {
+            // ID строки игрока - ID сущности
+            Map<Long, ServerPlayerEntity> online = new HashMap<>();
+            for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+                online.put((long) player.getId(), player);
+            }
+            for (long rowId : rowIds) {
+                ServerPlayerEntity player = online.get(rowId);
+                targets.add(player != null ? player.getGameProfile() : null);
+            }
+        } else if (PunishmentType.bySectionId(section.getId()) != null) {
+            PunishmentStore store = moderation.getPunishmentStore();
+            for (long rowId : rowIds) {
+                Punishment punishment = store.get(rowId);
+                targets.add(punishment != null ? new GameProfile(punishment.getTargetId(), punishment.getTargetName()) : null);
+            }
+        } else {
+            for (int i = 0; i < rowIds.length; i++) {
+                targets.add(null);
+            }
+        }
+        return targets;
+    }
+
+    private void onQuery(PanelQueryC2SPacket packet, ServerPlayerEntity player, PacketSender sender) {
+        Integer mask = subscribers.get(player.getUuid());
+        QueryExecutor queries = this.queries;
+        if (mask == null || queries == null || !isAllowed(player)) {
+            subscribers.remove(player.getUuid());
+            sender.sendPacket(new PanelStatusS2CPacket(false));
+            return;
+        }
+
+        PanelSection section = packet.section();
+        int limit = Math.max(1, Math.min(PanelRowCodec.MAX_ROWS, packet.limit()));
+        String filter = packet.filter().toLowerCase(Locale.ROOT);
+        UUID subjectId = packet.subjectId();
+        long cursor = packet.cursor();
+
+        // Пустой поиск и продолжение результатов поиска и мультиаккаунтов (они отдаются одной страницей)
+        if ((section == PanelSection.SEARCH || section == PanelSection.ALTS)
+                && (filter.isBlank() || cursor != PunishmentQuery.FIRST_PAGE)) {
+            sender.sendPacket(new PanelPageS2CPacket(packet.requestId(), section, Collections.emptyList(), Page.NO_CURSOR));
+            return;
+        }
+
+        // Дельты рассылаются с момента запроса; клиент сводит их со снимком, собранным позже
+        if (subjectId == null && filter.isEmpty()) {
+            subscribers.put(player.getUuid(), mask | sectionBit(section));
+        }
+
+        // Игроки в сети - состояние потока сервера, их немного
+        if (section == PanelSection.PLAYERS) {
+            List<PanelRow> rows = new ArrayList<>(Math.min(limit, 64));
+            long nextCursor = queryPlayers(rows, subjectId, filter, cursor, limit);
+            sender.sendPacket(new PanelPageS2CPacket(packet.requestId(), section, rows, nextCursor));
+            return;
+        }
+
+        // Администратор ушел в другой раздел или изменил поисковый запрос - его незавершенные запросы больше не нужны
+        UUID adminId = player.getUuid();
+        QueryKey key = new QueryKey(section, subjectId, filter, cursor, limit);
+        queries.cancel(adminId, pending -> ((QueryKey) pending).section() != section
+                || section == PanelSection.SEARCH && !pending.equals(key));
+
+        queries.submit(adminId, key, () -> runQuery(key), server, (result, error) -> {
+            ServerPlayerEntity admin = server != null ? server.getPlayerManager().getPlayer(adminId) : null;
+            if (admin == null || !ServerPlayNetworking.canSend(admin, PanelPageS2CPacket.TYPE)) return;
+
+            // При ошибке или переполнении очереди - отказ: клиент не считает раздел загруженным и повторит запрос позже
+            PanelPageS2CPacket page = error == null
+                    ? new PanelPageS2CPacket(packet.requestId(), section, result.rows(), result.nextCursor())
+                    : PanelPageS2CPacket.busy(packet.requestId(), section);
+            ServerPlayNetworking.send(admin, page);
+        });
+    }
+
+    /**
+     * Выполняет запрос раздела (в пуле запросов)
+     */
+    private PageResult runQuery(QueryKey key) {
+        List<PanelRow> rows = new ArrayList<>(Math.min(key.limit(), 64));
+        long nextCursor = switch (key.section()) {
+            case REPORTS -> queryReports(rows, key.subjectId(), key.filter(), key.cursor(), key.limit());
+            case LOGS -> queryLogs(rows, key.subjectId(), key.filter(), key.cursor(), key.limit());
+            case SEARCH -> querySearch(rows, key.filter(), key.limit());
+            case ALTS -> queryAlts(rows, key.filter(), key.limit());
+            case MESSAGES -> queryMessages(rows, key.subjectId(), key.filter(), key.cursor(), key.limit());
+            case PLAYERS -> throw new IllegalArgumentException("Players are queried on the server thread");
+            default -> queryPunishments(rows, typeOf(key.section()), key.subjectId(), key.filter(), key.cursor(), key.limit());
+        };
+        return new PageResult(rows, nextCursor);
+    }
+
+    private long queryPlayers(List<PanelRow> rows, UUID subjectId, String filter, long cursor, int limit) {
+        if (server == null) return Page.NO_CURSOR;
+
+        // Игроков в сети немного; порядок - по ID сущности от новых к старым
+        List<ServerPlayerEntity> players = new ArrayList<>(server.getPlayerManager().getPlayerList());
+        players.sort((a, b) -> Integer.compare(b.getId(), a.getId()));
+
+        for (ServerPlayerEntity player : players) {
+            if (player.getId() >= cursor) continue;
+            if (subjectId != null && !player.getUuid().equals(subjectId)) continue;
+            if (!filter.isEmpty() && !player.getEntityName().toLowerCase(Locale.ROOT).contains(filter)) continue;
+            if (rows.size() == limit) {
+                return rows.get(rows.size() - 1).getId();
+            }
+            rows.add(playerRow(player));
+        }
+        return Page.NO_CURSOR;
+    }
+
+    private long queryPunishments(List<PanelRow> rows, PunishmentType type, UUID subjectId, String filter,
+                                  long cursor, int limit) {
+        int scanned = 0;
+        while (true) {
+            Page<Punishment> page = moderation.queryPunishments(PunishmentQuery.builder()
+                    .type(type)
+                    .target(subjectId)
+                    .cursor(cursor)
+                    .limit(limit)
+                    .build());
+            long now = System.currentTimeMillis();
+            for (Punishment punishment : page.getItems()) {
+                scanned++;
+                if (!filter.isEmpty() && !matches(filter, punishment.getTargetName(), punishment.getIssuerName(),
+                        punishment.getReason())) continue;
+                rows.add(punishmentRow(punishment, now));
+                if (rows.size() == limit) {
+                    return punishment.getId();
+                }
+            }
+            if (!page.hasMore()) return Page.NO_CURSOR;
+            cursor = page.getNextCursor();
+            if (scanned >= MAX_FILTER_SCAN) return cursor;
+        }
+    }
+
+    /**
+     * Верх очереди разбора жалоб одной страницей; ID строки - ключ приоритета заявки
+     */
+    private long queryReports(List<PanelRow> rows, UUID subjectId, String filter, long cursor, int limit) {
+        if (cursor != PunishmentQuery.FIRST_PAGE) return Page.NO_CURSOR;
+
+        int max = Math.min(limit, REPORT_QUEUE_ROWS);
+        int scanned = 0;
+        long now = System.currentTimeMillis();
+        for (ReportTicket ticket : reportQueue.getTickets()) {
+            if (++scanned > MAX_FILTER_SCAN) break;
+            if (subjectId != null && !subjectId.equals(ticket.getTargetId())) continue;
+            if (!filter.isEmpty() && !matches(filter, ticket.getTargetName(), ticket.getLastReporterName(),
+                    ticket.getReason())) continue;
+            rows.add(ticketRow(ticket, now));
+            if (rows.size() == max) break;
+        }
+        return Page.NO_CURSOR;
+    }
+
+    private long queryLogs(List<PanelRow> rows, UUID subjectId, String filter, long cursor, int limit) {
+        int scanned = 0;
+        while (true) {
+            Page<AuditEntry> page = moderation.queryLog(cursor, limit);
+            for (AuditEntry entry : page.getItems()) {
+                scanned++;
+                if (subjectId != null && !entry.getSubjectId().equals(subjectId)) continue;
+                if (!filter.isEmpty() && !matches(filter, entry.getSubjectName(), entry.getActorName(),
+                        entry.getText())) continue;
+                rows.add(logRow(entry));
+                if (rows.size() == limit) {
+                    return entry.getSeq();
+                }
+            }
+            if (!page.hasMore()) return Page.NO_CURSOR;
+            cursor = page.getNextCursor();
+            if (scanned >= MAX_FILTER_SCAN) return cursor;
+        }
+    }
+
+    private long queryMessages(List<PanelRow> rows, UUID subjectId, String filter, long cursor, int limit) {
+        int scanned = 0;
+        while (true) {
+            Page<ChatMessage> page = chat.query(subjectId, cursor, limit);
+            for (ChatMessage message : page.getItems()) {
+                scanned++;
+                if (!filter.isEmpty() && !matches(filter, message.getSenderName(), message.getText())) continue;
+                rows.add(messageRow(message));
+                if (rows.size() == limit) {
+                    return message.getId();
+                }
+            }
+            if (!page.hasMore()) return Page.NO_CURSOR;
+            cursor = page.getNextCursor();
+            // Пустая страница с продолжением - чтение журнала упрется в свой предел, остальное при прокрутке
+            if (scanned >= MAX_FILTER_SCAN || page.getItems().isEmpty()) return cursor;
+        }
+    }
+
+    /**
+     * Поиск по никам и журналу. Строки идут по убыванию оценки, поэтому их ID - убывающий номер места,
+     * а раздел-источник передается в kind
+     */
+    private long querySearch(List<PanelRow> rows, String query, int limit) {
+        SearchIndex.Result result = moderation.getSearchIndex().search(query, limit);
+        long rank = result.players().size() + result.entries().size();
+        for (SearchIndex.Player player : result.players()) {
+            rows.add(new PanelRow(rank--, player.id(), player.name(), "", "игрок", player.lastSeen(), 0L,
+                    0, PanelSection.PLAYERS.getCode()));
+        }
+        for (AuditEntry entry : result.entries()) {
+            rows.add(new PanelRow(rank--, entry.getSubjectId(), entry.getSubjectName(), entry.getActorName(),
+                    entry.getText(), entry.getTime(), 0L, 0, PanelSection.LOGS.getCode()));
+        }
+        return Page.NO_CURSOR;
+    }
+
+    /**
+     * Аккаунты, связанные с игроком общими адресами; ID строки - убывающий номер места,
+     * активными отмечаются аккаунты с действующим баном
+     */
+    private long queryAlts(List<PanelRow> rows, String filter, int limit) {
+        UUID playerId;
+        try {
+            playerId = UUID.fromString(filter);
+        } catch (IllegalArgumentException e) {
+            return Page.NO_CURSOR;
+        }
+
+        List<AltGraph.Account> accounts = alts.cluster(playerId, limit);
+        long rank = accounts.size();
+        for (AltGraph.Account account : accounts) {
+            Punishment ban = moderation.getActiveBan(account.id());
+            rows.add(new PanelRow(rank--, account.id(), account.name(), ban != null ? "бан" : "", linkText(account),
+                    account.lastSeen(), ban != null && !ban.isPermanent() ? ban.getExpiresAt() : 0L,
+                    ban != null ? PanelRow.FLAG_ACTIVE : 0, 0));
+        }
+        return Page.NO_CURSOR;
+    }
+
+    private static String linkText(AltGraph.Account account) {
+        if (account.sharedAddresses() == 0 && account.sharedFingerprints() == 0) {
+            return "через другие аккаунты";
+        }
+        StringBuilder text = new StringBuilder();
+        if (account.sharedAddresses() > 0) {
+            text.append("общих адресов: ").append(account.sharedAddresses());
+        }
+        if (account.sharedFingerprints() > 0) {
+            if (!text.isEmpty()) text.append(", ");
+            text.append("общих отпечатков: ").append(account.sharedFingerprints());
+        }
+        return text.toString();
+    }
+
+    private void onJoin(ServerPlayerEntity player) {
+        long now = System.currentTimeMillis();
+        joinTimes.put(player.getUuid(), now);
+        moderation.getSearchIndex().addPlayer(player.getUuid(), player.getEntityName(), now);
+        broadcast(PanelSection.PLAYERS, List.of(playerRow(player)), new long[0]);
+    }
+
+    private void onDisconnect(ServerPlayerEntity player) {
+        subscribers.remove(player.getUuid());
+        metricsSubscribers.remove(player.getUuid());
+        lagSubscribers.remove(player.getUuid());
+        if (queries != null) {
+            queries.cancel(player.getUuid());
+        }
+        joinTimes.remove(player.getUuid());
+        broadcast(PanelSection.PLAYERS, Collections.emptyList(), new long[]{player.getId()});
+    }
+
+    @Override
+    public void onPunishmentIssued(Punishment punishment) {
+        punishmentChanged(punishment);
+    }
+
+    @Override
+    public void onPunishmentRevoked(Punishment punishment) {
+        punishmentChanged(punishment);
+    }
+
+    @Override
+    public void onPunishmentExpired(Punishment punishment) {
+        punishmentChanged(punishment);
+    }
+
+    @Override
+    public void onPunishmentsIssued(List<Punishment> punishments) {
+        punishmentsChanged(punishments);
+    }
+
+    @Override
+    public void onPunishmentsRevoked(List<Punishment> punishments) {
+        punishmentsChanged(punishments);
+    }
+
+    @Override
+    public void onQueueChanged() {
+        MinecraftServer server = this.server;
+        if (server == null) {
+            reportQueue.drainChanges();
+            return;
+        }
+        // Жалобы во время рейда идут сотнями: все изменения до ближайшей задачи сервера уходят одной дельтой
+        if (reportFlushScheduled.compareAndSet(false, true)) {
+            server.execute(this::flushReportQueue);
+        }
+    }
+
+    @Override
+    public void onAuditRecorded(AuditEntry entry) {
+        PanelRow row = logRow(entry);
+        onServerThread(() -> broadcast(PanelSection.LOGS, List.of(row), new long[0]));
+    }
+
+    @Override
+    public void onAuditRecorded(List<AuditEntry> entries) {
+        List<PanelRow> rows = new ArrayList<>(entries.size());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            rows.add(logRow(entries.get(i)));
+        }
+        for (int from = 0; from < rows.size(); from += PanelRowCodec.MAX_ROWS) {
+            List<PanelRow> chunk = rows.subList(from, Math.min(rows.size(), from + PanelRowCodec.MAX_ROWS));
+            onServerThread(() -> broadcast(PanelSection.LOGS, chunk, new long[0]));
+        }
+    }
+
+    @Override
+    public void onProgress(UUID adminId, BulkProgress progress) {
+        if (server == null) return;
+
+        ServerPlayerEntity player = server.getPlayerManager().getPlayer(adminId);
+        if (player != null && ServerPlayNetworking.canSend(player, PanelBulkS2CPacket.TYPE)) {
+            ServerPlayNetworking.send(player, new PanelBulkS2CPacket(progress));
+        }
+    }
+
+    @Override
+    public void onMessages(List<ChatMessage> messages) {
+        // Поток записи чата: строки собираются здесь, в потоке сервера остается только рассылка
+        List<PanelRow> rows = new ArrayList<>(messages.size());
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            rows.add(messageRow(messages.get(i)));
+        }
+        for (int from = 0; from < rows.size(); from += PanelRowCodec.MAX_ROWS) {
+            List<PanelRow> chunk = rows.subList(from, Math.min(rows.size(), from + PanelRowCodec.MAX_ROWS));
+            onServerThread(() -> broadcast(PanelSection.MESSAGES, chunk, new long[0]));
+        }
+    }
+
+    @Override
+    public void onPoint(MetricsResolution resolution) {
+        if (server == null || metricsSubscribers.isEmpty()) return;
+
+        // Снимок собирается один раз на шаг и только если его кто-то смотрит
+        PanelMetricsS2CPacket packet = null;
+        for (Map.Entry<UUID, MetricsResolution> entry : metricsSubscribers.entrySet()) {
+            if (entry.getValue() != resolution) continue;
+
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+            if (player == null || !ServerPlayNetworking.canSend(player, PanelMetricsS2CPacket.TYPE)) continue;
+
+            if (packet == null) {
+                MetricsSnapshot snapshot = metrics.snapshot(resolution);
+                packet = new PanelMetricsS2CPacket(snapshot);
+            }
+            ServerPlayNetworking.send(player, packet);
+        }
+    }
+
+    @Override
+    public void onReport(LagReport report) {
+        if (server == null || lagSubscribers.isEmpty()) return;
+
+        PanelLagS2CPacket packet = new PanelLagS2CPacket(report);
+        for (UUID subscriberId : lagSubscribers) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(subscriberId);
+            if (player != null && ServerPlayNetworking.canSend(player, PanelLagS2CPacket.TYPE)) {
+                ServerPlayNetworking.send(player, packet);
+            }
+        }
+    }
+
+    private void punishmentChanged(Punishment punishment) {
+        PanelRow row = punishmentRow(punishment, System.currentTimeMillis());
+        PanelSection section = PanelSection.byId(punishment.getType().getSectionId());
+        onServerThread(() -> broadcast(section, List.of(row), new long[0]));
+    }
+
+    /**
+     * Массовое действие: строки собираются по разделам и уходят одной дельтой на раздел
+     */
+    private void punishmentsChanged(List<Punishment> punishments) {
+        long now = System.currentTimeMillis();
+        Map<PanelSection, List<PanelRow>> bySection = new EnumMap<>(PanelSection.class);
+        for (int i = punishments.size() - 1; i >= 0; i--) {
+            Punishment punishment = punishments.get(i);
+            bySection.computeIfAbsent(PanelSection.byId(punishment.getType().getSectionId()), key -> new ArrayList<>())
+                    .add(punishmentRow(punishment, now));
+        }
+        for (Map.Entry<PanelSection, List<PanelRow>> entry : bySection.entrySet()) {
+            List<PanelRow> rows = entry.getValue();
+            for (int from = 0; from < rows.size(); from += PanelRowCodec.MAX_ROWS) {
+                List<PanelRow> chunk = rows.subList(from, Math.min(rows.size(), from + PanelRowCodec.MAX_ROWS));
+                onServerThread(() -> broadcast(entry.getKey(), chunk, new long[0]));
+            }
+        }
+    }
+
+    /**
+     * Рассылает изменения очереди жалоб; заявки, опустившиеся ниже REPORT_QUEUE_ROWS, уходят как удаленные
+     */
+    private void flushReportQueue() {
+        reportFlushScheduled.set(false);
+        ReportQueue.Changes changes = reportQueue.drainChanges();
+        if (changes.isEmpty()) return;
+
+        long threshold = reportQueue.keyAt(REPORT_QUEUE_ROWS);
+        long now = System.currentTimeMillis();
+        List<PanelRow> upserts = new ArrayList<>(changes.updated().size());
+        long[] removed = Arrays.copyOf(changes.removedKeys(), changes.removedKeys().length + changes.updated().size());
+        int removedCount = changes.removedKeys().length;
+        for (ReportTicket ticket : changes.updated()) {
+            if (ticket.getPriorityKey() >= threshold) {
+                upserts.add(ticketRow(ticket, now));
+            } else {
+                removed[removedCount++] = ticket.getPriorityKey();
+            }
+        }
+        removed = Arrays.copyOf(removed, removedCount);
+
+        for (int from = 0; from < Math.max(1, upserts.size()); from += PanelRowCodec.MAX_ROWS) {
+            List<PanelRow> chunk = upserts.subList(from, Math.min(upserts.size(), from + PanelRowCodec.MAX_ROWS));
+            broadcast(PanelSection.REPORTS, chunk, from == 0 ? removed : new long[0]);
+        }
+    }
+
+    /**
+     * Рассылает дельту всем, кто уже получил снимок раздела
+     */
+    private void broadcast(PanelSection section, List<PanelRow> upserts, long[] removedIds) {
+        if (server == null || subscribers.isEmpty()) return;
+
+        int bit = sectionBit(section);
+        PanelDeltaS2CPacket packet = null;
+        for (Map.Entry<UUID, Integer> entry : subscribers.entrySet()) {
+            if ((entry.getValue() & bit) == 0) continue;
+
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+            if (player == null || !ServerPlayNetworking.canSend(player, PanelDeltaS2CPacket.TYPE)) continue;
+
+            if (packet == null) {
+                packet = new PanelDeltaS2CPacket(section, upserts, removedIds);
+            }
+            ServerPlayNetworking.send(player, packet);
+        }
+    }
+
+    private void onServerThread(Runnable task) {
+        MinecraftServer server = this.server;
+        if (server == null) return;
+
+        if (server.isOnThread()) {
+            task.run();
+        } else {
+            server.execute(task);
+        }
+    }
+
+    private PanelRow playerRow(ServerPlayerEntity player) {
+        long joinedAt = joinTimes.getOrDefault(player.getUuid(), 0L);
+        String world = player.getServerWorld().getRegistryKey().getValue().toString();
+        int flags = moderation.getActiveMute(player.getUuid()) != null ? PanelRow.FLAG_ACTIVE : 0;
+        return new PanelRow(player.getId(), player.getUuid(), player.getEntityName(), "", world,
+                joinedAt, 0L, flags, 0);
+    }
+
+    private static PanelRow punishmentRow(Punishment punishment, long now) {
+        int flags = (punishment.isActive(now) ? PanelRow.FLAG_ACTIVE : 0)
+                | (punishment.isRevoked() ? PanelRow.FLAG_REVOKED : 0);
+        long expiresAt = punishment.getType().isLasting() ? punishment.getExpiresAt() : 0L;
+        return new PanelRow(punishment.getId(), punishment.getTargetId(), punishment.getTargetName(),
+                punishment.getIssuerName(), punishment.getReason(), punishment.getCreatedAt(), expiresAt,
+                flags, punishment.getType().getCode());
+    }
+
+    /**
+     * Строка заявки: кто разбирает (или последний автор), причина с числом жалоб и оценка в типе строки;
+     * активной отмечается заявка, которую еще никто не взял
+     */
+    private static PanelRow ticketRow(ReportTicket ticket, long now) {
+        ReportTicket.Claim claim = ticket.getClaim();
+        String actor = claim != null ? claim.adminName()
+                : ticket.getReporterCount() > 1
+                ? ticket.getLastReporterName() + " +" + (ticket.getReporterCount() - 1)
+                : ticket.getLastReporterName();
+        String text = ticket.getReportCount() > 1
+                ? "[" + ticket.getReportCount() + "] " + ticket.getReason()
+                : ticket.getReason();
+        int score = (int) Math.min(Integer.MAX_VALUE, ReportQueue.score(ticket, now));
+        return new PanelRow(ticket.getPriorityKey(), ticket.getTargetId(), ticket.getTargetName(), actor, text,
+                ticket.getFirstReportAt(), 0L, claim == null ? PanelRow.FLAG_ACTIVE : 0, score);
+    }
+
+    private static PanelRow logRow(AuditEntry entry) {
+        return new PanelRow(entry.getSeq(), entry.getSubjectId(), entry.getSubjectName(), entry.getActorName(),
+                entry.getText(), entry.getTime(), 0L, 0, entry.getKind().getCode());
+    }
+
+    /**
+     * Строка сообщения; сообщение, не отправленное из-за мута, отмечается активной
+     */
+    private static PanelRow messageRow(ChatMessage message) {
+        return new PanelRow(message.getId(), message.getSenderId(), message.getSenderName(),
+                message.isBlocked() ? "мут" : "", message.getText(), message.getTime(), 0L,
+                message.isBlocked() ? PanelRow.FLAG_ACTIVE : 0, 0);
+    }
+
+    private static boolean matches(String filter, String... values) {
+        for (String value : values) {
+            if (value.toLowerCase(Locale.ROOT).contains(filter)) return true;
+        }
+        return false;
+    }
+
+    private static PunishmentType typeOf(PanelSection section) {
+        PunishmentType type = PunishmentType.bySectionId(section.getId());
+        if (type == null) {
+            throw new IllegalArgumentException("Section has no punishment type: " + section);
+        }
+        return type;
+    }
+
+    private static PunishmentType typeOf(PanelBulkC2SPacket.Action action) {
+        return switch (action) {
+            case BAN -> PunishmentType.BAN;
+            case KICK -> PunishmentType.KICK;
+            case MUTE -> PunishmentType.MUTE;
+            case WARN -> PunishmentType.WARN;
+            default -> throw new IllegalArgumentException("Action has no punishment type: " + action);
+        };
+    }
+
+    private boolean isAllowed(ServerPlayerEntity player) {
+        return player.hasPermissionLevel(ModerationService.ADMIN_PERMISSION_LEVEL);
+    }
+
+    private static int sectionBit(PanelSection section) {
+        return 1 << section.getCode();
+    }
+
+    /**
+     * Количество подписанных администраторов
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Ключ объединения одинаковых запросов от разных администраторов
+     */
+    private record QueryKey(PanelSection section, UUID subjectId, String filter, long cursor, int limit) {
+    }
+
+    private record PageResult(List<PanelRow> rows, long nextCursor) {
+    }
+}
@@ -0,0 +1,77 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.moderation.BulkActionPipeline;
+import me.jlime.holyadmins.network.PanelSection;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Массовое действие с выбранными строками раздела или отмена действия
+ * @param jobId          номер действия, выбранный клиентом; по нему приходит ход и выполняется отмена
+ * @param section        раздел строк: игроки (ID строки - ID сущности) или наказания (ID строки - ID наказания)
+ * @param rowIds         ID выбранных строк; для отмены пуст
+ * @param durationMillis длительность для бана и мута, 0 - навсегда
+ */
+public record PanelBulkC2SPacket(int jobId, Action action, PanelSection section, long[] rowIds,
+                                 String reason, long durationMillis) implements FabricPacket {
+    public static final PacketType<PanelBulkC2SPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_bulk"), PanelBulkC2SPacket::new);
+    public static final int MAX_REASON_LENGTH = 256;
+
+    /**
+     * Отмена действия
+     */
+    public static PanelBulkC2SPacket cancel(int jobId) {
+        return new PanelBulkC2SPacket(jobId, Action.CANCEL, PanelSection.PLAYERS, new long[0], "", 0L);
+    }
+
+    public PanelBulkC2SPacket(PacketByteBuf buf) {
+        this(buf.readVarInt(), buf.readEnumConstant(Action.class), PanelSection.byCode(buf.readVarInt()),
+                readIds(buf), buf.readString(MAX_REASON_LENGTH), buf.readVarLong());
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(jobId);
+        buf.writeEnumConstant(action);
+        buf.writeVarInt(section.getCode());
+        buf.writeVarInt(rowIds.length);
+        for (long id : rowIds) {
+            buf.writeVarLong(id);
+        }
+        buf.writeString(reason, MAX_REASON_LENGTH);
+        buf.writeVarLong(durationMillis);
+    }
+
+    private static long[] readIds(PacketByteBuf buf) {
+        int count = buf.readVarInt();
+        if (count < 0 || count > BulkActionPipeline.MAX_TARGETS) {
+            throw new IllegalArgumentException("Invalid bulk target count: " + count);
+        }
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = buf.readVarLong();
+        }
+        return ids;
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+
+    /**
+     * Код передается по сети, поэтому порядок менять нельзя
+     */
+    public enum Action {
+        BAN,
+        KICK,
+        MUTE,
+        WARN,
+        REVOKE,
+        CANCEL
+    }
+}
@@ -0,0 +1,37 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.moderation.BulkProgress;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Ход массового действия; отправляется запустившему его администратору при запуске,
+ * после каждой доставленной порции и при завершении
+ */
+public record PanelBulkS2CPacket(BulkProgress progress) implements FabricPacket {
+    public static final PacketType<PanelBulkS2CPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_bulk_progress"), PanelBulkS2CPacket::new);
+
+    public PanelBulkS2CPacket(PacketByteBuf buf) {
+        this(new BulkProgress(buf.readVarInt(), buf.readEnumConstant(BulkProgress.State.class),
+                buf.readVarInt(), buf.readVarInt(), buf.readVarInt(), buf.readVarInt()));
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(progress.jobId());
+        buf.writeEnumConstant(progress.state());
+        buf.writeVarInt(progress.total());
+        buf.writeVarInt(progress.skipped());
+        buf.writeVarInt(progress.done());
+        buf.writeVarInt(progress.reverted());
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,37 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.network.PanelRow;
+import me.jlime.holyadmins.network.PanelRowCodec;
+import me.jlime.holyadmins.network.PanelSection;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+
+/**
+ * Изменения раздела после первого снимка: новые или обновленные строки и удаленные ID
+ */
+public record PanelDeltaS2CPacket(PanelSection section, List<PanelRow> upserts,
+                                  long[] removedIds) implements FabricPacket {
+    public static final PacketType<PanelDeltaS2CPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_delta"), PanelDeltaS2CPacket::new);
+
+    public PanelDeltaS2CPacket(PacketByteBuf buf) {
+        this(PanelSection.byCode(buf.readVarInt()), PanelRowCodec.read(buf), PanelRowCodec.readIds(buf));
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(section.getCode());
+        PanelRowCodec.write(buf, upserts);
+        PanelRowCodec.writeIds(buf, removedIds);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,39 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Раздел нагрузки: подписка на итоги профилировщика и его включение
+ */
+public record PanelLagC2SPacket(Action action) implements FabricPacket {
+    public static final PacketType<PanelLagC2SPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_lag"), PanelLagC2SPacket::new);
+
+    public PanelLagC2SPacket(PacketByteBuf buf) {
+        this(buf.readEnumConstant(Action.class));
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeEnumConstant(action);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+
+    /**
+     * Код передается по сети, поэтому порядок менять нельзя
+     */
+    public enum Action {
+        SUBSCRIBE,
+        UNSUBSCRIBE,
+        ENABLE,
+        DISABLE
+    }
+}
@@ -0,0 +1,75 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.metrics.LagOffender;
+import me.jlime.holyadmins.metrics.LagReport;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог окна профилировщика нагрузки; отправляется при подписке, после каждого окна и при включении
+ */
+public record PanelLagS2CPacket(LagReport report) implements FabricPacket {
+    public static final PacketType<PanelLagS2CPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_lag_report"), PanelLagS2CPacket::new);
+
+    private static final int MAX_OFFENDERS = 256;
+    private static final int MAX_STRING_LENGTH = 256;
+
+    public PanelLagS2CPacket(PacketByteBuf buf) {
+        this(read(buf));
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeBoolean(report.enabled());
+        buf.writeLong(report.time());
+        buf.writeVarInt(report.sampleEvery());
+        buf.writeFloat(report.overheadPercent());
+        buf.writeVarInt(report.offenders().size());
+        for (LagOffender offender : report.offenders()) {
+            buf.writeBoolean(offender.playerId() != null);
+            if (offender.playerId() != null) {
+                buf.writeUuid(offender.playerId());
+            }
+            buf.writeString(offender.name(), MAX_STRING_LENGTH);
+            buf.writeString(offender.dimension(), MAX_STRING_LENGTH);
+            buf.writeVarInt(offender.chunkX());
+            buf.writeVarInt(offender.chunkZ());
+            buf.writeFloat(offender.entityMs());
+            buf.writeFloat(offender.blockEntityMs());
+            buf.writeVarInt(offender.entities());
+            buf.writeVarInt(offender.blockEntities());
+            buf.writeVarInt(offender.chunks());
+        }
+    }
+
+    private static LagReport read(PacketByteBuf buf) {
+        boolean enabled = buf.readBoolean();
+        long time = buf.readLong();
+        int sampleEvery = buf.readVarInt();
+        float overheadPercent = buf.readFloat();
+        int count = buf.readVarInt();
+        if (count < 0 || count > MAX_OFFENDERS) {
+            throw new IllegalArgumentException("Invalid offender count: " + count);
+        }
+        List<LagOffender> offenders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            offenders.add(new LagOffender(buf.readBoolean() ? buf.readUuid() : null,
+                    buf.readString(MAX_STRING_LENGTH), buf.readString(MAX_STRING_LENGTH),
+                    buf.readVarInt(), buf.readVarInt(), buf.readFloat(), buf.readFloat(),
+                    buf.readVarInt(), buf.readVarInt(), buf.readVarInt()));
+        }
+        return new LagReport(enabled, time, sampleEvery, overheadPercent, offenders);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
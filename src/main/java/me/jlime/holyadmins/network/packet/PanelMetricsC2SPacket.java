@@ -0,0 +1,31 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.metrics.MetricsResolution;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Клиент открыл или закрыл раздел аналитики: подписка на ряды метрик с выбранным шагом
+ */
+public record PanelMetricsC2SPacket(MetricsResolution resolution, boolean subscribed) implements FabricPacket {
+    public static final PacketType<PanelMetricsC2SPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_metrics_subscribe"), PanelMetricsC2SPacket::new);
+
+    public PanelMetricsC2SPacket(PacketByteBuf buf) {
+        this(MetricsResolution.byCode(buf.readVarInt()), buf.readBoolean());
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(resolution.getCode());
+        buf.writeBoolean(subscribed);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
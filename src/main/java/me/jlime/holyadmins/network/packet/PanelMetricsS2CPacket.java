@@ -0,0 +1,114 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.metrics.LagSpike;
+import me.jlime.holyadmins.metrics.MetricsResolution;
+import me.jlime.holyadmins.metrics.MetricsSnapshot;
+import me.jlime.holyadmins.metrics.MsptHistogram;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ряды метрик с выбранным шагом; отправляется при подписке и после каждой новой точки
+ */
+public record PanelMetricsS2CPacket(MetricsSnapshot snapshot) implements FabricPacket {
+    public static final PacketType<PanelMetricsS2CPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_metrics"), PanelMetricsS2CPacket::new);
+
+    private static final int MAX_SERIES = 64;
+    private static final int MAX_SPIKES = 64;
+    private static final int MAX_SUSPECTS = 16;
+    private static final int MAX_STRING_LENGTH = 256;
+
+    public PanelMetricsS2CPacket(PacketByteBuf buf) {
+        this(read(buf));
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        MetricsResolution resolution = snapshot.resolution();
+        buf.writeVarInt(resolution.getCode());
+        buf.writeLong(snapshot.endTime());
+
+        buf.writeVarInt(snapshot.series().size());
+        for (MetricsSnapshot.Series series : snapshot.series()) {
+            buf.writeString(series.id(), MAX_STRING_LENGTH);
+            buf.writeVarInt(series.values().length);
+            for (float value : series.values()) {
+                buf.writeFloat(value);
+            }
+        }
+
+        for (int count : snapshot.histogram()) {
+            buf.writeVarInt(count);
+        }
+
+        buf.writeVarInt(snapshot.spikes().size());
+        for (LagSpike spike : snapshot.spikes()) {
+            buf.writeLong(spike.time());
+            buf.writeFloat(spike.mspt());
+            buf.writeVarInt(spike.players());
+            buf.writeVarInt(spike.suspects().size());
+            for (LagSpike.Suspect suspect : spike.suspects()) {
+                buf.writeString(suspect.name(), MAX_STRING_LENGTH);
+                buf.writeString(suspect.dimension(), MAX_STRING_LENGTH);
+                buf.writeVarInt(suspect.nearbyEntities());
+                buf.writeBoolean(suspect.joinedRecently());
+            }
+        }
+    }
+
+    private static MetricsSnapshot read(PacketByteBuf buf) {
+        MetricsResolution resolution = MetricsResolution.byCode(buf.readVarInt());
+        long endTime = buf.readLong();
+
+        int seriesCount = checkCount(buf.readVarInt(), MAX_SERIES, "series");
+        List<MetricsSnapshot.Series> series = new ArrayList<>(seriesCount);
+        for (int i = 0; i < seriesCount; i++) {
+            String id = buf.readString(MAX_STRING_LENGTH);
+            float[] values = new float[checkCount(buf.readVarInt(), resolution.getCapacity(), "points")];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = buf.readFloat();
+            }
+            series.add(new MetricsSnapshot.Series(id, values));
+        }
+
+        int[] histogram = new int[MsptHistogram.BUCKETS];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = buf.readVarInt();
+        }
+
+        int spikeCount = checkCount(buf.readVarInt(), MAX_SPIKES, "spikes");
+        List<LagSpike> spikes = new ArrayList<>(spikeCount);
+        for (int i = 0; i < spikeCount; i++) {
+            long time = buf.readLong();
+            float mspt = buf.readFloat();
+            int players = buf.readVarInt();
+            int suspectCount = checkCount(buf.readVarInt(), MAX_SUSPECTS, "suspects");
+            List<LagSpike.Suspect> suspects = new ArrayList<>(suspectCount);
+            for (int j = 0; j < suspectCount; j++) {
+                suspects.add(new LagSpike.Suspect(buf.readString(MAX_STRING_LENGTH), buf.readString(MAX_STRING_LENGTH),
+                        buf.readVarInt(), buf.readBoolean()));
+            }
+            spikes.add(new LagSpike(time, mspt, players, suspects));
+        }
+        return new MetricsSnapshot(resolution, endTime, series, histogram, spikes);
+    }
+
+    private static int checkCount(int count, int max, String what) {
+        if (count < 0 || count > max) {
+            throw new IllegalArgumentException("Invalid " + what + " count: " + count);
+        }
+        return count;
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,56 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.moderation.Page;
+import me.jlime.holyadmins.network.PanelRow;
+import me.jlime.holyadmins.network.PanelRowCodec;
+import me.jlime.holyadmins.network.PanelSection;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Страница раздела в ответ на запрос
+ * @param nextCursor курсор следующей страницы или -1
+ * @param busy       сервер не выполнил запрос (очередь запросов переполнена или запрос упал);
+ *                   строк нет, клиент повторяет запрос не сразу, а с нарастающей паузой
+ */
+public record PanelPageS2CPacket(int requestId, PanelSection section, List<PanelRow> rows,
+                                 long nextCursor, boolean busy) implements FabricPacket {
+    public static final PacketType<PanelPageS2CPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_page"), PanelPageS2CPacket::new);
+
+    public PanelPageS2CPacket(int requestId, PanelSection section, List<PanelRow> rows, long nextCursor) {
+        this(requestId, section, rows, nextCursor, false);
+    }
+
+    public PanelPageS2CPacket(PacketByteBuf buf) {
+        this(buf.readVarInt(), PanelSection.byCode(buf.readVarInt()), PanelRowCodec.read(buf), buf.readVarLong(),
+                buf.readBoolean());
+    }
+
+    /**
+     * Отказ в запросе: сервер занят или запрос завершился ошибкой
+     */
+    public static PanelPageS2CPacket busy(int requestId, PanelSection section) {
+        return new PanelPageS2CPacket(requestId, section, Collections.emptyList(), Page.NO_CURSOR, true);
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(requestId);
+        buf.writeVarInt(section.getCode());
+        PanelRowCodec.write(buf, rows);
+        buf.writeVarLong(nextCursor);
+        buf.writeBoolean(busy);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,46 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import me.jlime.holyadmins.network.PanelSection;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.UUID;
+
+/**
+ * Запрос страницы раздела
+ * @param subjectId фильтр по игроку или null
+ * @param cursor    курсор из предыдущей страницы или Long.MAX_VALUE для первой
+ */
+public record PanelQueryC2SPacket(int requestId, PanelSection section, UUID subjectId, String filter,
+                                  long cursor, int limit) implements FabricPacket {
+    public static final PacketType<PanelQueryC2SPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_query"), PanelQueryC2SPacket::new);
+    public static final int MAX_FILTER_LENGTH = 64;
+
+    public PanelQueryC2SPacket(PacketByteBuf buf) {
+        this(buf.readVarInt(), PanelSection.byCode(buf.readVarInt()),
+                buf.readBoolean() ? buf.readUuid() : null,
+                buf.readString(MAX_FILTER_LENGTH), buf.readVarLong(), buf.readVarInt());
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(requestId);
+        buf.writeVarInt(section.getCode());
+        buf.writeBoolean(subjectId != null);
+        if (subjectId != null) {
+            buf.writeUuid(subjectId);
+        }
+        buf.writeString(filter, MAX_FILTER_LENGTH);
+        buf.writeVarLong(cursor);
+        buf.writeVarInt(limit);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
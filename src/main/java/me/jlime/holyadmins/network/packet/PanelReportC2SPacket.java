@@ -0,0 +1,41 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Действие администратора с заявкой очереди жалоб
+ * @param ticketKey ID строки раздела жалоб (ключ приоритета заявки)
+ */
+public record PanelReportC2SPacket(long ticketKey, Action action) implements FabricPacket {
+    public static final PacketType<PanelReportC2SPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_report"), PanelReportC2SPacket::new);
+
+    public PanelReportC2SPacket(PacketByteBuf buf) {
+        this(buf.readVarLong(), buf.readEnumConstant(Action.class));
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeVarLong(ticketKey);
+        buf.writeEnumConstant(action);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+
+    /**
+     * Код передается по сети, поэтому порядок менять нельзя
+     */
+    public enum Action {
+        CLAIM,
+        RELEASE,
+        RESOLVE,
+        REJECT
+    }
+}
@@ -0,0 +1,29 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Ответ на подписку: есть ли у игрока доступ к панели
+ */
+public record PanelStatusS2CPacket(boolean allowed) implements FabricPacket {
+    public static final PacketType<PanelStatusS2CPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_status"), PanelStatusS2CPacket::new);
+
+    public PanelStatusS2CPacket(PacketByteBuf buf) {
+        this(buf.readBoolean());
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeBoolean(allowed);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
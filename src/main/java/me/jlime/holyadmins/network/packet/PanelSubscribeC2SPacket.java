@@ -0,0 +1,29 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Клиент открыл или закрыл панель: подписка на серверные изменения
+ */
+public record PanelSubscribeC2SPacket(boolean subscribed) implements FabricPacket {
+    public static final PacketType<PanelSubscribeC2SPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_subscribe"), PanelSubscribeC2SPacket::new);
+
+    public PanelSubscribeC2SPacket(PacketByteBuf buf) {
+        this(buf.readBoolean());
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeBoolean(subscribed);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,39 @@
+package me.jlime.holyadmins.network.packet;
+
+import me.jlime.holyadmins.Holyadmins;
+import net.fabricmc.fabric.api.networking.v1.FabricPacket;
+import net.fabricmc.fabric.api.networking.v1.PacketType;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.UUID;
+
+/**
+ * Телепорт администратора к игроку или, если игрока нет в сети, в чанк
+ * @param targetId игрок или null
+ * @param dimension ID измерения чанка
+ */
+public record PanelTeleportC2SPacket(UUID targetId, Identifier dimension, int chunkX, int chunkZ) implements FabricPacket {
+    public static final PacketType<PanelTeleportC2SPacket> TYPE =
+            PacketType.create(new Identifier(Holyadmins.MOD_ID, "panel_teleport"), PanelTeleportC2SPacket::new);
+
+    public PanelTeleportC2SPacket(PacketByteBuf buf) {
+        this(buf.readBoolean() ? buf.readUuid() : null, buf.readIdentifier(), buf.readVarInt(), buf.readVarInt());
+    }
+
+    @Override
+    public void write(PacketByteBuf buf) {
+        buf.writeBoolean(targetId != null);
+        if (targetId != null) {
+            buf.writeUuid(targetId);
+        }
+        buf.writeIdentifier(dimension);
+        buf.writeVarInt(chunkX);
+        buf.writeVarInt(chunkZ);
+    }
+
+    @Override
+    public PacketType<?> getType() {
+        return TYPE;
+    }
+}
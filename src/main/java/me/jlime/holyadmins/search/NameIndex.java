@@ -0,0 +1,158 @@
+package me.jlime.holyadmins.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Словарь известных игроков для поиска по нику
+ * Префиксный поиск идет по отсортированным никам, нечеткий - по общим триграммам
+ * с проверкой расстояния Левенштейна. Используется под блокировкой SearchIndex
+ */
+final class NameIndex {
+    private static final char KEY_SEPARATOR = '\0';
+    // Сколько префиксных совпадений просматривается до ранжирования
+    private static final int MAX_PREFIX_SCAN = 256;
+
+    private final Map<UUID, Integer> byId = new HashMap<>();
+    private final List<UUID> ids = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<String> lowerNames = new ArrayList<>();
+    private long[] lastSeen = new long[16];
+    // Каждый ник игрока (после смены ника - новый) получает возрастающий номер записи,
+    // поэтому списки триграмм только дополняются
+    private int[] entryPlayers = new int[16];
+    private int[] currentEntries = new int[16];
+    private int entryCount;
+    // Ник в нижнем регистре + разделитель + номер записи -> игрок; уникальные ключи для совпадающих ников
+    private final NavigableMap<String, Integer> sorted = new TreeMap<>();
+    private final TrigramTable trigrams = new TrigramTable();
+
+    /**
+     * Номер игрока, добавляет его или обновляет ник
+     */
+    int update(UUID id, String name, long time) {
+        Integer existing = byId.get(id);
+        if (existing == null) {
+            int player = ids.size();
+            byId.put(id, player);
+            ids.add(id);
+            names.add(name);
+            lowerNames.add(SearchText.normalize(name));
+            if (player == lastSeen.length) {
+                lastSeen = Arrays.copyOf(lastSeen, player * 2);
+                currentEntries = Arrays.copyOf(currentEntries, player * 2);
+            }
+            lastSeen[player] = time;
+            indexName(player);
+            return player;
+        }
+
+        int player = existing;
+        boolean newer = time >= lastSeen[player];
+        lastSeen[player] = Math.max(lastSeen[player], time);
+        if (newer && !names.get(player).equals(name)) {
+            // Смена ника: старые триграммы остаются, лишние кандидаты отсеет проверка
+            sorted.remove(lowerNames.get(player) + KEY_SEPARATOR + currentEntries[player]);
+            names.set(player, name);
+            lowerNames.set(player, SearchText.normalize(name));
+            indexName(player);
+        }
+        return player;
+    }
+
+    UUID getId(int player) {
+        return ids.get(player);
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    /**
+     * Игроки, ник которых совпадает с запросом, начинается с него или отличается на 1-2 символа
+     */
+    List<Match> find(String token, int limit) {
+        List<Match> matches = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+
+        int scanned = 0;
+        for (int player : sorted.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+            String name = lowerNames.get(player);
+            int score = name.length() == token.length() ? Match.EXACT : Match.PREFIX - (name.length() - token.length());
+            matches.add(new Match(player, score, false));
+            seen.add(player);
+            if (++scanned == MAX_PREFIX_SCAN) break;
+        }
+
+        // Короткий запрос дает слишком много похожих ников
+        if (token.length() >= 4) {
+            int maxDistance = token.length() <= 6 ? 1 : 2;
+            for (long trigram : SearchText.nameTrigrams(token)) {
+                PostingList postings = trigrams.get(trigram);
+                if (postings == null) continue;
+
+                PostingList.Cursor cursor = postings.cursor();
+                for (int entry = cursor.next(); entry != PostingList.NO_DOC; entry = cursor.next()) {
+                    int player = entryPlayers[entry];
+                    if (!seen.add(player)) continue;
+                    String name = lowerNames.get(player);
+                    if (Math.abs(name.length() - token.length()) > maxDistance) continue;
+                    int distance = SearchText.distance(token, name, maxDistance);
+                    if (distance <= maxDistance) {
+                        matches.add(new Match(player, Match.FUZZY - distance * 10, true));
+                    }
+                }
+            }
+        }
+
+        matches.sort((a, b) -> a.score() != b.score()
+                ? Integer.compare(b.score(), a.score())
+                : Long.compare(lastSeen[b.player()], lastSeen[a.player()]));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    String getName(int player) {
+        return names.get(player);
+    }
+
+    long getLastSeen(int player) {
+        return lastSeen[player];
+    }
+
+    long getEstimatedBytes() {
+        return ids.size() * 160L + entryCount * 4L + trigrams.getEstimatedBytes();
+    }
+
+    private void indexName(int player) {
+        int entry = entryCount++;
+        if (entry == entryPlayers.length) {
+            entryPlayers = Arrays.copyOf(entryPlayers, entry * 2);
+        }
+        entryPlayers[entry] = player;
+        currentEntries[player] = entry;
+
+        String name = lowerNames.get(player);
+        sorted.put(name + KEY_SEPARATOR + entry, player);
+        for (long trigram : SearchText.nameTrigrams(name)) {
+            trigrams.getOrCreate(trigram).add(entry);
+        }
+    }
+
+    /**
+     * Найденный игрок
+     * @param fuzzy ник не содержит запрос, а похож на него
+     */
+    record Match(int player, int score, boolean fuzzy) {
+        static final int EXACT = 100;
+        static final int PREFIX = 60;
+        static final int FUZZY = 40;
+    }
+}
@@ -0,0 +1,197 @@
+package me.jlime.holyadmins.search;
+
+import java.util.Arrays;
+
+/**
+ * Сжатый список номеров документов по возрастанию
+ * Номера хранятся разностями в varint; каждые BLOCK_SIZE номеров запоминается точка пропуска,
+ * поэтому при пересечении длинный список проходится блоками, а не целиком
+ */
+final class PostingList {
+    static final int NO_DOC = Integer.MAX_VALUE;
+    static final int BLOCK_SIZE = 128;
+
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int size;
+    private int lastDoc = -1;
+    // Первый номер каждого блока и смещение, с которого он записан полностью (не разностью)
+    private int[] skipDocs = new int[1];
+    private int[] skipOffsets = new int[1];
+    private int blocks;
+
+    /**
+     * Добавляет номер документа; номера должны возрастать, повтор последнего игнорируется
+     */
+    void add(int doc) {
+        if (doc <= lastDoc) {
+            if (doc == lastDoc) return;
+            throw new IllegalArgumentException("Documents must be added in ascending order");
+        }
+
+        if (size % BLOCK_SIZE == 0) {
+            if (blocks == skipDocs.length) {
+                skipDocs = Arrays.copyOf(skipDocs, blocks * 2);
+                skipOffsets = Arrays.copyOf(skipOffsets, blocks * 2);
+            }
+            skipDocs[blocks] = doc;
+            skipOffsets[blocks] = length;
+            blocks++;
+            writeVarInt(doc);
+        } else {
+            writeVarInt(doc - lastDoc);
+        }
+        lastDoc = doc;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Количество блоков пропуска
+     */
+    int blockCount() {
+        return blocks;
+    }
+
+    /**
+     * Читает номера блока по возрастанию
+     * @return количество прочитанных номеров
+     */
+    int readBlock(int block, int[] out) {
+        int offset = skipOffsets[block];
+        int end = block + 1 < blocks ? skipOffsets[block + 1] : length;
+        int n = 0;
+        int doc = 0;
+        while (offset < end) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc = n == 0 ? value : doc + value;
+            out[n++] = doc;
+        }
+        return n;
+    }
+
+    /**
+     * Объем памяти списка в байтах
+     */
+    long getEstimatedBytes() {
+        return bytes.length + skipDocs.length * 8L + 32;
+    }
+
+    /**
+     * Курсор для чтения списка; список можно дополнять только под блокировкой записи, пока курсоров нет
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + 5, bytes.length * 2));
+        }
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    /**
+     * Последовательное чтение с пропуском блоков
+     */
+    final class Cursor {
+        private int block = -1;
+        private int offset;
+        private int indexInBlock;
+        private int doc = -1;
+
+        /**
+         * Возвращает курсор в начало списка
+         */
+        void reset() {
+            block = -1;
+            doc = -1;
+        }
+
+        /**
+         * Текущий номер документа или NO_DOC
+         */
+        int doc() {
+            return doc;
+        }
+
+        /**
+         * Переходит к следующему номеру
+         */
+        int next() {
+            if (doc == NO_DOC) return NO_DOC;
+            if (block < 0 || indexInBlock + 1 >= BLOCK_SIZE) {
+                return enterBlock(block + 1);
+            }
+            if (offset >= length) {
+                return doc = NO_DOC;
+            }
+            indexInBlock++;
+            doc += readVarInt();
+            return doc;
+        }
+
+        /**
+         * Переходит к первому номеру не меньше target
+         */
+        int advance(int target) {
+            if (doc >= target) return doc;
+
+            // Блок, в котором может быть target: последний с первым номером не больше target
+            int low = Math.max(block, 0);
+            int high = blocks - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (skipDocs[mid] <= target) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (low != block) {
+                enterBlock(low);
+            }
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        private int enterBlock(int index) {
+            if (index >= blocks) {
+                return doc = NO_DOC;
+            }
+            block = index;
+            offset = skipOffsets[index];
+            indexInBlock = 0;
+            doc = readVarInt();
+            return doc;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
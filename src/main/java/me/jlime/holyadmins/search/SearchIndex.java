@@ -0,0 +1,376 @@
+package me.jlime.holyadmins.search;
+
+import me.jlime.holyadmins.moderation.AuditEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Полнотекстовый индекс журнала модерации и ников игроков
+ * Каждая запись журнала (выдача и снятие наказаний, жалобы) - документ с номером по порядку добавления.
+ * Поля документов хранятся по столбцам в примитивных массивах, строки имен - в словаре,
+ * тексты - в UTF-8 страницах. По словам строится инвертированный индекс триграмм;
+ * индекс пополняется по одной записи, без перестроения.
+ *
+ * Запрос пересекает списки триграмм всех слов, проверяет самых новых кандидатов по тексту
+ * и ранжирует: совпадение ника важнее начала слова, начало слова важнее подстроки.
+ * Для запроса из одного слова ники ищутся еще и по префиксу и с опечатками
+ */
+public final class SearchIndex {
+    public static final int MIN_WORD_LENGTH = 2;
+    // Сколько самых новых кандидатов проверяется по тексту
+    private static final int MAX_CANDIDATES = 4096;
+    private static final int MAX_PLAYERS = 10;
+    private static final int PAGE_SIZE = 1 << 20;
+    private static final int PAGE_SHIFT = 20;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramTable trigrams = new TrigramTable();
+    private final NameIndex names = new NameIndex();
+    // Документы каждого игрока (по номеру в NameIndex)
+    private final List<PostingList> playerDocs = new ArrayList<>();
+
+    // Столбцы документов
+    private long[] seqs = new long[1024];
+    private long[] times = new long[1024];
+    private byte[] kinds = new byte[1024];
+    private int[] players = new int[1024];
+    private int[] subjectNames = new int[1024];
+    private int[] actorNames = new int[1024];
+    private int[] texts = new int[1024];
+    private int count;
+
+    // Словарь имен и их нормализованные формы
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final List<String> normalizedStrings = new ArrayList<>();
+
+    // Тексты: длина (2 байта) и UTF-8 байты; ссылка - номер страницы и смещение
+    private final List<byte[]> pages = new ArrayList<>();
+    private int pageOffset = PAGE_SIZE;
+
+    /**
+     * Добавляет запись журнала. Записи должны поступать по возрастанию номера, повторы игнорируются
+     */
+    public void add(AuditEntry entry) {
+        byte[] text = entry.getText().getBytes(StandardCharsets.UTF_8);
+        if (text.length > 0xFFFF) {
+            // Обрезка по границе символа: продолжения UTF-8 (10xxxxxx) не остаются без начала
+            int length = 0xFFFF;
+            while (length > 0 && (text[length] & 0xC0) == 0x80) {
+                length--;
+            }
+            text = Arrays.copyOf(text, length);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (count > 0 && entry.getSeq() <= seqs[count - 1]) return;
+
+            ensureCapacity(count + 1);
+            int doc = count++;
+            int player = names.update(entry.getSubjectId(), entry.getSubjectName(), entry.getTime());
+            seqs[doc] = entry.getSeq();
+            times[doc] = entry.getTime();
+            kinds[doc] = (byte) entry.getKind().getCode();
+            players[doc] = player;
+            subjectNames[doc] = intern(entry.getSubjectName());
+            actorNames[doc] = intern(entry.getActorName());
+            texts[doc] = store(text);
+
+            while (playerDocs.size() <= player) {
+                playerDocs.add(new PostingList());
+            }
+            playerDocs.get(player).add(doc);
+
+            indexWords(doc, entry.getSubjectName());
+            indexWords(doc, entry.getActorName());
+            indexWords(doc, entry.getText());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Запоминает ник игрока (например, при входе на сервер), чтобы его можно было найти без записей журнала
+     */
+    public void addPlayer(UUID id, String name, long time) {
+        lock.writeLock().lock();
+        try {
+            names.update(id, name, time);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет игроков и записи журнала
+     * @param query слова через пробел; все слова не короче MIN_WORD_LENGTH должны встретиться в записи
+     * @param limit наибольшее количество записей
+     */
+    public Result search(String query, int limit) {
+        List<String> words = new ArrayList<>();
+        for (String word : SearchText.words(SearchText.normalize(query))) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                words.add(word);
+            }
+        }
+        if (words.isEmpty() || limit <= 0) return Result.EMPTY;
+
+        lock.readLock().lock();
+        try {
+            List<Player> players = new ArrayList<>();
+            List<NameIndex.Match> fuzzyPlayers = new ArrayList<>();
+            if (words.size() == 1) {
+                for (NameIndex.Match match : names.find(words.get(0), MAX_PLAYERS)) {
+                    players.add(new Player(names.getId(match.player()), names.getName(match.player()),
+                            names.getLastSeen(match.player()), match.score()));
+                    if (match.fuzzy()) {
+                        fuzzyPlayers.add(match);
+                    }
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>();
+            collectMatches(words, hits);
+            for (NameIndex.Match match : fuzzyPlayers) {
+                collectPlayerDocs(match, hits);
+            }
+
+            // Лучшие по оценке, при равной - новые
+            hits.sort((a, b) -> a.score != b.score ? Integer.compare(b.score, a.score) : Integer.compare(b.doc, a.doc));
+            List<AuditEntry> entries = new ArrayList<>(Math.min(limit, hits.size()));
+            Set<Integer> added = new HashSet<>();
+            for (Hit hit : hits) {
+                if (entries.size() == limit) break;
+                // Документ мог попасть и по словам, и по нику с опечаткой
+                if (added.add(hit.doc)) {
+                    entries.add(toEntry(hit.doc));
+                }
+            }
+            return new Result(players, entries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество документов
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Приблизительный объем памяти индекса
+     */
+    public long getEstimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long total = seqs.length * 37L + (long) pages.size() * PAGE_SIZE;
+            total += trigrams.getEstimatedBytes() + names.getEstimatedBytes();
+            for (PostingList postings : playerDocs) {
+                total += postings.getEstimatedBytes();
+            }
+            return total + strings.size() * 128L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Пересекает списки триграмм всех слов; проверяются только самые новые кандидаты
+     */
+    private void collectMatches(List<String> words, List<Hit> hits) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String word : words) {
+            for (long trigram : SearchText.queryTrigrams(word)) {
+                PostingList postings = trigrams.get(trigram);
+                if (postings == null) return;
+                if (!lists.contains(postings)) {
+                    lists.add(postings);
+                }
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        PostingList.Cursor[] cursors = new PostingList.Cursor[lists.size()];
+        for (int i = 1; i < cursors.length; i++) {
+            cursors[i] = lists.get(i).cursor();
+        }
+
+        // Списки идут по возрастанию, а нужны самые новые: самый короткий список читается
+        // блоками с конца, остальные догоняют его через точки пропуска
+        PostingList shortest = lists.get(0);
+        int[] block = new int[PostingList.BLOCK_SIZE];
+        int[] matched = new int[PostingList.BLOCK_SIZE];
+        int found = 0;
+        for (int b = shortest.blockCount() - 1; b >= 0 && found < MAX_CANDIDATES; b--) {
+            int size = shortest.readBlock(b, block);
+            for (int i = 1; i < cursors.length; i++) {
+                cursors[i].reset();
+            }
+
+            int matchedCount = 0;
+            for (int k = 0; k < size; k++) {
+                int doc = block[k];
+                boolean all = true;
+                for (int i = 1; i < cursors.length && all; i++) {
+                    all = cursors[i].advance(doc) == doc;
+                }
+                if (all) {
+                    matched[matchedCount++] = doc;
+                }
+            }
+
+            for (int k = matchedCount - 1; k >= 0 && found < MAX_CANDIDATES; k--, found++) {
+                int score = score(matched[k], words);
+                if (score > 0) {
+                    hits.add(new Hit(matched[k], score));
+                }
+            }
+        }
+    }
+
+    /**
+     * Записи игрока, найденного по нику с опечаткой
+     */
+    private void collectPlayerDocs(NameIndex.Match match, List<Hit> hits) {
+        if (match.player() >= playerDocs.size()) return;
+
+        PostingList postings = playerDocs.get(match.player());
+        int[] ring = new int[Math.min(MAX_CANDIDATES / 4, postings.size())];
+        if (ring.length == 0) return;
+
+        int found = 0;
+        PostingList.Cursor cursor = postings.cursor();
+        for (int doc = cursor.next(); doc != PostingList.NO_DOC; doc = cursor.next()) {
+            ring[found++ % ring.length] = doc;
+        }
+        for (int i = 0; i < Math.min(found, ring.length); i++) {
+            hits.add(new Hit(ring[i], match.score() / 10));
+        }
+    }
+
+    /**
+     * Оценка документа или 0, если какое-то слово запроса в нем не встречается
+     */
+    private int score(int doc, List<String> words) {
+        String subject = normalizedStrings.get(subjectNames[doc]);
+        String actor = normalizedStrings.get(actorNames[doc]);
+        String text = null;
+
+        int score = 0;
+        for (String word : words) {
+            if (subject.equals(word)) {
+                score += 8;
+            } else if (subject.startsWith(word)) {
+                score += 5;
+            } else if (actor.equals(word) || actor.startsWith(word)) {
+                score += 3;
+            } else if (subject.contains(word) || actor.contains(word)) {
+                score += 2;
+            } else {
+                if (text == null) {
+                    text = SearchText.normalize(loadText(doc));
+                }
+                if (SearchText.hasWordPrefix(text, word)) {
+                    score += 2;
+                } else if (word.length() > MIN_WORD_LENGTH && text.contains(word)) {
+                    score += 1;
+                } else {
+                    return 0;
+                }
+            }
+        }
+        return score;
+    }
+
+    private AuditEntry toEntry(int doc) {
+        return new AuditEntry(seqs[doc], AuditEntry.Kind.byCode(kinds[doc]), times[doc], names.getId(players[doc]),
+                strings.get(subjectNames[doc]), strings.get(actorNames[doc]), loadText(doc));
+    }
+
+    private void indexWords(int doc, String value) {
+        for (String word : SearchText.words(SearchText.normalize(value))) {
+            SearchText.indexTrigrams(word, trigram -> trigrams.getOrCreate(trigram).add(doc));
+        }
+    }
+
+    private int intern(String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            normalizedStrings.add(SearchText.normalize(value));
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private int store(byte[] text) {
+        if (pageOffset + 2 + text.length > PAGE_SIZE) {
+            pages.add(new byte[PAGE_SIZE]);
+            pageOffset = 0;
+        }
+        byte[] page = pages.get(pages.size() - 1);
+        int ref = ((pages.size() - 1) << PAGE_SHIFT) | pageOffset;
+        page[pageOffset] = (byte) (text.length >>> 8);
+        page[pageOffset + 1] = (byte) text.length;
+        System.arraycopy(text, 0, page, pageOffset + 2, text.length);
+        pageOffset += 2 + text.length;
+        return ref;
+    }
+
+    private String loadText(int doc) {
+        int ref = texts[doc];
+        byte[] page = pages.get(ref >>> PAGE_SHIFT);
+        int offset = ref & (PAGE_SIZE - 1);
+        int length = ((page[offset] & 0xFF) << 8) | (page[offset + 1] & 0xFF);
+        return new String(page, offset + 2, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= seqs.length) return;
+
+        int newCapacity = Math.max(capacity, seqs.length * 2);
+        seqs = Arrays.copyOf(seqs, newCapacity);
+        times = Arrays.copyOf(times, newCapacity);
+        kinds = Arrays.copyOf(kinds, newCapacity);
+        players = Arrays.copyOf(players, newCapacity);
+        subjectNames = Arrays.copyOf(subjectNames, newCapacity);
+        actorNames = Arrays.copyOf(actorNames, newCapacity);
+        texts = Arrays.copyOf(texts, newCapacity);
+    }
+
+    /**
+     * Результат поиска: игроки по нику и записи журнала по убыванию оценки
+     */
+    public record Result(List<Player> players, List<AuditEntry> entries) {
+        static final Result EMPTY = new Result(Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Найденный игрок
+     */
+    public record Player(UUID id, String name, long lastSeen, int score) {
+    }
+
+    private record Hit(int doc, int score) {
+    }
+}
@@ -0,0 +1,140 @@
+package me.jlime.holyadmins.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+
+/**
+ * Нормализация текста, разбиение на слова и триграммы для поиска
+ * Слово - непрерывная последовательность букв, цифр и '_'. Триграмма - три символа,
+ * упакованные в long; начало слова отмечается символом WORD_START
+ */
+final class SearchText {
+    private static final char WORD_START = '^';
+    private static final char WORD_END = '$';
+
+    /**
+     * Текст в нижнем регистре, 'ё' приравнивается к 'е'
+     */
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    /**
+     * Слова нормализованного текста без повторов
+     */
+    static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && isWordChar(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = normalized.substring(start, i);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Триграммы слова для индекса: все триграммы и триграмма начала слова
+     */
+    static void indexTrigrams(String word, LongConsumer consumer) {
+        if (word.length() < 2) return;
+        consumer.accept(trigram(WORD_START, word.charAt(0), word.charAt(1)));
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            consumer.accept(trigram(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2)));
+        }
+    }
+
+    /**
+     * Триграммы слова запроса: из двух символов ищется начало слова, из трех и больше - подстрока
+     */
+    static long[] queryTrigrams(String word) {
+        if (word.length() < 2) return new long[0];
+        if (word.length() == 2) {
+            return new long[]{trigram(WORD_START, word.charAt(0), word.charAt(1))};
+        }
+        long[] trigrams = new long[word.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Триграммы ника с границами: одна опечатка меняет не больше трех из них
+     */
+    static long[] nameTrigrams(String name) {
+        String padded = WORD_START + name + WORD_END;
+        long[] trigrams = new long[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Начинается ли с word одно из слов текста
+     */
+    static boolean hasWordPrefix(String text, String word) {
+        for (int index = text.indexOf(word); index >= 0; index = text.indexOf(word, index + 1)) {
+            if (index == 0 || !isWordChar(text.charAt(index - 1))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Расстояние Дамерау-Левенштейна (перестановка соседних символов - одна правка),
+     * если оно не больше max, иначе max + 1
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            // Дальше расстояние только растет
+            if (rowMin > max) return max + 1;
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // Приватный конструктор
+    private SearchText() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
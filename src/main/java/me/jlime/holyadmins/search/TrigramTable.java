@@ -0,0 +1,87 @@
+package me.jlime.holyadmins.search;
+
+import java.util.Arrays;
+
+/**
+ * Таблица триграмма -> список документов с открытой адресацией
+ * Ключи хранятся примитивами, без упаковки в Long на каждый поиск
+ */
+final class TrigramTable {
+    private static final long EMPTY = 0L;
+
+    private long[] keys = new long[256];
+    private PostingList[] values = new PostingList[256];
+    private int size;
+
+    /**
+     * Список документов триграммы или null
+     */
+    PostingList get(long trigram) {
+        int mask = keys.length - 1;
+        for (int slot = hash(trigram) & mask; ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if (key == trigram) return values[slot];
+            if (key == EMPTY) return null;
+        }
+    }
+
+    /**
+     * Список документов триграммы, создается при первом обращении
+     */
+    PostingList getOrCreate(long trigram) {
+        if (trigram == EMPTY) {
+            throw new IllegalArgumentException("Empty trigram");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(trigram) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == trigram) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+
+        PostingList postings = new PostingList();
+        keys[slot] = trigram;
+        values[slot] = postings;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+        return postings;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getEstimatedBytes() {
+        long total = keys.length * 12L;
+        for (PostingList postings : values) {
+            if (postings != null) {
+                total += postings.getEstimatedBytes();
+            }
+        }
+        return total;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        PostingList[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new PostingList[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+        Arrays.fill(oldValues, null);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
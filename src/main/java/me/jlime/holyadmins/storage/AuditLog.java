@@ -0,0 +1,432 @@
+package me.jlime.holyadmins.storage;
+
+import me.jlime.holyadmins.Holyadmins;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Сегментированный журнал только для дозаписи
+ *
+ * Записи попадают в отображенные в память файлы сегментов. append() лишь ставит запись в очередь
+ * и никогда не ждет диска: отдельный поток пишет накопившиеся записи пачкой и выполняет один
+ * force() на пачку (групповая фиксация). После сбоя журнал читается до первой записи с неверной CRC.
+ *
+ * Каждый сегмент хранит небольшой пользовательский заголовок, который выдается при создании сегмента
+ * (например, счетчики ID, чтобы они не откатывались после уплотнения старых сегментов)
+ */
+public final class AuditLog implements AutoCloseable {
+    public static final int DEFAULT_SEGMENT_SIZE = 8 << 20;
+    public static final int MAX_PAYLOAD = 0xFFFF;
+
+    private static final int MAX_BATCH = 1024;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{8})-(\\d+)\\.log");
+    private static final Pending SHUTDOWN = new Pending(-1L, null, null, null);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Supplier<byte[]> headerSupplier;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Object appendLock = new Object();
+    private final Thread writer;
+    // Снимок списка сегментов, последний - активный; меняется только потоком записи
+    private volatile List<LogSegment> segments;
+    private long nextSeq;
+    private volatile long durableSeq;
+    private volatile boolean closed;
+
+    private AuditLog(Path directory, int segmentSize, Supplier<byte[]> headerSupplier, List<LogSegment> segments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.headerSupplier = headerSupplier;
+        this.segments = Collections.unmodifiableList(segments);
+
+        long lastSeq = 0L;
+        for (LogSegment segment : segments) {
+            lastSeq = Math.max(lastSeq, Math.max(segment.getLastSeq(), segment.getFirstSeq() - 1));
+        }
+        this.nextSeq = lastSeq + 1;
+        this.durableSeq = lastSeq;
+
+        this.writer = new Thread(this::runWriter, "HolyAdmins Audit Writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Открывает журнал в каталоге, восстанавливая его после возможного сбоя, и запускает поток записи
+     * @param headerSupplier заголовок для каждого нового сегмента (не длиннее 44 байт)
+     */
+    public static AuditLog open(Path directory, int segmentSize, Supplier<byte[]> headerSupplier) throws IOException {
+        if (segmentSize < LogSegment.HEADER_SIZE + LogSegment.RECORD_OVERHEAD + MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+
+        // Для каждого индекса берется последнее поколение; остатки прерванного уплотнения удаляются
+        Map<Integer, Path> latest = new TreeMap<>();
+        Map<Integer, Integer> generations = new TreeMap<>();
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    stale.add(file);
+                    continue;
+                }
+                Matcher matcher = SEGMENT_NAME.matcher(name);
+                if (!matcher.matches()) continue;
+
+                int index = Integer.parseInt(matcher.group(1));
+                int generation = Integer.parseInt(matcher.group(2));
+                Integer current = generations.get(index);
+                if (current == null || generation > current) {
+                    if (current != null) {
+                        stale.add(latest.get(index));
+                    }
+                    latest.put(index, file);
+                    generations.put(index, generation);
+                } else {
+                    stale.add(file);
+                }
+            }
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+
+        List<LogSegment> segments = new ArrayList<>(latest.size() + 1);
+        int count = latest.size();
+        int position = 0;
+        for (Map.Entry<Integer, Path> entry : latest.entrySet()) {
+            boolean active = ++position == count;
+            LogSegment segment = LogSegment.open(entry.getValue(), entry.getKey(), generations.get(entry.getKey()),
+                    active ? segmentSize : 0);
+            if (segment.wasTruncated()) {
+                Holyadmins.LOGGER.warn("Audit log segment {} had a torn tail after {} records, truncated",
+                        entry.getValue().getFileName(), segment.getRecordCount());
+            }
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.add(LogSegment.create(directory.resolve(segmentName(0, 0)), 0, 0, segmentSize, 1L,
+                    headerSupplier.get()));
+        }
+
+        AuditLog log = new AuditLog(directory, segmentSize, headerSupplier, segments);
+        log.writer.start();
+        return log;
+    }
+
+    /**
+     * Проходит весь журнал от старых записей к новым (восстановление индексов при запуске)
+     */
+    public void replay(RecordVisitor visitor) {
+        for (LogSegment segment : segments) {
+            visitor.header(ByteBuffer.wrap(segment.getUserHeader()).asReadOnlyBuffer());
+            segment.forEach(visitor);
+        }
+    }
+
+    /**
+     * Ставит запись в очередь на запись. Не блокируется на диске
+     * @return порядковый номер записи
+     */
+    public long append(byte[] payload) {
+        if (payload.length == 0 || payload.length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Invalid payload length: " + payload.length);
+        }
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Audit log is closed");
+            }
+            long seq = nextSeq++;
+            queue.add(new Pending(seq, payload, null, null));
+            return seq;
+        }
+    }
+
+    /**
+     * Ставит записи в очередь одним элементом: поток записи пишет их подряд и сбрасывает на диск одним force()
+     * @return номер первой записи, остальные идут по порядку
+     */
+    public long appendAll(List<byte[]> payloads) {
+        if (payloads.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        for (byte[] payload : payloads) {
+            if (payload.length == 0 || payload.length > MAX_PAYLOAD) {
+                throw new IllegalArgumentException("Invalid payload length: " + payload.length);
+            }
+        }
+        byte[][] batch = payloads.toArray(new byte[0][]);
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Audit log is closed");
+            }
+            long seq = nextSeq;
+            nextSeq += batch.length;
+            queue.add(new Pending(seq, null, batch, null));
+            return seq;
+        }
+    }
+
+    /**
+     * Читает последние записи с конца, не разбирая журнал целиком
+     * @param beforeSeq вернуть только записи с меньшим номером (Long.MAX_VALUE - с самой новой)
+     * @return записи от новых к старым
+     */
+    public List<LogRecord> tail(long beforeSeq, int limit) {
+        List<LogRecord> result = new ArrayList<>(Math.min(limit, 64));
+        List<LogSegment> snapshot = segments;
+        for (int i = snapshot.size() - 1; i >= 0 && result.size() < limit; i--) {
+            LogSegment segment = snapshot.get(i);
+            if (segment.getFirstSeq() >= beforeSeq) continue;
+            segment.readBackward(beforeSeq, limit - result.size(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Уплотняет закрытые сегменты в потоке записи: записи, для которых filter вернул false, удаляются.
+     * Активный сегмент не трогается
+     */
+    public void compact(RecordFilter filter) {
+        synchronized (appendLock) {
+            if (closed) return;
+            queue.add(new Pending(-1L, null, null, () -> compactSealed(filter)));
+        }
+    }
+
+    /**
+     * Номер последней записи, поставленной в очередь
+     */
+    public long getLastSeq() {
+        synchronized (appendLock) {
+            return nextSeq - 1;
+        }
+    }
+
+    /**
+     * Номер последней записи, сброшенной на диск
+     */
+    public long getDurableSeq() {
+        return durableSeq;
+    }
+
+    /**
+     * Количество записей, ожидающих записи
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Дописывает очередь, сбрасывает ее на диск и останавливает поток записи
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) return;
+            closed = true;
+            queue.add(SHUTDOWN);
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            Holyadmins.LOGGER.warn("Audit log writer did not finish in {}s, {} records pending",
+                    CLOSE_TIMEOUT_SECONDS, queue.size());
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(64);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            long lastWritten = -1L;
+            for (Pending pending : batch) {
+                if (pending == SHUTDOWN) {
+                    running = false;
+                } else if (pending.task() != null) {
+                    // Задачи обслуживания видят все записи, поставленные до них
+                    commit(lastWritten);
+                    lastWritten = -1L;
+                    runTask(pending.task());
+                } else if (pending.batch() != null) {
+                    for (int i = 0; i < pending.batch().length; i++) {
+                        if (write(pending.seq() + i, pending.batch()[i])) {
+                            lastWritten = pending.seq() + i;
+                        }
+                    }
+                } else if (write(pending.seq(), pending.payload())) {
+                    lastWritten = pending.seq();
+                }
+            }
+            commit(lastWritten);
+            batch.clear();
+        }
+    }
+
+    private boolean write(long seq, byte[] payload) {
+        LogSegment active = segments.get(segments.size() - 1);
+        try {
+            if (!active.hasRoom(payload.length)) {
+                active = rotate(active, seq);
+            }
+            active.append(seq, payload);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            Holyadmins.LOGGER.error("Failed to write audit record {}", seq, e);
+            return false;
+        }
+    }
+
+    /**
+     * Один force() на пачку записей
+     */
+    private void commit(long lastWritten) {
+        if (lastWritten < 0) return;
+        try {
+            segments.get(segments.size() - 1).force();
+            durableSeq = lastWritten;
+        } catch (RuntimeException e) {
+            Holyadmins.LOGGER.error("Failed to flush audit log", e);
+        }
+    }
+
+    private LogSegment rotate(LogSegment active, long firstSeq) throws IOException {
+        active.force();
+        int index = active.getIndex() + 1;
+        LogSegment next = LogSegment.create(directory.resolve(segmentName(index, 0)), index, 0,
+                segmentSize, firstSeq, headerSupplier.get());
+
+        List<LogSegment> updated = new ArrayList<>(segments);
+        updated.add(next);
+        segments = Collections.unmodifiableList(updated);
+        return next;
+    }
+
+    private void compactSealed(RecordFilter filter) {
+        List<LogSegment> snapshot = segments;
+        int removedTotal = 0;
+        for (int i = 0; i < snapshot.size() - 1; i++) {
+            LogSegment segment = snapshot.get(i);
+            List<LogRecord> kept = new ArrayList<>();
+            segment.forEach((seq, payload) -> {
+                if (filter.keep(seq, payload.duplicate())) {
+                    byte[] bytes = new byte[payload.remaining()];
+                    payload.get(bytes);
+                    kept.add(new LogRecord(seq, bytes));
+                }
+            });
+            int removed = segment.getRecordCount() - kept.size();
+            if (removed == 0) continue;
+
+            try {
+                int generation = segment.getGeneration() + 1;
+                Path target = directory.resolve(segmentName(segment.getIndex(), generation));
+                Path temp = directory.resolve(target.getFileName() + ".tmp");
+                LogSegment.write(temp, segment.getFirstSeq(), segment.getUserHeader(), kept);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+                LogSegment replacement = LogSegment.open(target, segment.getIndex(), generation, 0);
+                List<LogSegment> updated = new ArrayList<>(segments);
+                updated.set(updated.indexOf(segment), replacement);
+                segments = Collections.unmodifiableList(updated);
+                removedTotal += removed;
+
+                // В Windows отображенный файл может не удалиться; старое поколение уберется при следующем запуске
+                try {
+                    Files.deleteIfExists(segment.getPath());
+                } catch (IOException e) {
+                    Holyadmins.LOGGER.debug("Old audit segment {} is still mapped", segment.getPath().getFileName());
+                }
+            } catch (IOException e) {
+                Holyadmins.LOGGER.error("Failed to compact audit segment {}", segment.getPath().getFileName(), e);
+            }
+        }
+        if (removedTotal > 0) {
+            Holyadmins.LOGGER.info("Audit log compaction removed {} records", removedTotal);
+        }
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            Holyadmins.LOGGER.error("Audit log maintenance task failed", e);
+        }
+    }
+
+    private static String segmentName(int index, int generation) {
+        return String.format(Locale.ROOT, "segment-%08d-%d.log", index, generation);
+    }
+
+    /**
+     * Обход записей журнала
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(long seq, ByteBuffer payload);
+
+        /**
+         * Пользовательский заголовок очередного сегмента; вызывается перед его записями
+         */
+        default void header(ByteBuffer header) {
+        }
+    }
+
+    /**
+     * Фильтр уплотнения
+     */
+    @FunctionalInterface
+    public interface RecordFilter {
+        boolean keep(long seq, ByteBuffer payload);
+    }
+
+    /**
+     * Запись журнала, прочитанная с конца
+     */
+    public record LogRecord(long seq, byte[] payload) {
+    }
+
+    /**
+     * Элемент очереди записи: одна запись, пачка записей с номерами от seq или задача обслуживания
+     */
+    private record Pending(long seq, byte[] payload, byte[][] batch, Runnable task) {
+    }
+}
@@ -0,0 +1,305 @@
+package me.jlime.holyadmins.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Один файл сегментированного журнала, отображенный в память
+ *
+ * Формат файла:
+ * <pre>
+ * заголовок (HEADER_SIZE байт): magic, версия, seq первой записи, длина и байты пользовательского заголовка
+ * запись: длина payload (int), seq (long), CRC32 от seq и payload (int), payload, длина payload (int)
+ * </pre>
+ * Длина в конце записи позволяет читать журнал с конца. Нулевая длина - конец данных:
+ * файл выделяется заранее и заполнен нулями. Запись с неверной CRC считается оборванной при сбое
+ */
+final class LogSegment {
+    static final int MAGIC = 0x48414C47; // "HALG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int MAX_USER_HEADER = HEADER_SIZE - 20;
+    static final int RECORD_OVERHEAD = 20;
+
+    private final Path path;
+    private final int index;
+    private final int generation;
+    private final long firstSeq;
+    private final byte[] userHeader;
+    private final MappedByteBuffer buffer;
+    private final boolean writable;
+    private final CRC32 crc = new CRC32();
+    // Конец записанных данных; публикуется после записи байтов, читатели не заходят дальше
+    private volatile int end;
+    private long lastSeq;
+    private int recordCount;
+    private boolean truncated;
+
+    private LogSegment(Path path, int index, int generation, long firstSeq, byte[] userHeader,
+                       MappedByteBuffer buffer, boolean writable) {
+        this.path = path;
+        this.index = index;
+        this.generation = generation;
+        this.firstSeq = firstSeq;
+        this.userHeader = userHeader;
+        this.buffer = buffer;
+        this.writable = writable;
+    }
+
+    /**
+     * Создает новый сегмент заданного размера
+     */
+    static LogSegment create(Path path, int index, int generation, int size, long firstSeq, byte[] userHeader) throws IOException {
+        if (userHeader.length > MAX_USER_HEADER) {
+            throw new IllegalArgumentException("User header is too large: " + userHeader.length);
+        }
+        MappedByteBuffer buffer = map(path, size, true, true);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, firstSeq);
+        buffer.putInt(16, userHeader.length);
+        buffer.put(20, userHeader);
+
+        LogSegment segment = new LogSegment(path, index, generation, firstSeq, userHeader, buffer, true);
+        segment.end = HEADER_SIZE;
+        segment.lastSeq = firstSeq - 1;
+        return segment;
+    }
+
+    /**
+     * Открывает существующий сегмент и находит конец данных
+     * @param writableSize размер отображения для активного сегмента или 0 для закрытого (только чтение)
+     */
+    static LogSegment open(Path path, int index, int generation, int writableSize) throws IOException {
+        boolean writable = writableSize > 0;
+        MappedByteBuffer buffer = map(path, writableSize, writable, false);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a log segment: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported log segment version " + buffer.getInt(4) + ": " + path);
+        }
+        long firstSeq = buffer.getLong(8);
+        int userHeaderLength = buffer.getInt(16);
+        if (userHeaderLength < 0 || userHeaderLength > MAX_USER_HEADER) {
+            throw new IOException("Corrupted log segment header: " + path);
+        }
+        byte[] userHeader = new byte[userHeaderLength];
+        buffer.get(20, userHeader);
+
+        LogSegment segment = new LogSegment(path, index, generation, firstSeq, userHeader, buffer, writable);
+        segment.recover();
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path path, int size, boolean writable, boolean createNew) throws IOException {
+        StandardOpenOption[] options = !writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : createNew
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // Отображение остается действительным после закрытия канала
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long length = writable ? Math.max(size, channel.size()) : channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Log segment is too large: " + path);
+            }
+            return channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+    }
+
+    /**
+     * Проходит записи от начала и останавливается на первой пустой или поврежденной
+     */
+    private void recover() {
+        int position = HEADER_SIZE;
+        long seq = firstSeq - 1;
+        int count = 0;
+        int limit = buffer.capacity();
+        while (position + RECORD_OVERHEAD <= limit) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_OVERHEAD + length > limit) break;
+            if (buffer.getInt(position + 16 + length) != length) break;
+            if (checksum(position, length) != buffer.getInt(position + 12)) break;
+
+            seq = buffer.getLong(position + 4);
+            position += RECORD_OVERHEAD + length;
+            count++;
+        }
+
+        // Оборванный хвост затирается, чтобы новые записи не смешались со старыми байтами
+        if (position + 4 <= limit && buffer.getInt(position) != 0) {
+            truncated = true;
+            if (writable) {
+                for (int i = position; i < limit && i < position + RECORD_OVERHEAD + AuditLog.MAX_PAYLOAD; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+        }
+
+        this.end = position;
+        this.lastSeq = seq;
+        this.recordCount = count;
+    }
+
+    /**
+     * Помещается ли запись в оставшееся место
+     */
+    boolean hasRoom(int payloadLength) {
+        return writable && end + RECORD_OVERHEAD + payloadLength + 4 <= buffer.capacity();
+    }
+
+    /**
+     * Дописывает запись (только поток записи)
+     */
+    void append(long seq, byte[] payload) {
+        int position = end;
+        int length = payload.length;
+        buffer.putLong(position + 4, seq);
+        buffer.put(position + 16, payload);
+        buffer.putInt(position + 16 + length, length);
+        buffer.putInt(position + 12, checksum(position, length));
+        buffer.putInt(position, length);
+
+        lastSeq = seq;
+        recordCount++;
+        end = position + RECORD_OVERHEAD + length;
+    }
+
+    /**
+     * Сбрасывает измененные страницы на диск
+     */
+    void force() {
+        if (writable) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Проходит все записи от старых к новым
+     */
+    void forEach(AuditLog.RecordVisitor visitor) {
+        ByteBuffer view = buffer.duplicate();
+        int limit = end;
+        int position = HEADER_SIZE;
+        while (position < limit) {
+            int length = view.getInt(position);
+            long seq = view.getLong(position + 4);
+            ByteBuffer payload = view.slice(position + 16, length).asReadOnlyBuffer();
+            visitor.visit(seq, payload);
+            position += RECORD_OVERHEAD + length;
+        }
+    }
+
+    /**
+     * Читает записи с конца, начиная с первой, чей seq меньше beforeSeq
+     * @return сколько записей добавлено
+     */
+    int readBackward(long beforeSeq, int limit, List<AuditLog.LogRecord> out) {
+        ByteBuffer view = buffer.duplicate();
+        int position = end;
+        int added = 0;
+        while (position > HEADER_SIZE && added < limit) {
+            int length = view.getInt(position - 4);
+            int start = position - RECORD_OVERHEAD - length;
+            long seq = view.getLong(start + 4);
+            if (seq < beforeSeq) {
+                byte[] payload = new byte[length];
+                view.get(start + 16, payload);
+                out.add(new AuditLog.LogRecord(seq, payload));
+                added++;
+            }
+            position = start;
+        }
+        return added;
+    }
+
+    /**
+     * Записывает закрытый сегмент целиком (используется при уплотнении)
+     */
+    static void write(Path path, long firstSeq, byte[] userHeader, List<AuditLog.LogRecord> records) throws IOException {
+        int size = HEADER_SIZE;
+        for (AuditLog.LogRecord record : records) {
+            size += RECORD_OVERHEAD + record.payload().length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(VERSION).putLong(firstSeq).putInt(userHeader.length).put(userHeader);
+        out.position(HEADER_SIZE);
+
+        CRC32 crc = new CRC32();
+        for (AuditLog.LogRecord record : records) {
+            byte[] payload = record.payload();
+            crc.reset();
+            crc.update(ByteBuffer.allocate(8).putLong(0, record.seq()));
+            crc.update(payload);
+            out.putInt(payload.length).putLong(record.seq()).putInt((int) crc.getValue())
+                    .put(payload).putInt(payload.length);
+        }
+        out.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+    }
+
+    private int checksum(int position, int length) {
+        crc.reset();
+        crc.update(buffer.slice(position + 4, 8));
+        crc.update(buffer.slice(position + 16, length));
+        return (int) crc.getValue();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    long getFirstSeq() {
+        return firstSeq;
+    }
+
+    long getLastSeq() {
+        return lastSeq;
+    }
+
+    byte[] getUserHeader() {
+        return userHeader;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    boolean isEmpty() {
+        return recordCount == 0;
+    }
+
+    /**
+     * Был ли при открытии найден оборванный хвост
+     */
+    boolean wasTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,164 @@
+package me.jlime.holyadmins.alts;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Граф мультиаккаунтов: объединение компонент через общие признаки
+ */
+class AltGraphTest {
+    private static final UUID ALICE = new UUID(0, 1);
+    private static final UUID BOB = new UUID(0, 2);
+    private static final UUID CAROL = new UUID(0, 3);
+    private static final UUID DAVE = new UUID(0, 4);
+    private static final UUID EVE = new UUID(0, 5);
+
+    private static final long HOME = 0x0A000001L;
+    private static final long OFFICE = 0x0A000002L;
+    private static final long LAPTOP = 42L;
+
+    @Test
+    void mergesTwoExistingClusters() {
+        AltGraph graph = new AltGraph(8);
+        graph.recordLogin(ALICE, "Alice", 1, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(BOB, "Bob", 2, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(CAROL, "Carol", 3, AltGraph.ADDRESS_V4, OFFICE);
+        graph.recordLogin(DAVE, "Dave", 4, AltGraph.ADDRESS_V4, OFFICE);
+
+        assertEquals(List.of(BOB), ids(graph.cluster(ALICE, 10)));
+        assertEquals(List.of(CAROL), ids(graph.cluster(DAVE, 10)));
+
+        // Боб заходит из офиса - две компоненты сливаются в одну
+        assertTrue(graph.recordLogin(BOB, "Bob", 5, AltGraph.ADDRESS_V4, OFFICE));
+
+        assertEquals(List.of(BOB, DAVE, CAROL), ids(graph.cluster(ALICE, 10)));
+        assertEquals(List.of(BOB, CAROL, ALICE), ids(graph.cluster(DAVE, 10)));
+        assertEquals(List.of(DAVE, CAROL, ALICE), ids(graph.cluster(BOB, 10)));
+    }
+
+    @Test
+    void mergeCountsDirectlySharedAttributes() {
+        AltGraph graph = new AltGraph(8);
+        graph.recordLogin(ALICE, "Alice", 1, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(ALICE, "Alice", 1, AltGraph.FINGERPRINT, LAPTOP);
+        graph.recordLogin(BOB, "Bob", 2, AltGraph.ADDRESS_V4, OFFICE);
+        graph.recordLogin(CAROL, "Carol", 3, AltGraph.ADDRESS_V4, OFFICE);
+
+        graph.recordLogin(BOB, "Bob", 4, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(BOB, "Bob", 4, AltGraph.FINGERPRINT, LAPTOP);
+
+        List<AltGraph.Account> accounts = graph.cluster(ALICE, 10);
+        assertEquals(List.of(BOB, CAROL), ids(accounts));
+        assertEquals(1, accounts.get(0).sharedAddresses());
+        assertEquals(1, accounts.get(0).sharedFingerprints());
+        // Кэрол связана с Алисой только через Боба
+        assertEquals(0, accounts.get(1).sharedAddresses());
+        assertEquals(0, accounts.get(1).sharedFingerprints());
+    }
+
+    @Test
+    void repeatedLoginAddsNoEdgeAndMergingSameClusterIsNoOp() {
+        AltGraph graph = new AltGraph(8);
+        graph.recordLogin(ALICE, "Alice", 1, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(BOB, "Bob", 2, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(ALICE, "Alice", 3, AltGraph.FINGERPRINT, LAPTOP);
+
+        assertFalse(graph.recordLogin(BOB, "Bob", 4, AltGraph.ADDRESS_V4, HOME));
+        // Оба уже в одной компоненте; второй общий признак не дублирует аккаунты
+        assertTrue(graph.recordLogin(BOB, "Bob", 5, AltGraph.FINGERPRINT, LAPTOP));
+
+        assertEquals(List.of(BOB), ids(graph.cluster(ALICE, 10)));
+        assertEquals(List.of(ALICE), ids(graph.cluster(BOB, 10)));
+        assertEquals(4, graph.getEdgeCount());
+    }
+
+    @Test
+    void crowdedAttributeDoesNotMergeClusters() {
+        AltGraph graph = new AltGraph(2);
+        graph.recordLogin(ALICE, "Alice", 1, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(BOB, "Bob", 2, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(CAROL, "Carol", 3, AltGraph.ADDRESS_V4, OFFICE);
+        graph.recordLogin(DAVE, "Dave", 4, AltGraph.ADDRESS_V4, OFFICE);
+
+        // Третий игрок на адресе (общий NAT) не связывает свою компоненту с ним
+        graph.recordLogin(CAROL, "Carol", 5, AltGraph.ADDRESS_V4, HOME);
+
+        assertEquals(List.of(BOB), ids(graph.cluster(ALICE, 10)));
+        assertEquals(List.of(DAVE), ids(graph.cluster(CAROL, 10)));
+    }
+
+    @Test
+    void limitKeepsMostRecentAccounts() {
+        AltGraph graph = new AltGraph(8);
+        graph.recordLogin(ALICE, "Alice", 1, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(BOB, "Bob", 2, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(CAROL, "Carol", 3, AltGraph.ADDRESS_V4, OFFICE);
+        graph.recordLogin(DAVE, "Dave", 4, AltGraph.ADDRESS_V4, OFFICE);
+        graph.recordLogin(EVE, "Eve", 5, AltGraph.ADDRESS_V4, OFFICE);
+        graph.recordLogin(ALICE, "Alice", 6, AltGraph.ADDRESS_V4, OFFICE);
+
+        assertEquals(List.of(EVE, DAVE), ids(graph.cluster(ALICE, 2)));
+    }
+
+    @Test
+    void mergedClustersSurviveSaveAndLoad() throws IOException {
+        AltGraph graph = new AltGraph(8);
+        graph.recordLogin(ALICE, "Alice", 1, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(BOB, "Bob", 2, AltGraph.ADDRESS_V4, HOME);
+        graph.recordLogin(CAROL, "Carol", 3, AltGraph.NETWORK_V6, OFFICE);
+        graph.recordLogin(DAVE, "Dave", 4, AltGraph.NETWORK_V6, OFFICE);
+        graph.recordLogin(DAVE, "Dave", 5, AltGraph.ADDRESS_V4, HOME);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        graph.write(new DataOutputStream(bytes));
+        AltGraph loaded = AltGraph.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 8);
+
+        assertEquals(graph.getPlayerCount(), loaded.getPlayerCount());
+        assertEquals(graph.getEdgeCount(), loaded.getEdgeCount());
+        assertEquals(ids(graph.cluster(ALICE, 10)), ids(loaded.cluster(ALICE, 10)));
+        assertEquals(List.of(DAVE, CAROL, BOB), ids(loaded.cluster(ALICE, 10)));
+    }
+
+    @Test
+    void largeComponentIsScannedOnlyNearThePlayer() {
+        // Цепочка: игрок i заходит с адресов i - 1 и i, компонента - все игроки
+        int count = AltGraph.MAX_CLUSTER_SCAN * 5;
+        AltGraph graph = new AltGraph(8);
+        for (int i = 0; i < count; i++) {
+            UUID id = new UUID(1, i);
+            if (i > 0) {
+                graph.recordLogin(id, "p" + i, i, AltGraph.ADDRESS_V4, i - 1);
+            }
+            graph.recordLogin(id, "p" + i, i, AltGraph.ADDRESS_V4, i);
+        }
+
+        // Полный обход вернул бы самых недавних - с конца цепочки; ограниченный доходит только до ближних
+        List<AltGraph.Account> accounts = graph.cluster(new UUID(1, 0), 10);
+        assertEquals(10, accounts.size());
+        for (AltGraph.Account account : accounts) {
+            assertTrue(account.id().getLeastSignificantBits() <= AltGraph.MAX_CLUSTER_SCAN,
+                    "Scan went past the cap: " + account.name());
+        }
+
+        // Из середины цепочки обход идет в обе стороны
+        long middle = count / 2;
+        for (AltGraph.Account account : graph.cluster(new UUID(1, middle), 10)) {
+            assertTrue(Math.abs(account.id().getLeastSignificantBits() - middle) <= AltGraph.MAX_CLUSTER_SCAN);
+        }
+    }
+
+    private static List<UUID> ids(List<AltGraph.Account> accounts) {
+        return accounts.stream().map(AltGraph.Account::id).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package me.jlime.holyadmins.moderation;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Дерево диапазонов адресов: крайние длины префикса и адреса IPv4, отображенные в IPv6
+ */
+class AddressTrieTest {
+    @Test
+    void zeroPrefixMatchesEveryAddressOfItsFamily() {
+        AddressTrie<String> trie = new AddressTrie<>();
+        trie.put(v4("0.0.0.0"), 0, "all-v4");
+        trie.put(v6("::"), 0, "all-v6");
+
+        assertEquals("all-v4", trie.find(v4("1.2.3.4")));
+        assertEquals("all-v4", trie.find(v4("255.255.255.255")));
+        assertEquals("all-v6", trie.find(v6("2001:db8::1")));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void fullLengthPrefixMatchesOnlyThatAddress() {
+        AddressTrie<String> trie = new AddressTrie<>();
+        trie.put(v4("10.0.0.1"), 32, "host-v4");
+        trie.put(v6("2001:db8::1"), 128, "host-v6");
+
+        assertEquals("host-v4", trie.find(v4("10.0.0.1")));
+        assertNull(trie.find(v4("10.0.0.2")));
+        assertNull(trie.find(v4("10.0.0.0")));
+        assertEquals("host-v6", trie.find(v6("2001:db8::1")));
+        assertNull(trie.find(v6("2001:db8::2")));
+    }
+
+    @Test
+    void longestPrefixWins() {
+        AddressTrie<String> trie = new AddressTrie<>();
+        trie.put(v4("0.0.0.0"), 0, "all");
+        trie.put(v4("10.0.0.0"), 8, "net");
+        trie.put(v4("10.1.2.3"), 32, "host");
+
+        assertEquals("host", trie.find(v4("10.1.2.3")));
+        assertEquals("net", trie.find(v4("10.1.2.4")));
+        assertEquals("all", trie.find(v4("11.0.0.1")));
+    }
+
+    @Test
+    void mappedV6AddressMatchesV4Ranges() {
+        AddressTrie<String> trie = new AddressTrie<>();
+        trie.put(v4("192.168.0.0"), 16, "lan");
+        trie.put(v4("8.8.8.8"), 32, "host");
+
+        assertEquals("lan", trie.find(mapped(192, 168, 5, 6)));
+        assertEquals("host", trie.find(mapped(8, 8, 8, 8)));
+        assertNull(trie.find(mapped(8, 8, 8, 9)));
+    }
+
+    @Test
+    void mappedV6RangeIsStoredAsV4() {
+        AddressTrie<String> trie = new AddressTrie<>();
+        // ::ffff:10.0.0.0/104 - то же, что 10.0.0.0/8
+        trie.put(mapped(10, 0, 0, 0), 104, "net");
+        trie.put(mapped(1, 2, 3, 4), 128, "host");
+
+        assertEquals("net", trie.find(v4("10.20.30.40")));
+        assertEquals("net", trie.find(mapped(10, 20, 30, 40)));
+        assertEquals("host", trie.find(v4("1.2.3.4")));
+        assertNull(trie.find(v6("2001:db8::1")));
+    }
+
+    @Test
+    void rejectsPrefixLongerThanAddress() {
+        AddressTrie<String> trie = new AddressTrie<>();
+        assertThrows(IllegalArgumentException.class, () -> trie.put(v4("1.2.3.4"), 33, "bad"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put(v6("::1"), 129, "bad"));
+        assertThrows(IllegalArgumentException.class, () -> trie.put(v4("1.2.3.4"), -1, "bad"));
+    }
+
+    private static byte[] v4(String address) {
+        return parse(address, 4);
+    }
+
+    private static byte[] v6(String address) {
+        return parse(address, 16);
+    }
+
+    /**
+     * ::ffff:a.b.c.d; InetAddress сам превращает такие адреса в IPv4, поэтому байты собираются вручную
+     */
+    private static byte[] mapped(int a, int b, int c, int d) {
+        byte[] address = new byte[16];
+        address[10] = (byte) 0xFF;
+        address[11] = (byte) 0xFF;
+        address[12] = (byte) a;
+        address[13] = (byte) b;
+        address[14] = (byte) c;
+        address[15] = (byte) d;
+        return address;
+    }
+
+    private static byte[] parse(String address, int length) {
+        try {
+            byte[] bytes = InetAddress.getByName(address).getAddress();
+            assertEquals(length, bytes.length, address);
+            return bytes;
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException(address, e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package me.jlime.holyadmins.moderation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Фильтр Блума банов: без ложных отрицаний, ложные срабатывания редки при заполнении до емкости
+ */
+class BanFilterTest {
+    private static final int CAPACITY = 10_000;
+    private static final int PROBES = 100_000;
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BanFilter filter = new BanFilter(CAPACITY);
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(filter.mightContain(randomId(random)));
+        }
+    }
+
+    @Test
+    void noFalseNegatives() {
+        BanFilter filter = new BanFilter(CAPACITY);
+        List<UUID> banned = randomIds(new Random(2), CAPACITY);
+        banned.forEach(filter::add);
+
+        for (UUID id : banned) {
+            assertTrue(filter.mightContain(id), "Banned player must never pass the filter: " + id);
+        }
+    }
+
+    @Test
+    void falsePositivesStayRareAtCapacity() {
+        BanFilter filter = new BanFilter(CAPACITY);
+        Random random = new Random(3);
+        Set<UUID> banned = new HashSet<>(randomIds(random, CAPACITY));
+        banned.forEach(filter::add);
+
+        int falsePositives = 0;
+        for (int i = 0; i < PROBES; i++) {
+            UUID id = randomId(random);
+            if (!banned.contains(id) && filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        // Расчетная доля меньше 0.1%; запас в два раза
+        assertTrue(falsePositives < PROBES / 500, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    void capacityIsAtLeastOne() {
+        assertEquals(1, new BanFilter(0).getCapacity());
+        BanFilter filter = new BanFilter(0);
+        UUID id = new UUID(1, 2);
+        filter.add(id);
+        assertTrue(filter.mightContain(id));
+    }
+
+    private static List<UUID> randomIds(Random random, int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(randomId(random));
+        }
+        return ids;
+    }
+
+    private static UUID randomId(Random random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+}
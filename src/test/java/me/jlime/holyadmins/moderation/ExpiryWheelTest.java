@@ -0,0 +1,103 @@
+package me.jlime.holyadmins.moderation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Колесо сроков: записи срабатывают ровно в свой шаг, в том числе после переноса с верхних уровней
+ */
+class ExpiryWheelTest {
+    // Шаг 1 мс: моменты совпадают с номерами шагов, ячейка уровня 1 - 64 шага, уровня 2 - 4096
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+
+    @Test
+    void firesAtLevelBoundaryStepByStep() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(1, 0);
+        wheel.schedule("last-of-level-0", LEVEL_1 - 1);
+        wheel.schedule("first-of-level-1", LEVEL_1);
+        wheel.schedule("inside-level-1", LEVEL_1 + 5);
+        wheel.schedule("level-2", LEVEL_2 + 3);
+
+        List<String> fired = new ArrayList<>();
+        long[] firedAt = new long[4];
+        for (long now = 1; now <= LEVEL_2 + 3; now++) {
+            wheel.advance(now);
+            int before = fired.size();
+            wheel.pollDue(Integer.MAX_VALUE, fired::add);
+            for (int i = before; i < fired.size(); i++) {
+                firedAt[i] = now;
+            }
+        }
+
+        assertEquals(List.of("last-of-level-0", "first-of-level-1", "inside-level-1", "level-2"), fired);
+        assertEquals(LEVEL_1 - 1, firedAt[0]);
+        assertEquals(LEVEL_1, firedAt[1]);
+        assertEquals(LEVEL_1 + 5, firedAt[2]);
+        assertEquals(LEVEL_2 + 3, firedAt[3]);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesWhenStartingMidSlot() {
+        // Текущий шаг не кратен 64: запись за границей ячейки лежит уровнем выше и переносится на границе
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(1, 60);
+        wheel.schedule("across", 130);
+
+        wheel.advance(127);
+        assertFalse(wheel.hasDue());
+        wheel.advance(128);
+        assertFalse(wheel.hasDue(), "Cascaded entry must not fire before its step");
+        wheel.advance(129);
+        assertFalse(wheel.hasDue());
+        wheel.advance(130);
+        assertTrue(wheel.hasDue());
+
+        List<String> fired = new ArrayList<>();
+        wheel.pollDue(Integer.MAX_VALUE, fired::add);
+        assertEquals(List.of("across"), fired);
+    }
+
+    @Test
+    void jumpAcrossSeveralLevelsFiresOnlyDueEntries() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(1, 0);
+        wheel.schedule("early", LEVEL_1 + 1);
+        wheel.schedule("due", LEVEL_2 - 1);
+        wheel.schedule("late", LEVEL_2 + LEVEL_1);
+
+        wheel.advance(LEVEL_2);
+        List<String> fired = new ArrayList<>();
+        wheel.pollDue(Integer.MAX_VALUE, fired::add);
+        assertEquals(List.of("early", "due"), fired);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(LEVEL_2 + LEVEL_1 - 1);
+        assertFalse(wheel.hasDue());
+        wheel.advance(LEVEL_2 + LEVEL_1);
+        assertTrue(wheel.hasDue());
+    }
+
+    @Test
+    void cancelledAndRescheduledEntriesAcrossBoundary() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(1, 0);
+        wheel.schedule("cancelled", LEVEL_1 + 2);
+        wheel.schedule("moved", LEVEL_1 + 2);
+        assertTrue(wheel.cancel("cancelled"));
+        wheel.schedule("moved", 2 * LEVEL_1 + 2);
+
+        wheel.advance(2 * LEVEL_1 + 1);
+        assertFalse(wheel.hasDue());
+        wheel.advance(2 * LEVEL_1 + 2);
+
+        List<String> fired = new ArrayList<>();
+        wheel.pollDue(Integer.MAX_VALUE, fired::add);
+        assertEquals(List.of("moved"), fired);
+        assertEquals(0, wheel.size());
+    }
+}